@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.cpc;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.datasketches.memory.Memory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the CpcSketch and CpcUnion hot paths.
+ *
+ * <p>The update benchmark measures a single streaming update into a sketch that has left the sparse flavor.
+ * The updateLoop and updateEach benchmarks compare a batch of {@link #BATCH_SIZE} single updates with
+ * the batch update method.
+ * The remaining benchmarks operate on a set of {@link #NUM_SKETCHES} sketches built during setup.
+ * CPC has no direct sketch, so the wrap benchmark uses {@link CpcWrapper}.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CpcSketchBenchmark {
+  static final int NUM_SKETCHES = 16;
+  static final int BATCH_SIZE = 1024;
+
+  @Param({"11", "14"})
+  int lgK;
+
+  private CpcSketch updateSketch;
+  private long key;
+  private final long[] batch = new long[BATCH_SIZE];
+  private CpcSketch[] sketches;
+  private byte[] sketchBytes;
+  private Memory sketchMem;
+
+  @Setup
+  public void setup() {
+    updateSketch = new CpcSketch(lgK);
+    sketches = new CpcSketch[NUM_SKETCHES];
+    final int n = 4 << lgK;
+    long v = 0;
+    for (int i = 0; i < NUM_SKETCHES; i++) {
+      final CpcSketch sk = new CpcSketch(lgK);
+      for (int j = 0; j < n; j++) { sk.update(v++); }
+      sketches[i] = sk;
+    }
+    for (int j = 0; j < n; j++) { updateSketch.update(v++); }
+    key = v;
+    sketchBytes = sketches[0].toByteArray();
+    sketchMem = Memory.wrap(sketchBytes);
+  }
+
+  @Benchmark
+  public CpcSketch update() {
+    updateSketch.update(key++);
+    return updateSketch;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public CpcSketch updateLoop() {
+    for (int i = 0; i < BATCH_SIZE; i++) { batch[i] = key++; }
+    for (int i = 0; i < BATCH_SIZE; i++) { updateSketch.update(batch[i]); }
+    return updateSketch;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public CpcSketch updateEach() {
+    for (int i = 0; i < BATCH_SIZE; i++) { batch[i] = key++; }
+    updateSketch.updateEach(batch, 0, BATCH_SIZE);
+    return updateSketch;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public CpcSketch union() {
+    final CpcUnion union = new CpcUnion(lgK);
+    for (int i = 0; i < NUM_SKETCHES; i++) { union.update(sketches[i]); }
+    return union.getResult();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public byte[] toByteArray() {
+    return sketches[0].toByteArray();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public CpcSketch heapify() {
+    return CpcSketch.heapify(sketchMem);
+  }
+
+  @Benchmark
+  public double wrap() {
+    return new CpcWrapper(sketchMem).getEstimate();
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.filters.bloomfilter;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.datasketches.memory.Memory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the BloomFilter update, query, union and serialization hot paths.
+ *
+ * <p>The filters are sized by accuracy for {@link #MAX_DISTINCT_ITEMS} items and half filled during setup.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BloomFilterBenchmark {
+  static final long MAX_DISTINCT_ITEMS = 1L << 20;
+  static final long SEED = 9001L; // union requires a common seed
+
+  @Param({"0.01", "0.001"})
+  double targetFpp;
+
+  private BloomFilter filter;
+  private BloomFilter other;
+  private BloomFilter unionTarget;
+  private long key;
+  private byte[] filterBytes;
+  private Memory filterMem;
+
+  @Setup
+  public void setup() {
+    filter = BloomFilterBuilder.createByAccuracy(MAX_DISTINCT_ITEMS, targetFpp, SEED);
+    other = BloomFilterBuilder.createByAccuracy(MAX_DISTINCT_ITEMS, targetFpp, SEED);
+    final long n = MAX_DISTINCT_ITEMS / 2;
+    for (long i = 0; i < n; i++) {
+      filter.update(i);
+      other.update(i + n);
+    }
+    unionTarget = BloomFilter.heapify(Memory.wrap(filter.toByteArray()));
+    key = 0;
+    filterBytes = filter.toByteArray();
+    filterMem = Memory.wrap(filterBytes);
+  }
+
+  @Benchmark
+  public BloomFilter update() {
+    filter.update(key++);
+    return filter;
+  }
+
+  @Benchmark
+  public boolean query() {
+    return filter.query(key++);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public BloomFilter union() {
+    unionTarget.union(other); // idempotent, so the cost is the same on every invocation
+    return unionTarget;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public byte[] toByteArray() {
+    return filter.toByteArray();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public BloomFilter heapify() {
+    return BloomFilter.heapify(filterMem);
+  }
+
+  @Benchmark
+  public double wrap() {
+    return BloomFilter.wrap(filterMem).getFillPercentage();
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.hash;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the batch hash methods against hashing the same keys one at a time.
+ * Each benchmark hashes a batch of {@link #batchSize} keys.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashBatchBenchmark {
+  static final long SEED = 9001L;
+
+  @Param({"1024"})
+  int batchSize;
+
+  private long[] longs;
+  private String[] strings;
+  private byte[] data;
+  private int[] offsets;
+  private long[] hashOut;
+  private long[] hashOut128;
+
+  @Setup
+  public void setup() {
+    final Random rand = new Random(1);
+    longs = new long[batchSize];
+    strings = new String[batchSize];
+    offsets = new int[batchSize + 1];
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < batchSize; i++) {
+      longs[i] = rand.nextLong();
+      strings[i] = Long.toHexString(longs[i]);
+      sb.append(strings[i]);
+      offsets[i + 1] = sb.length();
+    }
+    data = sb.toString().getBytes(UTF_8);
+    hashOut = new long[batchSize];
+    hashOut128 = new long[2 * batchSize];
+  }
+
+  @Benchmark
+  public long[] murmurLongsEach() {
+    for (int i = 0; i < batchSize; i++) { hashOut[i] = MurmurHash3.hash64(longs[i], SEED); }
+    return hashOut;
+  }
+
+  @Benchmark
+  public long[] murmurLongsBatch() {
+    return MurmurHash3.hash64Each(longs, 0, batchSize, SEED, hashOut);
+  }
+
+  @Benchmark
+  public long[] murmurStringsEach() {
+    for (int i = 0; i < batchSize; i++) { hashOut[i] = MurmurHash3.hashUtf8(strings[i], SEED)[0]; }
+    return hashOut;
+  }
+
+  @Benchmark
+  public long[] murmurStringsBatch() {
+    return MurmurHash3.hash64Each(strings, 0, batchSize, SEED, hashOut);
+  }
+
+  @Benchmark
+  public long[] murmurSlicesBatch() {
+    return MurmurHash3.hashEach(data, offsets, 0, batchSize, SEED, hashOut128);
+  }
+
+  @Benchmark
+  public long[] xxHashLongsEach() {
+    for (int i = 0; i < batchSize; i++) { hashOut[i] = XxHash.hash(longs[i], SEED); }
+    return hashOut;
+  }
+
+  @Benchmark
+  public long[] xxHashLongsBatch() {
+    return XxHash.hashEach(longs, 0, batchSize, SEED, hashOut);
+  }
+
+  @Benchmark
+  public long[] xxHashSlicesBatch() {
+    return XxHash.hashEach(data, offsets, 0, batchSize, SEED, hashOut);
+  }
+}
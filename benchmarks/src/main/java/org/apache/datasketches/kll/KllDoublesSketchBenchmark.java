@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.kll;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.datasketches.memory.Memory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the KllDoublesSketch update, merge and serialization hot paths.
+ *
+ * <p>The update benchmark measures a single streaming update of a uniformly random item.
+ * The remaining benchmarks operate on a set of {@link #NUM_SKETCHES} sketches built during setup.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KllDoublesSketchBenchmark {
+  static final int NUM_SKETCHES = 16;
+  static final int NUM_ITEMS = 1 << 16;
+  static final int ITEMS_MASK = NUM_ITEMS - 1;
+
+  @Param({"200", "1000"})
+  int k;
+
+  private KllDoublesSketch updateSketch;
+  private double[] items;
+  private int index;
+  private KllDoublesSketch[] sketches;
+  private byte[] sketchBytes;
+  private Memory sketchMem;
+
+  @Setup
+  public void setup() {
+    final Random rand = new Random(1);
+    items = new double[NUM_ITEMS];
+    for (int i = 0; i < NUM_ITEMS; i++) { items[i] = rand.nextDouble(); }
+    updateSketch = KllDoublesSketch.newHeapInstance(k);
+    index = 0;
+    sketches = new KllDoublesSketch[NUM_SKETCHES];
+    for (int i = 0; i < NUM_SKETCHES; i++) {
+      final KllDoublesSketch sk = KllDoublesSketch.newHeapInstance(k);
+      for (int j = 0; j < NUM_ITEMS; j++) { sk.update(rand.nextDouble()); }
+      sketches[i] = sk;
+    }
+    sketchBytes = sketches[0].toByteArray();
+    sketchMem = Memory.wrap(sketchBytes);
+  }
+
+  @Benchmark
+  public KllDoublesSketch update() {
+    updateSketch.update(items[index++ & ITEMS_MASK]);
+    return updateSketch;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public KllDoublesSketch merge() {
+    final KllDoublesSketch union = KllDoublesSketch.newHeapInstance(k);
+    for (int i = 0; i < NUM_SKETCHES; i++) { union.merge(sketches[i]); }
+    return union;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public byte[] toByteArray() {
+    return sketches[0].toByteArray();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public KllDoublesSketch heapify() {
+    return KllDoublesSketch.heapify(sketchMem);
+  }
+
+  @Benchmark
+  public long wrap() {
+    return KllDoublesSketch.wrap(sketchMem).getN();
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.req;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.datasketches.memory.Memory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the ReqSketch update, merge and serialization hot paths.
+ *
+ * <p>The update benchmark measures a single streaming update of a uniformly random item.
+ * The remaining benchmarks operate on a set of {@link #NUM_SKETCHES} sketches built during setup.
+ * The REQ sketch has no wrap, so only heapify is measured.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReqSketchBenchmark {
+  static final int NUM_SKETCHES = 16;
+  static final int NUM_ITEMS = 1 << 16;
+  static final int ITEMS_MASK = NUM_ITEMS - 1;
+
+  @Param({"12", "50"})
+  int k;
+
+  @Param({"true", "false"})
+  boolean hra;
+
+  private ReqSketch updateSketch;
+  private float[] items;
+  private int index;
+  private ReqSketch[] sketches;
+  private byte[] sketchBytes;
+  private Memory sketchMem;
+
+  @Setup
+  public void setup() {
+    final Random rand = new Random(1);
+    items = new float[NUM_ITEMS];
+    for (int i = 0; i < NUM_ITEMS; i++) { items[i] = rand.nextFloat(); }
+    updateSketch = newSketch();
+    index = 0;
+    sketches = new ReqSketch[NUM_SKETCHES];
+    for (int i = 0; i < NUM_SKETCHES; i++) {
+      final ReqSketch sk = newSketch();
+      for (int j = 0; j < NUM_ITEMS; j++) { sk.update(rand.nextFloat()); }
+      sketches[i] = sk;
+    }
+    sketchBytes = sketches[0].toByteArray();
+    sketchMem = Memory.wrap(sketchBytes);
+  }
+
+  private ReqSketch newSketch() {
+    return ReqSketch.builder().setK(k).setHighRankAccuracy(hra).build();
+  }
+
+  @Benchmark
+  public ReqSketch update() {
+    updateSketch.update(items[index++ & ITEMS_MASK]);
+    return updateSketch;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public ReqSketch merge() {
+    final ReqSketch union = newSketch();
+    for (int i = 0; i < NUM_SKETCHES; i++) { union.merge(sketches[i]); }
+    return union;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public byte[] toByteArray() {
+    return sketches[0].toByteArray();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public ReqSketch heapify() {
+    return ReqSketch.heapify(sketchMem);
+  }
+}
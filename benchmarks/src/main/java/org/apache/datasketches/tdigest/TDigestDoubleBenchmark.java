@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.tdigest;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.datasketches.memory.Memory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the TDigestDouble update, merge and serialization hot paths.
+ *
+ * <p>The update benchmark measures a single streaming update of a uniformly random value.
+ * The remaining benchmarks operate on a set of {@link #NUM_SKETCHES} compressed digests built during setup.
+ * TDigest has no wrap, so only heapify is measured.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TDigestDoubleBenchmark {
+  static final int NUM_SKETCHES = 16;
+  static final int NUM_VALUES = 1 << 16;
+  static final int VALUES_MASK = NUM_VALUES - 1;
+
+  @Param({"100", "200"})
+  short k;
+
+  private TDigestDouble updateDigest;
+  private double[] values;
+  private int index;
+  private TDigestDouble[] digests;
+  private byte[] digestBytes;
+  private Memory digestMem;
+
+  @Setup
+  public void setup() {
+    final Random rand = new Random(1);
+    values = new double[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) { values[i] = rand.nextDouble(); }
+    updateDigest = new TDigestDouble(k);
+    index = 0;
+    digests = new TDigestDouble[NUM_SKETCHES];
+    for (int i = 0; i < NUM_SKETCHES; i++) {
+      final TDigestDouble td = new TDigestDouble(k);
+      for (int j = 0; j < NUM_VALUES; j++) { td.update(rand.nextDouble()); }
+      td.compress();
+      digests[i] = td;
+    }
+    digestBytes = digests[0].toByteArray();
+    digestMem = Memory.wrap(digestBytes);
+  }
+
+  @Benchmark
+  public TDigestDouble update() {
+    updateDigest.update(values[index++ & VALUES_MASK]);
+    return updateDigest;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public TDigestDouble merge() {
+    final TDigestDouble union = new TDigestDouble(k);
+    for (int i = 0; i < NUM_SKETCHES; i++) { union.merge(digests[i]); }
+    union.compress();
+    return union;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public byte[] toByteArray() {
+    return digests[0].toByteArray();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public TDigestDouble heapify() {
+    return TDigestDouble.heapify(digestMem);
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.datasketches.memory.Memory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the bit packing used by compressed (Serialization Version 4) theta sketches.
+ *
+ * <p>The pack and unpack benchmarks measure {@link #NUM_VALUES} values of the given bit width in blocks of 8.
+ * The remaining benchmarks serialize, heapify and iterate a compressed sketch with 2^lgK retained entries,
+ * whose deltas take about 64 - lgK bits each.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitPackingBenchmark {
+  static final int NUM_VALUES = 4096;
+
+  @State(Scope.Thread)
+  public static class Packing {
+    @Param({"7", "33", "52"})
+    int bits;
+
+    long[] values;
+    long[] unpacked;
+    byte[] packed;
+
+    @Setup
+    public void setup() {
+      final Random rand = new Random(1);
+      values = new long[NUM_VALUES];
+      for (int i = 0; i < NUM_VALUES; i++) { values[i] = rand.nextLong() >>> (64 - bits); }
+      unpacked = new long[NUM_VALUES];
+      packed = new byte[(NUM_VALUES / 8) * bits];
+      for (int i = 0, off = 0; i < NUM_VALUES; i += 8, off += bits) {
+        BitPacking.packBitsBlock8(values, i, packed, off, bits);
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Compressed {
+    @Param({"12", "16"})
+    int lgK;
+
+    CompactSketch sketch;
+    Memory compressedMem;
+
+    @Setup
+    public void setup() {
+      final UpdateSketch sk = UpdateSketch.builder().setLogNominalEntries(lgK).build();
+      for (int i = 0; i < (8 << lgK); i++) { sk.update(i); }
+      sketch = sk.compact();
+      compressedMem = Memory.wrap(sketch.toByteArrayCompressed());
+    }
+  }
+
+  @Benchmark
+  public byte[] pack(final Packing state) {
+    final int bits = state.bits;
+    for (int i = 0, off = 0; i < NUM_VALUES; i += 8, off += bits) {
+      BitPacking.packBitsBlock8(state.values, i, state.packed, off, bits);
+    }
+    return state.packed;
+  }
+
+  @Benchmark
+  public long[] unpack(final Packing state) {
+    final int bits = state.bits;
+    for (int i = 0, off = 0; i < NUM_VALUES; i += 8, off += bits) {
+      BitPacking.unpackBitsBlock8(state.unpacked, i, state.packed, off, bits);
+    }
+    return state.unpacked;
+  }
+
+  @Benchmark
+  public byte[] serializeCompressed(final Compressed state) {
+    return state.sketch.toByteArrayCompressed();
+  }
+
+  @Benchmark
+  public CompactSketch heapifyCompressed(final Compressed state) {
+    return CompactSketch.heapify(state.compressedMem);
+  }
+
+  @Benchmark
+  public long iterateWrappedCompressed(final Compressed state) {
+    long sum = 0;
+    final HashIterator it = CompactSketch.wrap(state.compressedMem).iterator();
+    while (it.next()) { sum += it.get(); }
+    return sum;
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.datasketches.memory.Memory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the Theta UpdateSketch, Union and CompactSketch hot paths.
+ *
+ * <p>The update benchmark measures a single streaming update into a sketch that has reached steady state.
+ * The updateLoop and updateEach benchmarks compare a batch of {@link #BATCH_SIZE} single updates with
+ * the batch update method.
+ * The remaining benchmarks operate on a set of {@link #NUM_SKETCHES} ordered compact sketches built
+ * during setup, each in estimation mode. The unionOrdered benchmark merges the same sketches with
+ * {@link Union#unionOrdered(java.util.Collection)}.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThetaSketchBenchmark {
+  static final int NUM_SKETCHES = 16;
+  static final int BATCH_SIZE = 1024;
+
+  @Param({"12", "16"})
+  int lgK;
+
+  private UpdateSketch updateSketch;
+  private long key;
+  private final long[] batch = new long[BATCH_SIZE];
+  private CompactSketch[] compactSketches;
+  private List<CompactSketch> compactSketchList;
+  private Union union;
+  private byte[] compactBytes;
+  private Memory compactMem;
+
+  @Setup
+  public void setup() {
+    final UpdateSketchBuilder bldr = UpdateSketch.builder().setLogNominalEntries(lgK);
+    updateSketch = bldr.build();
+    key = 0;
+    compactSketches = new CompactSketch[NUM_SKETCHES];
+    final int n = 4 << lgK;
+    long v = 0;
+    for (int i = 0; i < NUM_SKETCHES; i++) {
+      final UpdateSketch sk = bldr.build();
+      for (int j = 0; j < n; j++) { sk.update(v++); }
+      compactSketches[i] = sk.compact();
+    }
+    compactSketchList = Arrays.asList(compactSketches);
+    union = SetOperation.builder().setLogNominalEntries(lgK).buildUnion();
+    compactBytes = compactSketches[0].toByteArray();
+    compactMem = Memory.wrap(compactBytes);
+  }
+
+  @Benchmark
+  public UpdateSketch update() {
+    updateSketch.update(key++);
+    return updateSketch;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public UpdateSketch updateLoop() {
+    for (int i = 0; i < BATCH_SIZE; i++) { batch[i] = key++; }
+    for (int i = 0; i < BATCH_SIZE; i++) { updateSketch.update(batch[i]); }
+    return updateSketch;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public UpdateSketch updateEach() {
+    for (int i = 0; i < BATCH_SIZE; i++) { batch[i] = key++; }
+    updateSketch.updateEach(batch, 0, BATCH_SIZE);
+    return updateSketch;
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public CompactSketch union() {
+    union.reset();
+    for (int i = 0; i < NUM_SKETCHES; i++) { union.union(compactSketches[i]); }
+    return union.getResult();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public CompactSketch unionOrdered() {
+    return union.unionOrdered(compactSketchList);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public byte[] toByteArray() {
+    return compactSketches[0].toByteArray();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public CompactSketch heapify() {
+    return CompactSketch.heapify(compactMem);
+  }
+
+  @Benchmark
+  public double wrap() {
+    return CompactSketch.wrap(compactMem).getEstimate();
+  }
+}
@@ -21,19 +21,23 @@ package org.apache.datasketches.cpc;
 
 import static java.lang.Math.log;
 import static java.lang.Math.sqrt;
-import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.datasketches.common.Util.LS;
+import static org.apache.datasketches.common.Util.checkBounds;
 import static org.apache.datasketches.common.Util.invPow2;
 import static org.apache.datasketches.common.Util.zeroPad;
 import static org.apache.datasketches.cpc.CpcUtil.bitMatrixOfSketch;
 import static org.apache.datasketches.cpc.CpcUtil.checkLgK;
 import static org.apache.datasketches.cpc.CpcUtil.countBitsSetInMatrix;
 import static org.apache.datasketches.hash.MurmurHash3.hash;
+import static org.apache.datasketches.hash.MurmurHash3.hashEach;
+import static org.apache.datasketches.hash.MurmurHash3.hashUtf8;
 
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import org.apache.datasketches.common.Family;
+import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.hash.HashedItem;
 import org.apache.datasketches.memory.Memory;
 import org.apache.datasketches.memory.WritableMemory;
 import org.apache.datasketches.thetacommon.ThetaUtil;
@@ -70,7 +74,10 @@ public final class CpcSketch {
    * The default Log_base2 of K
    */
   public static final int DEFAULT_LG_K = 11;
+  private static final int UPDATE_EACH_BATCH = 256; //the number of items hashed at a time by updateEach
   final long seed;
+  private final long[] hashOut = new long[2]; //reused by the update methods to avoid allocation
+  private long[] updateEachHashes; //allocated on the first call to updateEach
   //common variables
   final int lgK;
   long numCoupons;      // The number of coupons collected so far.
@@ -309,8 +316,7 @@ public final class CpcSketch {
    * @param datum The given long datum.
    */
   public void update(final long datum) {
-    final long[] data = { datum };
-    final long[] arr = hash(data, seed);
+    final long[] arr = hash(datum, seed, hashOut);
     hashUpdate(arr[0], arr[1]);
   }
 
@@ -325,14 +331,14 @@ public final class CpcSketch {
    */
   public void update(final double datum) {
     final double d = (datum == 0.0) ? 0.0 : datum; // canonicalize -0.0, 0.0
-    final long[] data = { Double.doubleToLongBits(d) };// canonicalize all NaN forms
-    final long[] arr = hash(data, seed);
+    final long data = Double.doubleToLongBits(d);// canonicalize all NaN forms
+    final long[] arr = hash(data, seed, hashOut);
     hashUpdate(arr[0], arr[1]);
   }
 
   /**
    * Present the given String as a potential unique item.
-   * The string is converted to a byte array using UTF8 encoding.
+   * The string is hashed using its UTF-8 encoding without first converting it to a byte array.
    * If the string is null or empty no update attempt is made and the method returns.
    *
    * <p>Note: About 2X faster performance can be obtained by first converting the String to a
@@ -346,8 +352,7 @@ public final class CpcSketch {
    */
   public void update(final String datum) {
     if ((datum == null) || datum.isEmpty()) { return; }
-    final byte[] data = datum.getBytes(UTF_8);
-    final long[] arr = hash(data, seed);
+    final long[] arr = hashUtf8(datum, seed, hashOut);
     hashUpdate(arr[0], arr[1]);
   }
 
@@ -359,7 +364,7 @@ public final class CpcSketch {
    */
   public void update(final byte[] data) {
     if ((data == null) || (data.length == 0)) { return; }
-    final long[] arr = hash(data, seed);
+    final long[] arr = hash(data, seed, hashOut);
     hashUpdate(arr[0], arr[1]);
   }
 
@@ -371,7 +376,7 @@ public final class CpcSketch {
    */
   public void update(final ByteBuffer data) {
     if ((data == null) || data.hasRemaining() == false) { return; }
-    final long[] arr = hash(data, seed);
+    final long[] arr = hash(data, seed, hashOut);
     hashUpdate(arr[0], arr[1]);
   }
 
@@ -386,7 +391,7 @@ public final class CpcSketch {
    */
   public void update(final char[] data) {
     if ((data == null) || (data.length == 0)) { return; }
-    final long[] arr = hash(data, seed);
+    final long[] arr = hash(data, seed, hashOut);
     hashUpdate(arr[0], arr[1]);
   }
 
@@ -398,7 +403,7 @@ public final class CpcSketch {
    */
   public void update(final int[] data) {
     if ((data == null) || (data.length == 0)) { return; }
-    final long[] arr = hash(data, seed);
+    final long[] arr = hash(data, seed, hashOut);
     hashUpdate(arr[0], arr[1]);
   }
 
@@ -410,10 +415,118 @@ public final class CpcSketch {
    */
   public void update(final long[] data) {
     if ((data == null) || (data.length == 0)) { return; }
-    final long[] arr = hash(data, seed);
+    final long[] arr = hash(data, seed, hashOut);
     hashUpdate(arr[0], arr[1]);
   }
 
+  /**
+   * Present the given item, which has already been hashed, as a potential unique item.
+   * This has the same result as presenting the item itself, but allows the item to be hashed only once
+   * when it is presented to several sketches.
+   * If the HashedItem is empty no update attempt is made and the method returns.
+   *
+   * @param item the given HashedItem, which must have been hashed with the seed of this sketch.
+   * @throws SketchesArgumentException if the seed of the HashedItem is not the seed of this sketch.
+   */
+  public void update(final HashedItem item) {
+    if (item.getSeed() != seed) {
+      throw new SketchesArgumentException(
+          "The HashedItem seed: " + item.getSeed() + " does not match the sketch seed: " + seed);
+    }
+    if (item.isEmpty()) { return; }
+    hashUpdate(item.getHash0(), item.getHash1());
+  }
+
+  /**
+   * Present each long of a portion of the given array as a separate potential unique item.
+   * This has the same result as calling {@link #update(long)} with each item, but the items are hashed in
+   * batches, and the argument checks are done once per call.
+   *
+   * <p>Note that this is not the same as {@link #update(long[])}, which presents the whole array as a single
+   * item.</p>
+   *
+   * @param items the given items
+   * @param offset the index of the first item
+   * @param length the number of items
+   */
+  public void updateEach(final long[] items, final int offset, final int length) {
+    checkBounds(offset, length, items.length);
+    final long[] hashes = updateEachHashes();
+    for (int start = 0; start < length; start += UPDATE_EACH_BATCH) {
+      final int n = Math.min(UPDATE_EACH_BATCH, length - start);
+      hashEach(items, offset + start, n, seed, hashes);
+      for (int i = 0; i < n; i++) { hashUpdate(hashes[i << 1], hashes[(i << 1) + 1]); }
+    }
+  }
+
+  /**
+   * Present each double of a portion of the given array as a separate potential unique item.
+   * This has the same result as calling {@link #update(double)} with each item, including the canonicalization
+   * of the doubles, but the items are hashed in batches, and the argument checks are done once per call.
+   *
+   * @param items the given items
+   * @param offset the index of the first item
+   * @param length the number of items
+   */
+  public void updateEach(final double[] items, final int offset, final int length) {
+    checkBounds(offset, length, items.length);
+    final long[] hashes = updateEachHashes();
+    for (int start = 0; start < length; start += UPDATE_EACH_BATCH) {
+      final int n = Math.min(UPDATE_EACH_BATCH, length - start);
+      hashEach(items, offset + start, n, seed, hashes);
+      for (int i = 0; i < n; i++) { hashUpdate(hashes[i << 1], hashes[(i << 1) + 1]); }
+    }
+  }
+
+  /**
+   * Present each int of a portion of the given array as a separate potential unique item.
+   * This has the same result as calling {@link #update(long)} with each item, but the items are hashed in
+   * batches, and the argument checks are done once per call.
+   *
+   * <p>Note that this is not the same as {@link #update(int[])}, which presents the whole array as a single
+   * item.</p>
+   *
+   * @param items the given items
+   * @param offset the index of the first item
+   * @param length the number of items
+   */
+  public void updateEach(final int[] items, final int offset, final int length) {
+    checkBounds(offset, length, items.length);
+    final long[] hashes = updateEachHashes();
+    for (int start = 0; start < length; start += UPDATE_EACH_BATCH) {
+      final int n = Math.min(UPDATE_EACH_BATCH, length - start);
+      hashEach(items, offset + start, n, seed, hashes);
+      for (int i = 0; i < n; i++) { hashUpdate(hashes[i << 1], hashes[(i << 1) + 1]); }
+    }
+  }
+
+  /**
+   * Present each String of a portion of the given array as a separate potential unique item.
+   * This has the same result as calling {@link #update(String)} with each item, so null or empty Strings are
+   * ignored, but the items are hashed in batches, and the argument checks are done once per call.
+   *
+   * @param items the given items
+   * @param offset the index of the first item
+   * @param length the number of items
+   */
+  public void updateEach(final String[] items, final int offset, final int length) {
+    checkBounds(offset, length, items.length);
+    final long[] hashes = updateEachHashes();
+    for (int start = 0; start < length; start += UPDATE_EACH_BATCH) {
+      final int n = Math.min(UPDATE_EACH_BATCH, length - start);
+      hashEach(items, offset + start, n, seed, hashes);
+      for (int i = 0; i < n; i++) {
+        final String item = items[offset + start + i];
+        if ((item != null) && !item.isEmpty()) { hashUpdate(hashes[i << 1], hashes[(i << 1) + 1]); }
+      }
+    }
+  }
+
+  private long[] updateEachHashes() {
+    if (updateEachHashes == null) { updateEachHashes = new long[2 * UPDATE_EACH_BATCH]; }
+    return updateEachHashes;
+  }
+
   /**
    * Convience function that this Sketch is valid. This is a troubleshooting tool
    * for sketches that have been heapified from serialized images.
@@ -20,12 +20,12 @@
 package org.apache.datasketches.filters.bloomfilter;
 
 import static org.apache.datasketches.common.Util.LS;
-
-import java.nio.charset.StandardCharsets;
+import static org.apache.datasketches.hash.XxHash.hashUtf8;
 
 import org.apache.datasketches.common.Family;
 import org.apache.datasketches.common.SketchesArgumentException;
 import org.apache.datasketches.common.SketchesStateException;
+import org.apache.datasketches.hash.HashedItem;
 import org.apache.datasketches.memory.Buffer;
 import org.apache.datasketches.memory.Memory;
 import org.apache.datasketches.memory.WritableBuffer;
@@ -285,7 +285,7 @@ public final class BloomFilter {
 
   /**
    * Updates the filter with the provided String.
-   * The string is converted to a byte array using UTF8 encoding.
+   * The string is hashed using its UTF-8 encoding without first converting it to a byte array.
    *
    * <p>Note: this will not produce the same output hash values as the {@link #update(char[])}
    * method and will generally be a little slower depending on the complexity of the UTF8 encoding.
@@ -295,9 +295,8 @@ public final class BloomFilter {
    */
   public void update(final String item) {
     if (item == null || item.isEmpty()) { return; }
-    final byte[] strBytes = item.getBytes(StandardCharsets.UTF_8);
-    final long h0 = XxHash.hashByteArr(strBytes, 0, strBytes.length, seed_);
-    final long h1 = XxHash.hashByteArr(strBytes, 0, strBytes.length, h0);
+    final long h0 = hashUtf8(item, seed_);
+    final long h1 = hashUtf8(item, h0);
     updateInternal(h0, h1);
   }
 
@@ -367,6 +366,24 @@ public final class BloomFilter {
     updateInternal(h0, h1);
   }
 
+  /**
+   * Updates the filter with an item that has already been hashed, which allows the item to be hashed only once
+   * when it is presented to several sketches. If the HashedItem is empty no update attempt is made.
+   *
+   * <p>The filter hashes are derived from the given 128-bit hash and the seed of this filter,
+   * which is cheaper than hashing the item, but not the same as updating with the item itself.
+   * A filter updated with HashedItems must also be queried with HashedItems, which may have been hashed with
+   * any seed as long as it is always the same one.</p>
+   *
+   * @param item the given HashedItem
+   */
+  public void update(final HashedItem item) {
+    if (item.isEmpty()) { return; }
+    final long h0 = XxHash.hashLong(item.getHash0(), seed_);
+    final long h1 = XxHash.hashLong(item.getHash1(), h0);
+    updateInternal(h0, h1);
+  }
+
   // Internal method to apply updates given pre-computed hashes
   private void updateInternal(final long h0, final long h1) {
     final long numBits = bitArray_.getCapacity();
@@ -409,7 +426,7 @@ public final class BloomFilter {
   /**
    * Updates the filter with the provided String and
    * returns the result from quering that value prior to the update.
-   * The string is converted to a byte array using UTF8 encoding.
+   * The string is hashed using its UTF-8 encoding without first converting it to a byte array.
    *
    * <p>Note: this will not produce the same output hash values as the {@link #queryAndUpdate(char[])}
    * method and will generally be a little slower depending on the complexity of the UTF8 encoding.
@@ -420,9 +437,8 @@ public final class BloomFilter {
    */
   public boolean queryAndUpdate(final String item) {
     if (item == null || item.isEmpty()) { return false; }
-    final byte[] strBytes = item.getBytes(StandardCharsets.UTF_8);
-    final long h0 = XxHash.hashByteArr(strBytes, 0, strBytes.length, seed_);
-    final long h1 = XxHash.hashByteArr(strBytes, 0, strBytes.length, h0);
+    final long h0 = hashUtf8(item, seed_);
+    final long h1 = hashUtf8(item, h0);
     return queryAndUpdateInternal(h0, h1);
   }
 
@@ -503,6 +519,20 @@ public final class BloomFilter {
     return queryAndUpdateInternal(h0, h1);
   }
 
+  /**
+   * Updates the filter with an item that has already been hashed and
+   * returns the result from quering that item prior to the update.
+   * See {@link #update(HashedItem)} for the compatibility of the hashes.
+   * @param item the given HashedItem
+   * @return The query result prior to applying the update, or false if the HashedItem is empty
+   */
+  public boolean queryAndUpdate(final HashedItem item) {
+    if (item.isEmpty()) { return false; }
+    final long h0 = XxHash.hashLong(item.getHash0(), seed_);
+    final long h1 = XxHash.hashLong(item.getHash1(), h0);
+    return queryAndUpdateInternal(h0, h1);
+  }
+
   // Internal query-and-update method given pre-computed hashes
   private boolean queryAndUpdateInternal(final long h0, final long h1) {
     final long numBits = bitArray_.getCapacity();
@@ -552,7 +582,7 @@ public final class BloomFilter {
    * value <em>might</em> have been seen previously. The filter's expected
    * False Positive Probability determines the chances of a true result being
    * a false positive. False negatives are never possible.
-   * The string is converted to a byte array using UTF8 encoding.
+   * The string is hashed using its UTF-8 encoding without first converting it to a byte array.
    *
    * <p>Note: this will not produce the same output hash values as the {@link #update(char[])}
    * method and will generally be a little slower depending on the complexity of the UTF8 encoding.
@@ -563,9 +593,8 @@ public final class BloomFilter {
    */
   public boolean query(final String item) {
     if (item == null || item.isEmpty()) { return false; }
-    final byte[] strBytes = item.getBytes(StandardCharsets.UTF_8);
-    final long h0 = XxHash.hashByteArr(strBytes, 0, strBytes.length, seed_);
-    final long h1 = XxHash.hashByteArr(strBytes, 0, strBytes.length, h0);
+    final long h0 = hashUtf8(item, seed_);
+    final long h1 = hashUtf8(item, h0);
     return queryInternal(h0, h1);
   }
 
@@ -659,6 +688,19 @@ public final class BloomFilter {
     return queryInternal(h0, h1);
   }
 
+  /**
+   * Queries the filter with an item that has already been hashed.
+   * See {@link #update(HashedItem)} for the compatibility of the hashes.
+   * @param item the given HashedItem
+   * @return The result of querying the filter with the given item, or false if the HashedItem is empty
+   */
+  public boolean query(final HashedItem item) {
+    if (item.isEmpty()) { return false; }
+    final long h0 = XxHash.hashLong(item.getHash0(), seed_);
+    final long h1 = XxHash.hashLong(item.getHash1(), h0);
+    return queryInternal(h0, h1);
+  }
+
   // Internal method to query the filter given pre-computed hashes
   private boolean queryInternal(final long h0, final long h1) {
     final long numBits = bitArray_.getCapacity();
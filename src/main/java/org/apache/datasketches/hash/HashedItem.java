@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.hash;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A reusable holder of the 128-bit MurmurHash3 hash of a single item, so that the item can be hashed once
+ * and then presented to several sketches, e.g., a Theta UpdateSketch, an HllSketch, a CpcSketch and a BloomFilter
+ * that are all fed from the same column.
+ *
+ * <p>Each <i>set</i> method hashes the given item exactly as the corresponding <i>update</i> method of those
+ * sketches does, including the canonicalization of doubles and the UTF-8 encoding of Strings.
+ * Therefore, updating the Theta, HLL or CPC sketches with a HashedItem has the same result as updating them with
+ * the item itself, as long as the seed of this HashedItem is the seed the sketch would use for the item:</p>
+ * <ul>
+ * <li>Theta UpdateSketch and CpcSketch: the configured seed of the sketch.</li>
+ * <li>HllSketch and HLL Union: always the
+ * {@link org.apache.datasketches.thetacommon.ThetaUtil#DEFAULT_UPDATE_SEED}.</li>
+ * <li>BloomFilter: any seed. The filter derives its hashes from this hash and its own seed, so these hashes are
+ * not the same as those of the item itself. A filter updated with HashedItems must also be queried with
+ * HashedItems.</li>
+ * </ul>
+ * <p>The sketches throw a SketchesArgumentException if they are presented with a HashedItem of an incompatible
+ * seed. A null or empty array or String results in an empty HashedItem, which the sketches ignore, just as they
+ * ignore such items today.</p>
+ *
+ * <p>Instances are mutable and not thread-safe. None of the methods allocate, except
+ * {@link #set(ByteBuffer)}, which wraps the buffer as a Memory region, so a single instance can be
+ * reused for every item of a stream.</p>
+ */
+public final class HashedItem {
+  private final long seed;
+  private final long[] hash = new long[2];
+  private boolean empty = true;
+
+  /**
+   * Creates an empty HashedItem that will hash items with the given seed.
+   * @param seed <a href="{@docRoot}/resources/dictionary.html#seed">See Update Hash Seed</a>
+   */
+  public HashedItem(final long seed) {
+    this.seed = seed;
+  }
+
+  /**
+   * Hashes the given long.
+   * @param datum The given long datum.
+   * @return this
+   */
+  public HashedItem set(final long datum) {
+    MurmurHash3.hash(datum, seed, hash);
+    empty = false;
+    return this;
+  }
+
+  /**
+   * Hashes the given double (or float) datum.
+   * Plus and minus zero and all NaN forms are canonicalized as in the sketch update methods.
+   * @param datum The given double datum.
+   * @return this
+   */
+  public HashedItem set(final double datum) {
+    final double d = (datum == 0.0) ? 0.0 : datum; // canonicalize -0.0, 0.0
+    return set(Double.doubleToLongBits(d)); // canonicalize all NaN & +/- infinity forms
+  }
+
+  /**
+   * Hashes the UTF-8 encoding of the given String.
+   * @param datum The given String.
+   * @return this
+   */
+  public HashedItem set(final String datum) {
+    if ((datum == null) || datum.isEmpty()) { return clear(); }
+    MurmurHash3.hashUtf8(datum, seed, hash);
+    empty = false;
+    return this;
+  }
+
+  /**
+   * Hashes the given byte array.
+   * @param data The given byte array.
+   * @return this
+   */
+  public HashedItem set(final byte[] data) {
+    if ((data == null) || (data.length == 0)) { return clear(); }
+    MurmurHash3.hash(data, seed, hash);
+    empty = false;
+    return this;
+  }
+
+  /**
+   * Hashes the given char array.
+   * @param data The given char array.
+   * @return this
+   */
+  public HashedItem set(final char[] data) {
+    if ((data == null) || (data.length == 0)) { return clear(); }
+    MurmurHash3.hash(data, seed, hash);
+    empty = false;
+    return this;
+  }
+
+  /**
+   * Hashes the given int array.
+   * @param data The given int array.
+   * @return this
+   */
+  public HashedItem set(final int[] data) {
+    if ((data == null) || (data.length == 0)) { return clear(); }
+    MurmurHash3.hash(data, seed, hash);
+    empty = false;
+    return this;
+  }
+
+  /**
+   * Hashes the given long array.
+   * @param data The given long array.
+   * @return this
+   */
+  public HashedItem set(final long[] data) {
+    if ((data == null) || (data.length == 0)) { return clear(); }
+    MurmurHash3.hash(data, seed, hash);
+    empty = false;
+    return this;
+  }
+
+  /**
+   * Hashes the remaining bytes of the given ByteBuffer.
+   * Unlike the other <i>set</i> methods, this allocates a Memory view of the buffer.
+   * @param data The given ByteBuffer.
+   * @return this
+   */
+  public HashedItem set(final ByteBuffer data) {
+    if ((data == null) || !data.hasRemaining()) { return clear(); }
+    MurmurHash3.hash(data, seed, hash);
+    empty = false;
+    return this;
+  }
+
+  /**
+   * Sets a 128-bit hash that was computed elsewhere. It must be the 128-bit MurmurHash3 hash of the item with the
+   * seed of this HashedItem, for example, as computed by the datasketches-cpp library or a previous
+   * <i>MurmurHash3.hash(...)</i> call.
+   * @param hash0 the first 64 bits of the hash
+   * @param hash1 the second 64 bits of the hash
+   * @return this
+   */
+  public HashedItem setHash(final long hash0, final long hash1) {
+    hash[0] = hash0;
+    hash[1] = hash1;
+    empty = false;
+    return this;
+  }
+
+  /**
+   * Makes this HashedItem empty.
+   * @return this
+   */
+  public HashedItem clear() {
+    hash[0] = 0;
+    hash[1] = 0;
+    empty = true;
+    return this;
+  }
+
+  /**
+   * Returns true if no item has been set, or if the last item was null or empty.
+   * @return true if this HashedItem is empty.
+   */
+  public boolean isEmpty() {
+    return empty;
+  }
+
+  /**
+   * Returns the seed used to hash the items.
+   * @return the seed used to hash the items.
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Returns the first 64 bits of the 128-bit hash.
+   * @return the first 64 bits of the 128-bit hash.
+   */
+  public long getHash0() {
+    return hash[0];
+  }
+
+  /**
+   * Returns the second 64 bits of the 128-bit hash.
+   * @return the second 64 bits of the 128-bit hash.
+   */
+  public long getHash1() {
+    return hash[1];
+  }
+}
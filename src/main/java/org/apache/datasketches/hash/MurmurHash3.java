@@ -61,7 +61,11 @@ import org.apache.datasketches.memory.Memory;
  *
  * <p>Note that even though this hash function produces 128 bits, the entropy of the resulting hash cannot
  * be greater than the entropy of the input. For example, if the input is only a single long of 64 bits,
- * the entropy of the resulting 128 bit hash is no greater than 64 bits.
+ * the entropy of the resulting 128 bit hash is no greater than 64 bits.</p>
+ *
+ * <p>Each method that returns a new long array of size 2 has a companion that takes a caller-supplied
+ * <i>hashOut</i> array instead. These, and {@link #hash64(long, long)}, do not allocate and are intended for
+ * update paths that are called at very high rates. They produce exactly the same hash bits.</p>
  *
  * @author Lee Rhodes
  */
@@ -79,8 +83,34 @@ public final class MurmurHash3 implements Serializable {
    * @return a 128-bit hash of the input as a long array of size 2.
    */
   public static long[] hash(final long key, final long seed) {
+    return hash(key, seed, new long[2]);
+  }
+
+  /**
+   * Hash the given long into the given hashOut array.
+   *
+   * @param key The input long.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the 128-bit hash. It must have a length of at least 2.
+   * @return the given hashOut array.
+   */
+  public static long[] hash(final long key, final long seed, final long[] hashOut) {
+    final HashState hashState = new HashState(seed, seed);
+    return hashState.finalMix128(key, 0, Long.BYTES, hashOut);
+  }
+
+  /**
+   * Returns the first 64 bits of the 128-bit hash of the given long.
+   * This is the same as <i>hash(key, seed)[0]</i>, without the allocation of the array.
+   *
+   * @param key The input long.
+   * @param seed A long valued seed.
+   * @return the first 64 bits of the 128-bit hash of the input.
+   */
+  public static long hash64(final long key, final long seed) {
     final HashState hashState = new HashState(seed, seed);
-    return hashState.finalMix128(key, 0, Long.BYTES);
+    hashState.finalMix(key, 0, Long.BYTES);
+    return hashState.h1;
   }
 
   //--Hash of long[]-------------------------------------------------------
@@ -105,6 +135,33 @@ public final class MurmurHash3 implements Serializable {
    * @return a 128-bit hash of the input as a long array of size 2
    */
   public static long[] hash(final long[] key, final int offsetLongs, final int lengthLongs, final long seed) {
+    return hash(key, offsetLongs, lengthLongs, seed, new long[2]);
+  }
+
+  /**
+   * Hash the given long[] array into the given hashOut array.
+   *
+   * @param key The input long[] array. It must be non-null and non-empty.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the 128-bit hash. It must have a length of at least 2.
+   * @return the given hashOut array.
+   */
+  public static long[] hash(final long[] key, final long seed, final long[] hashOut) {
+    return hash(key, 0, key.length, seed, hashOut);
+  }
+
+  /**
+   * Hash a portion of the given long[] array into the given hashOut array.
+   *
+   * @param key The input long[] array. It must be non-null and non-empty.
+   * @param offsetLongs the starting offset in longs.
+   * @param lengthLongs the length in longs of the portion of the array to be hashed.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the 128-bit hash. It must have a length of at least 2.
+   * @return the given hashOut array.
+   */
+  public static long[] hash(final long[] key, final int offsetLongs, final int lengthLongs, final long seed,
+      final long[] hashOut) {
     Objects.requireNonNull(key);
     final int arrLen = key.length;
     checkPositive(arrLen);
@@ -129,7 +186,7 @@ public final class MurmurHash3 implements Serializable {
     // Get the tail
     final long k1 = rem == 0 ? 0 : key[offsetLongs + tail]; //k2 -> 0
     // Mix the tail into the hash and return
-    return hashState.finalMix128(k1, 0, lengthLongs << 3); //convert to bytes
+    return hashState.finalMix128(k1, 0, lengthLongs << 3, hashOut); //convert to bytes
   }
 
   //--Hash of int[]--------------------------------------------------------
@@ -154,6 +211,33 @@ public final class MurmurHash3 implements Serializable {
    * @return a 128-bit hash of the input as a long array of size 2.
    */
   public static long[] hash(final int[] key, final int offsetInts, final int lengthInts, final long seed) {
+    return hash(key, offsetInts, lengthInts, seed, new long[2]);
+  }
+
+  /**
+   * Hash the given int[] array into the given hashOut array.
+   *
+   * @param key The input int[] array. It must be non-null and non-empty.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the 128-bit hash. It must have a length of at least 2.
+   * @return the given hashOut array.
+   */
+  public static long[] hash(final int[] key, final long seed, final long[] hashOut) {
+    return hash(key, 0, key.length, seed, hashOut);
+  }
+
+  /**
+   * Hash a portion of the given int[] array into the given hashOut array.
+   *
+   * @param key The input int[] array. It must be non-null and non-empty.
+   * @param offsetInts the starting offset in ints.
+   * @param lengthInts the length in ints of the portion of the array to be hashed.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the 128-bit hash. It must have a length of at least 2.
+   * @return the given hashOut array.
+   */
+  public static long[] hash(final int[] key, final int offsetInts, final int lengthInts, final long seed,
+      final long[] hashOut) {
     Objects.requireNonNull(key);
     final int arrLen = key.length;
     checkPositive(arrLen);
@@ -187,7 +271,7 @@ public final class MurmurHash3 implements Serializable {
       k2 = 0;
     }
     // Mix the tail into the hash and return
-    return hashState.finalMix128(k1, k2, lengthInts << 2); //convert to bytes
+    return hashState.finalMix128(k1, k2, lengthInts << 2, hashOut); //convert to bytes
   }
 
   //--Hash of char[]-------------------------------------------------------
@@ -212,6 +296,33 @@ public final class MurmurHash3 implements Serializable {
    * @return a 128-bit hash of the input as a long array of size 2
    */
   public static long[] hash(final char[] key, final int offsetChars, final int lengthChars, final long seed) {
+    return hash(key, offsetChars, lengthChars, seed, new long[2]);
+  }
+
+  /**
+   * Hash the given char[] array into the given hashOut array.
+   *
+   * @param key The input char[] array. It must be non-null and non-empty.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the 128-bit hash. It must have a length of at least 2.
+   * @return the given hashOut array.
+   */
+  public static long[] hash(final char[] key, final long seed, final long[] hashOut) {
+    return hash(key, 0, key.length, seed, hashOut);
+  }
+
+  /**
+   * Hash a portion of the given char[] array into the given hashOut array.
+   *
+   * @param key The input char[] array. It must be non-null and non-empty.
+   * @param offsetChars the starting offset in chars.
+   * @param lengthChars the length in chars of the portion of the array to be hashed.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the 128-bit hash. It must have a length of at least 2.
+   * @return the given hashOut array.
+   */
+  public static long[] hash(final char[] key, final int offsetChars, final int lengthChars, final long seed,
+      final long[] hashOut) {
     Objects.requireNonNull(key);
     final int arrLen = key.length;
     checkPositive(arrLen);
@@ -245,7 +356,7 @@ public final class MurmurHash3 implements Serializable {
       k2 = 0;
     }
     // Mix the tail into the hash and return
-    return hashState.finalMix128(k1, k2, lengthChars << 1); //convert to bytes
+    return hashState.finalMix128(k1, k2, lengthChars << 1, hashOut); //convert to bytes
   }
 
   //--Hash of byte[]-------------------------------------------------------
@@ -270,10 +381,42 @@ public final class MurmurHash3 implements Serializable {
    * @return a 128-bit hash of the input as a long array of size 2.
    */
   public static long[] hash(final byte[] key, final int offsetBytes, final int lengthBytes, final long seed) {
+    return hash(key, offsetBytes, lengthBytes, seed, new long[2]);
+  }
+
+  /**
+   * Hash the given byte[] array into the given hashOut array.
+   *
+   * @param key The input byte[] array. It must be non-null and non-empty.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the 128-bit hash. It must have a length of at least 2.
+   * @return the given hashOut array.
+   */
+  public static long[] hash(final byte[] key, final long seed, final long[] hashOut) {
+    return hash(key, 0, key.length, seed, hashOut);
+  }
+
+  /**
+   * Hash a portion of the given byte[] array into the given hashOut array.
+   *
+   * @param key The input byte[] array. It must be non-null and non-empty.
+   * @param offsetBytes the starting offset in bytes.
+   * @param lengthBytes the length in bytes of the portion of the array to be hashed.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the 128-bit hash. It must have a length of at least 2.
+   * @return the given hashOut array.
+   */
+  public static long[] hash(final byte[] key, final int offsetBytes, final int lengthBytes, final long seed,
+      final long[] hashOut) {
     Objects.requireNonNull(key);
     final int arrLen = key.length;
     checkPositive(arrLen);
     Util.checkBounds(offsetBytes, lengthBytes, arrLen);
+    return hashBytes(key, offsetBytes, lengthBytes, seed, hashOut, 0);
+  }
+
+  private static long[] hashBytes(final byte[] key, final int offsetBytes, final int lengthBytes, final long seed,
+      final long[] hashOut, final int outIndex) {
     final HashState hashState = new HashState(seed, seed);
 
     // Number of full 128-bit blocks of 16 bytes.
@@ -303,7 +446,90 @@ public final class MurmurHash3 implements Serializable {
       k2 = 0;
     }
     // Mix the tail into the hash and return
-    return hashState.finalMix128(k1, k2, lengthBytes);
+    return hashState.finalMix128(k1, k2, lengthBytes, hashOut, outIndex);
+  }
+
+  //--Hash of CharSequence as UTF-8----------------------------------------
+  /**
+   * Hash the UTF-8 encoding of the given CharSequence.
+   *
+   * <p>This produces the same hash as <i>hash(key.toString().getBytes(StandardCharsets.UTF_8), seed)</i>,
+   * but encodes the characters on the fly without allocating a byte array.
+   * Note that this is not the same hash as that of the char[] of the same characters.</p>
+   *
+   * @param key The input CharSequence. It must be non-null and non-empty.
+   * @param seed A long valued seed.
+   * @return a 128-bit hash of the input as a long array of size 2.
+   */
+  public static long[] hashUtf8(final CharSequence key, final long seed) {
+    return hashUtf8(key, seed, new long[2]);
+  }
+
+  /**
+   * Hash the UTF-8 encoding of the given CharSequence into the given hashOut array.
+   *
+   * <p>The same notes as for {@link #hashUtf8(CharSequence, long)} apply.</p>
+   *
+   * @param key The input CharSequence. It must be non-null and non-empty.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the 128-bit hash. It must have a length of at least 2.
+   * @return the given hashOut array.
+   */
+  public static long[] hashUtf8(final CharSequence key, final long seed, final long[] hashOut) {
+    Objects.requireNonNull(key);
+    final int lengthChars = key.length();
+    checkPositive(lengthChars);
+    return hashUtf8(key, lengthChars, seed, hashOut, 0);
+  }
+
+  private static long[] hashUtf8(final CharSequence key, final int lengthChars, final long seed,
+      final long[] hashOut, final int outIndex) {
+    final HashState hashState = hashUtf8State(key, lengthChars, new HashState(seed, seed));
+    hashOut[outIndex] = hashState.h1;
+    hashOut[outIndex + 1] = hashState.h2;
+    return hashOut;
+  }
+
+  /**
+   * Mixes the UTF-8 encoding of the given CharSequence into the given seeded hash state, leaving the
+   * 128-bit hash in h1 and h2.
+   */
+  private static HashState hashUtf8State(final CharSequence key, final int lengthChars,
+      final HashState hashState) {
+    long lengthBytes = 0;
+    long word = 0;     //the little-endian word being assembled
+    int wordBytes = 0; //the number of bytes in word
+    long k1 = 0;       //the first word of the current 128-bit block
+    boolean haveK1 = false;
+
+    for (int i = 0; i < lengthChars; ) {
+      final long enc = Utf8.encode(key, i, lengthChars);
+      final long bytes = Utf8.encodedBytes(enc);
+      final int numBytes = Utf8.numBytes(enc);
+      i += Utf8.numChars(enc);
+      lengthBytes += numBytes;
+      word |= bytes << (wordBytes << 3); //any bytes shifted out belong to the next word
+      wordBytes += numBytes;
+      if (wordBytes >= 8) {
+        if (haveK1) {
+          hashState.blockMix128(k1, word);
+        } else {
+          k1 = word;
+        }
+        haveK1 = !haveK1;
+        wordBytes -= 8;
+        word = (wordBytes == 0) ? 0 : bytes >>> ((numBytes - wordBytes) << 3);
+      }
+    }
+
+    // Mix the tail into the hash and return. The tail is either a whole k1 and a partial k2,
+    // or a partial (possibly empty) k1.
+    if (haveK1) {
+      hashState.finalMix(k1, word, lengthBytes);
+    } else {
+      hashState.finalMix(word, 0, lengthBytes);
+    }
+    return hashState;
   }
 
   //--Hash of ByteBuffer---------------------------------------------------
@@ -315,12 +541,24 @@ public final class MurmurHash3 implements Serializable {
    * @return a 128-bit hash of the input as a long array of size 2.
    */
   public static long[] hash(final ByteBuffer buf, final long seed) {
+    return hash(buf, seed, new long[2]);
+  }
+
+  /**
+   * Hash the remaining bytes of the given ByteBuffer starting at position() into the given hashOut array.
+   *
+   * @param buf The input ByteBuffer. It must be non-null and non-empty.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the 128-bit hash. It must have a length of at least 2.
+   * @return the given hashOut array.
+   */
+  public static long[] hash(final ByteBuffer buf, final long seed, final long[] hashOut) {
     Objects.requireNonNull(buf);
     final int pos = buf.position();
     final int rem = buf.remaining();
     checkPositive(rem);
     final Memory mem = Memory.wrap(buf, ByteOrder.LITTLE_ENDIAN).region(pos, rem);
-    return hash(mem, seed);
+    return hash(mem, seed, hashOut);
   }
 
   //--Hash of Memory-------------------------------------------------------
@@ -337,6 +575,20 @@ public final class MurmurHash3 implements Serializable {
    * @return a 128-bit hash of the input as a long array of size 2.
    */
   public static long[] hash(final Memory mem, final long seed) {
+    return hash(mem, seed, new long[2]);
+  }
+
+  /**
+   * Hash the given Memory into the given hashOut array.
+   *
+   * <p>The same notes as for {@link #hash(Memory, long)} apply.</p>
+   *
+   * @param mem The input Memory. It must be non-null and non-empty.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the 128-bit hash. It must have a length of at least 2.
+   * @return the given hashOut array.
+   */
+  public static long[] hash(final Memory mem, final long seed, final long[] hashOut) {
     Objects.requireNonNull(mem);
     final long lengthBytes = mem.getCapacity();
     checkPositive(lengthBytes);
@@ -373,12 +625,301 @@ public final class MurmurHash3 implements Serializable {
       k2 = 0;
     }
     // Mix the tail into the hash and return
-    return hashState.finalMix128(k1, k2, lengthBytes);
+    return hashState.finalMix128(k1, k2, lengthBytes, hashOut);
+  }
+
+  //--Batch hash of many keys---------------------------------------------
+  /**
+   * Hash each long of a portion of the given array as a separate key. The 128-bit hash of
+   * <i>keys[keyOffset + i]</i> is written to <i>hashOut[2i]</i> and <i>hashOut[2i + 1]</i>, and is the
+   * same as <i>hash(keys[keyOffset + i], seed)</i>.
+   *
+   * <p>The batch methods check the bounds once and then run a simple counted loop without allocations or calls
+   * that are not inlined, which the JIT can unroll. This removes most of the per-key overhead when hashing
+   * columnar batches of keys.</p>
+   *
+   * @param keys the input keys.
+   * @param keyOffset the index of the first key to hash.
+   * @param length the number of keys to hash.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the hashes. It must have a length of at least <i>2 * length</i>.
+   * @return the given hashOut array.
+   */
+  public static long[] hashEach(final long[] keys, final int keyOffset, final int length, final long seed,
+      final long[] hashOut) {
+    checkBatch(keys.length, keyOffset, length, hashOut.length, 2L * length);
+    for (int i = 0; i < length; i++) {
+      hashLong(keys[keyOffset + i], seed, hashOut, i << 1);
+    }
+    return hashOut;
+  }
+
+  /**
+   * Hash each long of a portion of the given array as a separate key. The first 64 bits of the 128-bit hash of
+   * <i>keys[keyOffset + i]</i> are written to <i>hashOut[i]</i>, and are the same as
+   * <i>hash64(keys[keyOffset + i], seed)</i>.
+   *
+   * @param keys the input keys.
+   * @param keyOffset the index of the first key to hash.
+   * @param length the number of keys to hash.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the hashes. It must have a length of at least <i>length</i>.
+   * @return the given hashOut array.
+   */
+  public static long[] hash64Each(final long[] keys, final int keyOffset, final int length, final long seed,
+      final long[] hashOut) {
+    checkBatch(keys.length, keyOffset, length, hashOut.length, length);
+    for (int i = 0; i < length; i++) {
+      hashOut[i] = hashLong64(keys[keyOffset + i], seed);
+    }
+    return hashOut;
+  }
+
+  /**
+   * Hash each double of a portion of the given array as a separate key into pairs of hashOut, as for
+   * {@link #hashEach(long[], int, int, long, long[])}. Each double is hashed as the long of its bits after
+   * plus and minus zero and all NaN forms are canonicalized, as in the sketch update methods.
+   *
+   * @param keys the input keys.
+   * @param keyOffset the index of the first key to hash.
+   * @param length the number of keys to hash.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the hashes. It must have a length of at least <i>2 * length</i>.
+   * @return the given hashOut array.
+   */
+  public static long[] hashEach(final double[] keys, final int keyOffset, final int length, final long seed,
+      final long[] hashOut) {
+    checkBatch(keys.length, keyOffset, length, hashOut.length, 2L * length);
+    for (int i = 0; i < length; i++) {
+      hashLong(canonicalBits(keys[keyOffset + i]), seed, hashOut, i << 1);
+    }
+    return hashOut;
+  }
+
+  /**
+   * Hash each double of a portion of the given array as a separate key into hashOut, as for
+   * {@link #hash64Each(long[], int, int, long, long[])}. Each double is canonicalized as for
+   * {@link #hashEach(double[], int, int, long, long[])}.
+   *
+   * @param keys the input keys.
+   * @param keyOffset the index of the first key to hash.
+   * @param length the number of keys to hash.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the hashes. It must have a length of at least <i>length</i>.
+   * @return the given hashOut array.
+   */
+  public static long[] hash64Each(final double[] keys, final int keyOffset, final int length, final long seed,
+      final long[] hashOut) {
+    checkBatch(keys.length, keyOffset, length, hashOut.length, length);
+    for (int i = 0; i < length; i++) {
+      hashOut[i] = hashLong64(canonicalBits(keys[keyOffset + i]), seed);
+    }
+    return hashOut;
+  }
+
+  /**
+   * Hash each int of a portion of the given array as a separate key into pairs of hashOut, as for
+   * {@link #hashEach(long[], int, int, long, long[])}. Each int is hashed as the long of the same value,
+   * as in the sketch update methods.
+   *
+   * @param keys the input keys.
+   * @param keyOffset the index of the first key to hash.
+   * @param length the number of keys to hash.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the hashes. It must have a length of at least <i>2 * length</i>.
+   * @return the given hashOut array.
+   */
+  public static long[] hashEach(final int[] keys, final int keyOffset, final int length, final long seed,
+      final long[] hashOut) {
+    checkBatch(keys.length, keyOffset, length, hashOut.length, 2L * length);
+    for (int i = 0; i < length; i++) {
+      hashLong(keys[keyOffset + i], seed, hashOut, i << 1);
+    }
+    return hashOut;
+  }
+
+  /**
+   * Hash each int of a portion of the given array as a separate key into hashOut, as for
+   * {@link #hash64Each(long[], int, int, long, long[])}. Each int is hashed as the long of the same value.
+   *
+   * @param keys the input keys.
+   * @param keyOffset the index of the first key to hash.
+   * @param length the number of keys to hash.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the hashes. It must have a length of at least <i>length</i>.
+   * @return the given hashOut array.
+   */
+  public static long[] hash64Each(final int[] keys, final int keyOffset, final int length, final long seed,
+      final long[] hashOut) {
+    checkBatch(keys.length, keyOffset, length, hashOut.length, length);
+    for (int i = 0; i < length; i++) {
+      hashOut[i] = hashLong64(keys[keyOffset + i], seed);
+    }
+    return hashOut;
+  }
+
+  /**
+   * Hash the UTF-8 encoding of each CharSequence of a portion of the given array as a separate key into pairs
+   * of hashOut, as for {@link #hashEach(long[], int, int, long, long[])}. Each hash is the same as
+   * {@link #hashUtf8(CharSequence, long)}. The hash of a null or empty key is written as a pair of zeros.
+   *
+   * @param keys the input keys.
+   * @param keyOffset the index of the first key to hash.
+   * @param length the number of keys to hash.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the hashes. It must have a length of at least <i>2 * length</i>.
+   * @return the given hashOut array.
+   */
+  public static long[] hashEach(final CharSequence[] keys, final int keyOffset, final int length, final long seed,
+      final long[] hashOut) {
+    checkBatch(keys.length, keyOffset, length, hashOut.length, 2L * length);
+    for (int i = 0; i < length; i++) {
+      final CharSequence key = keys[keyOffset + i];
+      final int lengthChars = (key == null) ? 0 : key.length();
+      if (lengthChars == 0) {
+        hashOut[i << 1] = 0;
+        hashOut[(i << 1) + 1] = 0;
+      } else {
+        hashUtf8(key, lengthChars, seed, hashOut, i << 1);
+      }
+    }
+    return hashOut;
+  }
+
+  /**
+   * Hash each byte[] of a portion of the given array as a separate key into pairs of hashOut, as for
+   * {@link #hashEach(long[], int, int, long, long[])}. Each hash is the same as {@link #hash(byte[], long)}.
+   * The hash of a null or empty key is written as a pair of zeros.
+   *
+   * @param keys the input keys.
+   * @param keyOffset the index of the first key to hash.
+   * @param length the number of keys to hash.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the hashes. It must have a length of at least <i>2 * length</i>.
+   * @return the given hashOut array.
+   */
+  public static long[] hashEach(final byte[][] keys, final int keyOffset, final int length, final long seed,
+      final long[] hashOut) {
+    checkBatch(keys.length, keyOffset, length, hashOut.length, 2L * length);
+    for (int i = 0; i < length; i++) {
+      final byte[] key = keys[keyOffset + i];
+      final int lengthBytes = (key == null) ? 0 : key.length;
+      if (lengthBytes == 0) {
+        hashOut[i << 1] = 0;
+        hashOut[(i << 1) + 1] = 0;
+      } else {
+        hashBytes(key, 0, lengthBytes, seed, hashOut, i << 1);
+      }
+    }
+    return hashOut;
+  }
+
+  /**
+   * Hash each slice of the given byte array as a separate key into pairs of hashOut, as for
+   * {@link #hashEach(long[], int, int, long, long[])}. This is the layout of variable-width binary columns,
+   * for example in Arrow and Parquet: key <i>i</i> is the portion of <i>data</i> from
+   * <i>offsets[offsetsIndex + i]</i>, inclusive, to <i>offsets[offsetsIndex + i + 1]</i>, exclusive.
+   * Each hash is the same as {@link #hash(byte[], int, int, long)} of that portion.
+   * The hash of an empty slice is written as a pair of zeros.
+   *
+   * @param data the bytes of all the keys.
+   * @param offsets the start offsets of the keys in data, followed by the end offset of the last key.
+   * @param offsetsIndex the index in offsets of the start offset of the first key to hash.
+   * @param length the number of keys to hash.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the hashes. It must have a length of at least <i>2 * length</i>.
+   * @return the given hashOut array.
+   */
+  public static long[] hashEach(final byte[] data, final int[] offsets, final int offsetsIndex, final int length,
+      final long seed, final long[] hashOut) {
+    checkBatch(offsets.length, offsetsIndex, length + 1L, hashOut.length, 2L * length);
+    for (int i = 0; i < length; i++) {
+      final int start = offsets[offsetsIndex + i];
+      final int lengthBytes = offsets[offsetsIndex + i + 1] - start;
+      Util.checkBounds(start, lengthBytes, data.length);
+      if (lengthBytes == 0) {
+        hashOut[i << 1] = 0;
+        hashOut[(i << 1) + 1] = 0;
+      } else {
+        hashBytes(data, start, lengthBytes, seed, hashOut, i << 1);
+      }
+    }
+    return hashOut;
+  }
+
+  /**
+   * Hash the UTF-8 encoding of each CharSequence of a portion of the given array as a separate key into hashOut,
+   * as for {@link #hash64Each(long[], int, int, long, long[])}. Each hash is the same as
+   * <i>hashUtf8(key, seed)[0]</i>. The hash of a null or empty key is written as zero.
+   *
+   * @param keys the input keys.
+   * @param keyOffset the index of the first key to hash.
+   * @param length the number of keys to hash.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the hashes. It must have a length of at least <i>length</i>.
+   * @return the given hashOut array.
+   */
+  public static long[] hash64Each(final CharSequence[] keys, final int keyOffset, final int length,
+      final long seed, final long[] hashOut) {
+    checkBatch(keys.length, keyOffset, length, hashOut.length, length);
+    final HashState hashState = new HashState(seed, seed);
+    for (int i = 0; i < length; i++) {
+      final CharSequence key = keys[keyOffset + i];
+      final int lengthChars = (key == null) ? 0 : key.length();
+      hashOut[i] = (lengthChars == 0) ? 0 : hashUtf8State(key, lengthChars, hashState.reset(seed, seed)).h1;
+    }
+    return hashOut;
+  }
+
+  /**
+   * The 128-bit hash of a single long, which is the same as <i>hash(key, seed, hashOut)</i>.
+   * The state is kept in local variables so that the batch loops do not depend on escape analysis.
+   */
+  private static void hashLong(final long key, final long seed, final long[] hashOut, final int outIndex) {
+    long h1 = seed ^ HashState.mixK1(key) ^ Long.BYTES;
+    long h2 = seed ^ Long.BYTES; //the mix of a zero k2 is zero
+    h1 += h2;
+    h2 += h1;
+    h1 = HashState.finalMix64(h1);
+    h2 = HashState.finalMix64(h2);
+    h1 += h2;
+    hashOut[outIndex] = h1;
+    hashOut[outIndex + 1] = h2 + h1;
+  }
+
+  /**
+   * The first 64 bits of the 128-bit hash of a single long, which is the same as <i>hash64(key, seed)</i>.
+   */
+  private static long hashLong64(final long key, final long seed) {
+    long h1 = seed ^ HashState.mixK1(key) ^ Long.BYTES;
+    long h2 = seed ^ Long.BYTES; //the mix of a zero k2 is zero
+    h1 += h2;
+    h2 += h1;
+    return HashState.finalMix64(h1) + HashState.finalMix64(h2);
+  }
+
+  private static long canonicalBits(final double key) {
+    final double d = (key == 0.0) ? 0.0 : key; // canonicalize -0.0, 0.0
+    return Double.doubleToLongBits(d); // canonicalize all NaN & +/- infinity forms
+  }
+
+  /**
+   * Checks the bounds of a batch of keys and the length of the array that receives their hashes.
+   * This is shared by the batch methods of MurmurHash3 and XxHash.
+   */
+  static void checkBatch(final int keysLength, final int keyOffset, final long length,
+      final int hashOutLength, final long hashOutRequired) {
+    Util.checkBounds(keyOffset, length, keysLength);
+    if (hashOutLength < hashOutRequired) {
+      throw new SketchesArgumentException("hashOut length: " + hashOutLength + " must be at least: "
+          + hashOutRequired);
+    }
   }
 
   //--HashState class------------------------------------------------------
   /**
    * Common processing of the 128-bit hash state independent of input type.
+   * Instances never escape the hash methods, which allows the JIT to keep the state in registers.
    */
   private static final class HashState {
     private static final long C1 = 0x87c37b91114253d5L;
@@ -391,6 +932,12 @@ public final class MurmurHash3 implements Serializable {
       this.h2 = h2;
     }
 
+    HashState reset(final long h1, final long h2) {
+      this.h1 = h1;
+      this.h2 = h2;
+      return this;
+    }
+
     /**
      * Block mix (128-bit block) of input key to internal hash state.
      *
@@ -409,7 +956,46 @@ public final class MurmurHash3 implements Serializable {
       h2 = h2 * 5 + 0x38495ab5;
     }
 
-    long[] finalMix128(final long k1, final long k2, final long inputLengthBytes) {
+    /**
+     * Final mix of the tail and the input length into the hash state, which is written to the given array.
+     *
+     * @param k1 intermediate mix value
+     * @param k2 intermediate mix value
+     * @param inputLengthBytes the total length of the input in bytes
+     * @param hashOut the array that receives the 128-bit hash
+     * @return hashOut
+     */
+    long[] finalMix128(final long k1, final long k2, final long inputLengthBytes, final long[] hashOut) {
+      return finalMix128(k1, k2, inputLengthBytes, hashOut, 0);
+    }
+
+    /**
+     * Final mix of the tail and the input length into the hash state, which is written to the given array
+     * starting at the given index.
+     *
+     * @param k1 intermediate mix value
+     * @param k2 intermediate mix value
+     * @param inputLengthBytes the total length of the input in bytes
+     * @param hashOut the array that receives the 128-bit hash
+     * @param outIndex the index of hashOut that receives the first 64 bits of the hash
+     * @return hashOut
+     */
+    long[] finalMix128(final long k1, final long k2, final long inputLengthBytes, final long[] hashOut,
+        final int outIndex) {
+      finalMix(k1, k2, inputLengthBytes);
+      hashOut[outIndex] = h1;
+      hashOut[outIndex + 1] = h2;
+      return hashOut;
+    }
+
+    /**
+     * Final mix of the tail and the input length into the hash state, which is left in h1 and h2.
+     *
+     * @param k1 intermediate mix value
+     * @param k2 intermediate mix value
+     * @param inputLengthBytes the total length of the input in bytes
+     */
+    void finalMix(final long k1, final long k2, final long inputLengthBytes) {
       h1 ^= mixK1(k1);
       h2 ^= mixK2(k2);
       h1 ^= inputLengthBytes;
@@ -420,7 +1006,6 @@ public final class MurmurHash3 implements Serializable {
       h2 = finalMix64(h2);
       h1 += h2;
       h2 += h1;
-      return new long[] { h1, h2 };
     }
 
     /**
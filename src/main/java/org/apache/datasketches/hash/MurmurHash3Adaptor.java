@@ -22,6 +22,7 @@ package org.apache.datasketches.hash;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.datasketches.common.Util.ceilingPowerOf2;
 import static org.apache.datasketches.hash.MurmurHash3.hash;
+import static org.apache.datasketches.hash.MurmurHash3.hashUtf8;
 
 import java.nio.ByteBuffer;
 
@@ -140,8 +141,7 @@ public final class MurmurHash3Adaptor {
     if ((datum == null) || datum.isEmpty()) {
       return null;
     }
-    final byte[] data = datum.getBytes(UTF_8);
-    return toByteArray(hash(data, seed));
+    return toByteArray(hashUtf8(datum, seed));
   }
 
   /**
@@ -236,8 +236,7 @@ public final class MurmurHash3Adaptor {
     if ((datum == null) || datum.isEmpty()) {
       return null;
     }
-    final byte[] data = datum.getBytes(UTF_8);
-    return hash(data, seed);
+    return hashUtf8(datum, seed);
   }
 
   //As Integer functions
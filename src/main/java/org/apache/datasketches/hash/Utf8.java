@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.hash;
+
+/**
+ * On-the-fly UTF-8 encoding of a CharSequence for the hash functions, which avoids the byte array
+ * that <i>String.getBytes(StandardCharsets.UTF_8)</i> would allocate.
+ *
+ * <p>The encoding is identical to that of <i>String.getBytes(StandardCharsets.UTF_8)</i>, including
+ * the replacement of each unpaired surrogate with the single byte '?'.</p>
+ */
+final class Utf8 {
+  private static final long REPLACEMENT_BYTE = '?';
+
+  private Utf8() {}
+
+  /**
+   * Returns the length in bytes of the UTF-8 encoding of the given CharSequence.
+   * @param seq the given CharSequence
+   * @return the length in bytes of the UTF-8 encoding of the given CharSequence.
+   */
+  static long encodedLength(final CharSequence seq) {
+    final int len = seq.length();
+    long bytes = 0;
+    for (int i = 0; i < len; i++) {
+      final char c = seq.charAt(i);
+      if (c < 0x80) { bytes += 1; }
+      else if (c < 0x800) { bytes += 2; }
+      else if (!Character.isSurrogate(c)) { bytes += 3; }
+      else if (Character.isHighSurrogate(c) && ((i + 1) < len) && Character.isLowSurrogate(seq.charAt(i + 1))) {
+        bytes += 4;
+        i++;
+      }
+      else { bytes += 1; } //replacement byte
+    }
+    return bytes;
+  }
+
+  /**
+   * Encodes the character at the given index, or the surrogate pair starting there, to UTF-8.
+   * The result is packed into a long as follows:
+   * <ul>
+   * <li>bits 0 to 31: the encoded bytes in little-endian order, i.e., the first byte is in bits 0 to 7.</li>
+   * <li>bits 32 to 39: the number of encoded bytes, 1 to 4.</li>
+   * <li>bits 40 to 47: the number of chars consumed, 1 or 2.</li>
+   * </ul>
+   * @param seq the given CharSequence
+   * @param index the index of the char to encode
+   * @param len the length of the CharSequence
+   * @return the packed encoding
+   */
+  static long encode(final CharSequence seq, final int index, final int len) {
+    final char c = seq.charAt(index);
+    if (c < 0x80) {
+      return c | (1L << 32) | (1L << 40);
+    }
+    if (c < 0x800) {
+      final long b0 = 0xC0 | (c >>> 6);
+      final long b1 = 0x80 | (c & 0x3F);
+      return b0 | (b1 << 8) | (2L << 32) | (1L << 40);
+    }
+    if (!Character.isSurrogate(c)) {
+      final long b0 = 0xE0 | (c >>> 12);
+      final long b1 = 0x80 | ((c >>> 6) & 0x3F);
+      final long b2 = 0x80 | (c & 0x3F);
+      return b0 | (b1 << 8) | (b2 << 16) | (3L << 32) | (1L << 40);
+    }
+    if (Character.isHighSurrogate(c) && ((index + 1) < len)) {
+      final char c2 = seq.charAt(index + 1);
+      if (Character.isLowSurrogate(c2)) {
+        final int cp = Character.toCodePoint(c, c2);
+        final long b0 = 0xF0 | (cp >>> 18);
+        final long b1 = 0x80 | ((cp >>> 12) & 0x3F);
+        final long b2 = 0x80 | ((cp >>> 6) & 0x3F);
+        final long b3 = 0x80 | (cp & 0x3F);
+        return b0 | (b1 << 8) | (b2 << 16) | (b3 << 24) | (4L << 32) | (2L << 40);
+      }
+    }
+    return REPLACEMENT_BYTE | (1L << 32) | (1L << 40); //unpaired surrogate
+  }
+
+  static long encodedBytes(final long encoding) {
+    return encoding & 0xFFFF_FFFFL;
+  }
+
+  static int numBytes(final long encoding) {
+    return (int) (encoding >>> 32) & 0xFF;
+  }
+
+  static int numChars(final long encoding) {
+    return (int) (encoding >>> 40) & 0xFF;
+  }
+}
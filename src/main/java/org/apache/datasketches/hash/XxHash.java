@@ -19,6 +19,7 @@
 
 package org.apache.datasketches.hash;
 
+import org.apache.datasketches.common.Util;
 import org.apache.datasketches.memory.Memory;
 
 /**
@@ -32,6 +33,12 @@ import org.apache.datasketches.memory.Memory;
  * @author Lee Rhodes
  */
 public class XxHash {
+  // Primes of the 64-bit XxHash algorithm
+  private static final long P1 = 0x9E3779B185EBCA87L;
+  private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+  private static final long P3 = 0x165667B19E3779F9L;
+  private static final long P4 = 0x85EBCA77C2B2AE63L;
+  private static final long P5 = 0x27D4EB2F165667C5L;
 
   /**
    * Compute the hash of the given Memory object.
@@ -56,4 +63,253 @@ public class XxHash {
     return org.apache.datasketches.memory.XxHash.hashLong(in, seed);
   }
 
+  /**
+   * Returns the 64-bit hash of the UTF-8 encoding of the given CharSequence.
+   *
+   * <p>This produces the same hash as
+   * <i>org.apache.datasketches.memory.XxHash.hashByteArr(bytes, 0, bytes.length, seed)</i>, where
+   * <i>bytes = in.toString().getBytes(StandardCharsets.UTF_8)</i>,
+   * but encodes the characters on the fly without allocating a byte array.</p>
+   *
+   * @param in the given CharSequence, which must not be null.
+   * @param seed A long valued seed.
+   * @return the hash
+   */
+  public static long hashUtf8(final CharSequence in, final long seed) {
+    final int lengthChars = in.length();
+    final long lengthBytes = Utf8.encodedLength(in);
+    final long stripeWords = (lengthBytes >>> 5) << 2; //4 words per 32-byte stripe
+
+    long v1 = seed + P1 + P2;
+    long v2 = seed + P2;
+    long v3 = seed;
+    long v4 = seed - P1;
+    long hash = (stripeWords == 0) ? seed + P5 + lengthBytes : 0;
+    long numWords = 0;
+    long word = 0;     //the little-endian word being assembled
+    int wordBytes = 0; //the number of bytes in word
+
+    for (int i = 0; i < lengthChars; ) {
+      final long enc = Utf8.encode(in, i, lengthChars);
+      final long bytes = Utf8.encodedBytes(enc);
+      final int numBytes = Utf8.numBytes(enc);
+      i += Utf8.numChars(enc);
+      word |= bytes << (wordBytes << 3); //any bytes shifted out belong to the next word
+      wordBytes += numBytes;
+      if (wordBytes >= 8) {
+        if (numWords < stripeWords) {
+          switch ((int) numWords & 3) {
+            case 0: v1 = round(v1, word); break;
+            case 1: v2 = round(v2, word); break;
+            case 2: v3 = round(v3, word); break;
+            default: v4 = round(v4, word); break;
+          }
+          if ((numWords + 1) == stripeWords) {
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12)
+                + Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+            hash += lengthBytes;
+          }
+        } else {
+          hash ^= round(0, word);
+          hash = (Long.rotateLeft(hash, 27) * P1) + P4;
+        }
+        numWords++;
+        wordBytes -= 8;
+        word = (wordBytes == 0) ? 0 : bytes >>> ((numBytes - wordBytes) << 3);
+      }
+    }
+
+    // the tail of fewer than 8 bytes
+    if (wordBytes >= 4) {
+      hash ^= (word & 0xFFFF_FFFFL) * P1;
+      hash = (Long.rotateLeft(hash, 23) * P2) + P3;
+      word >>>= 32;
+      wordBytes -= 4;
+    }
+    for (; wordBytes > 0; wordBytes--) {
+      hash ^= (word & 0xFFL) * P5;
+      hash = Long.rotateLeft(hash, 11) * P1;
+      word >>>= 8;
+    }
+
+    // avalanche
+    hash ^= hash >>> 33;
+    hash *= P2;
+    hash ^= hash >>> 29;
+    hash *= P3;
+    hash ^= hash >>> 32;
+    return hash;
+  }
+
+  /**
+   * Hash each long of a portion of the given array as a separate key. The 64-bit hash of
+   * <i>keys[keyOffset + i]</i> is written to <i>hashOut[i]</i>, and is the same as
+   * <i>hash(keys[keyOffset + i], seed)</i>.
+   *
+   * <p>The batch methods check the bounds once and then run a simple counted loop without allocations or calls
+   * that are not inlined, which the JIT can unroll. This removes most of the per-key overhead when hashing
+   * columnar batches of keys.</p>
+   *
+   * @param keys the input keys.
+   * @param keyOffset the index of the first key to hash.
+   * @param length the number of keys to hash.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the hashes. It must have a length of at least <i>length</i>.
+   * @return the given hashOut array.
+   */
+  public static long[] hashEach(final long[] keys, final int keyOffset, final int length, final long seed,
+      final long[] hashOut) {
+    MurmurHash3.checkBatch(keys.length, keyOffset, length, hashOut.length, length);
+    for (int i = 0; i < length; i++) {
+      hashOut[i] = hashLong(keys[keyOffset + i], seed);
+    }
+    return hashOut;
+  }
+
+  /**
+   * Hash each double of a portion of the given array as a separate key into hashOut, as for
+   * {@link #hashEach(long[], int, int, long, long[])}. Each double is hashed as the long of
+   * <i>Double.doubleToLongBits(key)</i>, which canonicalizes all NaN forms, as in the BloomFilter.
+   *
+   * @param keys the input keys.
+   * @param keyOffset the index of the first key to hash.
+   * @param length the number of keys to hash.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the hashes. It must have a length of at least <i>length</i>.
+   * @return the given hashOut array.
+   */
+  public static long[] hashEach(final double[] keys, final int keyOffset, final int length, final long seed,
+      final long[] hashOut) {
+    MurmurHash3.checkBatch(keys.length, keyOffset, length, hashOut.length, length);
+    for (int i = 0; i < length; i++) {
+      hashOut[i] = hashLong(Double.doubleToLongBits(keys[keyOffset + i]), seed);
+    }
+    return hashOut;
+  }
+
+  /**
+   * Hash each int of a portion of the given array as a separate key into hashOut, as for
+   * {@link #hashEach(long[], int, int, long, long[])}. Each int is hashed as the long of the same value.
+   *
+   * @param keys the input keys.
+   * @param keyOffset the index of the first key to hash.
+   * @param length the number of keys to hash.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the hashes. It must have a length of at least <i>length</i>.
+   * @return the given hashOut array.
+   */
+  public static long[] hashEach(final int[] keys, final int keyOffset, final int length, final long seed,
+      final long[] hashOut) {
+    MurmurHash3.checkBatch(keys.length, keyOffset, length, hashOut.length, length);
+    for (int i = 0; i < length; i++) {
+      hashOut[i] = hashLong(keys[keyOffset + i], seed);
+    }
+    return hashOut;
+  }
+
+  /**
+   * Hash the UTF-8 encoding of each CharSequence of a portion of the given array as a separate key into
+   * hashOut, as for {@link #hashEach(long[], int, int, long, long[])}. Each hash is the same as
+   * {@link #hashUtf8(CharSequence, long)}, including for empty keys. The hash of a null key is written as zero.
+   *
+   * @param keys the input keys.
+   * @param keyOffset the index of the first key to hash.
+   * @param length the number of keys to hash.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the hashes. It must have a length of at least <i>length</i>.
+   * @return the given hashOut array.
+   */
+  public static long[] hashEach(final CharSequence[] keys, final int keyOffset, final int length,
+      final long seed, final long[] hashOut) {
+    MurmurHash3.checkBatch(keys.length, keyOffset, length, hashOut.length, length);
+    for (int i = 0; i < length; i++) {
+      final CharSequence key = keys[keyOffset + i];
+      hashOut[i] = (key == null) ? 0 : hashUtf8(key, seed);
+    }
+    return hashOut;
+  }
+
+  /**
+   * Hash each byte[] of a portion of the given array as a separate key into hashOut, as for
+   * {@link #hashEach(long[], int, int, long, long[])}. Each hash is the same as
+   * <i>org.apache.datasketches.memory.XxHash.hashByteArr(key, 0, key.length, seed)</i>.
+   * The hash of a null key is written as zero.
+   *
+   * @param keys the input keys.
+   * @param keyOffset the index of the first key to hash.
+   * @param length the number of keys to hash.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the hashes. It must have a length of at least <i>length</i>.
+   * @return the given hashOut array.
+   */
+  public static long[] hashEach(final byte[][] keys, final int keyOffset, final int length, final long seed,
+      final long[] hashOut) {
+    MurmurHash3.checkBatch(keys.length, keyOffset, length, hashOut.length, length);
+    for (int i = 0; i < length; i++) {
+      final byte[] key = keys[keyOffset + i];
+      hashOut[i] = (key == null) ? 0
+          : org.apache.datasketches.memory.XxHash.hashByteArr(key, 0, key.length, seed);
+    }
+    return hashOut;
+  }
+
+  /**
+   * Hash each slice of the given byte array as a separate key into hashOut, as for
+   * {@link #hashEach(long[], int, int, long, long[])}. This is the layout of variable-width binary columns,
+   * for example in Arrow and Parquet: key <i>i</i> is the portion of <i>data</i> from
+   * <i>offsets[offsetsIndex + i]</i>, inclusive, to <i>offsets[offsetsIndex + i + 1]</i>, exclusive.
+   *
+   * @param data the bytes of all the keys.
+   * @param offsets the start offsets of the keys in data, followed by the end offset of the last key.
+   * @param offsetsIndex the index in offsets of the start offset of the first key to hash.
+   * @param length the number of keys to hash.
+   * @param seed A long valued seed.
+   * @param hashOut the array that receives the hashes. It must have a length of at least <i>length</i>.
+   * @return the given hashOut array.
+   */
+  public static long[] hashEach(final byte[] data, final int[] offsets, final int offsetsIndex, final int length,
+      final long seed, final long[] hashOut) {
+    MurmurHash3.checkBatch(offsets.length, offsetsIndex, length + 1L, hashOut.length, length);
+    for (int i = 0; i < length; i++) {
+      final int start = offsets[offsetsIndex + i];
+      final int lengthBytes = offsets[offsetsIndex + i + 1] - start;
+      Util.checkBounds(start, lengthBytes, data.length);
+      hashOut[i] = org.apache.datasketches.memory.XxHash.hashByteArr(data, start, lengthBytes, seed);
+    }
+    return hashOut;
+  }
+
+  /**
+   * The 64-bit hash of a single long, which is the same as <i>hash(in, seed)</i>.
+   */
+  private static long hashLong(final long in, final long seed) {
+    long hash = seed + P5 + Long.BYTES;
+    hash ^= round(0, in);
+    hash = (Long.rotateLeft(hash, 27) * P1) + P4;
+    // avalanche
+    hash ^= hash >>> 33;
+    hash *= P2;
+    hash ^= hash >>> 29;
+    hash *= P3;
+    hash ^= hash >>> 32;
+    return hash;
+  }
+
+  private static long round(long acc, final long input) {
+    acc += input * P2;
+    acc = Long.rotateLeft(acc, 31);
+    acc *= P1;
+    return acc;
+  }
+
+  private static long mergeRound(long acc, final long val) {
+    acc ^= round(0, val);
+    acc = (acc * P1) + P4;
+    return acc;
+  }
+
 }
@@ -19,8 +19,10 @@
 
 package org.apache.datasketches.hll;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.datasketches.common.Util.checkBounds;
 import static org.apache.datasketches.hash.MurmurHash3.hash;
+import static org.apache.datasketches.hash.MurmurHash3.hashEach;
+import static org.apache.datasketches.hash.MurmurHash3.hashUtf8;
 import static org.apache.datasketches.hll.HllUtil.HLL_HIP_RSE_FACTOR;
 import static org.apache.datasketches.hll.HllUtil.HLL_NON_HIP_RSE_FACTOR;
 import static org.apache.datasketches.hll.HllUtil.KEY_BITS_26;
@@ -28,6 +30,8 @@ import static org.apache.datasketches.hll.HllUtil.KEY_MASK_26;
 
 import java.nio.ByteBuffer;
 
+import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.hash.HashedItem;
 import org.apache.datasketches.memory.Memory;
 import org.apache.datasketches.thetacommon.ThetaUtil;
 
@@ -38,6 +42,9 @@ import org.apache.datasketches.thetacommon.ThetaUtil;
  * @author Kevin Lang
  */
 abstract class BaseHllSketch {
+  private static final int UPDATE_EACH_BATCH = 256; //the number of items hashed at a time by updateEach
+  private final long[] hashOut = new long[2]; //reused by the update methods to avoid allocation
+  private long[] updateEachHashes; //allocated on the first call to updateEach
 
   abstract void couponUpdate(int coupon);
 
@@ -298,8 +305,7 @@ abstract class BaseHllSketch {
    * @param datum The given long datum.
    */
   public void update(final long datum) {
-    final long[] data = { datum };
-    couponUpdate(coupon(hash(data, ThetaUtil.DEFAULT_UPDATE_SEED)));
+    couponUpdate(coupon(hash(datum, ThetaUtil.DEFAULT_UPDATE_SEED, hashOut)));
   }
 
   /**
@@ -313,13 +319,13 @@ abstract class BaseHllSketch {
    */
   public void update(final double datum) {
     final double d = (datum == 0.0) ? 0.0 : datum; // canonicalize -0.0, 0.0
-    final long[] data = { Double.doubleToLongBits(d) };// canonicalize all NaN & +/- infinity forms
-    couponUpdate(coupon(hash(data, ThetaUtil.DEFAULT_UPDATE_SEED)));
+    final long data = Double.doubleToLongBits(d);// canonicalize all NaN & +/- infinity forms
+    couponUpdate(coupon(hash(data, ThetaUtil.DEFAULT_UPDATE_SEED, hashOut)));
   }
 
   /**
    * Present the given String as a potential unique item.
-   * The string is converted to a byte array using UTF8 encoding.
+   * The string is hashed using its UTF-8 encoding without first converting it to a byte array.
    * If the string is null or empty no update attempt is made and the method returns.
    *
    * <p>Note: About 2X faster performance can be obtained by first converting the String to a
@@ -333,8 +339,7 @@ abstract class BaseHllSketch {
    */
   public void update(final String datum) {
     if ((datum == null) || datum.isEmpty()) { return; }
-    final byte[] data = datum.getBytes(UTF_8);
-    couponUpdate(coupon(hash(data, ThetaUtil.DEFAULT_UPDATE_SEED)));
+    couponUpdate(coupon(hashUtf8(datum, ThetaUtil.DEFAULT_UPDATE_SEED, hashOut)));
   }
 
   /**
@@ -351,7 +356,7 @@ abstract class BaseHllSketch {
    */
   public void update(final ByteBuffer data) {
     if ((data == null) || (data.remaining() == 0)) { return; }
-    couponUpdate(coupon(hash(data, ThetaUtil.DEFAULT_UPDATE_SEED)));
+    couponUpdate(coupon(hash(data, ThetaUtil.DEFAULT_UPDATE_SEED, hashOut)));
   }
 
   /**
@@ -362,7 +367,7 @@ abstract class BaseHllSketch {
    */
   public void update(final byte[] data) {
     if ((data == null) || (data.length == 0)) { return; }
-    couponUpdate(coupon(hash(data, ThetaUtil.DEFAULT_UPDATE_SEED)));
+    couponUpdate(coupon(hash(data, ThetaUtil.DEFAULT_UPDATE_SEED, hashOut)));
   }
 
   /**
@@ -376,7 +381,7 @@ abstract class BaseHllSketch {
    */
   public void update(final char[] data) {
     if ((data == null) || (data.length == 0)) { return; }
-    couponUpdate(coupon(hash(data, ThetaUtil.DEFAULT_UPDATE_SEED)));
+    couponUpdate(coupon(hash(data, ThetaUtil.DEFAULT_UPDATE_SEED, hashOut)));
   }
 
   /**
@@ -387,7 +392,7 @@ abstract class BaseHllSketch {
    */
   public void update(final int[] data) {
     if ((data == null) || (data.length == 0)) { return; }
-    couponUpdate(coupon(hash(data, ThetaUtil.DEFAULT_UPDATE_SEED)));
+    couponUpdate(coupon(hash(data, ThetaUtil.DEFAULT_UPDATE_SEED, hashOut)));
   }
 
   /**
@@ -398,12 +403,125 @@ abstract class BaseHllSketch {
    */
   public void update(final long[] data) {
     if ((data == null) || (data.length == 0)) { return; }
-    couponUpdate(coupon(hash(data, ThetaUtil.DEFAULT_UPDATE_SEED)));
+    couponUpdate(coupon(hash(data, ThetaUtil.DEFAULT_UPDATE_SEED, hashOut)));
+  }
+
+  /**
+   * Present the given item, which has already been hashed, as a potential unique item.
+   * This has the same result as presenting the item itself, but allows the item to be hashed only once
+   * when it is presented to several sketches.
+   * If the HashedItem is empty no update attempt is made and the method returns.
+   *
+   * @param item the given HashedItem, which must have been hashed with the
+   * {@link org.apache.datasketches.thetacommon.ThetaUtil#DEFAULT_UPDATE_SEED}.
+   * @throws SketchesArgumentException if the seed of the HashedItem is not the default update seed.
+   */
+  public void update(final HashedItem item) {
+    if (item.getSeed() != ThetaUtil.DEFAULT_UPDATE_SEED) {
+      throw new SketchesArgumentException(
+          "The HashedItem seed: " + item.getSeed() + " must be the default update seed for HLL sketches.");
+    }
+    if (item.isEmpty()) { return; }
+    couponUpdate(coupon(item.getHash0(), item.getHash1()));
+  }
+
+  /**
+   * Present each long of a portion of the given array as a separate potential unique item.
+   * This has the same result as calling {@link #update(long)} with each item, but the items are hashed in
+   * batches, and the argument checks are done once per call.
+   *
+   * <p>Note that this is not the same as {@link #update(long[])}, which presents the whole array as a single
+   * item.</p>
+   *
+   * @param items the given items
+   * @param offset the index of the first item
+   * @param length the number of items
+   */
+  public void updateEach(final long[] items, final int offset, final int length) {
+    checkBounds(offset, length, items.length);
+    final long[] hashes = updateEachHashes();
+    for (int start = 0; start < length; start += UPDATE_EACH_BATCH) {
+      final int n = Math.min(UPDATE_EACH_BATCH, length - start);
+      hashEach(items, offset + start, n, ThetaUtil.DEFAULT_UPDATE_SEED, hashes);
+      for (int i = 0; i < n; i++) { couponUpdate(coupon(hashes[i << 1], hashes[(i << 1) + 1])); }
+    }
+  }
+
+  /**
+   * Present each double of a portion of the given array as a separate potential unique item.
+   * This has the same result as calling {@link #update(double)} with each item, including the canonicalization
+   * of the doubles, but the items are hashed in batches, and the argument checks are done once per call.
+   *
+   * @param items the given items
+   * @param offset the index of the first item
+   * @param length the number of items
+   */
+  public void updateEach(final double[] items, final int offset, final int length) {
+    checkBounds(offset, length, items.length);
+    final long[] hashes = updateEachHashes();
+    for (int start = 0; start < length; start += UPDATE_EACH_BATCH) {
+      final int n = Math.min(UPDATE_EACH_BATCH, length - start);
+      hashEach(items, offset + start, n, ThetaUtil.DEFAULT_UPDATE_SEED, hashes);
+      for (int i = 0; i < n; i++) { couponUpdate(coupon(hashes[i << 1], hashes[(i << 1) + 1])); }
+    }
+  }
+
+  /**
+   * Present each int of a portion of the given array as a separate potential unique item.
+   * This has the same result as calling {@link #update(long)} with each item, but the items are hashed in
+   * batches, and the argument checks are done once per call.
+   *
+   * <p>Note that this is not the same as {@link #update(int[])}, which presents the whole array as a single
+   * item.</p>
+   *
+   * @param items the given items
+   * @param offset the index of the first item
+   * @param length the number of items
+   */
+  public void updateEach(final int[] items, final int offset, final int length) {
+    checkBounds(offset, length, items.length);
+    final long[] hashes = updateEachHashes();
+    for (int start = 0; start < length; start += UPDATE_EACH_BATCH) {
+      final int n = Math.min(UPDATE_EACH_BATCH, length - start);
+      hashEach(items, offset + start, n, ThetaUtil.DEFAULT_UPDATE_SEED, hashes);
+      for (int i = 0; i < n; i++) { couponUpdate(coupon(hashes[i << 1], hashes[(i << 1) + 1])); }
+    }
+  }
+
+  /**
+   * Present each String of a portion of the given array as a separate potential unique item.
+   * This has the same result as calling {@link #update(String)} with each item, so null or empty Strings are
+   * ignored, but the items are hashed in batches, and the argument checks are done once per call.
+   *
+   * @param items the given items
+   * @param offset the index of the first item
+   * @param length the number of items
+   */
+  public void updateEach(final String[] items, final int offset, final int length) {
+    checkBounds(offset, length, items.length);
+    final long[] hashes = updateEachHashes();
+    for (int start = 0; start < length; start += UPDATE_EACH_BATCH) {
+      final int n = Math.min(UPDATE_EACH_BATCH, length - start);
+      hashEach(items, offset + start, n, ThetaUtil.DEFAULT_UPDATE_SEED, hashes);
+      for (int i = 0; i < n; i++) {
+        final String item = items[offset + start + i];
+        if ((item != null) && !item.isEmpty()) { couponUpdate(coupon(hashes[i << 1], hashes[(i << 1) + 1])); }
+      }
+    }
+  }
+
+  private long[] updateEachHashes() {
+    if (updateEachHashes == null) { updateEachHashes = new long[2 * UPDATE_EACH_BATCH]; }
+    return updateEachHashes;
   }
 
   private static final int coupon(final long[] hash) {
-    final int addr26 = (int) ((hash[0] & KEY_MASK_26));
-    final int lz = Long.numberOfLeadingZeros(hash[1]);
+    return coupon(hash[0], hash[1]);
+  }
+
+  private static final int coupon(final long hash0, final long hash1) {
+    final int addr26 = (int) ((hash0 & KEY_MASK_26));
+    final int lz = Long.numberOfLeadingZeros(hash1);
     final int value = ((lz > 62 ? 62 : lz) + 1);
     return (value << KEY_BITS_26) | addr26;
   }
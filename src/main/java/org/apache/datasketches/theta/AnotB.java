@@ -19,6 +19,9 @@
 
 package org.apache.datasketches.theta;
 
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+
 import org.apache.datasketches.common.Family;
 import org.apache.datasketches.memory.WritableMemory;
 
@@ -35,6 +38,7 @@ import org.apache.datasketches.memory.WritableMemory;
  * anotb.notB(Sketch skC); // ...any number of additional subtractions...
  * anotb.getResult(false); //Get an interim result.
  * anotb.notB(Sketch skD); //Additional subtractions.
+ * anotb.notBAll(Collection skBs); //Many subtractions searched in parallel.
  * anotb.getResult(true);  //Final result and resets the AnotB operator.
  * </code></pre>
  *
@@ -107,6 +111,37 @@ public abstract class AnotB extends SetOperation {
    */
   public abstract void notB(Sketch skB);
 
+  /**
+   * This is part of a multistep, stateful AnotB operation and sets all of the given Theta sketches
+   * as following arguments <i>B</i> of <i>A-AND-NOT-B</i>, using the common ForkJoinPool.
+   *
+   * @param skBs the incoming Theta sketches for the following arguments <i>B</i>. The collection
+   * must not be null, but null or empty sketches in it are ignored.
+   * @see #notBAll(Collection, ForkJoinPool)
+   */
+  public void notBAll(final Collection<? extends Sketch> skBs) {
+    notBAll(skBs, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * This is part of a multistep, stateful AnotB operation and sets all of the given Theta sketches
+   * as following arguments <i>B</i> of <i>A-AND-NOT-B</i>, searching them in parallel on the given
+   * ForkJoinPool.
+   *
+   * <p>The internal state of this operator holds the hash values of <i>A</i> in ascending order,
+   * so each ordered compact sketch <i>B</i> is merged with it, while the hash values of any other
+   * sketch are searched for in it. The hash values found in any of the sketches are removed in one
+   * pass at the end. The result is equivalent to calling {@link #notB(Sketch)} with each sketch in
+   * turn.</p>
+   *
+   * <p>The sketches must not be modified while this method runs.</p>
+   *
+   * @param skBs the incoming Theta sketches for the following arguments <i>B</i>. The collection
+   * must not be null, but null or empty sketches in it are ignored.
+   * @param pool the ForkJoinPool that runs the search.
+   */
+  public abstract void notBAll(Collection<? extends Sketch> skBs, ForkJoinPool pool);
+
   /**
    * Gets the result of the multistep, stateful operation AnotB that have been executed with calls
    * to {@link #setA(Sketch)} and ({@link #notB(Sketch)} or
@@ -196,4 +231,41 @@ public abstract class AnotB extends SetOperation {
   public abstract CompactSketch aNotB(Sketch skA, Sketch skB, boolean dstOrdered,
       WritableMemory dstMem);
 
+  /**
+   * Perform A-and-not-B set operation on the given sketch <i>A</i> and all of the given sketches
+   * <i>B</i>, using the common ForkJoinPool, and return the result as an ordered CompactSketch on
+   * the heap.
+   *
+   * @param skA The incoming sketch for the first argument. It must not be null.
+   * @param skBs The incoming sketches for the following arguments. The collection must not be null,
+   * but null or empty sketches in it are ignored.
+   * @return an ordered CompactSketch on the heap
+   * @see #aNotBAll(Sketch, Collection, boolean, WritableMemory, ForkJoinPool)
+   */
+  public CompactSketch aNotBAll(final Sketch skA, final Collection<? extends Sketch> skBs) {
+    return aNotBAll(skA, skBs, true, null, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Perform A-and-not-B set operation on the given sketch <i>A</i> and all of the given sketches
+   * <i>B</i>, searching the sketches <i>B</i> in parallel on the given ForkJoinPool, and return the
+   * result as a CompactSketch.
+   *
+   * <p>This a stateless operation and has no impact on the internal state of this operator.
+   * The result is equivalent to calling {@link #setA(Sketch)}, {@link #notBAll(Collection, ForkJoinPool)}
+   * and {@link #getResult(boolean, WritableMemory, boolean)} in turn.</p>
+   *
+   * @param skA The incoming sketch for the first argument. It must not be null.
+   * @param skBs The incoming sketches for the following arguments. The collection must not be null,
+   * but null or empty sketches in it are ignored.
+   * @param dstOrdered
+   * <a href="{@docRoot}/resources/dictionary.html#dstOrdered">See Destination Ordered</a>.
+   * @param dstMem
+   * <a href="{@docRoot}/resources/dictionary.html#dstMem">See Destination Memory</a>.
+   * @param pool the ForkJoinPool that runs the search.
+   * @return the result as a CompactSketch.
+   */
+  public abstract CompactSketch aNotBAll(Sketch skA, Collection<? extends Sketch> skBs,
+      boolean dstOrdered, WritableMemory dstMem, ForkJoinPool pool);
+
 }
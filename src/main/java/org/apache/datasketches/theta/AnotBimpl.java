@@ -23,11 +23,16 @@ import static org.apache.datasketches.common.Util.exactLog2OfLong;
 import static org.apache.datasketches.thetacommon.HashOperations.convertToHashTable;
 import static org.apache.datasketches.thetacommon.HashOperations.hashSearch;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.datasketches.common.SketchesArgumentException;
 import org.apache.datasketches.memory.Memory;
 import org.apache.datasketches.memory.WritableMemory;
+import org.apache.datasketches.theta.OrderedMergeJoin.Hashes;
 import org.apache.datasketches.thetacommon.ThetaUtil;
 
 /**
@@ -39,7 +44,7 @@ final class AnotBimpl extends AnotB {
   private final short seedHash_;
   private boolean empty_;
   private long thetaLong_;
-  private long[] hashArr_ = new long[0]; //compact array w curCount_ entries
+  private long[] hashArr_ = new long[0]; //compact array w curCount_ entries in ascending order
   private int curCount_;
 
   /**
@@ -74,8 +79,13 @@ final class AnotBimpl extends AnotB {
     //skA is not empty
     ThetaUtil.checkSeedHashes(seedHash_, skA.getSeedHash());
 
-    //process A
-    hashArr_ = getHashArrA(skA);
+    //process A, which is kept in ascending order so that ordered inputs B can be merged with it
+    if (OrderedMergeJoin.isOrderedCompact(skA)) {
+      hashArr_ = skA.getCache().clone();
+    } else {
+      hashArr_ = getHashArrA(skA);
+      Arrays.sort(hashArr_);
+    }
     empty_ = false;
     thetaLong_ = skA.getThetaLong();
     curCount_ = hashArr_.length;
@@ -89,12 +99,47 @@ final class AnotBimpl extends AnotB {
 
     thetaLong_ = Math.min(thetaLong_,  skB.getThetaLong());
 
-    //process B
-    hashArr_ = getResultHashArr(thetaLong_, curCount_, hashArr_, skB);
+    //process B. Both ways keep the order of A
+    hashArr_ = OrderedMergeJoin.isOrderedCompact(skB)
+        ? OrderedMergeJoin.aNotB(Hashes.of(hashArr_, curCount_), skB, thetaLong_)
+        : getResultHashArr(thetaLong_, curCount_, hashArr_, skB);
     curCount_ = hashArr_.length;
     empty_ = curCount_ == 0 && thetaLong_ == Long.MAX_VALUE;
   }
 
+  @Override
+  public void notBAll(final Collection<? extends Sketch> skBs, final ForkJoinPool pool) {
+    if (skBs == null) {
+      throw new SketchesArgumentException("The collection of inputs <i>B</i> must not be null");
+    }
+    if (empty_) { return; }
+    final List<Sketch> list = new ArrayList<>(skBs.size());
+    long minThetaLong = thetaLong_;
+    for (final Sketch skB : skBs) {
+      if (skB == null || skB.isEmpty()) { continue; }
+      ThetaUtil.checkSeedHashes(seedHash_, skB.getSeedHash());
+      minThetaLong = Math.min(minThetaLong, skB.getThetaLong());
+      list.add(skB);
+    }
+    thetaLong_ = minThetaLong;
+    final Hashes hashesA = Hashes.of(hashArr_, curCount_);
+    final long[] found = list.isEmpty() ? new long[(curCount_ + 63) >>> 6]
+        : pool.invoke(new ParallelAnotBTask(hashesA, list, thetaLong_,
+            Math.max(1, list.size() / (pool.getParallelism() * 4))));
+
+    //keep the hash values of A that are below the new theta and were not found in any B
+    final long[] out = new long[curCount_];
+    int count = 0;
+    for (int i = 0; i < curCount_; i++) {
+      final long hash = hashArr_[i];
+      if (hash >= thetaLong_) { break; }
+      if ((found[i >>> 6] & (1L << i)) == 0) { out[count++] = hash; }
+    }
+    hashArr_ = Arrays.copyOf(out, count);
+    curCount_ = count;
+    empty_ = curCount_ == 0 && thetaLong_ == Long.MAX_VALUE;
+  }
+
   @Override
   public CompactSketch getResult(final boolean reset) {
     return getResult(true, null, reset);
@@ -104,7 +149,7 @@ final class AnotBimpl extends AnotB {
   public CompactSketch getResult(final boolean dstOrdered, final WritableMemory dstMem,
       final boolean reset) {
     final CompactSketch result = CompactOperations.componentsToCompact(
-      thetaLong_, curCount_, seedHash_, empty_, true, false, dstOrdered, dstMem, hashArr_.clone());
+      thetaLong_, curCount_, seedHash_, empty_, true, true, dstOrdered, dstMem, hashArr_.clone());
     if (reset) { reset(); }
     return result;
   }
@@ -129,20 +174,41 @@ final class AnotBimpl extends AnotB {
     ThetaUtil.checkSeedHashes(skB.getSeedHash(), seedHash_);
     //Both skA & skB are not empty
 
-    //process A
-    final long[] hashArrA = getHashArrA(skA);
-    final int countA = hashArrA.length;
+    final long[] hashArrOut; //out is a new array
+    final boolean ordered;
+    if (OrderedMergeJoin.isOrderedCompact(skA) && OrderedMergeJoin.isOrderedCompact(skB)) {
+      hashArrOut = OrderedMergeJoin.aNotB(Hashes.of(skA), skB, minThetaLong);
+      ordered = true;
+    } else {
+      //process A
+      final long[] hashArrA = getHashArrA(skA);
+      final int countA = hashArrA.length;
 
-    //process B
-    final long[] hashArrOut = getResultHashArr(minThetaLong, countA, hashArrA, skB); //out is clone
+      //process B
+      hashArrOut = getResultHashArr(minThetaLong, countA, hashArrA, skB);
+      ordered = false;
+    }
     final int countOut = hashArrOut.length;
     final boolean empty = countOut == 0 && minThetaLong == Long.MAX_VALUE;
 
     final CompactSketch result = CompactOperations.componentsToCompact(
-          minThetaLong, countOut, seedHash_, empty, true, false, dstOrdered, dstMem, hashArrOut);
+          minThetaLong, countOut, seedHash_, empty, true, ordered, dstOrdered, dstMem, hashArrOut);
     return result;
   }
 
+  @Override
+  public CompactSketch aNotBAll(final Sketch skA, final Collection<? extends Sketch> skBs,
+      final boolean dstOrdered, final WritableMemory dstMem, final ForkJoinPool pool) {
+    if (skA == null || skBs == null) {
+      throw new SketchesArgumentException("Neither argument may be null");
+    }
+    if (skA.isEmpty()) { return skA.compact(dstOrdered, dstMem); }
+    final AnotBimpl anotb = new AnotBimpl(seedHash_);
+    anotb.setA(skA);
+    anotb.notBAll(skBs, pool);
+    return anotb.getResult(dstOrdered, dstMem, true);
+  }
+
   @Override
   int getRetainedEntries() {
     return curCount_;
@@ -129,7 +129,8 @@ public abstract class CompactSketch extends Sketch {
    * The wrap operation enables fast read-only merging and access to all the public read-only API.
    *
    * <p>Only "Direct" Serialization Version 3 (i.e, OpenSource) sketches that have
-   * been explicitly stored as direct sketches can be wrapped.
+   * been explicitly stored as direct sketches, and compressed Serialization Version 4 sketches,
+   * can be wrapped. The hash values of a compressed sketch are decoded as they are iterated.
    * Wrapping earlier serial version sketches will result in a heapify operation.
    * These early versions were never designed to "wrap".</p>
    *
@@ -155,7 +156,8 @@ public abstract class CompactSketch extends Sketch {
    * The wrap operation enables fast read-only merging and access to all the public read-only API.
    *
    * <p>Only "Direct" Serialization Version 3 (i.e, OpenSource) sketches that have
-   * been explicitly stored as direct sketches can be wrapped.
+   * been explicitly stored as direct sketches, and compressed Serialization Version 4 sketches,
+   * can be wrapped. The hash values of a compressed sketch are decoded as they are iterated.
    * Wrapping earlier serial version sketches will result in a heapify operation.
    * These early versions were never designed to "wrap".</p>
    *
@@ -187,9 +189,8 @@ public abstract class CompactSketch extends Sketch {
     final short seedHash = ThetaUtil.computeSeedHash(seed);
 
     if (serVer == 4) {
-      // not wrapping the compressed format since currently we cannot take advantage of
-      // decompression during iteration because set operations reach into memory directly
-      return heapifyV4(srcMem, seed, enforceSeed);
+      return DirectCompactCompressedSketch.wrapInstance(srcMem,
+          enforceSeed ? seedHash : (short) extractSeedHash(srcMem));
     }
     else if (serVer == 3) {
       if (PreambleUtil.isEmptyFlag(srcMem)) {
@@ -274,14 +275,14 @@ public abstract class CompactSketch extends Sketch {
     return Long.numberOfLeadingZeros(ored);
   }
 
-  private static int wholeBytesToHoldBits(final int bits) {
-    return (bits >>> 3) + ((bits & 7) > 0 ? 1 : 0);
+  private static int wholeBytesToHoldBits(final long bits) {
+    return (int) ((bits + 7) >>> 3);
   }
 
   private byte[] toByteArrayV4() {
     final int preambleLongs = isEstimationMode() ? 2 : 1;
     final int entryBits = 64 - computeMinLeadingZeros();
-    final int compressedBits = entryBits * getRetainedEntries();
+    final long compressedBits = (long) entryBits * getRetainedEntries();
 
     // store num_entries as whole bytes since whole-byte blocks will follow (most probably)
     final int numEntriesBytes = wholeBytesToHoldBits(32 - Integer.numberOfLeadingZeros(getRetainedEntries()));
@@ -351,22 +352,20 @@ public abstract class CompactSketch extends Sketch {
       numEntries |= Byte.toUnsignedInt(srcMem.getByte(offsetBytes++)) << (i << 3);
     }
     final long[] entries = new long[numEntries];
-    final byte[] bytes = new byte[entryBits]; // temporary buffer for unpacking
+    // copy the whole packed payload once and unpack the blocks consecutively from it
+    final byte[] bytes = new byte[wholeBytesToHoldBits((long) numEntries * entryBits)];
+    srcMem.getByteArray(offsetBytes, bytes, 0, bytes.length);
+    offsetBytes = 0;
     int i;
     for (i = 0; i + 7 < numEntries; i += 8) {
-      srcMem.getByteArray(offsetBytes, bytes, 0, entryBits);
-      BitPacking.unpackBitsBlock8(entries, i, bytes, 0, entryBits);
+      BitPacking.unpackBitsBlock8(entries, i, bytes, offsetBytes, entryBits);
       offsetBytes += entryBits;
     }
-    if (i < numEntries) {
-      srcMem.getByteArray(offsetBytes, bytes, 0, wholeBytesToHoldBits((numEntries - i) * entryBits));
-      int offsetBits = 0;
-      offsetBytes = 0;
-      for (; i < numEntries; i++) {
-        BitPacking.unpackBits(entries, i, entryBits, bytes, offsetBytes, offsetBits);
-        offsetBytes += (offsetBits + entryBits) >>> 3;
-        offsetBits = (offsetBits + entryBits) & 7;
-      }
+    int offsetBits = 0;
+    for (; i < numEntries; i++) {
+      BitPacking.unpackBits(entries, i, entryBits, bytes, offsetBytes, offsetBits);
+      offsetBytes += (offsetBits + entryBits) >>> 3;
+      offsetBits = (offsetBits + entryBits) & 7;
     }
     // undo deltas
     long previous = 0;
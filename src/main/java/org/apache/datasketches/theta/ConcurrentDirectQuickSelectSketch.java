@@ -21,8 +21,7 @@ package org.apache.datasketches.theta;
 
 import static org.apache.datasketches.theta.PreambleUtil.THETA_LONG;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.datasketches.common.ResizeFactor;
@@ -42,8 +41,11 @@ import org.apache.datasketches.memory.WritableMemory;
 final class ConcurrentDirectQuickSelectSketch extends DirectQuickSelectSketch
     implements ConcurrentSharedThetaSketch {
 
-  // The propagation thread
-  private ExecutorService executorService_;
+  // The executor given to the builder, or null for the default ConcurrentPropagationService
+  private final Executor executor_;
+
+  // Runs the background propagations one at a time
+  private volatile ConcurrentSerialExecutor propagationExecutor_;
 
   // A flag to coordinate between several eager propagation threads
   private final AtomicBoolean sharedPropagationInProgress_;
@@ -69,9 +71,10 @@ final class ConcurrentDirectQuickSelectSketch extends DirectQuickSelectSketch
    * @param seed       <a href="{@docRoot}/resources/dictionary.html#seed">See Update Hash Seed</a>.
    * @param maxConcurrencyError the max error value including error induced by concurrency.
    * @param dstMem     the given Memory object destination. It cannot be null.
+   * @param executor   the executor of the background propagations, or null for the default pool.
    */
   ConcurrentDirectQuickSelectSketch(final int lgNomLongs, final long seed,
-      final double maxConcurrencyError, final WritableMemory dstMem) {
+      final double maxConcurrencyError, final WritableMemory dstMem, final Executor executor) {
     super(lgNomLongs, seed, 1.0F, //p
       ResizeFactor.X1, //rf,
       null, dstMem, false); //unionGadget
@@ -82,11 +85,12 @@ final class ConcurrentDirectQuickSelectSketch extends DirectQuickSelectSketch
         maxConcurrencyError);
     sharedPropagationInProgress_ = new AtomicBoolean(false);
     epoch_ = 0;
+    executor_ = executor;
     initBgPropagationService();
   }
 
   ConcurrentDirectQuickSelectSketch(final UpdateSketch sketch, final long seed,
-      final double maxConcurrencyError, final WritableMemory dstMem) {
+      final double maxConcurrencyError, final WritableMemory dstMem, final Executor executor) {
     super(sketch.getLgNomLongs(), seed, 1.0F, //p
         ResizeFactor.X1, //rf,
         null, //mem Req Svr
@@ -97,6 +101,7 @@ final class ConcurrentDirectQuickSelectSketch extends DirectQuickSelectSketch
         maxConcurrencyError);
     sharedPropagationInProgress_ = new AtomicBoolean(false);
     epoch_ = 0;
+    executor_ = executor;
     initBgPropagationService();
     for (final long hashIn : sketch.getCache()) {
       propagate(hashIn);
@@ -188,18 +193,16 @@ final class ConcurrentDirectQuickSelectSketch extends DirectQuickSelectSketch
   @Override
   public void awaitBgPropagationTermination() {
     try {
-      executorService_.shutdown();
-      while (!executorService_.awaitTermination(1, TimeUnit.MILLISECONDS)) {
-        Thread.sleep(1);
-      }
+      propagationExecutor_.awaitQuiescence();
     } catch (final InterruptedException e) {
-      e.printStackTrace();
+      Thread.currentThread().interrupt();
     }
   }
 
   @Override
   public final void initBgPropagationService() {
-    executorService_ = ConcurrentPropagationService.getExecutorService(Thread.currentThread().getId());
+    propagationExecutor_ = new ConcurrentSerialExecutor((executor_ != null) ? executor_
+        : ConcurrentPropagationService.getExecutorService(Thread.currentThread().getId()));
   }
 
   @Override
@@ -223,7 +226,7 @@ final class ConcurrentDirectQuickSelectSketch extends DirectQuickSelectSketch
     // otherwise, be nonblocking, let background thread do the work
     final ConcurrentBackgroundThetaPropagation job = new ConcurrentBackgroundThetaPropagation(
         this, localPropagationInProgress, sketchIn, singleHash, epoch);
-    executorService_.execute(job);
+    propagationExecutor_.execute(job);
     return true;
   }
 
@@ -258,13 +261,11 @@ final class ConcurrentDirectQuickSelectSketch extends DirectQuickSelectSketch
   private void advanceEpoch() {
     awaitBgPropagationTermination();
     startEagerPropagation();
-    ConcurrentPropagationService.resetExecutorService(Thread.currentThread().getId());
     //no inspection NonAtomicOperationOnVolatileField
     // this increment of a volatile field is done within the scope of the propagation
     // synchronization and hence is done by a single thread.
     epoch_++;
     endPropagation(null, true);
-    initBgPropagationService();
   }
 
 }
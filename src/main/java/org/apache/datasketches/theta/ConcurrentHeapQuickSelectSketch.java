@@ -19,8 +19,7 @@
 
 package org.apache.datasketches.theta;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.datasketches.common.ResizeFactor;
@@ -39,8 +38,11 @@ import org.apache.datasketches.common.SuppressFBWarnings;
 final class ConcurrentHeapQuickSelectSketch extends HeapQuickSelectSketch
     implements ConcurrentSharedThetaSketch {
 
-  // The propagation thread
-  private volatile ExecutorService executorService_;
+  // The executor given to the builder, or null for the default ConcurrentPropagationService
+  private final Executor executor_;
+
+  // Runs the background propagations one at a time
+  private volatile ConcurrentSerialExecutor propagationExecutor_;
 
   //A flag to coordinate between several eager propagation threads
   private final AtomicBoolean sharedPropagationInProgress_;
@@ -65,10 +67,10 @@ final class ConcurrentHeapQuickSelectSketch extends HeapQuickSelectSketch
    * @param lgNomLongs <a href="{@docRoot}/resources/dictionary.html#lgNomLogs">See lgNomLongs</a>.
    * @param seed       <a href="{@docRoot}/resources/dictionary.html#seed">See seed</a>
    * @param maxConcurrencyError the max error value including error induced by concurrency
-   *
+   * @param executor the executor of the background propagations, or null for the default pool
    */
   ConcurrentHeapQuickSelectSketch(final int lgNomLongs, final long seed,
-      final double maxConcurrencyError) {
+      final double maxConcurrencyError, final Executor executor) {
     super(lgNomLongs, seed, 1.0F, //p
         ResizeFactor.X1, //rf,
         false); //unionGadget
@@ -79,11 +81,12 @@ final class ConcurrentHeapQuickSelectSketch extends HeapQuickSelectSketch
         maxConcurrencyError);
     sharedPropagationInProgress_ = new AtomicBoolean(false);
     epoch_ = 0;
+    executor_ = executor;
     initBgPropagationService();
   }
 
   ConcurrentHeapQuickSelectSketch(final UpdateSketch sketch, final long seed,
-      final double maxConcurrencyError) {
+      final double maxConcurrencyError, final Executor executor) {
     super(sketch.getLgNomLongs(), seed, 1.0F, //p
         ResizeFactor.X1, //rf,
         false); //unionGadget
@@ -92,6 +95,7 @@ final class ConcurrentHeapQuickSelectSketch extends HeapQuickSelectSketch
         maxConcurrencyError);
     sharedPropagationInProgress_ = new AtomicBoolean(false);
     epoch_ = 0;
+    executor_ = executor;
     initBgPropagationService();
     for (final long hashIn : sketch.getCache()) {
       propagate(hashIn);
@@ -183,18 +187,16 @@ final class ConcurrentHeapQuickSelectSketch extends HeapQuickSelectSketch
   @Override
   public void awaitBgPropagationTermination() {
     try {
-      executorService_.shutdown();
-      while (!executorService_.awaitTermination(1, TimeUnit.MILLISECONDS)) {
-        Thread.sleep(1);
-      }
+      propagationExecutor_.awaitQuiescence();
     } catch (final InterruptedException e) {
-      e.printStackTrace();
+      Thread.currentThread().interrupt();
     }
   }
 
   @Override
   public void initBgPropagationService() {
-    executorService_ = ConcurrentPropagationService.getExecutorService(Thread.currentThread().getId());
+    propagationExecutor_ = new ConcurrentSerialExecutor((executor_ != null) ? executor_
+        : ConcurrentPropagationService.getExecutorService(Thread.currentThread().getId()));
   }
 
   @Override
@@ -218,7 +220,7 @@ final class ConcurrentHeapQuickSelectSketch extends HeapQuickSelectSketch
     // otherwise, be nonblocking, let background thread do the work
     final ConcurrentBackgroundThetaPropagation job = new ConcurrentBackgroundThetaPropagation(
         this, localPropagationInProgress, sketchIn, singleHash, epoch);
-    executorService_.execute(job);
+    propagationExecutor_.execute(job);
     return true;
   }
 
@@ -253,14 +255,12 @@ final class ConcurrentHeapQuickSelectSketch extends HeapQuickSelectSketch
   private void advanceEpoch() {
     awaitBgPropagationTermination();
     startEagerPropagation();
-    ConcurrentPropagationService.resetExecutorService(Thread.currentThread().getId());
     //no inspection NonAtomicOperationOnVolatileField
     // this increment of a volatile field is done within the scope of the propagation
     // synchronization and hence is done by a single thread
     // Ignore a FindBugs warning
     epoch_++;
     endPropagation(null, true);
-    initBgPropagationService();
   }
 
 }
@@ -120,6 +120,16 @@ final class ConcurrentHeapThetaBuffer extends HeapQuickSelectSketch {
     thetaLong_ = shared.getVolatileTheta();
   }
 
+  /**
+   * Propagates the content of this buffer, if any, to the shared sketch.
+   * This must be called by the thread that owns this buffer, or while holding the lock that guards it.
+   */
+  void flush() {
+    if (getRetainedEntries(true) > 0) {
+      propagateToSharedSketch();
+    }
+  }
+
   //Public Sketch overrides proxies to shared concurrent sketch
 
   @Override
@@ -19,54 +19,106 @@
 
 package org.apache.datasketches.theta;
 
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.datasketches.common.SuppressFBWarnings;
 
 /**
- * Pool of threads to serve <i>all</i> propagation tasks in the system.
+ * The default pool of threads that serves the background propagation tasks of all concurrent shared theta
+ * sketches in the JVM that were not built with their own Executor.
+ * See {@link UpdateSketchBuilder#setPropagationExecutor(java.util.concurrent.Executor)}.
+ *
+ * <p>The pool threads are created lazily. The pool can be shut down, for example when an application is
+ * undeployed. Shared sketches that still use the pool after it has been shut down propagate in the calling
+ * thread, and shared sketches built afterwards start new pool threads.</p>
  *
  * @author Eshcar Hillel
  */
-final class ConcurrentPropagationService {
+public final class ConcurrentPropagationService {
+
+  private static int numPoolThreads = 3; // Default: 3 threads
+  private static ExecutorService[] propagationExecutorService = new ExecutorService[numPoolThreads];
+  private static Executor virtualThreadExecutor = null;
+  private static boolean virtualThreadExecutorChecked = false;
 
-  static int NUM_POOL_THREADS = 3; // Default: 3 threads
-  private static volatile ConcurrentPropagationService instance = null; // Singleton
-  private static ExecutorService[] propagationExecutorService = null;
+  private ConcurrentPropagationService() {}
 
-  @SuppressFBWarnings(value = "ST_WRITE_TO_STATIC_FROM_INSTANCE_METHOD", justification = "Fix later")
-  private ConcurrentPropagationService() {
-    propagationExecutorService = new ExecutorService[NUM_POOL_THREADS];
+  /**
+   * Returns the number of threads of the default propagation pool.
+   * @return the number of threads of the default propagation pool.
+   */
+  public static synchronized int getNumPoolThreads() {
+    return numPoolThreads;
   }
 
-  //Factory: Get the singleton
-  @SuppressFBWarnings(value = "SSD_DO_NOT_USE_INSTANCE_LOCK_ON_SHARED_STATIC_DATA", justification = "Fix later")
-  private static ConcurrentPropagationService getInstance() {
-    if (instance == null) {
-      synchronized (ConcurrentPropagationService.class) {
-        if (instance == null) {
-          instance = new ConcurrentPropagationService(); //SpotBugs: SSD_DO_NOT_USE_INSTANCE_LOCK_ON_SHARED_STATIC_DATA
-        }
+  /**
+   * Initiates an orderly shutdown of the threads of the default propagation pool, in which previously
+   * submitted propagations are completed, and waits for them to terminate.
+   *
+   * @param timeout the maximum time to wait
+   * @param unit the time unit of the timeout argument
+   * @return true if all pool threads terminated and false if the timeout elapsed before termination
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public static boolean shutdown(final long timeout, final TimeUnit unit) throws InterruptedException {
+    final ExecutorService[] services;
+    synchronized (ConcurrentPropagationService.class) {
+      services = propagationExecutorService;
+      propagationExecutorService = new ExecutorService[numPoolThreads];
+    }
+    for (final ExecutorService service : services) {
+      if (service != null) { service.shutdown(); }
+    }
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (final ExecutorService service : services) {
+      if ((service != null)
+          && !service.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+        return false;
       }
     }
-    return instance;
-  }
-
-  public static ExecutorService getExecutorService(final long id) {
-    return getInstance().initExecutorService((int) id % NUM_POOL_THREADS);
+    return true;
   }
 
-  @SuppressWarnings("static-access")
-  public static ExecutorService resetExecutorService(final long id) {
-    return getInstance().propagationExecutorService[(int) id % NUM_POOL_THREADS] = null;
+  static synchronized void setNumPoolThreads(final int numThreads) {
+    numPoolThreads = numThreads;
   }
 
-  @SuppressWarnings("static-method")
-  private ExecutorService initExecutorService(final int i) {
+  static synchronized ExecutorService getExecutorService(final long id) {
+    if (propagationExecutorService.length != numPoolThreads) {
+      //the builder changed the number of pool threads. Dropped threads complete their queued propagations.
+      for (int i = numPoolThreads; i < propagationExecutorService.length; i++) {
+        if (propagationExecutorService[i] != null) { propagationExecutorService[i].shutdown(); }
+      }
+      propagationExecutorService = Arrays.copyOf(propagationExecutorService, numPoolThreads);
+    }
+    final int i = (int) (id % numPoolThreads);
     if (propagationExecutorService[i] == null) {
       propagationExecutorService[i] = Executors.newSingleThreadExecutor();
     }
     return propagationExecutorService[i];
   }
+
+  /**
+   * Returns a JVM-wide virtual-thread-per-task Executor if the running JVM supports virtual threads,
+   * otherwise null. The library is compiled for Java 8, so the executor is obtained reflectively.
+   * @return a virtual-thread-per-task Executor or null.
+   */
+  @SuppressFBWarnings(value = "REC_CATCH_EXCEPTION", justification = "Any failure means no virtual threads")
+  static synchronized Executor getVirtualThreadExecutor() {
+    if (!virtualThreadExecutorChecked) {
+      virtualThreadExecutorChecked = true;
+      try {
+        final Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        virtualThreadExecutor = (Executor) method.invoke(null);
+      } catch (final Exception e) {
+        virtualThreadExecutor = null;
+      }
+    }
+    return virtualThreadExecutor;
+  }
 }
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs the background propagation tasks of one shared sketch one at a time, in submission order, on an
+ * underlying Executor that may be shared by many sketches and may run its tasks concurrently,
+ * for example a pool or a virtual-thread-per-task executor.
+ * Background propagations into a shared sketch must not overlap, since they update the sketch without locking.
+ *
+ * <p>If the underlying Executor rejects a task, for example because it has been shut down, the pending tasks
+ * are run in the calling thread, so that no local buffer waits forever for its propagation to complete.</p>
+ */
+final class ConcurrentSerialExecutor implements Executor {
+  private final Executor executor;
+  private final ArrayDeque<Runnable> tasks = new ArrayDeque<>(); //guarded by this
+  private boolean draining = false; //guarded by this
+  private int pending = 0; //the number of tasks queued or running, guarded by this
+
+  ConcurrentSerialExecutor(final Executor executor) {
+    this.executor = executor;
+  }
+
+  @Override
+  public void execute(final Runnable task) {
+    synchronized (this) {
+      tasks.add(task);
+      pending++;
+      if (draining) { return; }
+      draining = true;
+    }
+    try {
+      executor.execute(this::drain);
+    } catch (final RejectedExecutionException e) {
+      drain();
+    }
+  }
+
+  /**
+   * Waits until all tasks submitted so far have completed.
+   * @throws InterruptedException if interrupted while waiting
+   */
+  synchronized void awaitQuiescence() throws InterruptedException {
+    while (pending > 0) {
+      wait();
+    }
+  }
+
+  Executor getExecutor() {
+    return executor;
+  }
+
+  private void drain() {
+    Runnable task;
+    while ((task = next()) != null) {
+      try {
+        task.run();
+      } finally {
+        completed();
+      }
+    }
+  }
+
+  private synchronized Runnable next() {
+    final Runnable task = tasks.poll();
+    if (task == null) { draining = false; }
+    return task;
+  }
+
+  private synchronized void completed() {
+    if (--pending == 0) { notifyAll(); }
+  }
+}
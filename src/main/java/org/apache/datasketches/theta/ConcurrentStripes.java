@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+/**
+ * A fixed, power of 2 number of lock-guarded items shared by many threads. A thread keeps using the
+ * same stripe until it finds it locked by another thread, at which point it moves to another stripe.
+ * There is nothing to register or release per thread, so this works well with thread pools and with
+ * threads that come and go.
+ *
+ * @param <T> the type of the item guarded by each stripe
+ */
+final class ConcurrentStripes<T> {
+  // The stripe index of each thread, shared by all instances. It is only a hint, so threads may share it.
+  private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(
+      () -> new int[] { mixProbe(Thread.currentThread().getId()) });
+
+  private final Stripe<T>[] stripes;
+  private final int mask;
+
+  @SuppressWarnings("unchecked")
+  ConcurrentStripes(final int numStripes, final IntFunction<T> itemFactory) {
+    assert Integer.bitCount(numStripes) == 1;
+    stripes = new Stripe[numStripes];
+    for (int i = 0; i < numStripes; i++) {
+      stripes[i] = new Stripe<>(itemFactory.apply(i));
+    }
+    mask = numStripes - 1;
+  }
+
+  int size() {
+    return stripes.length;
+  }
+
+  Stripe<T> get(final int index) {
+    return stripes[index];
+  }
+
+  /**
+   * Locks and returns the stripe of the current thread. If that stripe is locked by another thread,
+   * the thread tries the other stripes before it blocks.
+   * @return the locked stripe, which the caller must unlock.
+   */
+  Stripe<T> lock() {
+    final int[] probe = PROBE.get();
+    int h = probe[0];
+    for (int i = 0; i < stripes.length; i++) {
+      final Stripe<T> stripe = stripes[h & mask];
+      if (stripe.tryLock()) {
+        probe[0] = h;
+        return stripe;
+      }
+      h = nextProbe(h);
+    }
+    final Stripe<T> stripe = stripes[h & mask];
+    stripe.lock();
+    probe[0] = h;
+    return stripe;
+  }
+
+  /**
+   * Locks all stripes in index order.
+   */
+  void lockAll() {
+    for (final Stripe<T> stripe : stripes) { stripe.lock(); }
+  }
+
+  /**
+   * Unlocks all stripes.
+   */
+  void unlockAll() {
+    for (final Stripe<T> stripe : stripes) { stripe.unlock(); }
+  }
+
+  private static int mixProbe(final long id) {
+    final int h = (int) ((id * 0x9E3779B97F4A7C15L) >>> 32);
+    return (h == 0) ? 1 : h;
+  }
+
+  private static int nextProbe(int h) { //xorshift
+    h ^= h << 13;
+    h ^= h >>> 17;
+    h ^= h << 5;
+    return h;
+  }
+
+  /**
+   * An item and the lock that guards it.
+   * @param <T> the type of the item
+   */
+  @SuppressWarnings("serial")
+  static final class Stripe<T> extends ReentrantLock {
+    final T item;
+
+    Stripe(final T item) {
+      this.item = item;
+    }
+  }
+}
@@ -0,0 +1,397 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.datasketches.memory.WritableMemory;
+import org.apache.datasketches.theta.ConcurrentStripes.Stripe;
+
+/**
+ * A concurrent theta sketch for many writer threads that hands out the local buffers automatically.
+ *
+ * <p>It combines a concurrent shared sketch with a fixed set of stripes, each holding a local buffer as
+ * built by {@link UpdateSketchBuilder#buildLocal(UpdateSketch)}. An updating thread locks a stripe, which is
+ * almost always uncontended, and updates its buffer. A thread keeps using the same stripe until it finds it
+ * locked by another thread, at which point it moves to another stripe. There is nothing to register or release
+ * per thread, so this works well with thread pools and with threads that come and go.</p>
+ *
+ * <p>Full buffers propagate to the shared sketch in the background as usual. The content that is still in the
+ * buffers can be pushed to the shared sketch with {@link #flush()}, either on demand or periodically with
+ * {@link #scheduleFlush(ScheduledExecutorService, long, TimeUnit)}. The query methods, such as
+ * {@link #getEstimate()} and {@link #compact()}, briefly lock all stripes, flush them and wait for the background
+ * propagations, so their results include all updates that completed before the call.</p>
+ *
+ * <p>Instances are obtained from {@link UpdateSketchBuilder#buildConcurrent()}.</p>
+ */
+public final class ConcurrentThetaSketch {
+  private final UpdateSketch shared;
+  private final ConcurrentSharedThetaSketch sharedIf;
+  private final ConcurrentStripes<ConcurrentHeapThetaBuffer> stripes;
+
+  ConcurrentThetaSketch(final UpdateSketchBuilder bldr, final WritableMemory dstMem, final int numStripes) {
+    shared = bldr.buildShared(dstMem);
+    sharedIf = (ConcurrentSharedThetaSketch) shared;
+    stripes = new ConcurrentStripes<>(numStripes, i -> new ConcurrentHeapThetaBuffer(
+        bldr.getLocalLgNominalEntries(), bldr.getSeed(), sharedIf, bldr.getPropagateOrderedCompact(), numStripes));
+  }
+
+  //Updates
+
+  /**
+   * Present this sketch with a long.
+   * @param datum The given long datum.
+   * @see UpdateSketch#update(long)
+   */
+  public void update(final long datum) {
+    final Stripe<ConcurrentHeapThetaBuffer> stripe = stripes.lock();
+    try {
+      stripe.item.update(datum);
+    } finally {
+      stripe.unlock();
+    }
+  }
+
+  /**
+   * Present this sketch with the given double (or float) datum.
+   * @param datum The given double datum.
+   * @see UpdateSketch#update(double)
+   */
+  public void update(final double datum) {
+    final Stripe<ConcurrentHeapThetaBuffer> stripe = stripes.lock();
+    try {
+      stripe.item.update(datum);
+    } finally {
+      stripe.unlock();
+    }
+  }
+
+  /**
+   * Present this sketch with the given String. If the string is null or empty no update attempt is made.
+   * @param datum The given String.
+   * @see UpdateSketch#update(String)
+   */
+  public void update(final String datum) {
+    if ((datum == null) || datum.isEmpty()) { return; }
+    final Stripe<ConcurrentHeapThetaBuffer> stripe = stripes.lock();
+    try {
+      stripe.item.update(datum);
+    } finally {
+      stripe.unlock();
+    }
+  }
+
+  /**
+   * Present this sketch with the given byte array. If the byte array is null or empty no update attempt is made.
+   * @param data The given byte array.
+   * @see UpdateSketch#update(byte[])
+   */
+  public void update(final byte[] data) {
+    if ((data == null) || (data.length == 0)) { return; }
+    final Stripe<ConcurrentHeapThetaBuffer> stripe = stripes.lock();
+    try {
+      stripe.item.update(data);
+    } finally {
+      stripe.unlock();
+    }
+  }
+
+  /**
+   * Present this sketch with the given byte buffer. If the byte buffer is null or has no bytes remaining,
+   * no update attempt is made.
+   * @param buffer the input byte buffer
+   * @see UpdateSketch#update(ByteBuffer)
+   */
+  public void update(final ByteBuffer buffer) {
+    if ((buffer == null) || (buffer.remaining() == 0)) { return; }
+    final Stripe<ConcurrentHeapThetaBuffer> stripe = stripes.lock();
+    try {
+      stripe.item.update(buffer);
+    } finally {
+      stripe.unlock();
+    }
+  }
+
+  /**
+   * Present this sketch with the given char array. If the char array is null or empty no update attempt is made.
+   * @param data The given char array.
+   * @see UpdateSketch#update(char[])
+   */
+  public void update(final char[] data) {
+    if ((data == null) || (data.length == 0)) { return; }
+    final Stripe<ConcurrentHeapThetaBuffer> stripe = stripes.lock();
+    try {
+      stripe.item.update(data);
+    } finally {
+      stripe.unlock();
+    }
+  }
+
+  /**
+   * Present this sketch with the given integer array. If the integer array is null or empty no update attempt
+   * is made.
+   * @param data The given int array.
+   * @see UpdateSketch#update(int[])
+   */
+  public void update(final int[] data) {
+    if ((data == null) || (data.length == 0)) { return; }
+    final Stripe<ConcurrentHeapThetaBuffer> stripe = stripes.lock();
+    try {
+      stripe.item.update(data);
+    } finally {
+      stripe.unlock();
+    }
+  }
+
+  /**
+   * Present this sketch with the given long array. If the long array is null or empty no update attempt is made.
+   * @param data The given long array.
+   * @see UpdateSketch#update(long[])
+   */
+  public void update(final long[] data) {
+    if ((data == null) || (data.length == 0)) { return; }
+    final Stripe<ConcurrentHeapThetaBuffer> stripe = stripes.lock();
+    try {
+      stripe.item.update(data);
+    } finally {
+      stripe.unlock();
+    }
+  }
+
+  /**
+   * Present this sketch with each long of a portion of the given array as a separate item.
+   * The stripe is locked once for the whole portion.
+   * @param items the given items
+   * @param offset the index of the first item
+   * @param length the number of items
+   * @see UpdateSketch#updateEach(long[], int, int)
+   */
+  public void updateEach(final long[] items, final int offset, final int length) {
+    final Stripe<ConcurrentHeapThetaBuffer> stripe = stripes.lock();
+    try {
+      stripe.item.updateEach(items, offset, length);
+    } finally {
+      stripe.unlock();
+    }
+  }
+
+  /**
+   * Present this sketch with each double of a portion of the given array as a separate item.
+   * The stripe is locked once for the whole portion.
+   * @param items the given items
+   * @param offset the index of the first item
+   * @param length the number of items
+   * @see UpdateSketch#updateEach(double[], int, int)
+   */
+  public void updateEach(final double[] items, final int offset, final int length) {
+    final Stripe<ConcurrentHeapThetaBuffer> stripe = stripes.lock();
+    try {
+      stripe.item.updateEach(items, offset, length);
+    } finally {
+      stripe.unlock();
+    }
+  }
+
+  /**
+   * Present this sketch with each int of a portion of the given array as a separate item.
+   * The stripe is locked once for the whole portion.
+   * @param items the given items
+   * @param offset the index of the first item
+   * @param length the number of items
+   * @see UpdateSketch#updateEach(int[], int, int)
+   */
+  public void updateEach(final int[] items, final int offset, final int length) {
+    final Stripe<ConcurrentHeapThetaBuffer> stripe = stripes.lock();
+    try {
+      stripe.item.updateEach(items, offset, length);
+    } finally {
+      stripe.unlock();
+    }
+  }
+
+  /**
+   * Present this sketch with each String of a portion of the given array as a separate item.
+   * The stripe is locked once for the whole portion.
+   * @param items the given items
+   * @param offset the index of the first item
+   * @param length the number of items
+   * @see UpdateSketch#updateEach(String[], int, int)
+   */
+  public void updateEach(final String[] items, final int offset, final int length) {
+    final Stripe<ConcurrentHeapThetaBuffer> stripe = stripes.lock();
+    try {
+      stripe.item.updateEach(items, offset, length);
+    } finally {
+      stripe.unlock();
+    }
+  }
+
+  //Flush
+
+  /**
+   * Propagates the content of all local buffers to the shared sketch and waits for the background
+   * propagations to complete. Each stripe is locked only while its buffer is flushed.
+   */
+  public void flush() {
+    for (int i = 0; i < stripes.size(); i++) {
+      final Stripe<ConcurrentHeapThetaBuffer> stripe = stripes.get(i);
+      stripe.lock();
+      try {
+        stripe.item.flush();
+      } finally {
+        stripe.unlock();
+      }
+    }
+    sharedIf.awaitBgPropagationTermination();
+  }
+
+  /**
+   * Schedules {@link #flush()} to run periodically on the given scheduler, which is owned by the caller.
+   * Cancel the returned future to stop flushing.
+   * @param scheduler the given scheduler
+   * @param period the period between successive flushes
+   * @param unit the time unit of the period
+   * @return the future of the scheduled flushes
+   */
+  public ScheduledFuture<?> scheduleFlush(final ScheduledExecutorService scheduler, final long period,
+      final TimeUnit unit) {
+    return scheduler.scheduleAtFixedRate(this::flush, period, period, unit);
+  }
+
+  //Queries
+
+  /**
+   * Gets the unique count estimate of all updates that completed before this call.
+   * @return the sketch's best estimate of the cardinality of the input stream.
+   */
+  public double getEstimate() {
+    lockAllAndFlush();
+    try {
+      return shared.getEstimate();
+    } finally {
+      unlockAll();
+    }
+  }
+
+  /**
+   * Gets the approximate lower error bound given the specified number of Standard Deviations.
+   * @param numStdDev <a href="{@docRoot}/resources/dictionary.html#numStdDev">See Number of Standard Deviations</a>
+   * @return the lower bound.
+   */
+  public double getLowerBound(final int numStdDev) {
+    lockAllAndFlush();
+    try {
+      return shared.getLowerBound(numStdDev);
+    } finally {
+      unlockAll();
+    }
+  }
+
+  /**
+   * Gets the approximate upper error bound given the specified number of Standard Deviations.
+   * @param numStdDev <a href="{@docRoot}/resources/dictionary.html#numStdDev">See Number of Standard Deviations</a>
+   * @return the upper bound.
+   */
+  public double getUpperBound(final int numStdDev) {
+    lockAllAndFlush();
+    try {
+      return shared.getUpperBound(numStdDev);
+    } finally {
+      unlockAll();
+    }
+  }
+
+  /**
+   * Returns true if no update has completed before this call.
+   * @return true if this sketch is empty.
+   */
+  public boolean isEmpty() {
+    lockAllAndFlush();
+    try {
+      return shared.isEmpty();
+    } finally {
+      unlockAll();
+    }
+  }
+
+  /**
+   * Returns an ordered CompactSketch on the heap of all updates that completed before this call.
+   * @return an ordered CompactSketch on the heap.
+   */
+  public CompactSketch compact() {
+    return compact(true, null);
+  }
+
+  /**
+   * Returns a CompactSketch of all updates that completed before this call.
+   * @param dstOrdered <a href="{@docRoot}/resources/dictionary.html#dstOrdered">See Destination Ordered</a>
+   * @param dstMem <a href="{@docRoot}/resources/dictionary.html#dstMem">See Destination Memory</a>.
+   * @return this sketch as a CompactSketch.
+   */
+  public CompactSketch compact(final boolean dstOrdered, final WritableMemory dstMem) {
+    lockAllAndFlush();
+    try {
+      return shared.compact(dstOrdered, dstMem);
+    } finally {
+      unlockAll();
+    }
+  }
+
+  /**
+   * Resets this sketch and all of its local buffers back to the empty state.
+   */
+  public void reset() {
+    lockAllAndFlush();
+    try {
+      for (int i = 0; i < stripes.size(); i++) { stripes.get(i).item.reset(); }
+      shared.reset();
+    } finally {
+      unlockAll();
+    }
+  }
+
+  /**
+   * Returns the number of stripes, each of which holds a local buffer.
+   * @return the number of stripes.
+   */
+  public int getNumStripes() {
+    return stripes.size();
+  }
+
+  @Override
+  public String toString() {
+    return shared.toString();
+  }
+
+  //Restricted
+
+  private void lockAllAndFlush() {
+    stripes.lockAll();
+    for (int i = 0; i < stripes.size(); i++) { stripes.get(i).item.flush(); }
+    sharedIf.awaitBgPropagationTermination();
+  }
+
+  private void unlockAll() {
+    stripes.unlockAll();
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import org.apache.datasketches.common.ResizeFactor;
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.WritableMemory;
+import org.apache.datasketches.theta.ConcurrentStripes.Stripe;
+
+/**
+ * A theta Union that many threads can update at the same time.
+ *
+ * <p>It holds a fixed set of stripes, each with its own on-heap Union. An updating thread locks a stripe,
+ * which is almost always uncontended, and merges the given sketch into the Union of that stripe.
+ * {@link #getResult()} merges the Unions of all stripes into a single result. Since the union is associative
+ * and commutative, the result is statistically equivalent to that of a single Union of all inputs, with the same
+ * error bounds.</p>
+ *
+ * <p>Instances are obtained from {@link SetOperationBuilder#buildConcurrentUnion()}.</p>
+ */
+public final class ConcurrentUnion {
+  private final int lgNomLongs;
+  private final long seed;
+  private final ConcurrentStripes<Union> stripes;
+
+  ConcurrentUnion(final int lgNomLongs, final long seed, final float p, final ResizeFactor rf,
+      final int numStripes) {
+    this.lgNomLongs = lgNomLongs;
+    this.seed = seed;
+    stripes = new ConcurrentStripes<>(numStripes, i -> UnionImpl.initNewHeapInstance(lgNomLongs, seed, p, rf));
+  }
+
+  /**
+   * Perform a Union operation with <i>this</i> union and the given on-heap sketch of the Theta Family.
+   * Nulls and empty sketches are ignored.
+   * @param sketchIn The incoming sketch.
+   * @see Union#union(Sketch)
+   */
+  public void union(final Sketch sketchIn) {
+    if ((sketchIn == null) || sketchIn.isEmpty()) { return; }
+    final Stripe<Union> stripe = stripes.lock();
+    try {
+      stripe.item.union(sketchIn);
+    } finally {
+      stripe.unlock();
+    }
+  }
+
+  /**
+   * Perform a Union operation with <i>this</i> union and the given Memory image of any sketch of the
+   * Theta Family. Nulls and empty sketches are ignored.
+   * @param mem Memory image of sketch to be merged
+   * @see Union#union(Memory)
+   */
+  public void union(final Memory mem) {
+    if (mem == null) { return; }
+    final Stripe<Union> stripe = stripes.lock();
+    try {
+      stripe.item.union(mem);
+    } finally {
+      stripe.unlock();
+    }
+  }
+
+  /**
+   * Gets the result of all unions that completed before this call as an ordered CompactSketch on the Java heap.
+   * It is OK to continue updating the union after this operation.
+   * @return the result of this operation as an ordered CompactSketch on the Java heap
+   */
+  public CompactSketch getResult() {
+    return getResult(true, null);
+  }
+
+  /**
+   * Gets the result of all unions that completed before this call as a CompactSketch of the chosen form.
+   * It is OK to continue updating the union after this operation.
+   *
+   * @param dstOrdered
+   * <a href="{@docRoot}/resources/dictionary.html#dstOrdered">See Destination Ordered</a>
+   *
+   * @param dstMem
+   * <a href="{@docRoot}/resources/dictionary.html#dstMem">See Destination Memory</a>.
+   *
+   * @return the result of this operation as a CompactSketch of the chosen form
+   */
+  public CompactSketch getResult(final boolean dstOrdered, final WritableMemory dstMem) {
+    //The sampling probability has already been applied by the stripes
+    final Union result = UnionImpl.initNewHeapInstance(lgNomLongs, seed, (float) 1.0, ResizeFactor.X8);
+    stripes.lockAll();
+    try {
+      for (int i = 0; i < stripes.size(); i++) {
+        result.union(stripes.get(i).item.getResult(false, null));
+      }
+    } finally {
+      stripes.unlockAll();
+    }
+    return result.getResult(dstOrdered, dstMem);
+  }
+
+  /**
+   * Resets this Union. The seed remains intact, everything else reverts back to its virgin state.
+   */
+  public void reset() {
+    stripes.lockAll();
+    try {
+      for (int i = 0; i < stripes.size(); i++) { stripes.get(i).item.reset(); }
+    } finally {
+      stripes.unlockAll();
+    }
+  }
+
+  /**
+   * Returns the number of stripes, each of which holds a Union.
+   * @return the number of stripes.
+   */
+  public int getNumStripes() {
+    return stripes.size();
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import static org.apache.datasketches.theta.CompactOperations.componentsToCompact;
+import static org.apache.datasketches.theta.CompactOperations.computeCompactPreLongs;
+import static org.apache.datasketches.theta.PreambleUtil.EMPTY_FLAG_MASK;
+import static org.apache.datasketches.theta.PreambleUtil.extractEntryBitsV4;
+import static org.apache.datasketches.theta.PreambleUtil.extractFlags;
+import static org.apache.datasketches.theta.PreambleUtil.extractNumEntriesBytesV4;
+import static org.apache.datasketches.theta.PreambleUtil.extractPreLongs;
+import static org.apache.datasketches.theta.PreambleUtil.extractSeedHash;
+import static org.apache.datasketches.theta.PreambleUtil.extractThetaLongV4;
+
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.WritableMemory;
+import org.apache.datasketches.thetacommon.ThetaUtil;
+
+/**
+ * An off-heap (Direct), compact, ordered, read-only sketch that wraps a compressed
+ * Serialization Version 4 binary image.
+ *
+ * <p>The hash values are stored as bit-packed deltas and are decoded from the Memory as they are
+ * iterated. Unions and intersections iterate in order and stop at theta, so they never need to
+ * decode the whole image onto the heap. Methods that return the hash values as an array decode
+ * them all.</p>
+ */
+final class DirectCompactCompressedSketch extends DirectCompactSketch {
+
+  /**
+   * Construct this sketch with the given memory.
+   * @param mem Read-only Memory object of a Serialization Version 4 image.
+   */
+  DirectCompactCompressedSketch(final Memory mem) {
+    super(mem);
+  }
+
+  /**
+   * Wraps the given Memory, which must be a SerVer 4 compressed CompactSketch image.
+   * @param srcMem <a href="{@docRoot}/resources/dictionary.html#mem">See Memory</a>
+   * @param seedHash The update seedHash.
+   * <a href="{@docRoot}/resources/dictionary.html#seedHash">See Seed Hash</a>.
+   * @return this sketch
+   */
+  static DirectCompactCompressedSketch wrapInstance(final Memory srcMem, final short seedHash) {
+    ThetaUtil.checkSeedHashes((short) extractSeedHash(srcMem), seedHash);
+    return new DirectCompactCompressedSketch(srcMem);
+  }
+
+  //Sketch Overrides
+
+  @Override
+  public CompactSketch compact(final boolean dstOrdered, final WritableMemory dstMem) {
+    return componentsToCompact(getThetaLong(), getRetainedEntries(), getSeedHash(), isEmpty(), true, true,
+        dstOrdered, dstMem, getCache());
+  }
+
+  @Override
+  public int getCompactBytes() { //of the uncompressed form
+    return (getCompactPreambleLongs() + getRetainedEntries()) << 3;
+  }
+
+  @Override
+  public int getCurrentBytes() {
+    final int entryBits = extractEntryBitsV4(mem_);
+    return getDataOffsetBytes() + (int) (((long) entryBits * getRetainedEntries() + 7) >>> 3);
+  }
+
+  @Override
+  public double getEstimate() {
+    return Sketch.estimate(getThetaLong(), getRetainedEntries());
+  }
+
+  @Override
+  public int getRetainedEntries(final boolean valid) {
+    final int numEntriesBytes = extractNumEntriesBytesV4(mem_);
+    int offsetBytes = extractPreLongs(mem_) << 3;
+    int numEntries = 0;
+    for (int i = 0; i < numEntriesBytes; i++) {
+      numEntries |= Byte.toUnsignedInt(mem_.getByte(offsetBytes++)) << (i << 3);
+    }
+    return numEntries;
+  }
+
+  @Override
+  public long getThetaLong() {
+    return (extractPreLongs(mem_) > 1) ? extractThetaLongV4(mem_) : Long.MAX_VALUE;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return (extractFlags(mem_) & EMPTY_FLAG_MASK) > 0;
+  }
+
+  @Override
+  public boolean isOrdered() {
+    return true;
+  }
+
+  @Override
+  public HashIterator iterator() {
+    return new MemoryCompactCompressedHashIterator(mem_, getDataOffsetBytes(), extractEntryBitsV4(mem_),
+        getRetainedEntries());
+  }
+
+  @Override
+  public byte[] toByteArray() { //of the uncompressed form
+    return compact(true, null).toByteArray();
+  }
+
+  @Override
+  public byte[] toByteArrayCompressed() {
+    final byte[] bytes = new byte[getCurrentBytes()];
+    mem_.getByteArray(0, bytes, 0, bytes.length);
+    return bytes;
+  }
+
+  //restricted methods
+
+  @Override
+  long[] getCache() {
+    final int numEntries = getRetainedEntries();
+    final long[] cache = new long[numEntries];
+    final HashIterator it = iterator();
+    for (int i = 0; i < numEntries; i++) {
+      it.next();
+      cache[i] = it.get();
+    }
+    return cache;
+  }
+
+  @Override
+  int getCompactPreambleLongs() {
+    return computeCompactPreLongs(isEmpty(), getRetainedEntries(), getThetaLong());
+  }
+
+  private int getDataOffsetBytes() {
+    return (extractPreLongs(mem_) << 3) + extractNumEntriesBytesV4(mem_);
+  }
+}
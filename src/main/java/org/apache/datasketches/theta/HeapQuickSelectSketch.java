@@ -188,7 +188,7 @@ class HeapQuickSelectSketch extends HeapUpdateSketch {
   public void reset() {
     final ResizeFactor rf = getResizeFactor();
     final int lgArrLongsSM = ThetaUtil.startingSubMultiple(lgNomLongs_ + 1, rf.lg(), ThetaUtil.MIN_LG_ARR_LONGS);
-    if (lgArrLongsSM == lgArrLongs_) {
+    if ((lgArrLongsSM == lgArrLongs_) && !isCopyOnWrite()) {
       final int arrLongs = cache_.length;
       assert (1 << lgArrLongs_) == arrLongs;
       java.util.Arrays.fill(cache_,  0L);
@@ -201,6 +201,7 @@ class HeapQuickSelectSketch extends HeapUpdateSketch {
     empty_ = true;
     curCount_ = 0;
     thetaLong_ =  (long)(getP() * LONG_MAX_VALUE_AS_DOUBLE);
+    cacheReassigned();
   }
 
   //restricted methods
@@ -294,6 +295,7 @@ class HeapQuickSelectSketch extends HeapUpdateSketch {
 
     cache_ = tgtArr;
     hashTableThreshold_ = getHashTableThreshold(lgNomLongs_, lgArrLongs_);
+    cacheReassigned();
   }
 
   //array stays the same size. Changes theta and thus count
@@ -302,15 +304,32 @@ class HeapQuickSelectSketch extends HeapUpdateSketch {
 
     final int pivot = (1 << lgNomLongs_) + 1; // pivot for QS = k + 1
 
-    thetaLong_ = selectExcludingZeros(cache_, curCount_, pivot); //messes up the cache_
+    //the select messes up its array, so a cache that may be read by other threads is copied first
+    final long[] srcArr = isCopyOnWrite() ? cache_.clone() : cache_;
+    thetaLong_ = selectExcludingZeros(srcArr, curCount_, pivot);
 
     // now we rebuild to clean up dirty data, update count, reconfigure as a hash table
     final long[] tgtArr = new long[arrLongs];
-    curCount_ = HashOperations.hashArrayInsert(cache_, tgtArr, lgArrLongs_, thetaLong_);
+    curCount_ = HashOperations.hashArrayInsert(srcArr, tgtArr, lgArrLongs_, thetaLong_);
     cache_ = tgtArr;
     //hashTableThreshold stays the same
+    cacheReassigned();
   }
 
+  /**
+   * Returns true if the cache may be read by other threads, in which case an array that has been
+   * assigned to the cache is never modified except by the insertion of new hashes.
+   * @return true if the cache may be read by other threads
+   */
+  boolean isCopyOnWrite() {
+    return false;
+  }
+
+  /**
+   * Called after the cache or theta have been reassigned by a resize, rebuild or reset.
+   */
+  void cacheReassigned() { }
+
   /**
    * Returns the cardinality limit given the current size of the hash table array.
    *
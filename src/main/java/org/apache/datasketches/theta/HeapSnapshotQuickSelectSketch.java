@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import java.util.Arrays;
+
+import org.apache.datasketches.common.ResizeFactor;
+
+/**
+ * An on-heap QuickSelect sketch that any number of reader threads can take consistent snapshots of,
+ * while a single writer thread keeps updating it without any locking.
+ *
+ * <p>Between a resize or rebuild of the hash table, the writer only inserts new hashes into empty slots,
+ * so any copy of the hash table that a reader makes is a valid sketch of a subset of the updates so far.
+ * A resize or rebuild writes into a new array, the select of a rebuild works on a copy of the current one,
+ * and the new array is published together with its theta through a volatile reference. A reader therefore
+ * always pairs a hash table with the theta it was built for, and never sees one that is being rebuilt.</p>
+ */
+final class HeapSnapshotQuickSelectSketch extends SnapshotUpdateSketch {
+  private volatile CacheView view_;
+
+  HeapSnapshotQuickSelectSketch(final int lgNomLongs, final long seed, final float p, final ResizeFactor rf) {
+    super(lgNomLongs, seed, p, rf);
+    cacheReassigned();
+  }
+
+  @Override
+  public CompactSketch snapshot(final boolean dstOrdered) {
+    final CacheView view = view_;
+    final long[] cache = view.cache;
+    final long thetaLong = view.thetaLong;
+    final long[] hashArr = new long[cache.length];
+    int count = 0;
+    for (int i = 0; i < cache.length; i++) {
+      final long hash = cache[i];
+      if ((hash != 0) && (hash < thetaLong)) { hashArr[count++] = hash; }
+    }
+    //the writer may have inserted hashes without yet being seen to clear the empty flag
+    final boolean empty = empty_ && (count == 0);
+    return CompactOperations.componentsToCompact(empty ? Long.MAX_VALUE : thetaLong, count, getSeedHash(),
+        empty, true, false, dstOrdered, null, Arrays.copyOf(hashArr, count));
+  }
+
+  @Override
+  boolean isCopyOnWrite() {
+    return true;
+  }
+
+  @Override
+  void cacheReassigned() {
+    view_ = new CacheView(getCache(), thetaLong_);
+  }
+
+  /**
+   * A hash table together with the theta it was built for.
+   */
+  private static final class CacheView {
+    final long[] cache;
+    final long thetaLong;
+
+    CacheView(final long[] cache, final long thetaLong) {
+      this.cache = cache;
+      this.thetaLong = thetaLong;
+    }
+  }
+}
@@ -29,6 +29,7 @@ import static org.apache.datasketches.theta.PreambleUtil.extractPreLongs;
 import static org.apache.datasketches.theta.PreambleUtil.extractSerVer;
 
 import java.util.Arrays;
+import java.util.Collection;
 
 import org.apache.datasketches.common.Family;
 import org.apache.datasketches.common.SketchesArgumentException;
@@ -138,6 +139,36 @@ public abstract class Intersection extends SetOperation {
   public abstract CompactSketch intersect(Sketch a, Sketch b, boolean dstOrdered,
       WritableMemory dstMem);
 
+  /**
+   * Perform intersect set operation on all of the given sketches and return the result as an
+   * ordered CompactSketch on the heap.
+   * @param sketches the given sketches, none of which may be null.
+   * @return an ordered CompactSketch on the heap
+   * @see #intersectOrdered(Collection, boolean, WritableMemory)
+   */
+  public CompactSketch intersectOrdered(final Collection<? extends Sketch> sketches) {
+    return intersectOrdered(sketches, true, null);
+  }
+
+  /**
+   * Perform intersect set operation on all of the given sketches and return the result as a
+   * CompactSketch. This is stateless: the internal state of this intersection is neither used nor changed.
+   *
+   * <p>The sketches are processed smallest first as merge joins of their ordered hash values, which are
+   * read in place for ordered compact sketches, including wrapped ones. No hash table is built and
+   * only the result array is allocated. Sketches that are not ordered and compact are first
+   * compacted and ordered on the heap.</p>
+   *
+   * @param sketches the given sketches, none of which may be null.
+   * @param dstOrdered
+   * <a href="{@docRoot}/resources/dictionary.html#dstOrdered">See Destination Ordered</a>.
+   * @param dstMem
+   * <a href="{@docRoot}/resources/dictionary.html#dstMem">See Destination Memory</a>.
+   * @return the result as a CompactSketch.
+   */
+  public abstract CompactSketch intersectOrdered(Collection<? extends Sketch> sketches, boolean dstOrdered,
+      WritableMemory dstMem);
+
   // Restricted
 
   /**
@@ -51,7 +51,10 @@ import static org.apache.datasketches.thetacommon.HashOperations.hashInsertOnlyM
 import static org.apache.datasketches.thetacommon.HashOperations.hashSearch;
 import static org.apache.datasketches.thetacommon.HashOperations.minLgHashTableSize;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 
 import org.apache.datasketches.common.Family;
 import org.apache.datasketches.common.SketchesArgumentException;
@@ -218,6 +221,12 @@ class IntersectionImpl extends Intersection {
      final WritableMemory dstMem) {
     if (wmem_ != null && readOnly_) { throw new SketchesReadOnlyException(); }
     hardReset();
+    if (a != null && b != null && !a.isEmpty() && !b.isEmpty()
+        && OrderedMergeJoin.isOrderedCompact(a) && OrderedMergeJoin.isOrderedCompact(b)) {
+      ThetaUtil.checkSeedHashes(seedHash_, a.getSeedHash());
+      ThetaUtil.checkSeedHashes(seedHash_, b.getSeedHash());
+      return OrderedMergeJoin.intersect(new ArrayList<>(Arrays.asList(a, b)), seedHash_, dstOrdered, dstMem);
+    }
     intersect(a);
     intersect(b);
     final CompactSketch csk = getResult(dstOrdered, dstMem);
@@ -225,6 +234,29 @@ class IntersectionImpl extends Intersection {
     return csk;
   }
 
+  @Override
+  public CompactSketch intersectOrdered(final Collection<? extends Sketch> sketches, final boolean dstOrdered,
+      final WritableMemory dstMem) {
+    if (sketches.isEmpty()) {
+      throw new SketchesArgumentException("Intersection requires at least one sketch.");
+    }
+    final List<Sketch> inputs = new ArrayList<>(sketches.size());
+    boolean empty = false;
+    for (final Sketch sketch : sketches) {
+      if (sketch == null) {
+        throw new SketchesArgumentException("Intersection argument must not be null.");
+      }
+      if (sketch.isEmpty()) { empty = true; continue; } //empty rule
+      ThetaUtil.checkSeedHashes(seedHash_, sketch.getSeedHash());
+      inputs.add(OrderedMergeJoin.isOrderedCompact(sketch) ? sketch : sketch.compact(true, null));
+    }
+    if (empty) {
+      return CompactOperations.componentsToCompact(Long.MAX_VALUE, 0, seedHash_, true, true, true,
+          dstOrdered, dstMem, new long[0]);
+    }
+    return OrderedMergeJoin.intersect(inputs, seedHash_, dstOrdered, dstMem);
+  }
+
   @Override
   public void intersect(final Sketch sketchIn) {
     if (sketchIn == null) {
@@ -424,8 +456,6 @@ class IntersectionImpl extends Intersection {
   private void performIntersect(final Sketch sketchIn) {
     // curCount and input data are nonzero, match against HT
     assert curCount_ > 0 && !empty_;
-    final long[] cacheIn = sketchIn.getCache();
-    final int arrLongsIn = cacheIn.length;
     final long[] hashTable;
     if (wmem_ != null) {
       final int htLen = 1 << lgArrLongs_;
@@ -439,9 +469,10 @@ class IntersectionImpl extends Intersection {
 
     int matchSetCount = 0;
     if (sketchIn.isOrdered()) {
-      //ordered compact, which enables early stop
-      for (int i = 0; i < arrLongsIn; i++ ) {
-        final long hashIn = cacheIn[i];
+      //ordered compact, which enables early stop. Iterating avoids copying or decoding the whole input
+      final HashIterator it = sketchIn.iterator();
+      while (it.next()) {
+        final long hashIn = it.get();
         //if (hashIn <= 0L) continue;  //<= 0 should not happen
         if (hashIn >= thetaLong_) {
           break; //early stop assumes that hashes in input sketch are ordered!
@@ -453,6 +484,8 @@ class IntersectionImpl extends Intersection {
     }
     else {
       //either unordered compact or hash table
+      final long[] cacheIn = sketchIn.getCache();
+      final int arrLongsIn = cacheIn.length;
       for (int i = 0; i < arrLongsIn; i++ ) {
         final long hashIn = cacheIn[i];
         if (hashIn <= 0L || hashIn >= thetaLong_) { continue; }
@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+import org.apache.datasketches.common.SketchesArgumentException;
+
+/**
+ * Jaccard similarities among many theta sketches, computed from their ordered hash arrays.
+ *
+ * <p>Each sketch is converted to an ordered compact array once. The similarity of a pair is then
+ * computed by counting the hashes of each array below the smaller of the two thetas, with a binary search,
+ * and merging the two prefixes to count the hashes they have in common. This gives the same estimate as
+ * {@link JaccardSimilarity#jaccard(Sketch, Sketch)}, which builds a union and an intersection of the pair.</p>
+ *
+ * <p>The two prefix counts alone bound the similarity of a pair from above by the ratio of the smaller
+ * to the larger count, which lets a search for the most similar sketches skip most of the merges.</p>
+ */
+final class JaccardBatch {
+  private static final int LEAVES_PER_THREAD = 16;
+  private final List<? extends Sketch> sketches;
+  private final long[][] hashes; //ordered
+  private final int[] counts;
+  private final long[] thetaLongs;
+  private final boolean[] empties;
+
+  JaccardBatch(final List<? extends Sketch> sketches) {
+    final int n = sketches.size();
+    this.sketches = sketches;
+    hashes = new long[n][];
+    counts = new int[n];
+    thetaLongs = new long[n];
+    empties = new boolean[n];
+    short seedHash = 0;
+    for (int i = 0; i < n; i++) {
+      final Sketch sketch = sketches.get(i);
+      if (sketch == null) {
+        throw new SketchesArgumentException("The sketches must not be null.");
+      }
+      empties[i] = sketch.isEmpty();
+      thetaLongs[i] = sketch.getThetaLong();
+      if (empties[i]) {
+        hashes[i] = new long[0];
+        continue;
+      }
+      if (seedHash == 0) {
+        seedHash = sketch.getSeedHash();
+      } else if (sketch.getSeedHash() != seedHash) {
+        throw new SketchesArgumentException("The sketches must all have the same seed hash.");
+      }
+      final CompactSketch csk = (sketch.isCompact() && sketch.isOrdered())
+          ? (CompactSketch) sketch : sketch.compact(true, null);
+      counts[i] = csk.getRetainedEntries(true);
+      hashes[i] = csk.getCache();
+    }
+  }
+
+  int size() {
+    return counts.length;
+  }
+
+  /**
+   * Returns the estimate of the Jaccard similarity of sketches a and b.
+   * @param a the index of sketch a
+   * @param b the index of sketch b
+   * @return the estimate of the Jaccard similarity of sketches a and b.
+   */
+  double estimate(final int a, final int b) {
+    if ((a == b) || (empties[a] && empties[b])) { return 1.0; }
+    if (empties[a] || empties[b]) { return 0.0; }
+    final long thetaLong = Math.min(thetaLongs[a], thetaLongs[b]);
+    final int countA = countLessThan(hashes[a], counts[a], thetaLong);
+    final int countB = countLessThan(hashes[b], counts[b], thetaLong);
+    final int countI = intersectionCount(hashes[a], countA, hashes[b], countB);
+    final int countU = (countA + countB) - countI;
+    if (countU == 0) { //no retained hashes below theta, defer to the general case
+      return JaccardSimilarity.jaccard(sketches.get(a), sketches.get(b))[1];
+    }
+    return (double) countI / countU;
+  }
+
+  /**
+   * Returns an upper bound of {@link #estimate(int, int)}, which only takes two binary searches.
+   * @param a the index of sketch a
+   * @param b the index of sketch b
+   * @return an upper bound of the estimate of the Jaccard similarity of sketches a and b.
+   */
+  double upperBound(final int a, final int b) {
+    if ((a == b) || (empties[a] && empties[b])) { return 1.0; }
+    if (empties[a] || empties[b]) { return 0.0; }
+    final long thetaLong = Math.min(thetaLongs[a], thetaLongs[b]);
+    final int countA = countLessThan(hashes[a], counts[a], thetaLong);
+    final int countB = countLessThan(hashes[b], counts[b], thetaLong);
+    final int max = Math.max(countA, countB);
+    return (max == 0) ? 1.0 : (double) Math.min(countA, countB) / max;
+  }
+
+  /**
+   * Returns the symmetric matrix of the estimates of all pairs, computed in parallel in the given pool.
+   * @param pool the given ForkJoinPool
+   * @return the matrix of the estimates of all pairs
+   */
+  double[][] matrix(final ForkJoinPool pool) {
+    final int n = size();
+    final double[][] out = new double[n][n];
+    forEachRow(pool, i -> {
+      out[i][i] = 1.0;
+      for (int j = i + 1; j < n; j++) {
+        final double est = estimate(i, j);
+        out[i][j] = est;
+        out[j][i] = est; //a different element than any other row writes
+      }
+    });
+    return out;
+  }
+
+  /**
+   * Returns, for each sketch, the indices of the k other sketches with the largest estimates,
+   * computed in parallel in the given pool.
+   * @param k the number of most similar sketches
+   * @param pool the given ForkJoinPool
+   * @return the indices of the k most similar other sketches of each sketch
+   */
+  int[][] topK(final int k, final ForkJoinPool pool) {
+    final int[][] out = new int[size()][];
+    forEachRow(pool, i -> out[i] = topK(i, k));
+    return out;
+  }
+
+  /**
+   * Returns the indices of the k other sketches with the largest estimates of similarity with the sketch
+   * of the given index, in decreasing order of the estimate and increasing order of index for equal estimates.
+   *
+   * <p>The candidates are visited in increasing order of the ratio of their estimates, so that the most
+   * similar ones are likely to be found first. A candidate is only merged with the query if its upper
+   * bound could place it among the k best found so far.</p>
+   *
+   * @param query the index of the query sketch
+   * @param k the number of most similar sketches
+   * @return the indices of the k most similar other sketches
+   */
+  int[] topK(final int query, final int k) {
+    final int n = size();
+    final long[] order = new long[n - 1]; //float bits of the log ratio of the estimates, then the index
+    final double queryEst = sketches.get(query).getEstimate();
+    for (int j = 0, m = 0; j < n; j++) {
+      if (j == query) { continue; }
+      final double ratio = Math.abs(Math.log((sketches.get(j).getEstimate() + 1.0) / (queryEst + 1.0)));
+      order[m++] = ((long) Float.floatToIntBits((float) ratio) << 32) | j;
+    }
+    Arrays.sort(order);
+
+    //min-heap of the best k so far, the worst at the root
+    final int size = Math.min(k, n - 1);
+    final double[] heapEst = new double[size];
+    final int[] heapIdx = new int[size];
+    int count = 0;
+    for (int m = 0; m < order.length; m++) {
+      final int j = (int) order[m];
+      if ((count == size) && !isBetter(upperBound(query, j), j, heapEst[0], heapIdx[0])) { continue; }
+      final double est = estimate(query, j);
+      if (count < size) {
+        heapEst[count] = est;
+        heapIdx[count] = j;
+        siftUp(heapEst, heapIdx, count++);
+      } else if (isBetter(est, j, heapEst[0], heapIdx[0])) {
+        heapEst[0] = est;
+        heapIdx[0] = j;
+        siftDown(heapEst, heapIdx, size);
+      }
+    }
+    final int[] out = new int[size];
+    for (int i = size - 1; i >= 0; i--) { //pop the worst first
+      out[i] = heapIdx[0];
+      heapEst[0] = heapEst[i];
+      heapIdx[0] = heapIdx[i];
+      siftDown(heapEst, heapIdx, i);
+    }
+    return out;
+  }
+
+  private void forEachRow(final ForkJoinPool pool, final IntConsumer rowFn) {
+    final int leafSize = Math.max(1, size() / (pool.getParallelism() * LEAVES_PER_THREAD));
+    pool.invoke(new RowsTask(0, size(), leafSize, rowFn));
+  }
+
+  private static boolean isBetter(final double est, final int idx, final double otherEst, final int otherIdx) {
+    return (est > otherEst) || ((est == otherEst) && (idx < otherIdx));
+  }
+
+  private static void siftUp(final double[] est, final int[] idx, int i) {
+    while (i > 0) {
+      final int parent = (i - 1) >>> 1;
+      if (!isBetter(est[parent], idx[parent], est[i], idx[i])) { break; }
+      swap(est, idx, i, parent);
+      i = parent;
+    }
+  }
+
+  private static void siftDown(final double[] est, final int[] idx, final int size) {
+    int i = 0;
+    while (true) {
+      final int left = (2 * i) + 1;
+      if (left >= size) { break; }
+      final int right = left + 1;
+      final int worse = ((right < size) && isBetter(est[left], idx[left], est[right], idx[right])) ? right : left;
+      if (!isBetter(est[i], idx[i], est[worse], idx[worse])) { break; }
+      swap(est, idx, i, worse);
+      i = worse;
+    }
+  }
+
+  private static void swap(final double[] est, final int[] idx, final int i, final int j) {
+    final double e = est[i];
+    est[i] = est[j];
+    est[j] = e;
+    final int t = idx[i];
+    idx[i] = idx[j];
+    idx[j] = t;
+  }
+
+  private static int countLessThan(final long[] arr, final int count, final long thetaLong) {
+    int lo = 0;
+    int hi = count;
+    while (lo < hi) {
+      final int mid = (lo + hi) >>> 1;
+      if (arr[mid] < thetaLong) { lo = mid + 1; } else { hi = mid; }
+    }
+    return lo;
+  }
+
+  private static int intersectionCount(final long[] arrA, final int countA, final long[] arrB, final int countB) {
+    int i = 0;
+    int j = 0;
+    int count = 0;
+    while ((i < countA) && (j < countB)) {
+      final long a = arrA[i];
+      final long b = arrB[j];
+      if (a < b) { i++; }
+      else if (a > b) { j++; }
+      else { count++; i++; j++; }
+    }
+    return count;
+  }
+
+  /**
+   * Applies a function to each row of a range in parallel.
+   */
+  @SuppressWarnings("serial")
+  private static final class RowsTask extends RecursiveAction {
+    private final int from;
+    private final int to;
+    private final int leafSize;
+    private final IntConsumer rowFn;
+
+    RowsTask(final int from, final int to, final int leafSize, final IntConsumer rowFn) {
+      this.from = from;
+      this.to = to;
+      this.leafSize = leafSize;
+      this.rowFn = rowFn;
+    }
+
+    @Override
+    protected void compute() {
+      if ((to - from) <= leafSize) {
+        for (int i = from; i < to; i++) { rowFn.accept(i); }
+        return;
+      }
+      final int mid = (from + to) >>> 1;
+      invokeAll(new RowsTask(from, mid, leafSize, rowFn), new RowsTask(mid, to, leafSize, rowFn));
+    }
+  }
+}
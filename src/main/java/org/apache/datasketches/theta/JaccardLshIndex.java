@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.datasketches.common.SketchesArgumentException;
+
+/**
+ * A locality-sensitive hashing (LSH) index of theta sketches, which finds the stored sketches that are
+ * likely to have a large Jaccard similarity with a query sketch without comparing the query to all of them.
+ *
+ * <p>Each sketch is summarized by a MinHash signature taken from its retained hash values, using one
+ * permutation hashing: the hash values are divided into <i>b &times; r</i> bins by their remainder, and
+ * the signature holds the smallest hash value of each bin. Since a theta sketch retains all hash values of
+ * its set below theta, the smallest value of a bin is exact whenever the bin has any retained value, and
+ * two sets have the same smallest value in a bin with a probability equal to their Jaccard similarity.
+ * A bin without retained values borrows the value of the next bin that has one, offset by the distance.</p>
+ *
+ * <p>The signature is divided into <i>b</i> bands of <i>r</i> consecutive bins, and each band is hashed
+ * into a table of its own. The candidates for a query are the stored sketches that share at least one band
+ * with it, which happens with a probability of <i>1 - (1 - J<sup>r</sup>)<sup>b</sup></i> for a stored
+ * sketch of Jaccard similarity <i>J</i>. This rises steeply around <i>(1/b)<sup>1/r</sup></i>, about 0.42
+ * for the default of 32 bands of 4 rows. The candidates are then confirmed with
+ * {@link JaccardSimilarity#jaccard(Sketch, Sketch)}.</p>
+ *
+ * <p>The signature works best when the sketches retain several hash values per bin, that is, when the
+ * configured nominal entries are well above <i>b &times; r</i>.</p>
+ *
+ * <p>Sketches can be added at any time. Queries may run concurrently with each other, but not with
+ * {@link #add(Sketch)}.</p>
+ */
+public final class JaccardLshIndex {
+  private static final int DEFAULT_NUM_BANDS = 32;
+  private static final int DEFAULT_ROWS_PER_BAND = 4;
+  private static final int MIN_LG_TABLE_SIZE = 4;
+  private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+  private final int numBands;
+  private final int rowsPerBand;
+  private final List<CompactSketch> sketches = new ArrayList<>();
+  private short seedHash;
+
+  //per band, an open addressing table from band key to the head of a chain of sketch ids + 1
+  private final long[][] tableKeys;
+  private final int[][] tableHeads;
+  private final int[] tableCounts;
+  //for each sketch id and band, the next sketch id + 1 of the same band key, or zero
+  private int[] next = new int[0];
+
+  /**
+   * Constructs an index with 32 bands of 4 rows.
+   */
+  public JaccardLshIndex() {
+    this(DEFAULT_NUM_BANDS, DEFAULT_ROWS_PER_BAND);
+  }
+
+  /**
+   * Constructs an index with the given number of bands and rows per band.
+   * More rows per band make candidates less likely for all similarities, and more bands make them more
+   * likely, at the cost of memory and query time.
+   * @param numBands the number of bands, <i>b</i>
+   * @param rowsPerBand the number of rows per band, <i>r</i>
+   */
+  public JaccardLshIndex(final int numBands, final int rowsPerBand) {
+    if ((numBands < 1) || (rowsPerBand < 1)) {
+      throw new SketchesArgumentException("The number of bands and of rows per band must be at least 1: "
+          + numBands + ", " + rowsPerBand);
+    }
+    this.numBands = numBands;
+    this.rowsPerBand = rowsPerBand;
+    tableKeys = new long[numBands][];
+    tableHeads = new int[numBands][];
+    tableCounts = new int[numBands];
+    for (int band = 0; band < numBands; band++) {
+      tableKeys[band] = new long[1 << MIN_LG_TABLE_SIZE];
+      tableHeads[band] = new int[1 << MIN_LG_TABLE_SIZE];
+    }
+  }
+
+  /**
+   * Adds the given sketch to this index. A CompactSketch is stored as is, any other sketch is stored
+   * as an ordered, on-heap compact copy.
+   * @param sketch the given sketch, which must have the same seed hash as the sketches already added
+   * @return the id of the sketch, which is the number of sketches added before it
+   */
+  public int add(final Sketch sketch) {
+    final CompactSketch csk = toCompact(sketch);
+    if (!csk.isEmpty()) {
+      if (seedHash == 0) {
+        seedHash = csk.getSeedHash();
+      } else if (csk.getSeedHash() != seedHash) {
+        throw new SketchesArgumentException("The sketches must all have the same seed hash.");
+      }
+    }
+    final int id = sketches.size();
+    sketches.add(csk);
+    if (next.length < ((id + 1) * numBands)) {
+      next = Arrays.copyOf(next, Math.max(numBands, 2 * next.length));
+    }
+    final long[] bandKeys = computeBandKeys(csk);
+    for (int band = 0; band < numBands; band++) {
+      int slot = findSlot(band, bandKeys[band]);
+      if (tableHeads[band][slot] == 0) {
+        if (((tableCounts[band] + 1) << 2) > (3 * tableKeys[band].length)) { //keep tables at most 3/4 full
+          growTable(band);
+          slot = findSlot(band, bandKeys[band]);
+        }
+        tableKeys[band][slot] = bandKeys[band];
+        tableCounts[band]++;
+      }
+      next[(id * numBands) + band] = tableHeads[band][slot];
+      tableHeads[band][slot] = id + 1;
+    }
+    return id;
+  }
+
+  /**
+   * Returns the ids of the stored sketches that share at least one band with the given sketch,
+   * without confirming them, in increasing order.
+   * @param query the given query sketch
+   * @return the ids of the candidates for the given sketch
+   */
+  public int[] getCandidates(final Sketch query) {
+    final long[] bandKeys = computeBandKeys(toCompact(query));
+    int[] ids = new int[16];
+    int count = 0;
+    for (int band = 0; band < numBands; band++) {
+      final int slot = findSlot(band, bandKeys[band]);
+      for (int e = tableHeads[band][slot]; e != 0; e = next[((e - 1) * numBands) + band]) {
+        if (count == ids.length) { ids = Arrays.copyOf(ids, 2 * count); }
+        ids[count++] = e - 1;
+      }
+    }
+    Arrays.sort(ids, 0, count);
+    int unique = 0;
+    for (int i = 0; i < count; i++) {
+      if ((unique == 0) || (ids[i] != ids[unique - 1])) { ids[unique++] = ids[i]; }
+    }
+    return Arrays.copyOf(ids, unique);
+  }
+
+  /**
+   * Returns the ids of the candidates for the given sketch whose estimated Jaccard similarity with it is
+   * at least the given threshold, in decreasing order of the estimate and increasing order of id for equal
+   * estimates. Stored sketches that are not candidates are never returned, even if they are similar enough.
+   * @param query the given query sketch
+   * @param threshold the given minimum estimate of the Jaccard similarity
+   * @return the ids of the confirmed candidates
+   */
+  public int[] query(final Sketch query, final double threshold) {
+    return confirm(query, threshold, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Returns the ids of at most k candidates for the given sketch with the largest estimates of Jaccard
+   * similarity with it, in decreasing order of the estimate and increasing order of id for equal estimates.
+   * @param query the given query sketch
+   * @param k the maximum number of ids to return
+   * @return the ids of the most similar candidates
+   */
+  public int[] topK(final Sketch query, final int k) {
+    if (k < 1) {
+      throw new SketchesArgumentException("k must be at least 1: " + k);
+    }
+    return confirm(query, Double.NEGATIVE_INFINITY, k);
+  }
+
+  /**
+   * Returns the stored sketch of the given id.
+   * @param id the given id
+   * @return the stored sketch of the given id
+   */
+  public CompactSketch getSketch(final int id) {
+    return sketches.get(id);
+  }
+
+  /**
+   * Returns the number of sketches in this index.
+   * @return the number of sketches in this index
+   */
+  public int size() {
+    return sketches.size();
+  }
+
+  //restricted
+
+  private int[] confirm(final Sketch query, final double threshold, final int k) {
+    final CompactSketch csk = toCompact(query);
+    final int[] candidates = getCandidates(csk);
+    final long[] scored = new long[candidates.length]; //inverted estimate bits, then the id
+    int count = 0;
+    for (int i = 0; i < candidates.length; i++) {
+      final double est = JaccardSimilarity.jaccard(csk, sketches.get(candidates[i]))[1];
+      if (est >= threshold) {
+        //estimates are in [0, 1], so the float bits order like the values
+        scored[count++] = ((long) (Integer.MAX_VALUE - Float.floatToIntBits((float) est)) << 32) | candidates[i];
+      }
+    }
+    Arrays.sort(scored, 0, count);
+    final int[] out = new int[Math.min(k, count)];
+    for (int i = 0; i < out.length; i++) { out[i] = (int) scored[i]; }
+    return out;
+  }
+
+  private static CompactSketch toCompact(final Sketch sketch) {
+    if (sketch == null) {
+      throw new SketchesArgumentException("The sketch must not be null.");
+    }
+    return (sketch instanceof CompactSketch) ? (CompactSketch) sketch : sketch.compact(true, null);
+  }
+
+  /**
+   * Returns the one permutation MinHash signature of the given sketch, folded into one key per band.
+   */
+  private long[] computeBandKeys(final CompactSketch sketch) {
+    final int numBins = numBands * rowsPerBand;
+    final long[] mins = new long[numBins];
+    Arrays.fill(mins, Long.MAX_VALUE);
+    final HashIterator it = sketch.iterator();
+    while (it.next()) {
+      final long hash = it.get();
+      final int bin = (int) (hash % numBins);
+      if (hash < mins[bin]) { mins[bin] = hash; }
+    }
+    //rotation densification: an empty bin takes the value of the next non-empty bin, offset by the distance
+    int nonEmpty = -1;
+    for (int bin = numBins - 1; bin >= 0; bin--) {
+      if (mins[bin] != Long.MAX_VALUE) { nonEmpty = bin; break; }
+    }
+    final long[] signature = new long[numBins];
+    if (nonEmpty >= 0) {
+      int src = nonEmpty;
+      for (int i = 0; i < numBins; i++) {
+        final int bin = Math.floorMod(nonEmpty - i, numBins); //visit the bins downward from the last non-empty
+        if (mins[bin] != Long.MAX_VALUE) { src = bin; }
+        signature[bin] = mins[src] + (Math.floorMod(src - bin, numBins) * GOLDEN_RATIO);
+      }
+    }
+    final long[] bandKeys = new long[numBands];
+    for (int band = 0; band < numBands; band++) {
+      long h = band;
+      for (int row = 0; row < rowsPerBand; row++) {
+        h = (h ^ signature[(band * rowsPerBand) + row]) * GOLDEN_RATIO;
+        h ^= h >>> 29;
+      }
+      bandKeys[band] = h;
+    }
+    return bandKeys;
+  }
+
+  private int findSlot(final int band, final long key) {
+    final long[] keys = tableKeys[band];
+    final int[] heads = tableHeads[band];
+    final int lgSize = Integer.numberOfTrailingZeros(keys.length);
+    final int mask = keys.length - 1;
+    int slot = (int) ((key * GOLDEN_RATIO) >>> (64 - lgSize));
+    while ((heads[slot] != 0) && (keys[slot] != key)) { slot = (slot + 1) & mask; }
+    return slot;
+  }
+
+  private void growTable(final int band) {
+    final long[] oldKeys = tableKeys[band];
+    final int[] oldHeads = tableHeads[band];
+    tableKeys[band] = new long[2 * oldKeys.length];
+    tableHeads[band] = new int[2 * oldKeys.length];
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldHeads[i] != 0) {
+        final int slot = findSlot(band, oldKeys[i]);
+        tableKeys[band][slot] = oldKeys[i];
+        tableHeads[band][slot] = oldHeads[i];
+      }
+    }
+  }
+}
@@ -26,6 +26,11 @@ import static org.apache.datasketches.thetacommon.BoundsOnRatiosInThetaSketchedS
 import static org.apache.datasketches.thetacommon.BoundsOnRatiosInThetaSketchedSets.getLowerBoundForBoverA;
 import static org.apache.datasketches.thetacommon.BoundsOnRatiosInThetaSketchedSets.getUpperBoundForBoverA;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.datasketches.common.SketchesArgumentException;
 import org.apache.datasketches.thetacommon.ThetaUtil;
 
 /**
@@ -95,6 +100,91 @@ public final class JaccardSimilarity {
     return new double[] {lb, est, ub};
   }
 
+  /**
+   * Computes the estimates of the Jaccard similarity index of all pairs of the given sketches,
+   * in parallel in the common ForkJoinPool.
+   *
+   * @param sketches the given sketches, which must not be null
+   * @return the symmetric matrix of the estimates, where element [i][j] is the estimate of
+   * {@link #jaccard(Sketch, Sketch)} of sketches i and j.
+   * @see #jaccardMatrix(List, ForkJoinPool)
+   */
+  public static double[][] jaccardMatrix(final List<? extends Sketch> sketches) {
+    return jaccardMatrix(sketches, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Computes the estimates of the Jaccard similarity index of all pairs of the given sketches,
+   * in parallel in the given ForkJoinPool.
+   *
+   * <p>Each sketch is converted to an ordered compact form once, and each pair is then compared
+   * with a single merge of the hashes of the two sketches below their common theta, instead of a
+   * union and an intersection per pair.</p>
+   *
+   * @param sketches the given sketches, which must not be null
+   * @param pool the given ForkJoinPool
+   * @return the symmetric matrix of the estimates, where element [i][j] is the estimate of
+   * {@link #jaccard(Sketch, Sketch)} of sketches i and j.
+   */
+  public static double[][] jaccardMatrix(final List<? extends Sketch> sketches, final ForkJoinPool pool) {
+    return new JaccardBatch(sketches).matrix(pool);
+  }
+
+  /**
+   * For each of the given sketches, finds the k other sketches with the largest estimates of the
+   * Jaccard similarity index, in parallel in the common ForkJoinPool.
+   *
+   * @param sketches the given sketches, which must not be null
+   * @param k the number of most similar sketches to find for each sketch
+   * @return for each sketch, the indices of the k most similar other sketches
+   * @see #topK(List, int, ForkJoinPool)
+   */
+  public static int[][] topK(final List<? extends Sketch> sketches, final int k) {
+    return topK(sketches, k, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * For each of the given sketches, finds the k other sketches with the largest estimates of the
+   * Jaccard similarity index, in parallel in the given ForkJoinPool.
+   *
+   * <p>The indices of each row are in decreasing order of the estimate, and in increasing order of index
+   * for equal estimates. A row has fewer than k indices if there are not k other sketches. The estimate of
+   * a pair can never exceed the ratio of the smaller to the larger number of retained entries of the pair
+   * below their common theta, so most pairs are ruled out by that bound without being compared.</p>
+   *
+   * @param sketches the given sketches, which must not be null
+   * @param k the number of most similar sketches to find for each sketch
+   * @param pool the given ForkJoinPool
+   * @return for each sketch, the indices of the k most similar other sketches
+   */
+  public static int[][] topK(final List<? extends Sketch> sketches, final int k, final ForkJoinPool pool) {
+    checkK(k);
+    return new JaccardBatch(sketches).topK(k, pool);
+  }
+
+  /**
+   * Finds the k candidate sketches with the largest estimates of the Jaccard similarity index with the
+   * given query sketch.
+   *
+   * @param query the given query sketch
+   * @param candidates the given candidate sketches, which must not be null
+   * @param k the number of most similar sketches to find
+   * @return the indices of the k most similar candidates, in decreasing order of the estimate
+   * @see #topK(List, int, ForkJoinPool)
+   */
+  public static int[] topK(final Sketch query, final List<? extends Sketch> candidates, final int k) {
+    checkK(k);
+    final List<Sketch> all = new ArrayList<>(candidates);
+    all.add(query);
+    return new JaccardBatch(all).topK(candidates.size(), k);
+  }
+
+  private static void checkK(final int k) {
+    if (k < 1) {
+      throw new SketchesArgumentException("k must be at least 1: " + k);
+    }
+  }
+
   /**
    * Returns true if the two given sketches have exactly the same hash values and the same
    * theta values. Thus, they are equivalent.
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import org.apache.datasketches.memory.Memory;
+
+/**
+ * Iterates over the hash values of a compressed (Serialization Version 4) compact sketch in Memory,
+ * decoding the packed deltas eight at a time as the iteration proceeds. The hashes are returned in
+ * ascending order, so a caller that stops early only decodes a prefix of the image.
+ */
+class MemoryCompactCompressedHashIterator implements HashIterator {
+  private final Memory mem;
+  private final int numEntries;
+  private final int entryBits;
+  private final long[] block;  //decoded hash values of the current block
+  private final byte[] buffer; //packed bytes of the current block
+  private long offsetBytes;    //offset of the next block in mem
+  private int index;
+  private int blockIndex;
+  private int blockSize;
+  private long previous;
+
+  MemoryCompactCompressedHashIterator(final Memory mem, final int offsetBytes, final int entryBits,
+      final int numEntries) {
+    this.mem = mem;
+    this.numEntries = numEntries;
+    this.entryBits = entryBits;
+    block = new long[8];
+    buffer = new byte[entryBits];
+    this.offsetBytes = offsetBytes;
+    index = -1;
+    blockIndex = 0;
+    blockSize = 0;
+    previous = 0;
+  }
+
+  @Override
+  public long get() {
+    return block[blockIndex];
+  }
+
+  @Override
+  public boolean next() {
+    if (++index >= numEntries) { return false; }
+    if (++blockIndex >= blockSize) { decodeBlock(); }
+    return true;
+  }
+
+  private void decodeBlock() {
+    final int remaining = numEntries - index;
+    if (remaining >= 8) {
+      mem.getByteArray(offsetBytes, buffer, 0, entryBits);
+      BitPacking.unpackBitsBlock8(block, 0, buffer, 0, entryBits);
+      offsetBytes += entryBits;
+      blockSize = 8;
+    } else { //the last partial block is packed without padding between entries
+      mem.getByteArray(offsetBytes, buffer, 0, ((remaining * entryBits) + 7) >>> 3);
+      int bufOffset = 0;
+      int bitOffset = 0;
+      for (int i = 0; i < remaining; i++) {
+        BitPacking.unpackBits(block, i, entryBits, buffer, bufOffset, bitOffset);
+        bufOffset += (bitOffset + entryBits) >>> 3;
+        bitOffset = (bitOffset + entryBits) & 7;
+      }
+      blockSize = remaining;
+    }
+    for (int i = 0; i < blockSize; i++) { //undo the deltas
+      block[i] += previous;
+      previous = block[i];
+    }
+    blockIndex = 0;
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import static org.apache.datasketches.theta.CompactOperations.componentsToCompact;
+import static org.apache.datasketches.theta.PreambleUtil.extractPreLongs;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.WritableMemory;
+
+/**
+ * Intersection and A-not-B of ordered compact sketches as merge joins of their sorted hash values.
+ *
+ * <p>No hash table is built. The hash values of heap sketches and of wrapped sketches are read in place,
+ * only the output array is allocated. Each hash value of the smaller side is located in the larger side
+ * by a galloping search that starts where the previous one ended, so a join costs
+ * O(m log(n/m)) for sides of m and n hash values.</p>
+ */
+final class OrderedMergeJoin {
+
+  private OrderedMergeJoin() {}
+
+  /**
+   * Returns true if the hash values of the given sketch are ordered and compact.
+   * @param sketch the given sketch
+   * @return true if the hash values of the given sketch are ordered and compact.
+   */
+  static boolean isOrderedCompact(final Sketch sketch) {
+    return sketch.isOrdered() && sketch.isCompact();
+  }
+
+  /**
+   * Returns the intersection of the given sketches.
+   * @param inputs the given sketches, which must be non-empty, ordered and compact. This list is sorted by
+   * the number of retained entries, so that the smallest sketch is processed first.
+   * @param seedHash the seed hash of the result
+   * @param dstOrdered <a href="{@docRoot}/resources/dictionary.html#dstOrdered">See Destination Ordered</a>
+   * @param dstMem <a href="{@docRoot}/resources/dictionary.html#dstMem">See Destination Memory</a>.
+   * @return the intersection as a CompactSketch
+   */
+  static CompactSketch intersect(final List<Sketch> inputs, final short seedHash, final boolean dstOrdered,
+      final WritableMemory dstMem) {
+    long thetaLong = Long.MAX_VALUE;
+    for (int i = 0; i < inputs.size(); i++) {
+      thetaLong = Math.min(thetaLong, inputs.get(i).getThetaLong());
+    }
+    inputs.sort((a, b) -> Integer.compare(a.getRetainedEntries(true), b.getRetainedEntries(true)));
+
+    final Hashes first = Hashes.of(inputs.get(0));
+    final long[] out = new long[first.count];
+    int count = 0;
+    for (int i = 0; i < first.count; i++) {
+      final long hash = first.get(i);
+      if (hash >= thetaLong) { break; }
+      out[count++] = hash;
+    }
+    for (int s = 1; (s < inputs.size()) && (count > 0); s++) {
+      final Hashes other = Hashes.of(inputs.get(s));
+      int matches = 0;
+      int j = 0;
+      for (int i = 0; i < count; i++) {
+        final long hash = out[i];
+        j = lowerBound(other, j, hash);
+        if (j == other.count) { break; }
+        if (other.get(j) == hash) { out[matches++] = hash; }
+      }
+      count = matches;
+    }
+    return componentsToCompact(thetaLong, count, seedHash, false, true, true, dstOrdered, dstMem,
+        Arrays.copyOf(out, count));
+  }
+
+  /**
+   * Returns the hash values of A that are less than the given theta and not in B, in ascending order.
+   * @param hashesA the hash values of A
+   * @param skB the sketch B, which must be ordered and compact.
+   * @param thetaLong the theta of the result
+   * @return a new array of the hash values of the result
+   */
+  static long[] aNotB(final Hashes hashesA, final Sketch skB, final long thetaLong) {
+    final Hashes hashesB = Hashes.of(skB);
+    final long[] out = new long[hashesA.count];
+    int count = 0;
+    int j = 0;
+    for (int i = 0; i < hashesA.count; i++) {
+      final long hash = hashesA.get(i);
+      if (hash >= thetaLong) { break; }
+      j = lowerBound(hashesB, j, hash);
+      if ((j == hashesB.count) || (hashesB.get(j) != hash)) { out[count++] = hash; }
+    }
+    return (count == out.length) ? out : Arrays.copyOf(out, count);
+  }
+
+  /**
+   * Sets the bit of each position of A whose hash value is less than the given theta and also in B.
+   * An ordered compact B is merged with A, otherwise each hash value of B is searched for in A.
+   * @param hashesA the hash values of A, which must be in ascending order
+   * @param skB the sketch B, which must not be empty
+   * @param thetaLong the theta of the result
+   * @param found the bit set of the positions of A found in B
+   */
+  static void markMatches(final Hashes hashesA, final Sketch skB, final long thetaLong, final long[] found) {
+    if (isOrderedCompact(skB)) {
+      final Hashes hashesB = Hashes.of(skB);
+      int i = 0;
+      for (int j = 0; j < hashesB.count; j++) {
+        final long hash = hashesB.get(j);
+        if (hash >= thetaLong) { break; }
+        i = lowerBound(hashesA, i, hash);
+        if (i == hashesA.count) { break; }
+        if (hashesA.get(i) == hash) { found[i >>> 6] |= 1L << i; }
+      }
+    } else {
+      final HashIterator it = skB.iterator();
+      while (it.next()) {
+        final long hash = it.get();
+        if (hash >= thetaLong) { continue; }
+        final int i = lowerBound(hashesA, 0, hash);
+        if ((i < hashesA.count) && (hashesA.get(i) == hash)) { found[i >>> 6] |= 1L << i; }
+      }
+    }
+  }
+
+  /**
+   * Returns the index of the first hash value at or after the given index that is not less than
+   * the given hash, or the count of hash values if there is none.
+   */
+  private static int lowerBound(final Hashes hashes, final int from, final long hash) {
+    final int count = hashes.count;
+    if ((from >= count) || (hashes.get(from) >= hash)) { return from; }
+    //gallop: hashes[lo] < hash
+    int lo = from;
+    int step = 1;
+    int hi = from + 1;
+    while ((hi < count) && (hashes.get(hi) < hash)) {
+      lo = hi;
+      step <<= 1;
+      hi = lo + step;
+    }
+    if (hi > count) { hi = count; }
+    //binary search: hashes[lo] < hash and (hi == count or hashes[hi] >= hash)
+    while ((hi - lo) > 1) {
+      final int mid = (lo + hi) >>> 1;
+      if (hashes.get(mid) < hash) { lo = mid; } else { hi = mid; }
+    }
+    return hi;
+  }
+
+  /**
+   * Random access to the ordered hash values of a compact sketch, either on the heap or in Memory.
+   */
+  static final class Hashes {
+    private final long[] arr;
+    private final Memory mem;
+    private final long offsetBytes;
+    final int count;
+
+    private Hashes(final long[] arr, final Memory mem, final long offsetBytes, final int count) {
+      this.arr = arr;
+      this.mem = mem;
+      this.offsetBytes = offsetBytes;
+      this.count = count;
+    }
+
+    static Hashes of(final long[] arr, final int count) {
+      return new Hashes(arr, null, 0, count);
+    }
+
+    static Hashes of(final Sketch sketch) {
+      final int count = sketch.getRetainedEntries(true);
+      if (sketch instanceof DirectCompactCompressedSketch) { //must be decoded for random access
+        return of(sketch.getCache(), count);
+      }
+      if (sketch instanceof DirectCompactSketch) {
+        final Memory mem = ((DirectCompactSketch) sketch).getMemory();
+        return new Hashes(null, mem, extractPreLongs(mem) << 3, count);
+      }
+      return of(sketch.getCache(), count); //not a copy for heap compact sketches
+    }
+
+    long get(final int index) {
+      return (arr != null) ? arr[index] : mem.getLong(offsetBytes + ((long) index << 3));
+    }
+  }
+}
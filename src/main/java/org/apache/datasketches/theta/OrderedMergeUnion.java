@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import static org.apache.datasketches.theta.CompactOperations.componentsToCompact;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.datasketches.memory.WritableMemory;
+
+/**
+ * The union of ordered compact sketches as a k-way merge of their sorted hash values.
+ *
+ * <p>The inputs are read through their iterators, which read wrapped sketches directly from Memory
+ * and decode compressed sketches as they go. The merge stops at the smallest theta of the inputs,
+ * or as soon as it finds the (k+1)th distinct hash value, which then becomes the theta of the result.
+ * This produces the same result as the hash table based union, which cuts its result back to k.</p>
+ */
+final class OrderedMergeUnion {
+
+  private OrderedMergeUnion() {}
+
+  /**
+   * Returns the union of the given ordered compact sketches.
+   * @param inputs the given sketches, which must be non-empty, ordered and compact.
+   * @param k the nominal entries of the result
+   * @param thetaLong the initial theta, which reflects the sampling probability of the union
+   * @param seedHash the seed hash of the result
+   * @param dstOrdered <a href="{@docRoot}/resources/dictionary.html#dstOrdered">See Destination Ordered</a>
+   * @param dstMem <a href="{@docRoot}/resources/dictionary.html#dstMem">See Destination Memory</a>.
+   * @return the union as a CompactSketch
+   */
+  static CompactSketch merge(final List<Sketch> inputs, final int k, final long thetaLong,
+      final short seedHash, final boolean dstOrdered, final WritableMemory dstMem) {
+    final int numInputs = inputs.size();
+    long minThetaLong = thetaLong;
+    long totalCount = 0;
+    for (int i = 0; i < numInputs; i++) {
+      final Sketch sketch = inputs.get(i);
+      minThetaLong = Math.min(minThetaLong, sketch.getThetaLong());
+      totalCount += sketch.getRetainedEntries(true);
+    }
+
+    //a binary min-heap of the inputs, keyed by the current hash value of each
+    final HashIterator[] its = new HashIterator[numInputs];
+    final long[] heads = new long[numInputs];
+    final int[] heap = new int[numInputs];
+    int heapSize = 0;
+    for (int i = 0; i < numInputs; i++) {
+      final HashIterator it = inputs.get(i).iterator();
+      if (it.next() && (it.get() < minThetaLong)) {
+        its[i] = it;
+        heads[i] = it.get();
+        heap[heapSize++] = i;
+      }
+    }
+    for (int i = (heapSize >>> 1) - 1; i >= 0; i--) { siftDown(heap, heapSize, heads, i); }
+
+    final long[] out = new long[(int) Math.min(totalCount, k)];
+    int count = 0;
+    long previous = 0;
+    while (heapSize > 0) {
+      final int top = heap[0];
+      final long hash = heads[top];
+      if (hash >= minThetaLong) { break; }
+      if (hash != previous) {
+        if (count == k) { //the (k+1)th distinct hash value
+          minThetaLong = hash;
+          break;
+        }
+        out[count++] = hash;
+        previous = hash;
+      }
+      final HashIterator it = its[top];
+      if (it.next() && (it.get() < minThetaLong)) {
+        heads[top] = it.get();
+      } else {
+        heap[0] = heap[--heapSize];
+      }
+      siftDown(heap, heapSize, heads, 0);
+    }
+    return componentsToCompact(minThetaLong, count, seedHash, false, true, true, dstOrdered, dstMem,
+        (count == out.length) ? out : Arrays.copyOf(out, count));
+  }
+
+  private static void siftDown(final int[] heap, final int heapSize, final long[] heads, int i) {
+    final int item = heap[i];
+    final long key = heads[item];
+    while (true) {
+      int child = (i << 1) + 1;
+      if (child >= heapSize) { break; }
+      if (((child + 1) < heapSize) && (heads[heap[child + 1]] < heads[heap[child]])) { child++; }
+      if (heads[heap[child]] >= key) { break; }
+      heap[i] = heap[child];
+      i = child;
+    }
+    heap[i] = item;
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+import org.apache.datasketches.theta.OrderedMergeJoin.Hashes;
+
+/**
+ * A fork/join search of many sketches <i>B</i> for the hash values of one ordered array <i>A</i>.
+ *
+ * <p>Each task returns a bit set over the positions of <i>A</i> that were found in any of its
+ * sketches <i>B</i>, and the bit sets of the subtasks are combined with OR. The hash values of
+ * <i>A</i> whose bit is clear are the result of <i>A-AND-NOT-B</i> over all of the inputs.</p>
+ */
+@SuppressWarnings("serial")
+final class ParallelAnotBTask extends RecursiveTask<long[]> {
+  private final Hashes hashesA;
+  private final List<Sketch> skBs;
+  private final long thetaLong;
+  private final int leafSize;
+  private final int from;
+  private final int to;
+
+  ParallelAnotBTask(final Hashes hashesA, final List<Sketch> skBs, final long thetaLong, final int leafSize) {
+    this(hashesA, skBs, thetaLong, leafSize, 0, skBs.size());
+  }
+
+  private ParallelAnotBTask(final Hashes hashesA, final List<Sketch> skBs, final long thetaLong,
+      final int leafSize, final int from, final int to) {
+    this.hashesA = hashesA;
+    this.skBs = skBs;
+    this.thetaLong = thetaLong;
+    this.leafSize = leafSize;
+    this.from = from;
+    this.to = to;
+  }
+
+  @Override
+  protected long[] compute() {
+    if ((to - from) <= leafSize) {
+      final long[] found = new long[(hashesA.count + 63) >>> 6];
+      for (int i = from; i < to; i++) {
+        OrderedMergeJoin.markMatches(hashesA, skBs.get(i), thetaLong, found);
+      }
+      return found;
+    }
+    final int mid = (from + to) >>> 1;
+    final ParallelAnotBTask left = new ParallelAnotBTask(hashesA, skBs, thetaLong, leafSize, from, mid);
+    final ParallelAnotBTask right = new ParallelAnotBTask(hashesA, skBs, thetaLong, leafSize, mid, to);
+    left.fork();
+    final long[] found = right.compute();
+    final long[] leftFound = left.join();
+    for (int w = 0; w < found.length; w++) { found[w] |= leftFound[w]; }
+    return found;
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import org.apache.datasketches.common.ResizeFactor;
+
+/**
+ * A fork/join tree reduction of the union of many inputs of type T.
+ *
+ * <p>All tasks of one reduction share the smallest theta reached by any partial union so far. The theta of a
+ * partial union is never smaller than the theta of the final union, so each partial union may ignore all hashes
+ * at or above the shared theta. Passing it down to the partial unions lets them stop early on ordered inputs
+ * whose remaining hashes can no longer contribute to the result.</p>
+ *
+ * @param <T> the type of the inputs, either Sketch or Memory
+ */
+@SuppressWarnings("serial")
+final class ParallelUnionTask<T> extends RecursiveTask<CompactSketch> {
+  private final List<T> inputs;
+  private final int from;
+  private final int to;
+  private final Context<T> ctx;
+
+  ParallelUnionTask(final List<T> inputs, final int lgNomLongs, final long seed, final long thetaLong,
+      final int leafSize, final BiConsumer<Union, T> unionFn) {
+    this(inputs, 0, inputs.size(), new Context<>(lgNomLongs, seed, thetaLong, leafSize, unionFn));
+  }
+
+  private ParallelUnionTask(final List<T> inputs, final int from, final int to, final Context<T> ctx) {
+    this.inputs = inputs;
+    this.from = from;
+    this.to = to;
+    this.ctx = ctx;
+  }
+
+  @Override
+  protected CompactSketch compute() {
+    if ((to - from) <= ctx.leafSize) {
+      final UnionImpl union = ctx.newUnion();
+      for (int i = from; i < to; i++) {
+        ctx.unionFn.accept(union, inputs.get(i));
+        ctx.shareThetaLong(union);
+      }
+      return union.getResult(true, null);
+    }
+    final int mid = (from + to) >>> 1;
+    final ParallelUnionTask<T> left = new ParallelUnionTask<>(inputs, from, mid, ctx);
+    final ParallelUnionTask<T> right = new ParallelUnionTask<>(inputs, mid, to, ctx);
+    left.fork();
+    final CompactSketch rightResult = right.compute();
+    final CompactSketch leftResult = left.join();
+    final UnionImpl union = ctx.newUnion();
+    union.union(leftResult);
+    union.union(rightResult);
+    return union.getResult(true, null);
+  }
+
+  /**
+   * The configuration and shared theta of one reduction.
+   */
+  private static final class Context<T> {
+    final int lgNomLongs;
+    final long seed;
+    final int leafSize;
+    final BiConsumer<Union, T> unionFn;
+    final AtomicLong minThetaLong;
+
+    Context(final int lgNomLongs, final long seed, final long thetaLong, final int leafSize,
+        final BiConsumer<Union, T> unionFn) {
+      this.lgNomLongs = lgNomLongs;
+      this.seed = seed;
+      this.leafSize = leafSize;
+      this.unionFn = unionFn;
+      minThetaLong = new AtomicLong(thetaLong);
+    }
+
+    UnionImpl newUnion() {
+      //The sampling probability, if any, is carried by the initial shared theta
+      return UnionImpl.initNewHeapInstance(lgNomLongs, seed, (float) 1.0, ResizeFactor.X8);
+    }
+
+    /**
+     * Publishes the theta of the given partial union if it is the smallest so far, otherwise
+     * lowers the theta of the partial union to the shared one.
+     */
+    void shareThetaLong(final UnionImpl union) {
+      if (union.isEmpty()) { return; }
+      final long thetaLong = union.getThetaLong();
+      final long shared = minThetaLong.get();
+      if (thetaLong < shared) {
+        minThetaLong.accumulateAndGet(thetaLong, Math::min);
+      } else if (shared < thetaLong) {
+        union.lowerThetaLong(shared);
+      }
+    }
+  }
+}
@@ -252,6 +252,29 @@ public class SetOperationBuilder {
     return (Union) build(Family.UNION, dstMem);
   }
 
+  /**
+   * Returns a Union that many threads can update at the same time, with the current configuration of this
+   * Builder. The number of stripes is the number of available processors, rounded up to a power of 2.
+   * @return a ConcurrentUnion
+   */
+  public ConcurrentUnion buildConcurrentUnion() {
+    return buildConcurrentUnion(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Returns a Union that many threads can update at the same time, with the current configuration of this
+   * Builder and the given number of stripes, which is rounded up to a power of 2. Each stripe holds an
+   * on-heap Union, so more stripes reduce contention at the cost of memory.
+   * @param numStripes the number of stripes, which must be at least 1.
+   * @return a ConcurrentUnion
+   */
+  public ConcurrentUnion buildConcurrentUnion(final int numStripes) {
+    if (numStripes < 1) {
+      throw new SketchesArgumentException("Number of stripes must be at least 1: " + numStripes);
+    }
+    return new ConcurrentUnion(bLgNomLongs, bSeed, bP, bRF, ceilingPowerOf2(numStripes));
+  }
+
   /**
    * Convenience method, returns a configured SetOperation Intersection with
    * <a href="{@docRoot}/resources/dictionary.html#defaultNomEntries">Default Nominal Entries</a>
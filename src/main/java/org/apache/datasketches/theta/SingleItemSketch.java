@@ -19,9 +19,9 @@
 
 package org.apache.datasketches.theta;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.datasketches.common.ByteArrayUtil.putLongLE;
 import static org.apache.datasketches.hash.MurmurHash3.hash;
+import static org.apache.datasketches.hash.MurmurHash3.hashUtf8;
 import static org.apache.datasketches.theta.PreambleUtil.SINGLEITEM_FLAG_MASK;
 import static org.apache.datasketches.theta.PreambleUtil.extractFamilyID;
 import static org.apache.datasketches.theta.PreambleUtil.extractFlags;
@@ -141,8 +141,7 @@ final class SingleItemSketch extends CompactSketch {
    */
   static SingleItemSketch create(final String datum) {
     if ((datum == null) || datum.isEmpty()) { return null; }
-    final byte[] data = datum.getBytes(UTF_8);
-    return new SingleItemSketch(hash(data, ThetaUtil.DEFAULT_UPDATE_SEED)[0] >>> 1);
+    return new SingleItemSketch(hashUtf8(datum, ThetaUtil.DEFAULT_UPDATE_SEED)[0] >>> 1);
   }
 
   /**
@@ -242,8 +241,7 @@ final class SingleItemSketch extends CompactSketch {
    */
   static SingleItemSketch create(final String datum, final long seed) {
     if ((datum == null) || datum.isEmpty()) { return null; }
-    final byte[] data = datum.getBytes(UTF_8);
-    return new SingleItemSketch(hash(data, seed)[0] >>> 1, seed);
+    return new SingleItemSketch(hashUtf8(datum, seed)[0] >>> 1, seed);
   }
 
   /**
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import org.apache.datasketches.common.ResizeFactor;
+
+/**
+ * An on-heap QuickSelect UpdateSketch that any number of reader threads can take consistent snapshots of,
+ * while a single writer thread keeps updating it without any locking.
+ * It is built with {@link UpdateSketchBuilder#buildWithSnapshots()}.
+ */
+public abstract class SnapshotUpdateSketch extends HeapQuickSelectSketch {
+
+  SnapshotUpdateSketch(final int lgNomLongs, final long seed, final float p, final ResizeFactor rf) {
+    super(lgNomLongs, seed, p, rf, false);
+  }
+
+  /**
+   * Returns an ordered, on-heap compact copy of the current state of this sketch, which may be taken
+   * by any number of other threads while a single thread is updating this sketch.
+   * @return an ordered, on-heap compact copy of the current state of this sketch
+   * @see #snapshot(boolean)
+   */
+  public CompactSketch snapshot() {
+    return snapshot(true);
+  }
+
+  /**
+   * Returns an on-heap compact copy of the current state of this sketch, which may be taken
+   * by any number of other threads while a single thread is updating this sketch, without any locking.
+   * The copy reflects all updates that completed before the last resize or rebuild of the hash table,
+   * and possibly some of the updates since. An unordered copy is cheaper if only the estimate
+   * and bounds are required.
+   *
+   * @param dstOrdered <a href="{@docRoot}/resources/dictionary.html#dstOrdered">See Destination Ordered</a>
+   * @return an on-heap compact copy of the current state of this sketch
+   */
+  public abstract CompactSketch snapshot(final boolean dstOrdered);
+}
@@ -0,0 +1,429 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import static org.apache.datasketches.common.Util.LS;
+import static org.apache.datasketches.hash.MurmurHash3.hash;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.memory.WritableMemory;
+import org.apache.datasketches.thetacommon.HashOperations;
+import org.apache.datasketches.thetacommon.ThetaUtil;
+
+/**
+ * This is a key-value mapping sketch that tracks approximate unique counts of identifiers (the values)
+ * associated with each key, similar to {@link org.apache.datasketches.hllmap.UniqueCountMap}.
+ * Unlike that map, the unique count of each key is kept as a theta sketch, which can be extracted as
+ * a {@link CompactSketch} with {@link #getResult(byte[])} and used with the Union, Intersection and
+ * AnotB set operations, for example to intersect the identifiers of two keys or to union the same key
+ * of several maps.
+ *
+ * <p>As in that map, the design assumes a very large number of keys with a skewed distribution of
+ * identifiers per key, where most keys have only a single identifier. The map is a hierarchy of
+ * three levels:</p>
+ *
+ * <ul>
+ * <li>The base map holds all the keys, each with room for the hash of a single identifier.</li>
+ * <li>A key that acquires a second identifier moves its hashes to a side table with room for the
+ * hashes of up to four identifiers. The hashes of the first two levels are kept exactly.</li>
+ * <li>A key that acquires a fifth identifier is promoted to a QuickSelect theta sketch with the
+ * configured nominal entries in an {@link UpdateSketchPool}. There the sketch starts with a small hash
+ * table and grows by a factor of 2 as required, up to its full size.</li>
+ * </ul>
+ *
+ * <p>Each entry of the base map takes the key, one byte of state and one 8-byte hash or reference.
+ * As in the hllmap, the base map is grown when it is 15/16 full, to be 2/3 full, so a key with a
+ * single identifier costs between about 1.07 and 1.5 times <i>keySizeBytes</i> + 9 bytes, for
+ * example, 14 to 20 bytes with 4-byte keys. A key with two to four identifiers takes 32 more bytes in
+ * the side table. A promoted key takes its sketch in the pool instead, which is about 280 bytes at
+ * first and grows to about 16 times the nominal entries bytes, plus 16 bytes of the index of the pool.
+ * The default map starts with about one million entries, which is about 13 MB with 4-byte keys.</p>
+ *
+ * <p>The exact entries of the first two levels are theta sketches in exact mode. Therefore the
+ * estimates and the results of this map are exactly those of a single theta sketch per key with the
+ * same nominal entries and seed.</p>
+ *
+ * <p>This class is not thread safe.</p>
+ */
+public final class ThetaUniqueCountMap {
+  private static final int SIDE_HASHES = 4;
+  private static final byte PROMOTED = -1;
+  private static final int MIN_NUM_ENTRIES = 157;
+  private static final int MIN_SIDE_SLOTS = 16;
+  private static final double GROW_TRIGGER_FACTOR = 15.0 / 16.0;
+  private static final double TARGET_FILL_FACTOR = 2.0 / 3.0;
+  private static final int DEFAULT_LG_NOM_LONGS = 10;
+  private static final int INITIAL_NUM_ENTRIES = 1000003;
+  private static final int INITIAL_POOL_BYTES = 1 << 16;
+
+  private final int keySizeBytes;
+  private final long seed;
+  private final short seedHash;
+  private final UpdateSketchPool pool;
+  private final long[] hashOut = new long[2];
+  private long nextPoolKey;
+
+  //base map, double hashing with a prime number of entries
+  private int tableEntries;
+  private int capacityEntries;
+  private byte[] keys;    //keySizeBytes per entry
+  private byte[] counts;  //0 for an empty entry, the number of exact hashes, or PROMOTED
+  private long[] values;  //the single hash, the side table slot, or the pool key of a promoted entry
+  private int numKeys;
+  private int numPromoted;
+
+  //side table of the keys with two to four exact hashes, SIDE_HASHES per slot
+  private long[] sideHashes = new long[0];
+  private int sideSlots;      //number of slots taken from the end of the side table
+  private int freeSideSlot = -1; //head of the list of free slots, linked through their first hash
+
+  /**
+   * Constructs a ThetaUniqueCountMap with an initial capacity of about one million keys and sketches of
+   * 1024 nominal entries for promoted keys.
+   * @param keySizeBytes must be at least 4 bytes to have sufficient entropy.
+   */
+  public ThetaUniqueCountMap(final int keySizeBytes) {
+    this(INITIAL_NUM_ENTRIES, keySizeBytes, DEFAULT_LG_NOM_LONGS);
+  }
+
+  /**
+   * Constructs a ThetaUniqueCountMap with the given initial number of keys and the given size of the
+   * sketches of promoted keys, with the default update seed.
+   *
+   * @param initialNumEntries The initial number of entries provides a tradeoff between
+   * wasted space, if too high, and wasted time resizing the table, if too low.
+   * @param keySizeBytes must be at least 4 bytes to have sufficient entropy
+   * @param lgNomEntries the log2 of the nominal entries of the sketches of promoted keys
+   */
+  public ThetaUniqueCountMap(final int initialNumEntries, final int keySizeBytes, final int lgNomEntries) {
+    this(initialNumEntries, keySizeBytes, lgNomEntries, ThetaUtil.DEFAULT_UPDATE_SEED);
+  }
+
+  /**
+   * Constructs a ThetaUniqueCountMap with the given initial number of keys, the given size of the
+   * sketches of promoted keys and the given update seed.
+   *
+   * @param initialNumEntries The initial number of entries provides a tradeoff between
+   * wasted space, if too high, and wasted time resizing the table, if too low.
+   * @param keySizeBytes must be at least 4 bytes to have sufficient entropy
+   * @param lgNomEntries the log2 of the nominal entries of the sketches of promoted keys
+   * @param seed <a href="{@docRoot}/resources/dictionary.html#seed">See Update Hash Seed</a>
+   */
+  public ThetaUniqueCountMap(final int initialNumEntries, final int keySizeBytes, final int lgNomEntries,
+      final long seed) {
+    if (keySizeBytes < 4) {
+      throw new SketchesArgumentException("KeySizeBytes must be >= 4: " + keySizeBytes);
+    }
+    this.keySizeBytes = keySizeBytes;
+    this.seed = seed;
+    seedHash = ThetaUtil.computeSeedHash(seed);
+    pool = new UpdateSketchBuilder().setLogNominalEntries(lgNomEntries).setSeed(seed)
+        .buildPool(WritableMemory.allocate(INITIAL_POOL_BYTES));
+    initTable(nextPrime(Math.max(initialNumEntries, MIN_NUM_ENTRIES)));
+  }
+
+  /**
+   * Updates the map with a given key and identifier and returns the estimate of the number of
+   * unique identifiers encountered so far for the given key.
+   * @param key the given key
+   * @param identifier the given identifier for unique counting associated with the key
+   * @return the estimate of the number of unique identifiers encountered so far for the given key.
+   */
+  public double update(final byte[] key, final byte[] identifier) {
+    if (key == null) { return Double.NaN; }
+    checkKeySize(key);
+    if ((identifier == null) || (identifier.length == 0)) { return getEstimate(key); }
+    final long hash = hash(identifier, seed, hashOut)[0] >>> 1;
+    final int index = findIndex(key);
+    if (HashOperations.continueCondition(Long.MAX_VALUE, hash)) { return (index < 0) ? 0.0 : getEstimate(key); }
+    if (index < 0) {
+      insertKey(key, ~index, hash);
+      return 1.0;
+    }
+    final int count = counts[index];
+    if (count == PROMOTED) {
+      final long poolKey = values[index];
+      pool.hashUpdate(poolKey, hash);
+      return pool.getEstimate(poolKey);
+    }
+    if (count == 1) {
+      if (values[index] == hash) { return 1.0; }
+      final int slot = allocateSideSlot();
+      sideHashes[slot * SIDE_HASHES] = values[index];
+      sideHashes[(slot * SIDE_HASHES) + 1] = hash;
+      values[index] = slot;
+      counts[index] = 2;
+      return 2.0;
+    }
+    final int base = (int) values[index] * SIDE_HASHES;
+    for (int i = 0; i < count; i++) {
+      if (sideHashes[base + i] == hash) { return count; }
+    }
+    if (count < SIDE_HASHES) {
+      sideHashes[base + count] = hash;
+      counts[index] = (byte) (count + 1);
+      return count + 1;
+    }
+    return promote(index, hash);
+  }
+
+  /**
+   * Retrieves the current estimate of unique count for a given key.
+   * @param key given key
+   * @return estimate of unique count so far
+   */
+  public double getEstimate(final byte[] key) {
+    if (key == null) { return Double.NaN; }
+    checkKeySize(key);
+    final int index = findIndex(key);
+    if (index < 0) { return 0.0; }
+    if (counts[index] == PROMOTED) { return pool.getEstimate(values[index]); }
+    return counts[index];
+  }
+
+  /**
+   * Returns the upper bound cardinality with respect to {@link #getEstimate(byte[])} associated
+   * with the given key.
+   * @param key the given key
+   * @param numStdDev <a href="{@docRoot}/resources/dictionary.html#numStdDev">See Number of Standard Deviations</a>
+   * @return the upper bound cardinality with respect to {@link #getEstimate(byte[])} associated
+   * with the given key.
+   */
+  public double getUpperBound(final byte[] key, final int numStdDev) {
+    if (key == null) { return Double.NaN; }
+    checkKeySize(key);
+    final int index = findIndex(key);
+    if (index < 0) { return 0.0; }
+    if (counts[index] == PROMOTED) { return pool.getUpperBound(values[index], numStdDev); }
+    return counts[index];
+  }
+
+  /**
+   * Returns the lower bound cardinality with respect to {@link #getEstimate(byte[])} associated
+   * with the given key.
+   * @param key the given key
+   * @param numStdDev <a href="{@docRoot}/resources/dictionary.html#numStdDev">See Number of Standard Deviations</a>
+   * @return the lower bound cardinality with respect to {@link #getEstimate(byte[])} associated
+   * with the given key.
+   */
+  public double getLowerBound(final byte[] key, final int numStdDev) {
+    if (key == null) { return Double.NaN; }
+    checkKeySize(key);
+    final int index = findIndex(key);
+    if (index < 0) { return 0.0; }
+    if (counts[index] == PROMOTED) { return pool.getLowerBound(values[index], numStdDev); }
+    return counts[index];
+  }
+
+  /**
+   * Returns the sketch of the identifiers of the given key as an ordered, on-heap CompactSketch,
+   * which can be used with the set operations. The sketch is a copy that does not change with
+   * further updates of this map.
+   * @param key the given key
+   * @return the sketch of the identifiers of the given key, or null if the key is absent.
+   */
+  public CompactSketch getResult(final byte[] key) {
+    if (key == null) { return null; }
+    checkKeySize(key);
+    final int index = findIndex(key);
+    if (index < 0) { return null; }
+    final int count = counts[index];
+    if (count == PROMOTED) { return pool.getResult(values[index]); }
+    final long[] arr;
+    if (count == 1) {
+      arr = new long[] { values[index] };
+    } else {
+      final int base = (int) values[index] * SIDE_HASHES;
+      arr = Arrays.copyOfRange(sideHashes, base, base + count);
+    }
+    return CompactOperations.componentsToCompact(
+        Long.MAX_VALUE, arr.length, seedHash, false, true, false, true, null, arr);
+  }
+
+  /**
+   * Returns the number of active, unique keys in this map
+   * @return the number of active, unique keys in this map
+   */
+  public int getActiveEntries() {
+    return numKeys;
+  }
+
+  /**
+   * Returns the number of keys that have been promoted to a theta sketch
+   * @return the number of keys that have been promoted to a theta sketch
+   */
+  public int getPromotedEntries() {
+    return numPromoted;
+  }
+
+  /**
+   * Returns total bytes used by the base map, the side table and the sketches of the promoted keys
+   * @return total bytes used by the base map, the side table and the sketches of the promoted keys
+   */
+  public long getMemoryUsageBytes() {
+    return keys.length + counts.length + ((long) values.length * Long.BYTES)
+        + ((long) sideHashes.length * Long.BYTES) + pool.getUsedBytes();
+  }
+
+  /**
+   * Returns total bytes used for key storage
+   * @return total bytes used for key storage
+   */
+  public long getKeyMemoryUsageBytes() {
+    return (long) numKeys * keySizeBytes;
+  }
+
+  /**
+   * Returns the average memory storage per key that is dedicated to sketching the unique counts.
+   * @return the average memory storage per key that is dedicated to sketching the unique counts.
+   */
+  public double getAverageSketchMemoryPerKey() {
+    return (double) (getMemoryUsageBytes() - getKeyMemoryUsageBytes()) / numKeys;
+  }
+
+  /**
+   * Returns a string with a human-readable summary of this map
+   * @return human-readable summary
+   */
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("## ").append(this.getClass().getSimpleName()).append(" SUMMARY: ").append(LS);
+    sb.append("   Key Size Bytes             : ").append(keySizeBytes).append(LS);
+    sb.append("   Total keys                 : ").append(numKeys).append(LS);
+    sb.append("   Promoted keys              : ").append(numPromoted).append(LS);
+    sb.append("   Total memory bytes         : ").append(getMemoryUsageBytes()).append(LS);
+    sb.append("   Total key memory bytes     : ").append(getKeyMemoryUsageBytes()).append(LS);
+    sb.append("   Avg sketch memory per key  : ").append(getAverageSketchMemoryPerKey()).append(LS);
+    sb.append("## END SKETCH SUMMARY").append(LS);
+    return sb.toString();
+  }
+
+  //restricted
+
+  private double promote(final int index, final long hash) {
+    final long poolKey = nextPoolKey++;
+    final int slot = (int) values[index];
+    final int base = slot * SIDE_HASHES;
+    for (int i = 0; i < SIDE_HASHES; i++) { pool.hashUpdate(poolKey, sideHashes[base + i]); }
+    pool.hashUpdate(poolKey, hash);
+    freeSideSlot(slot);
+    values[index] = poolKey;
+    counts[index] = PROMOTED;
+    numPromoted++;
+    return pool.getEstimate(poolKey);
+  }
+
+  private int allocateSideSlot() {
+    if (freeSideSlot >= 0) {
+      final int slot = freeSideSlot;
+      freeSideSlot = (int) sideHashes[slot * SIDE_HASHES];
+      return slot;
+    }
+    if ((sideSlots * SIDE_HASHES) == sideHashes.length) {
+      sideHashes = Arrays.copyOf(sideHashes, Math.max(MIN_SIDE_SLOTS, sideSlots << 1) * SIDE_HASHES);
+    }
+    return sideSlots++;
+  }
+
+  private void freeSideSlot(final int slot) {
+    final int base = slot * SIDE_HASHES;
+    Arrays.fill(sideHashes, base, base + SIDE_HASHES, 0L);
+    sideHashes[base] = freeSideSlot;
+    freeSideSlot = slot;
+  }
+
+  private void checkKeySize(final byte[] key) {
+    if (key.length != keySizeBytes) {
+      throw new SketchesArgumentException("Key size must be " + keySizeBytes + " bytes: " + key.length);
+    }
+  }
+
+  private void initTable(final int numEntries) {
+    tableEntries = numEntries;
+    capacityEntries = (int) (numEntries * GROW_TRIGGER_FACTOR);
+    keys = new byte[numEntries * keySizeBytes];
+    counts = new byte[numEntries];
+    values = new long[numEntries];
+  }
+
+  private int findIndex(final byte[] key) {
+    hash(key, 0, keySizeBytes, seed, hashOut);
+    int index = getIndex(hashOut[0], tableEntries);
+    final int stride = getStride(hashOut[1], tableEntries);
+    while (counts[index] != 0) {
+      if (keyEquals(index, key)) { return index; }
+      index = (index + stride) % tableEntries;
+    }
+    return ~index;
+  }
+
+  private boolean keyEquals(final int index, final byte[] key) {
+    final int offset = index * keySizeBytes;
+    for (int i = 0; i < keySizeBytes; i++) {
+      if (keys[offset + i] != key[i]) { return false; }
+    }
+    return true;
+  }
+
+  private void insertKey(final byte[] key, final int emptyIndex, final long hash) {
+    int index = emptyIndex;
+    if ((numKeys + 1) > capacityEntries) {
+      growTable();
+      index = ~findIndex(key);
+    }
+    System.arraycopy(key, 0, keys, index * keySizeBytes, keySizeBytes);
+    values[index] = hash;
+    counts[index] = 1;
+    numKeys++;
+  }
+
+  private void growTable() {
+    final byte[] oldKeys = keys;
+    final byte[] oldCounts = counts;
+    final long[] oldValues = values;
+    initTable(nextPrime((int) Math.min(Integer.MAX_VALUE / keySizeBytes, (numKeys + 1L) / TARGET_FILL_FACTOR)));
+    for (int i = 0; i < oldCounts.length; i++) {
+      if (oldCounts[i] == 0) { continue; }
+      hash(oldKeys, i * keySizeBytes, keySizeBytes, seed, hashOut);
+      int j = getIndex(hashOut[0], tableEntries);
+      final int stride = getStride(hashOut[1], tableEntries);
+      while (counts[j] != 0) { j = (j + stride) % tableEntries; }
+      System.arraycopy(oldKeys, i * keySizeBytes, keys, j * keySizeBytes, keySizeBytes);
+      values[j] = oldValues[i];
+      counts[j] = oldCounts[i];
+    }
+  }
+
+  private static int getIndex(final long hash, final int tableEntries) {
+    return (int) ((hash >>> 1) % tableEntries);
+  }
+
+  private static int getStride(final long hash, final int tableEntries) {
+    return (int) (((hash >>> 1) % (tableEntries - 2L)) + 1L);
+  }
+
+  private static int nextPrime(final int target) {
+    return BigInteger.valueOf(target).nextProbablePrime().intValueExact();
+  }
+}
@@ -20,6 +20,8 @@
 package org.apache.datasketches.theta;
 
 import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.datasketches.common.Family;
 import org.apache.datasketches.memory.Memory;
@@ -114,6 +116,34 @@ public abstract class Union extends SetOperation {
   public abstract CompactSketch union(Sketch sketchA, Sketch sketchB, boolean dstOrdered,
       WritableMemory dstMem);
 
+  /**
+   * This implements a stateless union of many sketches as an ordered compact sketch on the heap.
+   * @param sketches the given sketches. Nulls and empty sketches are ignored.
+   * @return the result ordered CompactSketch on the heap.
+   * @see #unionOrdered(Collection, boolean, WritableMemory)
+   */
+  public CompactSketch unionOrdered(final Collection<? extends Sketch> sketches) {
+    return unionOrdered(sketches, true, null);
+  }
+
+  /**
+   * This implements a stateless union of many sketches, which is optimized for ordered compact sketches.
+   * The state of <i>this</i> union is neither used nor changed, and the returned sketch will be cut back
+   * to k if required, similar to the regular Union operation.
+   *
+   * <p>If all of the given sketches are ordered and compact, their sorted hash values are merged
+   * directly, reading wrapped sketches from their Memory, and the merge stops as soon as the result is
+   * complete. No hash table is built. Otherwise, this is equivalent to
+   * {@link #union(Sketch, Sketch, boolean, WritableMemory)} extended to all of the given sketches.</p>
+   *
+   * @param sketches the given sketches. Nulls and empty sketches are ignored.
+   * @param dstOrdered If true, the returned CompactSketch will be ordered.
+   * @param dstMem If not null, the returned CompactSketch will be placed in this WritableMemory.
+   * @return the result CompactSketch.
+   */
+  public abstract CompactSketch unionOrdered(Collection<? extends Sketch> sketches, boolean dstOrdered,
+      WritableMemory dstMem);
+
   /**
    * Perform a Union operation with <i>this</i> union and the given on-heap sketch of the Theta Family.
    * This method is not valid for the older SetSketch, which was prior to Open Source (August, 2015).
@@ -139,6 +169,55 @@ public abstract class Union extends SetOperation {
    */
   public abstract void union(Memory mem);
 
+  /**
+   * Perform a Union operation with <i>this</i> union and all of the given sketches of the Theta Family,
+   * using the common ForkJoinPool.
+   *
+   * @param sketches the incoming sketches. Nulls and empty sketches are ignored.
+   * @see #unionAll(Collection, ForkJoinPool)
+   */
+  public void unionAll(final Collection<? extends Sketch> sketches) {
+    unionAll(sketches, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Perform a Union operation with <i>this</i> union and all of the given sketches of the Theta Family
+   * as a parallel tree reduction on the given ForkJoinPool.
+   *
+   * <p>The sketches are split into groups that are unioned in parallel on the heap, and the partial results
+   * are merged pairwise. The smallest theta reached by any partial union is shared with the others, so that
+   * the hashes of ordered compact sketches that can no longer contribute to the result are skipped early.
+   * The result is equivalent to calling {@link #union(Sketch)} with each sketch in turn.</p>
+   *
+   * <p>The sketches must not be modified while this method runs.</p>
+   *
+   * @param sketches the incoming sketches. Nulls and empty sketches are ignored.
+   * @param pool the ForkJoinPool that runs the reduction.
+   */
+  public abstract void unionAll(Collection<? extends Sketch> sketches, ForkJoinPool pool);
+
+  /**
+   * Perform a Union operation with <i>this</i> union and all of the given Memory images of sketches of the
+   * Theta Family, using the common ForkJoinPool.
+   *
+   * @param mems the Memory images of the incoming sketches. Nulls and empty sketches are ignored.
+   * @see #unionAllMemory(Collection, ForkJoinPool)
+   */
+  public void unionAllMemory(final Collection<? extends Memory> mems) {
+    unionAllMemory(mems, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Perform a Union operation with <i>this</i> union and all of the given Memory images of sketches of the
+   * Theta Family as a parallel tree reduction on the given ForkJoinPool.
+   * The result is equivalent to calling {@link #union(Memory)} with each image in turn.
+   *
+   * @param mems the Memory images of the incoming sketches. Nulls and empty sketches are ignored.
+   * @param pool the ForkJoinPool that runs the reduction.
+   * @see #unionAll(Collection, ForkJoinPool)
+   */
+  public abstract void unionAllMemory(Collection<? extends Memory> mems, ForkJoinPool pool);
+
   /**
    * Update <i>this</i> union with the given long data item.
    *
@@ -20,6 +20,7 @@
 package org.apache.datasketches.theta;
 
 import static java.lang.Math.min;
+import static org.apache.datasketches.common.Util.LONG_MAX_VALUE_AS_DOUBLE;
 import static org.apache.datasketches.theta.PreambleUtil.COMPACT_FLAG_MASK;
 import static org.apache.datasketches.theta.PreambleUtil.ORDERED_FLAG_MASK;
 import static org.apache.datasketches.theta.PreambleUtil.PREAMBLE_LONGS_BYTE;
@@ -39,6 +40,11 @@ import static org.apache.datasketches.theta.SingleItemSketch.otherCheckForSingle
 import static org.apache.datasketches.thetacommon.QuickSelect.selectExcludingZeros;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
 
 import org.apache.datasketches.common.Family;
 import org.apache.datasketches.common.ResizeFactor;
@@ -56,6 +62,7 @@ import org.apache.datasketches.thetacommon.ThetaUtil;
  * @author Kevin Lang
  */
 final class UnionImpl extends Union {
+  private static final int MIN_PARALLEL_LEAF_SIZE = 16;
 
   /**
    * Although the gadget object is initially an UpdateSketch, in the context of a Union it is used
@@ -68,12 +75,14 @@ final class UnionImpl extends Union {
    */
   private final UpdateSketch gadget_;
   private final short expectedSeedHash_; //eliminates having to compute the seedHash on every union.
+  private final long seed_;
   private long unionThetaLong_; //when on-heap, this is the only copy
   private boolean unionEmpty_;  //when on-heap, this is the only copy
 
   private UnionImpl(final UpdateSketch gadget, final long seed) {
     gadget_ = gadget;
     expectedSeedHash_ = ThetaUtil.computeSeedHash(seed);
+    seed_ = seed;
   }
 
   /**
@@ -298,6 +307,31 @@ final class UnionImpl extends Union {
     return csk;
   }
 
+  @Override
+  public CompactSketch unionOrdered(final Collection<? extends Sketch> sketches, final boolean dstOrdered,
+      final WritableMemory dstMem) {
+    final List<Sketch> inputs = new ArrayList<>(sketches.size());
+    boolean allOrdered = true;
+    for (final Sketch sketch : sketches) {
+      if ((sketch == null) || sketch.isEmpty()) { continue; }
+      ThetaUtil.checkSeedHashes(expectedSeedHash_, sketch.getSeedHash());
+      allOrdered &= sketch.isOrdered() && sketch.isCompact();
+      inputs.add(sketch);
+    }
+    final long thetaLong = (long) (gadget_.getP() * LONG_MAX_VALUE_AS_DOUBLE);
+    if (inputs.isEmpty()) {
+      return CompactOperations.componentsToCompact(thetaLong, 0, gadget_.getSeedHash(), true, true, true,
+          dstOrdered, dstMem, new long[0]);
+    }
+    if (allOrdered) {
+      return OrderedMergeUnion.merge(inputs, 1 << gadget_.getLgNomLongs(), thetaLong, gadget_.getSeedHash(),
+          dstOrdered, dstMem);
+    }
+    final UnionImpl union = initNewHeapInstance(gadget_.getLgNomLongs(), seed_, gadget_.getP(), ResizeFactor.X8);
+    for (int i = 0; i < inputs.size(); i++) { union.union(inputs.get(i)); }
+    return union.getResult(dstOrdered, dstMem);
+  }
+
   @Override
   public void union(final Sketch sketchIn) {
     //UNION Empty Rule: AND the empty states.
@@ -320,7 +354,15 @@ final class UnionImpl extends Union {
     if (curCountIn > 0) {
       if (sketchIn.isOrdered() && (sketchIn instanceof CompactSketch)) { //Use early stop
         //Ordered, thus compact
-        if (sketchIn.hasMemory()) {
+        if (sketchIn instanceof DirectCompactCompressedSketch) { //decodes only up to theta
+          final HashIterator it = sketchIn.iterator();
+          while (it.next()) {
+            final long hashIn = it.get();
+            if (hashIn >= unionThetaLong_) { break; } // "early stop"
+            gadget_.hashUpdate(hashIn); //backdoor update, hash function is bypassed
+          }
+        }
+        else if (sketchIn.hasMemory()) {
           final Memory skMem = ((CompactSketch) sketchIn).getMemory();
           final int preambleLongs = skMem.getByte(PREAMBLE_LONGS_BYTE) & 0X3F;
           for (int i = 0; i < curCountIn; i++ ) {
@@ -366,9 +408,7 @@ final class UnionImpl extends Union {
     final int serVer = extractSerVer(skMem);
     final int fam = extractFamilyID(skMem);
 
-    if (serVer == 4) { // compressed ordered compact
-      // performance can be improved by decompression while performing the union
-      // potentially only partial decompression might be needed
+    if (serVer == 4) { // compressed ordered compact, decoded from Memory only up to theta
       ThetaUtil.checkSeedHashes(expectedSeedHash_, (short) extractSeedHash(skMem));
       final CompactSketch csk = CompactSketch.wrap(skMem);
       union(csk);
@@ -462,6 +502,34 @@ final class UnionImpl extends Union {
     }
   }
 
+  @Override
+  public void unionAll(final Collection<? extends Sketch> sketches, final ForkJoinPool pool) {
+    this.<Sketch>unionAll(sketches, pool, Union::union);
+  }
+
+  @Override
+  public void unionAllMemory(final Collection<? extends Memory> mems, final ForkJoinPool pool) {
+    this.<Memory>unionAll(mems, pool, Union::union);
+  }
+
+  private <T> void unionAll(final Collection<? extends T> inputs, final ForkJoinPool pool,
+      final BiConsumer<Union, T> unionFn) {
+    final List<T> list = new ArrayList<>(inputs);
+    if (list.isEmpty()) { return; }
+    final int leafSize = Math.max(MIN_PARALLEL_LEAF_SIZE, list.size() / (pool.getParallelism() * 4));
+    union(pool.invoke(new ParallelUnionTask<>(list, gadget_.getLgNomLongs(), seed_, getThetaLong(), leafSize,
+        unionFn)));
+  }
+
+  /**
+   * Lowers the theta of this union to the given value, which must be an upper bound of the theta of the
+   * final result. Only used with a heap union that is not empty.
+   * @param thetaLong the new theta as a long
+   */
+  void lowerThetaLong(final long thetaLong) {
+    unionThetaLong_ = min(unionThetaLong_, thetaLong);
+  }
+
   @Override
   public void update(final long datum) {
     gadget_.update(datum);
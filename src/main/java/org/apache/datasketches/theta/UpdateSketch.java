@@ -19,10 +19,12 @@
 
 package org.apache.datasketches.theta;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.apache.datasketches.common.Util.LONG_MAX_VALUE_AS_DOUBLE;
 import static org.apache.datasketches.common.Util.checkBounds;
 import static org.apache.datasketches.hash.MurmurHash3.hash;
+import static org.apache.datasketches.hash.MurmurHash3.hash64;
+import static org.apache.datasketches.hash.MurmurHash3.hash64Each;
+import static org.apache.datasketches.hash.MurmurHash3.hashUtf8;
 import static org.apache.datasketches.theta.CompactOperations.componentsToCompact;
 import static org.apache.datasketches.theta.PreambleUtil.BIG_ENDIAN_FLAG_MASK;
 import static org.apache.datasketches.theta.PreambleUtil.COMPACT_FLAG_MASK;
@@ -48,6 +50,7 @@ import java.util.Objects;
 import org.apache.datasketches.common.Family;
 import org.apache.datasketches.common.ResizeFactor;
 import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.hash.HashedItem;
 import org.apache.datasketches.memory.Memory;
 import org.apache.datasketches.memory.WritableMemory;
 import org.apache.datasketches.thetacommon.ThetaUtil;
@@ -60,6 +63,9 @@ import org.apache.datasketches.thetacommon.ThetaUtil;
  * @author Lee Rhodes
  */
 public abstract class UpdateSketch extends Sketch {
+  private static final int UPDATE_EACH_BATCH = 256; //the number of items hashed at a time by updateEach
+  private final long[] hashOut_ = new long[2]; //reused by the update methods to avoid allocation
+  private long[] updateEachHashes_; //allocated on the first call to updateEach
 
   UpdateSketch() {}
 
@@ -219,8 +225,7 @@ public abstract class UpdateSketch extends Sketch {
    * <a href="{@docRoot}/resources/dictionary.html#updateReturnState">See Update Return State</a>
    */
   public UpdateReturnState update(final long datum) {
-    final long[] data = { datum };
-    return hashUpdate(hash(data, getSeed())[0] >>> 1);
+    return hashUpdate(hash64(datum, getSeed()) >>> 1);
   }
 
   /**
@@ -236,13 +241,13 @@ public abstract class UpdateSketch extends Sketch {
    */
   public UpdateReturnState update(final double datum) {
     final double d = (datum == 0.0) ? 0.0 : datum; // canonicalize -0.0, 0.0
-    final long[] data = { Double.doubleToLongBits(d) };// canonicalize all NaN & +/- infinity forms
-    return hashUpdate(hash(data, getSeed())[0] >>> 1);
+    final long data = Double.doubleToLongBits(d);// canonicalize all NaN & +/- infinity forms
+    return hashUpdate(hash64(data, getSeed()) >>> 1);
   }
 
   /**
    * Present this sketch with the given String.
-   * The string is converted to a byte array using UTF8 encoding.
+   * The string is hashed using its UTF-8 encoding without first converting it to a byte array.
    * If the string is null or empty no update attempt is made and the method returns.
    *
    * <p>Note: this will not produce the same output hash values as the {@link #update(char[])}
@@ -257,8 +262,7 @@ public abstract class UpdateSketch extends Sketch {
     if ((datum == null) || datum.isEmpty()) {
       return RejectedNullOrEmpty;
     }
-    final byte[] data = datum.getBytes(UTF_8);
-    return hashUpdate(hash(data, getSeed())[0] >>> 1);
+    return hashUpdate(hashUtf8(datum, getSeed(), hashOut_)[0] >>> 1);
   }
 
   /**
@@ -273,7 +277,7 @@ public abstract class UpdateSketch extends Sketch {
     if ((data == null) || (data.length == 0)) {
       return RejectedNullOrEmpty;
     }
-    return hashUpdate(hash(data, getSeed())[0] >>> 1);
+    return hashUpdate(hash(data, getSeed(), hashOut_)[0] >>> 1);
   }
 
   /**
@@ -288,7 +292,7 @@ public abstract class UpdateSketch extends Sketch {
     if (buffer == null || buffer.hasRemaining() == false) {
       return RejectedNullOrEmpty;
     }
-    return hashUpdate(hash(buffer, getSeed())[0] >>> 1);
+    return hashUpdate(hash(buffer, getSeed(), hashOut_)[0] >>> 1);
   }
 
   /**
@@ -306,7 +310,7 @@ public abstract class UpdateSketch extends Sketch {
     if ((data == null) || (data.length == 0)) {
       return RejectedNullOrEmpty;
     }
-    return hashUpdate(hash(data, getSeed())[0] >>> 1);
+    return hashUpdate(hash(data, getSeed(), hashOut_)[0] >>> 1);
   }
 
   /**
@@ -321,7 +325,7 @@ public abstract class UpdateSketch extends Sketch {
     if ((data == null) || (data.length == 0)) {
       return RejectedNullOrEmpty;
     }
-    return hashUpdate(hash(data, getSeed())[0] >>> 1);
+    return hashUpdate(hash(data, getSeed(), hashOut_)[0] >>> 1);
   }
 
   /**
@@ -336,7 +340,123 @@ public abstract class UpdateSketch extends Sketch {
     if ((data == null) || (data.length == 0)) {
       return RejectedNullOrEmpty;
     }
-    return hashUpdate(hash(data, getSeed())[0] >>> 1);
+    return hashUpdate(hash(data, getSeed(), hashOut_)[0] >>> 1);
+  }
+
+  /**
+   * Present this sketch with an item that has already been hashed.
+   * This has the same result as presenting the item itself, but allows the item to be hashed only once
+   * when it is presented to several sketches.
+   * If the HashedItem is empty no update attempt is made and the method returns.
+   *
+   * @param item the given HashedItem, which must have been hashed with the seed of this sketch.
+   * @return
+   * <a href="{@docRoot}/resources/dictionary.html#updateReturnState">See Update Return State</a>
+   * @throws SketchesArgumentException if the seed of the HashedItem is not the seed of this sketch.
+   */
+  public UpdateReturnState update(final HashedItem item) {
+    if (item.getSeed() != getSeed()) {
+      throw new SketchesArgumentException(
+        "The HashedItem seed: " + item.getSeed() + " does not match the sketch seed: " + getSeed());
+    }
+    if (item.isEmpty()) {
+      return RejectedNullOrEmpty;
+    }
+    return hashUpdate(item.getHash0() >>> 1);
+  }
+
+  /**
+   * Present this sketch with each long of a portion of the given array as a separate item.
+   * This has the same result as calling {@link #update(long)} with each item, but the items are hashed in
+   * batches, and the argument checks are done once per call.
+   *
+   * <p>Note that this is not the same as {@link #update(long[])}, which presents the whole array as a single
+   * item.</p>
+   *
+   * @param items the given items
+   * @param offset the index of the first item
+   * @param length the number of items
+   */
+  public void updateEach(final long[] items, final int offset, final int length) {
+    checkBounds(offset, length, items.length);
+    final long seed = getSeed();
+    final long[] hashes = updateEachHashes();
+    for (int start = 0; start < length; start += UPDATE_EACH_BATCH) {
+      final int n = Math.min(UPDATE_EACH_BATCH, length - start);
+      hash64Each(items, offset + start, n, seed, hashes);
+      for (int i = 0; i < n; i++) { hashUpdate(hashes[i] >>> 1); }
+    }
+  }
+
+  /**
+   * Present this sketch with each double of a portion of the given array as a separate item.
+   * This has the same result as calling {@link #update(double)} with each item, including the canonicalization
+   * of the doubles, but the items are hashed in batches, and the argument checks are done once per call.
+   *
+   * @param items the given items
+   * @param offset the index of the first item
+   * @param length the number of items
+   */
+  public void updateEach(final double[] items, final int offset, final int length) {
+    checkBounds(offset, length, items.length);
+    final long seed = getSeed();
+    final long[] hashes = updateEachHashes();
+    for (int start = 0; start < length; start += UPDATE_EACH_BATCH) {
+      final int n = Math.min(UPDATE_EACH_BATCH, length - start);
+      hash64Each(items, offset + start, n, seed, hashes);
+      for (int i = 0; i < n; i++) { hashUpdate(hashes[i] >>> 1); }
+    }
+  }
+
+  /**
+   * Present this sketch with each int of a portion of the given array as a separate item.
+   * This has the same result as calling {@link #update(long)} with each item, but the items are hashed in
+   * batches, and the argument checks are done once per call.
+   *
+   * <p>Note that this is not the same as {@link #update(int[])}, which presents the whole array as a single
+   * item.</p>
+   *
+   * @param items the given items
+   * @param offset the index of the first item
+   * @param length the number of items
+   */
+  public void updateEach(final int[] items, final int offset, final int length) {
+    checkBounds(offset, length, items.length);
+    final long seed = getSeed();
+    final long[] hashes = updateEachHashes();
+    for (int start = 0; start < length; start += UPDATE_EACH_BATCH) {
+      final int n = Math.min(UPDATE_EACH_BATCH, length - start);
+      hash64Each(items, offset + start, n, seed, hashes);
+      for (int i = 0; i < n; i++) { hashUpdate(hashes[i] >>> 1); }
+    }
+  }
+
+  /**
+   * Present this sketch with each String of a portion of the given array as a separate item.
+   * This has the same result as calling {@link #update(String)} with each item, so null or empty Strings are
+   * ignored, but the items are hashed in batches, and the argument checks are done once per call.
+   *
+   * @param items the given items
+   * @param offset the index of the first item
+   * @param length the number of items
+   */
+  public void updateEach(final String[] items, final int offset, final int length) {
+    checkBounds(offset, length, items.length);
+    final long seed = getSeed();
+    final long[] hashes = updateEachHashes();
+    for (int start = 0; start < length; start += UPDATE_EACH_BATCH) {
+      final int n = Math.min(UPDATE_EACH_BATCH, length - start);
+      hash64Each(items, offset + start, n, seed, hashes);
+      for (int i = 0; i < n; i++) {
+        final String item = items[offset + start + i];
+        if ((item != null) && !item.isEmpty()) { hashUpdate(hashes[i] >>> 1); }
+      }
+    }
+  }
+
+  private long[] updateEachHashes() {
+    if (updateEachHashes_ == null) { updateEachHashes_ = new long[UPDATE_EACH_BATCH]; }
+    return updateEachHashes_;
   }
 
   //restricted methods
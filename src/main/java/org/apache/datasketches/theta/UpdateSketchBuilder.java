@@ -23,11 +23,12 @@ import static org.apache.datasketches.common.Util.LS;
 import static org.apache.datasketches.common.Util.TAB;
 import static org.apache.datasketches.common.Util.ceilingPowerOf2;
 
+import java.util.concurrent.Executor;
+
 import org.apache.datasketches.common.Family;
 import org.apache.datasketches.common.ResizeFactor;
 import org.apache.datasketches.common.SketchesArgumentException;
 import org.apache.datasketches.common.SketchesStateException;
-import org.apache.datasketches.common.SuppressFBWarnings;
 import org.apache.datasketches.memory.DefaultMemoryRequestServer;
 import org.apache.datasketches.memory.MemoryRequestServer;
 import org.apache.datasketches.memory.WritableMemory;
@@ -52,6 +53,8 @@ public class UpdateSketchBuilder {
   private boolean bPropagateOrderedCompact;
   private double bMaxConcurrencyError;
   private int bMaxNumLocalThreads;
+  private Executor bPropagationExecutor;
+  private boolean bPropagationOnVirtualThreads;
 
   /**
    * Constructor for building a new UpdateSketch. The default configuration is
@@ -72,6 +75,8 @@ public class UpdateSketchBuilder {
    * <li>Concurrent NumPoolThreads: 3</li>
    * <li>Concurrent PropagateOrderedCompact: true</li>
    * <li>Concurrent MaxConcurrencyError: 0</li>
+   * <li>Concurrent PropagationExecutor: null, which selects the {@link ConcurrentPropagationService}</li>
+   * <li>Concurrent PropagationOnVirtualThreads: false</li>
    * </ul>
    */
   public UpdateSketchBuilder() {
@@ -82,11 +87,13 @@ public class UpdateSketchBuilder {
     bFam = Family.QUICKSELECT;
     bMemReqSvr = new DefaultMemoryRequestServer();
     // Default values for concurrent sketch
-    bNumPoolThreads = ConcurrentPropagationService.NUM_POOL_THREADS;
+    bNumPoolThreads = ConcurrentPropagationService.getNumPoolThreads();
     bLocalLgNomLongs = 4; //default is smallest legal QS sketch
     bPropagateOrderedCompact = true;
     bMaxConcurrencyError = 0;
     bMaxNumLocalThreads = 1;
+    bPropagationExecutor = null;
+    bPropagationOnVirtualThreads = false;
   }
 
   /**
@@ -272,6 +279,9 @@ public class UpdateSketchBuilder {
    * @param numPoolThreads the given number of pool threads
    */
   public void setNumPoolThreads(final int numPoolThreads) {
+    if (numPoolThreads < 1) {
+      throw new SketchesArgumentException("NumPoolThreads must be > 0: " + numPoolThreads);
+    }
     bNumPoolThreads = numPoolThreads;
   }
 
@@ -335,6 +345,55 @@ public class UpdateSketchBuilder {
     return bMaxNumLocalThreads;
   }
 
+  /**
+   * Sets the Executor that runs the background propagations of the concurrent shared sketches built by this
+   * builder, from their local buffers into the shared sketch. If null, which is the default, the JVM-wide
+   * {@link ConcurrentPropagationService} pool is used.
+   *
+   * <p>The Executor may be shared by many sketches and may run tasks concurrently, for example a thread pool of
+   * the application or, with Java 21 and later, <i>Executors.newVirtualThreadPerTaskExecutor()</i>. The
+   * propagations into any one shared sketch are still run one at a time. The shared sketch does not take
+   * ownership of the Executor: the application schedules, measures and shuts it down. If the Executor rejects
+   * a propagation, for example after it was shut down, the propagation runs in the updating thread.</p>
+   *
+   * @param executor the given Executor, or null for the default pool.
+   * @return this UpdateSketchBuilder
+   */
+  public UpdateSketchBuilder setPropagationExecutor(final Executor executor) {
+    bPropagationExecutor = executor;
+    return this;
+  }
+
+  /**
+   * Gets the Executor of the background propagations of the concurrent shared sketches.
+   * @return the Executor of the background propagations, or null if the default pool is used.
+   */
+  public Executor getPropagationExecutor() {
+    return bPropagationExecutor;
+  }
+
+  /**
+   * If true, and no Executor has been set with {@link #setPropagationExecutor(Executor)}, the concurrent
+   * shared sketches built by this builder run their background propagations on a JVM-wide
+   * virtual-thread-per-task executor. If the running JVM does not support virtual threads, which were introduced
+   * with Java 21, the default {@link ConcurrentPropagationService} pool is used instead.
+   *
+   * @param onVirtualThreads the given value
+   * @return this UpdateSketchBuilder
+   */
+  public UpdateSketchBuilder setPropagationOnVirtualThreads(final boolean onVirtualThreads) {
+    bPropagationOnVirtualThreads = onVirtualThreads;
+    return this;
+  }
+
+  /**
+   * Gets the PropagationOnVirtualThreads flag used with concurrent sketches.
+   * @return the PropagationOnVirtualThreads flag
+   */
+  public boolean getPropagationOnVirtualThreads() {
+    return bPropagationOnVirtualThreads;
+  }
+
   // BUILD FUNCTIONS
 
   /**
@@ -345,6 +404,19 @@ public class UpdateSketchBuilder {
     return build(null);
   }
 
+  /**
+   * Returns an on-heap QuickSelect SnapshotUpdateSketch with the current configuration of this Builder, which
+   * supports {@link SnapshotUpdateSketch#snapshot(boolean)}. Any number of threads may take snapshots of it while
+   * a single thread updates it, without any locking. The Family is not used.
+   *
+   * <p>Compared to {@link #build()}, each rebuild of the hash table makes one extra copy of it.</p>
+   *
+   * @return an on-heap SnapshotUpdateSketch
+   */
+  public SnapshotUpdateSketch buildWithSnapshots() {
+    return new HeapSnapshotQuickSelectSketch(bLgNomLongs, bSeed, bP, bRF);
+  }
+
   /**
    * Returns an UpdateSketch with the current configuration of this Builder
    * with the specified backing destination Memory store.
@@ -389,6 +461,7 @@ public class UpdateSketchBuilder {
    * <p>The parameters unique to the shared concurrent sketch are:
    * <ul>
    * <li>Number of Pool Threads (default is 3)</li>
+   * <li>Propagation Executor or Propagation On Virtual Threads</li>
    * <li>Maximum Concurrency Error</li>
    * </ul>
    *
@@ -411,6 +484,7 @@ public class UpdateSketchBuilder {
    * <p>The parameters unique to the shared concurrent sketch are:
    * <ul>
    * <li>Number of Pool Threads (default is 3)</li>
+   * <li>Propagation Executor or Propagation On Virtual Threads</li>
    * <li>Maximum Concurrency Error</li>
    * </ul>
    *
@@ -424,14 +498,13 @@ public class UpdateSketchBuilder {
    * @return a concurrent UpdateSketch with the current configuration of the Builder
    * and the given destination WritableMemory.
    */
-  @SuppressFBWarnings(value = "ST_WRITE_TO_STATIC_FROM_INSTANCE_METHOD",
-      justification = "Harmless in Builder, fix later")
   public UpdateSketch buildShared(final WritableMemory dstMem) {
-    ConcurrentPropagationService.NUM_POOL_THREADS = bNumPoolThreads;
+    final Executor executor = getSharedExecutor();
     if (dstMem == null) {
-      return new ConcurrentHeapQuickSelectSketch(bLgNomLongs, bSeed, bMaxConcurrencyError);
+      return new ConcurrentHeapQuickSelectSketch(bLgNomLongs, bSeed, bMaxConcurrencyError, executor);
     } else {
-      return new ConcurrentDirectQuickSelectSketch(bLgNomLongs, bSeed, bMaxConcurrencyError, dstMem);
+      return new ConcurrentDirectQuickSelectSketch(bLgNomLongs, bSeed, bMaxConcurrencyError, dstMem,
+          executor);
     }
   }
 
@@ -444,6 +517,7 @@ public class UpdateSketchBuilder {
    * <p>The parameters unique to the shared concurrent sketch are:
    * <ul>
    * <li>Number of Pool Threads (default is 3)</li>
+   * <li>Propagation Executor or Propagation On Virtual Threads</li>
    * <li>Maximum Concurrency Error</li>
    * </ul>
    *
@@ -459,14 +533,12 @@ public class UpdateSketchBuilder {
    * @return a concurrent UpdateSketch with the current configuration of the Builder
    * and the given destination WritableMemory.
    */
-  @SuppressFBWarnings(value = "ST_WRITE_TO_STATIC_FROM_INSTANCE_METHOD",
-      justification = "Harmless in Builder, fix later")
   public UpdateSketch buildSharedFromSketch(final UpdateSketch sketch, final WritableMemory dstMem) {
-    ConcurrentPropagationService.NUM_POOL_THREADS = bNumPoolThreads;
+    final Executor executor = getSharedExecutor();
     if (dstMem == null) {
-      return new ConcurrentHeapQuickSelectSketch(sketch, bSeed, bMaxConcurrencyError);
+      return new ConcurrentHeapQuickSelectSketch(sketch, bSeed, bMaxConcurrencyError, executor);
     } else {
-      return new ConcurrentDirectQuickSelectSketch(sketch, bSeed, bMaxConcurrencyError, dstMem);
+      return new ConcurrentDirectQuickSelectSketch(sketch, bSeed, bMaxConcurrencyError, dstMem, executor);
     }
   }
 
@@ -492,6 +564,64 @@ public class UpdateSketchBuilder {
         (ConcurrentSharedThetaSketch) shared, bPropagateOrderedCompact, bMaxNumLocalThreads);
   }
 
+  /**
+   * Returns an on-heap concurrent theta sketch that manages its own local buffers, with the current
+   * configuration of this Builder. Any number of threads may update the returned sketch directly,
+   * without building a local buffer per thread.
+   *
+   * <p>The shared sketch is configured as by {@link #buildShared()} and each local buffer as by
+   * {@link #buildLocal(UpdateSketch)}. The number of local buffers is the larger of the Maximum Number of
+   * Local Threads and the number of available processors, rounded up to a power of 2.</p>
+   *
+   * @return a ConcurrentThetaSketch with the current configuration of this Builder.
+   */
+  public ConcurrentThetaSketch buildConcurrent() {
+    return buildConcurrent(null);
+  }
+
+  /**
+   * Returns a concurrent theta sketch that manages its own local buffers, with the current
+   * configuration of this Builder and the given destination WritableMemory for the shared sketch.
+   * If the destination WritableMemory is null, the shared sketch is on-heap.
+   *
+   * @param dstMem the given WritableMemory for a Direct shared sketch, otherwise <i>null</i>.
+   * @return a ConcurrentThetaSketch with the current configuration of this Builder.
+   * @see #buildConcurrent()
+   */
+  public ConcurrentThetaSketch buildConcurrent(final WritableMemory dstMem) {
+    final int numStripes = ceilingPowerOf2(Math.max(bMaxNumLocalThreads,
+        Runtime.getRuntime().availableProcessors()));
+    return new ConcurrentThetaSketch(this, dstMem, numStripes);
+  }
+
+  /**
+   * Returns a keyed pool of direct QuickSelect sketches with the current configuration of this Builder,
+   * all held in the given WritableMemory region, which may be off-heap or memory-mapped.
+   * The Family, Resize Factor and Local Nominal Entries are not used. Each sketch grows by a factor of 2
+   * into slots of the region. If the region fills up, a larger one is obtained from the configured
+   * MemoryRequestServer.
+   *
+   * @param region the given WritableMemory region. Any previous contents are ignored.
+   * @return an UpdateSketchPool with the current configuration of this Builder.
+   */
+  public UpdateSketchPool buildPool(final WritableMemory region) {
+    return new UpdateSketchPool(bLgNomLongs, bSeed, bP, bMemReqSvr, region);
+  }
+
+  /**
+   * Returns the Executor for a new shared sketch, or null for the default pool, which is resized
+   * to the configured number of pool threads if necessary.
+   */
+  private Executor getSharedExecutor() {
+    if (bPropagationExecutor != null) { return bPropagationExecutor; }
+    if (bPropagationOnVirtualThreads) {
+      final Executor virtual = ConcurrentPropagationService.getVirtualThreadExecutor();
+      if (virtual != null) { return virtual; }
+    }
+    ConcurrentPropagationService.setNumPoolThreads(bNumPoolThreads);
+    return null;
+  }
+
   @Override
   public String toString() {
     final StringBuilder sb = new StringBuilder();
@@ -510,6 +640,9 @@ public class UpdateSketchBuilder {
     sb.append("NumPoolThreads").append(TAB).append(bNumPoolThreads).append(LS);
     sb.append("MaxConcurrencyError").append(TAB).append(bMaxConcurrencyError).append(LS);
     sb.append("MaxNumLocalThreads").append(TAB).append(bMaxNumLocalThreads).append(LS);
+    final String peStr = (bPropagationExecutor == null) ? "null" : bPropagationExecutor.getClass().getSimpleName();
+    sb.append("PropagationExecutor").append(TAB).append(peStr).append(LS);
+    sb.append("PropagationOnVirtualThreads").append(TAB).append(bPropagationOnVirtualThreads).append(LS);
     return sb.toString();
   }
 
@@ -0,0 +1,458 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import static org.apache.datasketches.common.Util.LS;
+import static org.apache.datasketches.theta.PreambleUtil.extractLgArrLongs;
+
+import java.util.Arrays;
+
+import org.apache.datasketches.common.Family;
+import org.apache.datasketches.common.ResizeFactor;
+import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.memory.MemoryRequestServer;
+import org.apache.datasketches.memory.WritableMemory;
+import org.apache.datasketches.thetacommon.ThetaUtil;
+
+/**
+ * A keyed pool of direct QuickSelect theta sketches that all live in one WritableMemory region.
+ * This is intended for tracking the number of distinct items per key for a very large number of keys,
+ * in predictable and possibly off-heap or memory-mapped space, with no per-key Java objects.
+ *
+ * <p>The region is carved into slots of a few size classes, one for each hash table size a sketch
+ * passes through as it grows by a factor of 2, from {@link ThetaUtil#MIN_LG_ARR_LONGS} up to the full
+ * size of 2 * <i>k</i>. A new key gets a slot of the smallest class. When its sketch needs a larger
+ * hash table, it is moved into a slot of the next class and its old slot is returned to a free list
+ * of that class for reuse by other keys. Slots are taken from the free lists first, and from the
+ * unused end of the region otherwise. If the region is full it is replaced with a larger one obtained
+ * from the MemoryRequestServer, which copies all slots into it.</p>
+ *
+ * <p>The key to slot index is an open addressing hash table of two primitive arrays on the heap.
+ * Sketches are wrapped only for the duration of a call, so any Sketch obtained from this pool is
+ * a compact copy that does not depend on the region.</p>
+ *
+ * <p>This class is not thread safe.</p>
+ *
+ * <p>Instances are obtained from {@link UpdateSketchBuilder#buildPool(WritableMemory)}.</p>
+ */
+public final class UpdateSketchPool {
+  private static final long EMPTY = -1L;
+  private static final int MIN_LG_INDEX_SIZE = 4;
+  private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+  private static final int PREAMBLE_LONGS = Family.QUICKSELECT.getMinPreLongs();
+
+  private final int lgNomLongs;
+  private final long seed;
+  private final float p;
+  private final MemoryRequestServer memReqSvr;
+  private final SlotServer slotServer;
+  private final long[] freeHeads; //head offset of the free list of each size class, indexed by lgArrLongs
+  private WritableMemory region;
+  private long top; //offset of the unused end of the region
+
+  //key to slot offset index, linear probing
+  private long[] keys;
+  private long[] offsets;
+  private int lgIndexSize;
+  private int numKeys;
+
+  UpdateSketchPool(final int lgNomLongs, final long seed, final float p,
+      final MemoryRequestServer memReqSvr, final WritableMemory region) {
+    if (region == null) {
+      throw new SketchesArgumentException("The pool region must not be null.");
+    }
+    if (region.isReadOnly()) {
+      throw new SketchesArgumentException("The pool region must be writable.");
+    }
+    if (memReqSvr == null) {
+      throw new SketchesArgumentException("The MemoryRequestServer must not be null.");
+    }
+    this.lgNomLongs = lgNomLongs;
+    this.seed = seed;
+    this.p = p;
+    this.memReqSvr = memReqSvr;
+    this.region = region;
+    slotServer = new SlotServer();
+    freeHeads = new long[lgNomLongs + 2];
+    reset();
+  }
+
+  /**
+   * Returns the number of bytes of a slot that holds a hash table of the given size.
+   * @param lgArrLongs the log2 of the hash table size in longs
+   * @return the number of bytes of a slot that holds a hash table of the given size.
+   */
+  static long getSlotBytes(final int lgArrLongs) {
+    return (PREAMBLE_LONGS << 3) + (8L << lgArrLongs);
+  }
+
+  private static int getSlotLgArrLongs(final long slotBytes) {
+    return 63 - Long.numberOfLeadingZeros((slotBytes - (PREAMBLE_LONGS << 3)) >>> 3);
+  }
+
+  /**
+   * Updates the sketch of the given key with the given long data item.
+   * @param key the given key
+   * @param datum the given long data item
+   * @return <a href="{@docRoot}/resources/dictionary.html#updateReturnState">See Update Return State</a>
+   * @see UpdateSketch#update(long)
+   */
+  public UpdateReturnState update(final long key, final long datum) {
+    final UpdateSketch sketch = prepareUpdate(key);
+    return completeUpdate(key, sketch.update(datum));
+  }
+
+  /**
+   * Updates the sketch of the given key with the given double data item.
+   * @param key the given key
+   * @param datum the given double data item
+   * @return <a href="{@docRoot}/resources/dictionary.html#updateReturnState">See Update Return State</a>
+   * @see UpdateSketch#update(double)
+   */
+  public UpdateReturnState update(final long key, final double datum) {
+    final UpdateSketch sketch = prepareUpdate(key);
+    return completeUpdate(key, sketch.update(datum));
+  }
+
+  /**
+   * Updates the sketch of the given key with the given String data item.
+   * If the string is null or empty no update attempt is made and the method returns.
+   * @param key the given key
+   * @param datum the given String data item
+   * @return <a href="{@docRoot}/resources/dictionary.html#updateReturnState">See Update Return State</a>
+   * @see UpdateSketch#update(String)
+   */
+  public UpdateReturnState update(final long key, final String datum) {
+    final UpdateSketch sketch = prepareUpdate(key);
+    return completeUpdate(key, sketch.update(datum));
+  }
+
+  /**
+   * Updates the sketch of the given key with the given byte array data item.
+   * If the array is null or empty no update attempt is made and the method returns.
+   * @param key the given key
+   * @param data the given byte array data item
+   * @return <a href="{@docRoot}/resources/dictionary.html#updateReturnState">See Update Return State</a>
+   * @see UpdateSketch#update(byte[])
+   */
+  public UpdateReturnState update(final long key, final byte[] data) {
+    final UpdateSketch sketch = prepareUpdate(key);
+    return completeUpdate(key, sketch.update(data));
+  }
+
+  /**
+   * Updates the sketch of the given key with the given long array data item.
+   * If the array is null or empty no update attempt is made and the method returns.
+   * @param key the given key
+   * @param data the given long array data item
+   * @return <a href="{@docRoot}/resources/dictionary.html#updateReturnState">See Update Return State</a>
+   * @see UpdateSketch#update(long[])
+   */
+  public UpdateReturnState update(final long key, final long[] data) {
+    final UpdateSketch sketch = prepareUpdate(key);
+    return completeUpdate(key, sketch.update(data));
+  }
+
+  /**
+   * Updates the sketch of the given key with the given hash, which must already have been
+   * computed with the seed of this pool.
+   * @param key the given key
+   * @param hash the given hash
+   * @return <a href="{@docRoot}/resources/dictionary.html#updateReturnState">See Update Return State</a>
+   */
+  UpdateReturnState hashUpdate(final long key, final long hash) {
+    final UpdateSketch sketch = prepareUpdate(key);
+    return completeUpdate(key, sketch.hashUpdate(hash));
+  }
+
+  /**
+   * Returns true if the given key has a sketch in this pool.
+   * @param key the given key
+   * @return true if the given key has a sketch in this pool.
+   */
+  public boolean contains(final long key) {
+    return findIndex(key) >= 0;
+  }
+
+  /**
+   * Returns the estimate of the number of distinct items of the given key, or zero if the key is absent.
+   * @param key the given key
+   * @return the estimate of the number of distinct items of the given key.
+   */
+  public double getEstimate(final long key) {
+    final UpdateSketch sketch = wrap(key);
+    return (sketch == null) ? 0.0 : sketch.getEstimate();
+  }
+
+  /**
+   * Returns the lower bound of the number of distinct items of the given key, or zero if the key is absent.
+   * @param key the given key
+   * @param numStdDev <a href="{@docRoot}/resources/dictionary.html#numStdDev">See Number of Standard Deviations</a>
+   * @return the lower bound of the number of distinct items of the given key.
+   */
+  public double getLowerBound(final long key, final int numStdDev) {
+    final UpdateSketch sketch = wrap(key);
+    return (sketch == null) ? 0.0 : sketch.getLowerBound(numStdDev);
+  }
+
+  /**
+   * Returns the upper bound of the number of distinct items of the given key, or zero if the key is absent.
+   * @param key the given key
+   * @param numStdDev <a href="{@docRoot}/resources/dictionary.html#numStdDev">See Number of Standard Deviations</a>
+   * @return the upper bound of the number of distinct items of the given key.
+   */
+  public double getUpperBound(final long key, final int numStdDev) {
+    final UpdateSketch sketch = wrap(key);
+    return (sketch == null) ? 0.0 : sketch.getUpperBound(numStdDev);
+  }
+
+  /**
+   * Returns an ordered, on-heap compact copy of the sketch of the given key, or null if the key is absent.
+   * @param key the given key
+   * @return an ordered, on-heap compact copy of the sketch of the given key, or null.
+   */
+  public CompactSketch getResult(final long key) {
+    final UpdateSketch sketch = wrap(key);
+    return (sketch == null) ? null : sketch.compact(true, null);
+  }
+
+  /**
+   * Removes the given key and returns the slot of its sketch to the pool.
+   * @param key the given key
+   * @return true if the key was present.
+   */
+  public boolean remove(final long key) {
+    final int index = findIndex(key);
+    if (index < 0) { return false; }
+    final long offset = offsets[index];
+    freeSlot(offset, extractLgArrLongs(region.writableRegion(offset, PREAMBLE_LONGS << 3)));
+    deleteIndex(index);
+    return true;
+  }
+
+  /**
+   * Returns the keys of this pool, in no particular order.
+   * @return the keys of this pool.
+   */
+  public long[] getKeys() {
+    final long[] out = new long[numKeys];
+    int j = 0;
+    for (int i = 0; i < offsets.length; i++) {
+      if (offsets[i] != EMPTY) { out[j++] = keys[i]; }
+    }
+    return out;
+  }
+
+  /**
+   * Returns the number of keys in this pool.
+   * @return the number of keys in this pool.
+   */
+  public int getNumKeys() {
+    return numKeys;
+  }
+
+  /**
+   * Returns the number of bytes of the region that have been carved into slots, including free slots.
+   * @return the number of bytes of the region that have been carved into slots.
+   */
+  public long getUsedBytes() {
+    return top;
+  }
+
+  /**
+   * Returns the current region of this pool. This changes if the pool outgrows its region.
+   * @return the current region of this pool.
+   */
+  public WritableMemory getMemory() {
+    return region;
+  }
+
+  /**
+   * Removes all keys and makes the whole region available again.
+   */
+  public void reset() {
+    Arrays.fill(freeHeads, EMPTY);
+    top = 0;
+    lgIndexSize = MIN_LG_INDEX_SIZE;
+    keys = new long[1 << lgIndexSize];
+    offsets = new long[1 << lgIndexSize];
+    Arrays.fill(offsets, EMPTY);
+    numKeys = 0;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("### UpdateSketchPool SUMMARY: ").append(LS);
+    sb.append("   Nominal Entries (k)     : ").append(1 << lgNomLongs).append(LS);
+    sb.append("   Number of Keys          : ").append(numKeys).append(LS);
+    sb.append("   Used Bytes              : ").append(top).append(LS);
+    sb.append("   Region Capacity Bytes   : ").append(region.getCapacity()).append(LS);
+    sb.append("### END SKETCH SUMMARY").append(LS);
+    return sb.toString();
+  }
+
+  //restricted
+
+  /**
+   * Finds or creates the sketch of the given key and makes sure that the slot it may need to grow into
+   * can be allocated without replacing the region, which would invalidate the wrapped sketch.
+   */
+  private UpdateSketch prepareUpdate(final long key) {
+    final int index = findIndex(key);
+    if (index < 0) {
+      final int lgArrLongs = Math.min(ThetaUtil.MIN_LG_ARR_LONGS, lgNomLongs + 1);
+      final long offset = allocateSlot(lgArrLongs);
+      insertIndex(~index, key, offset);
+      slotServer.current = offset;
+      final WritableMemory slot = region.writableRegion(offset, getSlotBytes(lgArrLongs));
+      return new DirectQuickSelectSketch(lgNomLongs, seed, p, ResizeFactor.X2, slotServer, slot, false);
+    }
+    final long offset = offsets[index];
+    final int lgArrLongs = extractLgArrLongs(region.writableRegion(offset, PREAMBLE_LONGS << 3));
+    if ((lgArrLongs <= lgNomLongs) && (freeHeads[lgArrLongs + 1] == EMPTY)) {
+      final long reqBytes = getSlotBytes(lgArrLongs + 1);
+      if ((top + reqBytes) > region.getCapacity()) { growRegion(reqBytes); } //slot offsets are unchanged
+    }
+    slotServer.current = offset;
+    final DirectQuickSelectSketch sketch =
+        DirectQuickSelectSketch.fastWritableWrap(region.writableRegion(offset, getSlotBytes(lgArrLongs)), seed);
+    sketch.memReqSvr_ = slotServer;
+    return sketch;
+  }
+
+  private UpdateReturnState completeUpdate(final long key, final UpdateReturnState state) {
+    if (slotServer.movedTo != EMPTY) {
+      offsets[findIndex(key)] = slotServer.movedTo;
+      slotServer.movedTo = EMPTY;
+    }
+    return state;
+  }
+
+  private UpdateSketch wrap(final long key) {
+    final int index = findIndex(key);
+    if (index < 0) { return null; }
+    final long offset = offsets[index];
+    final int lgArrLongs = extractLgArrLongs(region.writableRegion(offset, PREAMBLE_LONGS << 3));
+    return DirectQuickSelectSketch.fastWritableWrap(region.writableRegion(offset, getSlotBytes(lgArrLongs)), seed);
+  }
+
+  private long allocateSlot(final int lgArrLongs) {
+    final long head = freeHeads[lgArrLongs];
+    if (head != EMPTY) {
+      freeHeads[lgArrLongs] = region.getLong(head); //a free slot holds the offset of the next free slot
+      return head;
+    }
+    final long slotBytes = getSlotBytes(lgArrLongs);
+    if ((top + slotBytes) > region.getCapacity()) { growRegion(slotBytes); }
+    final long offset = top;
+    top += slotBytes;
+    return offset;
+  }
+
+  private void freeSlot(final long offset, final int lgArrLongs) {
+    region.putLong(offset, freeHeads[lgArrLongs]);
+    freeHeads[lgArrLongs] = offset;
+  }
+
+  private void growRegion(final long reqBytes) {
+    final long newCapBytes = Math.max(2 * region.getCapacity(), top + reqBytes);
+    final WritableMemory newRegion = memReqSvr.request(region, newCapBytes);
+    if ((newRegion == null) || (newRegion.getCapacity() < (top + reqBytes))) {
+      throw new SketchesArgumentException("The MemoryRequestServer did not provide a region of at least "
+          + (top + reqBytes) + " bytes.");
+    }
+    region.copyTo(0, newRegion, 0, top);
+    memReqSvr.requestClose(region, newRegion);
+    region = newRegion;
+  }
+
+  private int findIndex(final long key) {
+    final int mask = (1 << lgIndexSize) - 1;
+    int index = (int) ((key * GOLDEN_RATIO) >>> (64 - lgIndexSize));
+    while (offsets[index] != EMPTY) {
+      if (keys[index] == key) { return index; }
+      index = (index + 1) & mask;
+    }
+    return ~index;
+  }
+
+  private void insertIndex(final int index, final long key, final long offset) {
+    keys[index] = key;
+    offsets[index] = offset;
+    numKeys++;
+    if ((numKeys << 2) > (3 << lgIndexSize)) { //load factor above 3/4
+      final long[] oldKeys = keys;
+      final long[] oldOffsets = offsets;
+      lgIndexSize++;
+      keys = new long[1 << lgIndexSize];
+      offsets = new long[1 << lgIndexSize];
+      Arrays.fill(offsets, EMPTY);
+      for (int i = 0; i < oldOffsets.length; i++) {
+        if (oldOffsets[i] != EMPTY) {
+          final int j = ~findIndex(oldKeys[i]);
+          keys[j] = oldKeys[i];
+          offsets[j] = oldOffsets[i];
+        }
+      }
+    }
+  }
+
+  private void deleteIndex(final int index) {
+    final int mask = (1 << lgIndexSize) - 1;
+    int hole = index;
+    int i = index;
+    while (true) { //backward shift deletion
+      i = (i + 1) & mask;
+      if (offsets[i] == EMPTY) { break; }
+      final int home = (int) ((keys[i] * GOLDEN_RATIO) >>> (64 - lgIndexSize));
+      if (((i - home) & mask) >= ((i - hole) & mask)) { //entry i may move back into the hole
+        keys[hole] = keys[i];
+        offsets[hole] = offsets[i];
+        hole = i;
+      }
+    }
+    offsets[hole] = EMPTY;
+    numKeys--;
+  }
+
+  /**
+   * Serves the requests of a growing sketch for a larger hash table with slots of this pool.
+   */
+  private final class SlotServer implements MemoryRequestServer {
+    long current = EMPTY; //offset of the slot of the sketch being updated
+    long movedTo = EMPTY; //offset of the slot that sketch was moved into, if any
+    private long requested = EMPTY;
+
+    @Override
+    public WritableMemory request(final WritableMemory currentWritableMemory, final long capacityBytes) {
+      requested = allocateSlot(getSlotLgArrLongs(capacityBytes));
+      return region.writableRegion(requested, capacityBytes);
+    }
+
+    @Override
+    public void requestClose(final WritableMemory memToClose, final WritableMemory newMemory) {
+      freeSlot(current, getSlotLgArrLongs(memToClose.getCapacity()));
+      movedTo = requested;
+      current = requested;
+      requested = EMPTY;
+    }
+  }
+}
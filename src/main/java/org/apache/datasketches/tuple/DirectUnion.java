@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.tuple;
+
+import static java.lang.Math.min;
+
+import java.lang.reflect.Array;
+import java.util.Objects;
+
+import org.apache.datasketches.common.Family;
+import org.apache.datasketches.common.ResizeFactor;
+import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.WritableMemory;
+import org.apache.datasketches.thetacommon.QuickSelect;
+
+/**
+ * Union of generic tuple sketches with fixed-width Summaries, which keeps its state in one
+ * WritableMemory region, like the DirectArrayOfDoublesUnion.
+ *
+ * <p>The internal sketch is a {@link DirectUpdatableSketch} and Summaries with the same hash value
+ * are combined in place by {@link FixedWidthSummaryCodec#union(WritableMemory, long, Summary)}.
+ * When the input is a DirectUpdatableSketch with the same codec, Summaries are copied and combined
+ * between the two Memory regions without being read as objects.</p>
+ *
+ * @param <S> Type of Summary
+ */
+public final class DirectUnion<S extends Summary> {
+  private static final byte serialVersionUID = 1;
+  private static final int PREAMBLE_SIZE_BYTES = 16;
+  private static final int PREAMBLE_LONGS_BYTE = 0; // not used, always 1
+  private static final int SERIAL_VERSION_BYTE = 1;
+  private static final int FAMILY_ID_BYTE = 2;
+  private static final int SKETCH_TYPE_BYTE = 3;
+  private static final int THETA_LONG = 8;
+
+  private final WritableMemory mem_;
+  private final FixedWidthSummaryCodec<?, S> codec_;
+  private final DirectUpdatableSketch<?, S> gadget_;
+  private long unionThetaLong_;
+
+  /**
+   * Creates an instance of DirectUnion in the given Memory
+   * @param nomEntries nominal number of entries. Forced to the nearest power of 2 greater than
+   * or equal to the given value.
+   * @param codec the codec of the Summaries
+   * @param dstMem the destination Memory, see {@link #getMaxBytes(int, int)}
+   */
+  public DirectUnion(final int nomEntries, final FixedWidthSummaryCodec<?, S> codec,
+      final WritableMemory dstMem) {
+    Objects.requireNonNull(dstMem, "Destination Memory must not be null.");
+    checkBounds(dstMem);
+    mem_ = dstMem;
+    codec_ = codec;
+    gadget_ = new DirectUpdatableSketch<>(nomEntries, ResizeFactor.X8.lg(), 1f, codec,
+        dstMem.writableRegion(PREAMBLE_SIZE_BYTES, dstMem.getCapacity() - PREAMBLE_SIZE_BYTES));
+    mem_.putByte(PREAMBLE_LONGS_BYTE, (byte) 1);
+    mem_.putByte(SERIAL_VERSION_BYTE, serialVersionUID);
+    mem_.putByte(FAMILY_ID_BYTE, (byte) Family.TUPLE.getID());
+    mem_.putByte(SKETCH_TYPE_BYTE, (byte) SerializerDeserializer.SketchType.FixedWidthUnion.ordinal());
+    setUnionThetaLong(gadget_.getThetaLong());
+  }
+
+  private DirectUnion(final WritableMemory mem, final FixedWidthSummaryCodec<?, S> codec) {
+    mem_ = mem;
+    codec_ = codec;
+    gadget_ = DirectUpdatableSketch.wrap(
+        mem.writableRegion(PREAMBLE_SIZE_BYTES, mem.getCapacity() - PREAMBLE_SIZE_BYTES), codec);
+    unionThetaLong_ = mem.getLong(THETA_LONG);
+  }
+
+  /**
+   * Wraps the given Memory, which must contain a DirectUnion with Summaries of the given codec.
+   * The union continues to be updated in the given Memory.
+   * @param mem the given Memory
+   * @param codec the codec of the Summaries
+   * @param <S> Type of Summary
+   * @return a DirectUnion backed by the given Memory
+   */
+  public static <S extends Summary> DirectUnion<S> wrap(final WritableMemory mem,
+      final FixedWidthSummaryCodec<?, S> codec) {
+    Objects.requireNonNull(mem, "Source Memory must not be null.");
+    checkBounds(mem);
+    final byte version = mem.getByte(SERIAL_VERSION_BYTE);
+    if (version != serialVersionUID) {
+      throw new SketchesArgumentException("Serial version mismatch. Expected: " + serialVersionUID
+          + ", actual: " + version);
+    }
+    SerializerDeserializer.validateFamily(mem.getByte(FAMILY_ID_BYTE), mem.getByte(PREAMBLE_LONGS_BYTE));
+    SerializerDeserializer.validateType(mem.getByte(SKETCH_TYPE_BYTE),
+        SerializerDeserializer.SketchType.FixedWidthUnion);
+    return new DirectUnion<>(mem, codec);
+  }
+
+  /**
+   * Returns the number of bytes of Memory that a union with the given nominal entries and Summary
+   * size needs.
+   * @param nomEntries Nominal number of entries. Forced to the nearest power of 2 greater than
+   * or equal to the given value.
+   * @param summarySizeBytes the size of a Summary in bytes
+   * @return the maximum number of bytes of the union
+   */
+  public static int getMaxBytes(final int nomEntries, final int summarySizeBytes) {
+    return PREAMBLE_SIZE_BYTES + DirectUpdatableSketch.getMaxBytes(nomEntries, summarySizeBytes);
+  }
+
+  /**
+   * Perform a stateless, pair-wise union operation between two tuple sketches.
+   * The result has at most the nominal entries of this union, regardless of those of the arguments.
+   *
+   * <p>This method does not modify the state of this union.
+   * A temporary union on the heap is used instead.</p>
+   *
+   * @param tupleSketchA The first argument
+   * @param tupleSketchB The second argument
+   * @return the result unordered CompactSketch on the heap.
+   */
+  public CompactSketch<S> union(final Sketch<S> tupleSketchA, final Sketch<S> tupleSketchB) {
+    final int nomEntries = gadget_.getNominalEntries();
+    final DirectUnion<S> tmp = new DirectUnion<>(nomEntries, codec_,
+        WritableMemory.allocate(getMaxBytes(nomEntries, codec_.getSizeBytes())));
+    tmp.union(tupleSketchA);
+    tmp.union(tupleSketchB);
+    return tmp.getResult();
+  }
+
+  /**
+   * Performs a stateful union of the internal set with the given tupleSketch.
+   * @param tupleSketch input tuple sketch to merge with the internal set.
+   *
+   * <p>Nulls and empty sketches are ignored.</p>
+   */
+  public void union(final Sketch<S> tupleSketch) {
+    if ((tupleSketch == null) || tupleSketch.isEmpty()) { return; }
+    gadget_.setEmpty(false);
+    setUnionThetaLong(min(min(unionThetaLong_, tupleSketch.getThetaLong()), gadget_.getThetaLong()));
+    if (tupleSketch.getRetainedEntries() == 0) { return; }
+    if ((tupleSketch instanceof DirectUpdatableSketch)
+        && isSameLayout(((DirectUpdatableSketch<?, S>) tupleSketch).getCodec())) {
+      final DirectUpdatableSketch<?, S> direct = (DirectUpdatableSketch<?, S>) tupleSketch;
+      final Memory srcMem = direct.getMemory();
+      final int capacity = direct.getCurrentCapacity();
+      for (int i = 0; i < capacity; i++) {
+        final long hash = direct.getHash(i);
+        if ((hash != 0) && (hash < unionThetaLong_)) {
+          gadget_.merge(hash, srcMem, direct.getSummaryOffset(i));
+        }
+      }
+    } else {
+      final TupleSketchIterator<S> it = tupleSketch.iterator();
+      while (it.next()) {
+        if (it.getHash() < unionThetaLong_) {
+          gadget_.merge(it.getHash(), it.getSummary());
+        }
+      }
+    }
+    setUnionThetaLong(min(unionThetaLong_, gadget_.getThetaLong()));
+  }
+
+  /**
+   * Gets the result of this operation as an unordered CompactSketch on the heap.
+   * This does not disturb the underlying data structure of this union.
+   * @return result of this operation as an unordered CompactSketch on the heap
+   */
+  public CompactSketch<S> getResult() {
+    return getResult(false);
+  }
+
+  /**
+   * Gets the result of this operation as an unordered CompactSketch on the heap.
+   * @param reset If <i>true</i>, clears this operator to the empty state after this result is
+   * returned. Set this to <i>false</i> if you wish to obtain an intermediate result.
+   * @return result of this operation as an unordered CompactSketch on the heap
+   */
+  @SuppressWarnings("unchecked")
+  public CompactSketch<S> getResult(final boolean reset) {
+    final CompactSketch<S> result;
+    final long gadgetThetaLong = gadget_.getThetaLong();
+    if (gadget_.isEmpty()) {
+      result = gadget_.compact();
+    } else if ((unionThetaLong_ >= gadgetThetaLong)
+        && (gadget_.getRetainedEntries() <= gadget_.getNominalEntries())) {
+      result = gadget_.compact();
+    } else {
+      final long tmpThetaLong = min(unionThetaLong_, gadgetThetaLong);
+      final int capacity = gadget_.getCurrentCapacity();
+      final int numHashesIn = gadget_.getCountLessThanThetaLong(tmpThetaLong);
+      if (numHashesIn == 0) {
+        result = new CompactSketch<>(null, null, tmpThetaLong, false);
+      } else {
+        final int numHashesOut;
+        final long thetaLongOut;
+        if (numHashesIn > gadget_.getNominalEntries()) {
+          final long[] tmpHashArr = new long[numHashesIn];
+          int i = 0;
+          for (int j = 0; j < capacity; j++) {
+            final long hash = gadget_.getHash(j);
+            if ((hash != 0) && (hash < tmpThetaLong)) { tmpHashArr[i++] = hash; }
+          }
+          numHashesOut = gadget_.getNominalEntries();
+          thetaLongOut = QuickSelect.select(tmpHashArr, 0, numHashesIn - 1, numHashesOut);
+        } else {
+          numHashesOut = numHashesIn;
+          thetaLongOut = tmpThetaLong;
+        }
+        final long[] hashArr = new long[numHashesOut];
+        S[] summaries = null;
+        final WritableMemory gadgetMem = gadget_.getMemory();
+        int i = 0;
+        for (int j = 0; j < capacity; j++) {
+          final long hash = gadget_.getHash(j);
+          if ((hash != 0) && (hash < thetaLongOut)) {
+            final S summary = codec_.read(gadgetMem, gadget_.getSummaryOffset(j));
+            if (summaries == null) { summaries = (S[]) Array.newInstance(summary.getClass(), numHashesOut); }
+            hashArr[i] = hash;
+            summaries[i] = summary;
+            i++;
+          }
+        }
+        result = new CompactSketch<>(hashArr, summaries, thetaLongOut, false);
+      }
+    }
+    if (reset) { reset(); }
+    return result;
+  }
+
+  /**
+   * Resets the union to an empty state
+   */
+  public void reset() {
+    gadget_.reset();
+    setUnionThetaLong(gadget_.getThetaLong());
+  }
+
+  /**
+   * Gets the Memory that backs this union
+   * @return the Memory that backs this union
+   */
+  public WritableMemory getMemory() {
+    return mem_;
+  }
+
+  /**
+   * Returns true if summaries written by the given codec can be copied byte for byte into this union.
+   * Instances of one codec class may still differ in their size.
+   */
+  private boolean isSameLayout(final FixedWidthSummaryCodec<?, ?> codec) {
+    return (codec.getClass() == codec_.getClass()) && (codec.getSizeBytes() == codec_.getSizeBytes());
+  }
+
+  private void setUnionThetaLong(final long thetaLong) {
+    unionThetaLong_ = thetaLong;
+    mem_.putLong(THETA_LONG, thetaLong);
+  }
+
+  private static void checkBounds(final Memory mem) {
+    if (mem.getCapacity() < PREAMBLE_SIZE_BYTES) {
+      throw new SketchesArgumentException("Not enough memory: need at least "
+          + PREAMBLE_SIZE_BYTES + " bytes, got " + mem.getCapacity() + " bytes");
+    }
+  }
+
+}
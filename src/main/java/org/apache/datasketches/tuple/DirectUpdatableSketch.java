@@ -0,0 +1,546 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.tuple;
+
+import static org.apache.datasketches.common.Util.checkBounds;
+import static org.apache.datasketches.common.Util.ceilingPowerOf2;
+import static org.apache.datasketches.common.Util.exactLog2OfLong;
+
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+import org.apache.datasketches.common.Family;
+import org.apache.datasketches.common.ResizeFactor;
+import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.hash.MurmurHash3;
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.WritableMemory;
+import org.apache.datasketches.thetacommon.HashOperations;
+import org.apache.datasketches.thetacommon.QuickSelect;
+import org.apache.datasketches.thetacommon.ThetaUtil;
+
+/**
+ * An updatable generic Tuple sketch whose hash table and Summaries live in one WritableMemory region,
+ * like the DirectArrayOfDoublesQuickSelectSketch.
+ *
+ * <p>The Summaries must have a fixed size in bytes. They are read and written in place by the given
+ * {@link FixedWidthSummaryCodec}, so an update creates no objects. Keys are presented to the sketch
+ * along with values of type U, which are passed to the codec. The results of {@link #compact()} and
+ * of the set operations are on-heap sketches with Summary objects read by the codec.</p>
+ *
+ * <p>The region must be large enough for the hash table to grow to its full size, see
+ * {@link #getMaxBytes(int, int)}. The sketch can be re-attached to the region with
+ * {@link #wrap(WritableMemory, FixedWidthSummaryCodec)}.</p>
+ *
+ * @param <U> Type of the value, which is passed to the update method of the codec
+ * @param <S> Type of Summary
+ */
+public final class DirectUpdatableSketch<U, S extends Summary> extends Sketch<S> {
+  private static final byte serialVersionUID = 1;
+
+  // Layout of the preamble:
+  // Long || Start Byte Adr:
+  // Adr:
+  //      ||    7   |    6   |    5   |    4   |    3   |    2   |    1   |     0              |
+  //  0   ||   RF   |  lgArr | lgNom  |  Flags | SkType | FamID  | SerVer |  Preamble_Longs    |
+  //      ||   15   |   14   |   13   |   12   |   11   |   10   |    9   |     8              |
+  //  1   ||------------------------------Theta Long--------------------------------------------|
+  //      ||   23   |   22   |   21   |   20   |   19   |   18   |   17   |    16              |
+  //  2   ||         Retained Entries          |           Sampling P Float                     |
+  //      ||   31   |   30   |   29   |   28   |   27   |   26   |   25   |    24              |
+  //  3   ||             (unused)              |           Summary Size Bytes                   |
+  // The hash table of the current capacity follows, then the Summaries of the current capacity.
+  static final int PREAMBLE_LONGS_BYTE = 0; // not used, always 1
+  static final int SERIAL_VERSION_BYTE = 1;
+  static final int FAMILY_ID_BYTE = 2;
+  static final int SKETCH_TYPE_BYTE = 3;
+  static final int FLAGS_BYTE = 4;
+  static final int LG_NOM_ENTRIES_BYTE = 5;
+  static final int LG_CUR_CAPACITY_BYTE = 6;
+  static final int LG_RESIZE_FACTOR_BYTE = 7;
+  static final int THETA_LONG = 8;
+  static final int SAMPLING_P_FLOAT = 16;
+  static final int RETAINED_ENTRIES_INT = 20;
+  static final int SUMMARY_SIZE_INT = 24;
+  static final int ENTRIES_START = 32;
+
+  private enum Flags { IS_BIG_ENDIAN, IS_IN_SAMPLING_MODE, IS_EMPTY }
+
+  private final WritableMemory mem_;
+  private final FixedWidthSummaryCodec<U, S> codec_;
+  private final int summarySize_;
+  // these can be derived from the mem_ contents, but are kept here for performance
+  private int lgCurrentCapacity_;
+  private long summariesOffset_;
+  private int rebuildThreshold_;
+
+  DirectUpdatableSketch(final int nomEntries, final int lgResizeFactor, final float samplingProbability,
+      final FixedWidthSummaryCodec<U, S> codec, final WritableMemory dstMem) {
+    super((long) (Long.MAX_VALUE * (double) samplingProbability), true, null);
+    Objects.requireNonNull(codec, "Codec must not be null.");
+    Objects.requireNonNull(dstMem, "Destination Memory must not be null.");
+    if ((samplingProbability <= 0f) || (samplingProbability > 1f)) {
+      throw new SketchesArgumentException("sampling probability must be between 0 and 1");
+    }
+    mem_ = dstMem;
+    codec_ = codec;
+    summarySize_ = checkSummarySize(codec.getSizeBytes());
+    final int nomEntriesPow2 = ceilingPowerOf2(nomEntries);
+    final int startingCapacity = Util.getStartingCapacity(nomEntriesPow2, lgResizeFactor);
+    checkIfEnoughMemory(dstMem, startingCapacity, summarySize_);
+    mem_.clear(0, ENTRIES_START);
+    mem_.putByte(PREAMBLE_LONGS_BYTE, (byte) 1);
+    mem_.putByte(SERIAL_VERSION_BYTE, serialVersionUID);
+    mem_.putByte(FAMILY_ID_BYTE, (byte) Family.TUPLE.getID());
+    mem_.putByte(SKETCH_TYPE_BYTE, (byte) SerializerDeserializer.SketchType.FixedWidthQuickSelectSketch.ordinal());
+    mem_.putByte(FLAGS_BYTE, (byte) (
+      (isBigEndian() ? 1 << Flags.IS_BIG_ENDIAN.ordinal() : 0)
+      | (samplingProbability < 1f ? 1 << Flags.IS_IN_SAMPLING_MODE.ordinal() : 0)
+      | (1 << Flags.IS_EMPTY.ordinal())
+    ));
+    mem_.putByte(LG_NOM_ENTRIES_BYTE, (byte) Integer.numberOfTrailingZeros(nomEntriesPow2));
+    mem_.putByte(LG_RESIZE_FACTOR_BYTE, (byte) lgResizeFactor);
+    mem_.putFloat(SAMPLING_P_FLOAT, samplingProbability);
+    mem_.putInt(SUMMARY_SIZE_INT, summarySize_);
+    initTable(startingCapacity);
+  }
+
+  private DirectUpdatableSketch(final WritableMemory mem, final FixedWidthSummaryCodec<U, S> codec) {
+    super(checkWrap(mem, codec), (mem.getByte(FLAGS_BYTE) & (1 << Flags.IS_EMPTY.ordinal())) != 0, null);
+    mem_ = mem;
+    codec_ = codec;
+    summarySize_ = codec.getSizeBytes();
+    lgCurrentCapacity_ = mem_.getByte(LG_CUR_CAPACITY_BYTE);
+    summariesOffset_ = ENTRIES_START + ((long) Long.BYTES << lgCurrentCapacity_);
+    rebuildThreshold_ = getRebuildThreshold(1 << lgCurrentCapacity_, getNominalEntries());
+  }
+
+  /**
+   * Wraps the given Memory, which must contain a DirectUpdatableSketch with Summaries of the given
+   * codec. The sketch continues to be updated in the given Memory.
+   * @param mem the given Memory
+   * @param codec the codec of the Summaries, which must have the size of the Summaries in the Memory
+   * @param <U> Type of the value, which is passed to the update method of the codec
+   * @param <S> Type of Summary
+   * @return a DirectUpdatableSketch backed by the given Memory
+   */
+  public static <U, S extends Summary> DirectUpdatableSketch<U, S> wrap(final WritableMemory mem,
+      final FixedWidthSummaryCodec<U, S> codec) {
+    return new DirectUpdatableSketch<>(mem, codec);
+  }
+
+  /**
+   * Returns the number of bytes of Memory that a sketch with the given nominal entries and Summary
+   * size needs for the hash table to grow to its full size.
+   * @param nomEntries Nominal number of entries. Forced to the nearest power of 2 greater than
+   * or equal to the given value.
+   * @param summarySizeBytes the size of a Summary in bytes
+   * @return the maximum number of bytes of the sketch
+   */
+  public static int getMaxBytes(final int nomEntries, final int summarySizeBytes) {
+    return ENTRIES_START + ((Long.BYTES + summarySizeBytes) * ceilingPowerOf2(nomEntries) * 2);
+  }
+
+  /**
+   * Present this sketch with a long key and a value to be used in the codec update.
+   * @param key key to update the sketch with
+   * @param value value to update the sketch with
+   */
+  public void update(final long key, final U value) {
+    insertOrIgnore(MurmurHash3.hash64(key, ThetaUtil.DEFAULT_UPDATE_SEED) >>> 1, value);
+  }
+
+  /**
+   * Present this sketch with a double key and a value to be used in the codec update.
+   * @param key key to update the sketch with
+   * @param value value to update the sketch with
+   */
+  public void update(final double key, final U value) {
+    update(Util.doubleToLongArray(key), value);
+  }
+
+  /**
+   * Present this sketch with a String key and a value to be used in the codec update.
+   * @param key key to update the sketch with. A null or empty String is ignored.
+   * @param value value to update the sketch with
+   */
+  public void update(final String key, final U value) {
+    if ((key == null) || key.isEmpty()) { return; }
+    insertOrIgnore(MurmurHash3.hashUtf8(key, ThetaUtil.DEFAULT_UPDATE_SEED)[0] >>> 1, value);
+  }
+
+  /**
+   * Present this sketch with a byte[] key and a value to be used in the codec update.
+   * @param key key to update the sketch with. A null or empty array is ignored.
+   * @param value value to update the sketch with
+   */
+  public void update(final byte[] key, final U value) {
+    if ((key == null) || (key.length == 0)) { return; }
+    insertOrIgnore(MurmurHash3.hash(key, ThetaUtil.DEFAULT_UPDATE_SEED)[0] >>> 1, value);
+  }
+
+  /**
+   * Present this sketch with a ByteBuffer key and a value to be used in the codec update.
+   * @param buffer key to update the sketch with. A null or empty buffer is ignored.
+   * @param value value to update the sketch with
+   */
+  public void update(final ByteBuffer buffer, final U value) {
+    if ((buffer == null) || !buffer.hasRemaining()) { return; }
+    insertOrIgnore(MurmurHash3.hash(buffer, ThetaUtil.DEFAULT_UPDATE_SEED)[0] >>> 1, value);
+  }
+
+  /**
+   * Present this sketch with an int[] key and a value to be used in the codec update.
+   * @param key key to update the sketch with. A null or empty array is ignored.
+   * @param value value to update the sketch with
+   */
+  public void update(final int[] key, final U value) {
+    if ((key == null) || (key.length == 0)) { return; }
+    insertOrIgnore(MurmurHash3.hash(key, ThetaUtil.DEFAULT_UPDATE_SEED)[0] >>> 1, value);
+  }
+
+  /**
+   * Present this sketch with a long[] key and a value to be used in the codec update.
+   * @param key key to update the sketch with. A null or empty array is ignored.
+   * @param value value to update the sketch with
+   */
+  public void update(final long[] key, final U value) {
+    if ((key == null) || (key.length == 0)) { return; }
+    insertOrIgnore(MurmurHash3.hash(key, ThetaUtil.DEFAULT_UPDATE_SEED)[0] >>> 1, value);
+  }
+
+  @Override
+  public int getRetainedEntries() {
+    return mem_.getInt(RETAINED_ENTRIES_INT);
+  }
+
+  @Override
+  public int getCountLessThanThetaLong(final long thetaLong) {
+    int count = 0;
+    final int capacity = 1 << lgCurrentCapacity_;
+    for (int i = 0; i < capacity; i++) {
+      final long hash = getHash(i);
+      if ((hash != 0) && (hash < thetaLong)) { count++; }
+    }
+    return count;
+  }
+
+  /**
+   * Get configured nominal number of entries
+   * @return nominal number of entries
+   */
+  public int getNominalEntries() {
+    return 1 << mem_.getByte(LG_NOM_ENTRIES_BYTE);
+  }
+
+  /**
+   * Get log_base2 of Nominal Entries
+   * @return log_base2 of Nominal Entries
+   */
+  public int getLgK() {
+    return exactLog2OfLong(getNominalEntries());
+  }
+
+  /**
+   * Get configured sampling probability
+   * @return sampling probability
+   */
+  public float getSamplingProbability() {
+    return mem_.getFloat(SAMPLING_P_FLOAT);
+  }
+
+  /**
+   * Get current capacity
+   * @return current capacity
+   */
+  public int getCurrentCapacity() {
+    return 1 << lgCurrentCapacity_;
+  }
+
+  /**
+   * Get configured resize factor
+   * @return resize factor
+   */
+  public ResizeFactor getResizeFactor() {
+    return ResizeFactor.getRF(mem_.getByte(LG_RESIZE_FACTOR_BYTE));
+  }
+
+  /**
+   * Gets the codec of the Summaries of this sketch
+   * @return the codec of the Summaries
+   */
+  public FixedWidthSummaryCodec<U, S> getCodec() {
+    return codec_;
+  }
+
+  /**
+   * Gets the Memory that backs this sketch
+   * @return the Memory that backs this sketch
+   */
+  public WritableMemory getMemory() {
+    return mem_;
+  }
+
+  /**
+   * Rebuilds reducing the actual number of entries to the nominal number of entries if needed
+   */
+  public void trim() {
+    if (getRetainedEntries() > getNominalEntries()) {
+      updateTheta();
+      rebuild(getCurrentCapacity());
+    }
+  }
+
+  /**
+   * Resets this sketch an empty state.
+   */
+  public void reset() {
+    setEmpty(true);
+    setThetaLong((long) (Long.MAX_VALUE * (double) getSamplingProbability()));
+    initTable(Util.getStartingCapacity(getNominalEntries(), mem_.getByte(LG_RESIZE_FACTOR_BYTE)));
+  }
+
+  /**
+   * Returns this sketch as an on-heap CompactSketch with Summary objects read by the codec.
+   * @return this sketch as an on-heap CompactSketch
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public CompactSketch<S> compact() {
+    final int count = getRetainedEntries();
+    if (count == 0) {
+      if (empty_) { return new CompactSketch<>(null, null, Long.MAX_VALUE, true); }
+      return new CompactSketch<>(null, null, thetaLong_, false);
+    }
+    final long[] hashArr = new long[count];
+    S[] summaryArr = null;
+    int j = 0;
+    final int capacity = 1 << lgCurrentCapacity_;
+    for (int i = 0; i < capacity; i++) {
+      final long hash = getHash(i);
+      if (hash == 0) { continue; }
+      final S summary = codec_.read(mem_, getSummaryOffset(i));
+      if (summaryArr == null) { summaryArr = (S[]) Array.newInstance(summary.getClass(), count); }
+      hashArr[j] = hash;
+      summaryArr[j] = summary;
+      j++;
+    }
+    return new CompactSketch<>(hashArr, summaryArr, thetaLong_, empty_);
+  }
+
+  /**
+   * This serializes this sketch in compact form, which can be heapified as a CompactSketch with the
+   * SummaryDeserializer of the Summaries. The Memory of this sketch is itself the updatable image.
+   * @return serialized representation of this sketch in compact form
+   */
+  @Override
+  public byte[] toByteArray() {
+    return compact().toByteArray();
+  }
+
+  /**
+   * Returns an iterator over the entries of this sketch, with Summary objects read by the codec.
+   * @return an iterator over the entries of this sketch
+   */
+  @Override
+  public TupleSketchIterator<S> iterator() {
+    return compact().iterator();
+  }
+
+  // non-public methods below
+
+  void insertOrIgnore(final long hash, final U value) {
+    setEmpty(false);
+    if ((hash == 0) || (hash >= thetaLong_)) { return; }
+    int index = HashOperations.hashSearchOrInsertMemory(mem_, lgCurrentCapacity_, hash, ENTRIES_START);
+    if (index < 0) {
+      index = ~index;
+      codec_.initialize(mem_, getSummaryOffset(index));
+      codec_.update(mem_, getSummaryOffset(index), value);
+      incrementCount();
+      rebuildIfNeeded();
+    } else {
+      codec_.update(mem_, getSummaryOffset(index), value);
+    }
+  }
+
+  // this is a special back door insert for merging
+  // not sufficient by itself without keeping track of theta of another sketch
+  void merge(final long hash, final S summary) {
+    setEmpty(false);
+    if ((hash <= 0) || (hash >= thetaLong_)) { return; }
+    final int index = HashOperations.hashSearchOrInsertMemory(mem_, lgCurrentCapacity_, hash, ENTRIES_START);
+    if (index < 0) {
+      codec_.write(summary, mem_, getSummaryOffset(~index));
+      incrementCount();
+      rebuildIfNeeded();
+    } else {
+      codec_.union(mem_, getSummaryOffset(index), summary);
+    }
+  }
+
+  // the same as merge(hash, summary) for a Summary in the given slot of the given Memory
+  void merge(final long hash, final Memory srcMem, final long srcOffsetBytes) {
+    setEmpty(false);
+    if ((hash <= 0) || (hash >= thetaLong_)) { return; }
+    final int index = HashOperations.hashSearchOrInsertMemory(mem_, lgCurrentCapacity_, hash, ENTRIES_START);
+    if (index < 0) {
+      srcMem.copyTo(srcOffsetBytes, mem_, getSummaryOffset(~index), summarySize_);
+      incrementCount();
+      rebuildIfNeeded();
+    } else {
+      codec_.union(mem_, getSummaryOffset(index), srcMem, srcOffsetBytes);
+    }
+  }
+
+  long getHash(final int index) {
+    return mem_.getLong(ENTRIES_START + ((long) index << 3));
+  }
+
+  long getSummaryOffset(final int index) {
+    return summariesOffset_ + ((long) summarySize_ * index);
+  }
+
+  void setEmpty(final boolean empty) {
+    if (empty_ == empty) { return; }
+    empty_ = empty;
+    if (empty) {
+      mem_.setBits(FLAGS_BYTE, (byte) (1 << Flags.IS_EMPTY.ordinal()));
+    } else {
+      mem_.clearBits(FLAGS_BYTE, (byte) (1 << Flags.IS_EMPTY.ordinal()));
+    }
+  }
+
+  private void setThetaLong(final long thetaLong) {
+    thetaLong_ = thetaLong;
+    mem_.putLong(THETA_LONG, thetaLong);
+  }
+
+  private void incrementCount() {
+    mem_.putInt(RETAINED_ENTRIES_INT, mem_.getInt(RETAINED_ENTRIES_INT) + 1);
+  }
+
+  private void initTable(final int capacity) {
+    lgCurrentCapacity_ = Integer.numberOfTrailingZeros(capacity);
+    summariesOffset_ = ENTRIES_START + ((long) Long.BYTES * capacity);
+    mem_.putByte(LG_CUR_CAPACITY_BYTE, (byte) lgCurrentCapacity_);
+    mem_.putInt(RETAINED_ENTRIES_INT, 0);
+    mem_.putLong(THETA_LONG, thetaLong_);
+    mem_.clear(ENTRIES_START, (long) Long.BYTES * capacity); // clear keys only
+    rebuildThreshold_ = getRebuildThreshold(capacity, getNominalEntries());
+  }
+
+  private void rebuildIfNeeded() {
+    final int retained = getRetainedEntries();
+    if (retained <= rebuildThreshold_) { return; }
+    final int capacity = getCurrentCapacity();
+    if (capacity > getNominalEntries()) {
+      updateTheta();
+      rebuild(capacity);
+    } else {
+      rebuild(capacity << mem_.getByte(LG_RESIZE_FACTOR_BYTE));
+    }
+  }
+
+  private void updateTheta() {
+    final int retained = getRetainedEntries();
+    final long[] hashArr = new long[retained];
+    int i = 0;
+    final int capacity = getCurrentCapacity();
+    for (int j = 0; j < capacity; j++) {
+      final long hash = getHash(j);
+      if (hash != 0) { hashArr[i++] = hash; }
+    }
+    setThetaLong(QuickSelect.select(hashArr, 0, retained - 1, getNominalEntries()));
+  }
+
+  // rebuild in the same memory
+  private void rebuild(final int newCapacity) {
+    checkIfEnoughMemory(mem_, newCapacity, summarySize_);
+    final int oldCapacity = getCurrentCapacity();
+    final long[] hashes = new long[oldCapacity];
+    final byte[] summaries = new byte[oldCapacity * summarySize_];
+    mem_.getLongArray(ENTRIES_START, hashes, 0, oldCapacity);
+    mem_.getByteArray(summariesOffset_, summaries, 0, summaries.length);
+    initTable(newCapacity);
+    int count = 0;
+    for (int i = 0; i < oldCapacity; i++) {
+      final long hash = hashes[i];
+      if ((hash != 0) && (hash < thetaLong_)) {
+        final int index = HashOperations.hashInsertOnlyMemory(mem_, lgCurrentCapacity_, hash, ENTRIES_START);
+        mem_.putByteArray(getSummaryOffset(index), summaries, i * summarySize_, summarySize_);
+        count++;
+      }
+    }
+    mem_.putInt(RETAINED_ENTRIES_INT, count);
+  }
+
+  private static int getRebuildThreshold(final int capacity, final int nomEntries) {
+    return (int) (capacity * ((capacity > nomEntries) ? ThetaUtil.REBUILD_THRESHOLD
+        : ThetaUtil.RESIZE_THRESHOLD));
+  }
+
+  private static long checkWrap(final Memory mem, final FixedWidthSummaryCodec<?, ?> codec) {
+    Objects.requireNonNull(mem, "Source Memory must not be null.");
+    Objects.requireNonNull(codec, "Codec must not be null.");
+    checkBounds(0, ENTRIES_START, mem.getCapacity());
+    final byte version = mem.getByte(SERIAL_VERSION_BYTE);
+    if (version != serialVersionUID) {
+      throw new SketchesArgumentException("Serial version mismatch. Expected: " + serialVersionUID
+          + ", actual: " + version);
+    }
+    SerializerDeserializer.validateFamily(mem.getByte(FAMILY_ID_BYTE), mem.getByte(PREAMBLE_LONGS_BYTE));
+    SerializerDeserializer.validateType(mem.getByte(SKETCH_TYPE_BYTE),
+        SerializerDeserializer.SketchType.FixedWidthQuickSelectSketch);
+    final boolean isBigEndian = (mem.getByte(FLAGS_BYTE) & (1 << Flags.IS_BIG_ENDIAN.ordinal())) != 0;
+    if (isBigEndian ^ isBigEndian()) {
+      throw new SketchesArgumentException("Byte order mismatch");
+    }
+    final int summarySize = mem.getInt(SUMMARY_SIZE_INT);
+    if (summarySize != codec.getSizeBytes()) {
+      throw new SketchesArgumentException("Summary size mismatch. Expected: " + codec.getSizeBytes()
+          + ", actual: " + summarySize);
+    }
+    checkIfEnoughMemory(mem, 1 << mem.getByte(LG_CUR_CAPACITY_BYTE), summarySize);
+    return mem.getLong(THETA_LONG);
+  }
+
+  private static int checkSummarySize(final int summarySize) {
+    if (summarySize <= 0) {
+      throw new SketchesArgumentException("Summary size must be positive: " + summarySize);
+    }
+    return summarySize;
+  }
+
+  private static void checkIfEnoughMemory(final Memory mem, final int capacity, final int summarySize) {
+    final long sizeNeeded = ENTRIES_START + ((long) (Long.BYTES + summarySize) * capacity);
+    if (sizeNeeded > mem.getCapacity()) {
+      throw new SketchesArgumentException("Not enough memory: need "
+          + sizeNeeded + " bytes, got " + mem.getCapacity() + " bytes");
+    }
+  }
+
+  private static boolean isBigEndian() {
+    return ByteOrder.nativeOrder().equals(ByteOrder.BIG_ENDIAN);
+  }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.tuple;
+
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.WritableMemory;
+
+/**
+ * Interface for user-defined codecs of Summaries that have a fixed size in bytes, which are read and
+ * written directly in Memory by the {@link DirectUpdatableSketch} and the {@link DirectUnion}.
+ *
+ * <p>A summary slot is a region of {@link #getSizeBytes()} bytes at the given offset. The methods
+ * that update a slot play the roles of UpdatableSummary.update(U) and of
+ * SummarySetOperations.union(S, S) without creating Summary objects.</p>
+ *
+ * @param <U> type of the update value
+ * @param <S> type of Summary
+ */
+public interface FixedWidthSummaryCodec<U, S extends Summary> {
+
+  /**
+   * @return the size of a summary slot in bytes
+   */
+  public int getSizeBytes();
+
+  /**
+   * Writes the state of a new Summary into the given slot.
+   * @param mem the Memory of the slot
+   * @param offsetBytes the offset of the slot
+   */
+  public void initialize(WritableMemory mem, long offsetBytes);
+
+  /**
+   * Updates the Summary in the given slot with the given value.
+   * @param mem the Memory of the slot
+   * @param offsetBytes the offset of the slot
+   * @param value the update value
+   */
+  public void update(WritableMemory mem, long offsetBytes, U value);
+
+  /**
+   * Combines the given Summary into the Summary in the given slot.
+   * This is called by the union when both have the same hash value.
+   * @param mem the Memory of the slot
+   * @param offsetBytes the offset of the slot
+   * @param summary the other Summary, which must not be modified
+   */
+  public void union(WritableMemory mem, long offsetBytes, S summary);
+
+  /**
+   * Combines the Summary in the given source slot into the Summary in the given slot.
+   * This is called by the union when both have the same hash value and the other Summary is in
+   * Memory as well. The default reads the other Summary as an object.
+   * @param mem the Memory of the slot
+   * @param offsetBytes the offset of the slot
+   * @param srcMem the Memory of the source slot
+   * @param srcOffsetBytes the offset of the source slot
+   */
+  public default void union(final WritableMemory mem, final long offsetBytes, final Memory srcMem,
+      final long srcOffsetBytes) {
+    union(mem, offsetBytes, read(srcMem, srcOffsetBytes));
+  }
+
+  /**
+   * Writes the given Summary into the given slot.
+   * @param summary the Summary to write
+   * @param mem the Memory of the slot
+   * @param offsetBytes the offset of the slot
+   */
+  public void write(S summary, WritableMemory mem, long offsetBytes);
+
+  /**
+   * Reads the Summary in the given slot as a new object.
+   * @param mem the Memory of the slot
+   * @param offsetBytes the offset of the slot
+   * @return a new Summary with the contents of the slot
+   */
+  public S read(Memory mem, long offsetBytes);
+
+}
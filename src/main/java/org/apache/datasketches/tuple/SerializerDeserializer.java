@@ -33,7 +33,8 @@ public final class SerializerDeserializer {
    */
   @SuppressWarnings("javadoc")
   public static enum SketchType { QuickSelectSketch, CompactSketch, ArrayOfDoublesQuickSelectSketch,
-    ArrayOfDoublesCompactSketch, ArrayOfDoublesUnion }
+    ArrayOfDoublesCompactSketch, ArrayOfDoublesUnion, LongTupleSketch, DoubleTupleSketch,
+    FixedWidthQuickSelectSketch, FixedWidthUnion }
 
   static final int TYPE_BYTE_OFFSET = 3;
 
@@ -124,7 +124,8 @@ public class UpdatableSketch<U, S extends UpdatableSummary<U>> extends QuickSele
    * @param value The given U value
    */
   public void update(final String key, final U value) {
-    update(Util.stringToByteArray(key), value);
+    if ((key == null) || key.isEmpty()) { return; }
+    insertOrIgnore(MurmurHash3.hashUtf8(key, ThetaUtil.DEFAULT_UPDATE_SEED)[0] >>> 1, value);
   }
 
   /**
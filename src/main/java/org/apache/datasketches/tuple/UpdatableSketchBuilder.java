@@ -21,6 +21,7 @@ package org.apache.datasketches.tuple;
 
 import org.apache.datasketches.common.ResizeFactor;
 import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.memory.WritableMemory;
 import org.apache.datasketches.thetacommon.ThetaUtil;
 
 /**
@@ -95,6 +96,20 @@ public class UpdatableSketchBuilder<U, S extends UpdatableSummary<U>> {
         summaryFactory_);
   }
 
+  /**
+   * Returns a DirectUpdatableSketch in the given Memory with the current configuration of this
+   * Builder. The Summaries are read and written by the given codec, and the summary factory of this
+   * Builder is not used.
+   * @param codec the codec of the fixed-width Summaries
+   * @param dstMem the destination Memory, see {@link DirectUpdatableSketch#getMaxBytes(int, int)}
+   * @return a DirectUpdatableSketch
+   */
+  public DirectUpdatableSketch<U, S> build(final FixedWidthSummaryCodec<U, S> codec,
+      final WritableMemory dstMem) {
+    return new DirectUpdatableSketch<>(nomEntries_, resizeFactor_.lg(), samplingProbability_,
+        codec, dstMem);
+  }
+
   /**
    * Resets the Nominal Entries, Resize Factor and Sampling Probability to their default values.
    * The assignment of <i>U</i> and <i>S</i> remain the same.
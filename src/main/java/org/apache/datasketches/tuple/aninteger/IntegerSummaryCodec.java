@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.tuple.aninteger;
+
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.WritableMemory;
+import org.apache.datasketches.tuple.FixedWidthSummaryCodec;
+import org.apache.datasketches.tuple.aninteger.IntegerSummary.Mode;
+
+/**
+ * Codec of IntegerSummary as a 4-byte int for the DirectUpdatableSketch and the DirectUnion.
+ * The same mode is used for updates and for unions.
+ */
+public final class IntegerSummaryCodec implements FixedWidthSummaryCodec<Integer, IntegerSummary> {
+  private final Mode mode_;
+  private final int initialValue_;
+
+  /**
+   * Creates an instance of IntegerSummaryCodec with a given mode.
+   * @param mode update and union mode
+   */
+  public IntegerSummaryCodec(final Mode mode) {
+    mode_ = mode;
+    initialValue_ = new IntegerSummary(mode).getValue();
+  }
+
+  @Override
+  public int getSizeBytes() {
+    return Integer.BYTES;
+  }
+
+  @Override
+  public void initialize(final WritableMemory mem, final long offsetBytes) {
+    mem.putInt(offsetBytes, initialValue_);
+  }
+
+  @Override
+  public void update(final WritableMemory mem, final long offsetBytes, final Integer value) {
+    mem.putInt(offsetBytes, combine(mem.getInt(offsetBytes), value));
+  }
+
+  @Override
+  public void union(final WritableMemory mem, final long offsetBytes, final IntegerSummary summary) {
+    mem.putInt(offsetBytes, combine(mem.getInt(offsetBytes), summary.getValue()));
+  }
+
+  @Override
+  public void union(final WritableMemory mem, final long offsetBytes, final Memory srcMem,
+      final long srcOffsetBytes) {
+    mem.putInt(offsetBytes, combine(mem.getInt(offsetBytes), srcMem.getInt(srcOffsetBytes)));
+  }
+
+  @Override
+  public void write(final IntegerSummary summary, final WritableMemory mem, final long offsetBytes) {
+    mem.putInt(offsetBytes, summary.getValue());
+  }
+
+  @Override
+  public IntegerSummary read(final Memory mem, final long offsetBytes) {
+    return new IntegerSummary(mode_).update(mem.getInt(offsetBytes));
+  }
+
+  private int combine(final int current, final int value) {
+    switch (mode_) {
+    case Sum:
+      return current + value;
+    case Min:
+      return Math.min(current, value);
+    case Max:
+      return Math.max(current, value);
+    case AlwaysOne:
+    default:
+      return 1;
+    }
+  }
+
+}
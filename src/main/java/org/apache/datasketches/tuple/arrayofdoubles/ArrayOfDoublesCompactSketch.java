@@ -19,6 +19,8 @@
 
 package org.apache.datasketches.tuple.arrayofdoubles;
 
+import org.apache.datasketches.common.SketchesArgumentException;
+
 /**
  * Top level compact tuple sketch of type ArrayOfDoubles. Compact sketches are never created
  * directly.  They are created as a result of the compact() method on a QuickSelectSketch
@@ -30,6 +32,8 @@ package org.apache.datasketches.tuple.arrayofdoubles;
 public abstract class ArrayOfDoublesCompactSketch extends ArrayOfDoublesSketch {
 
   static final byte serialVersionUID = 1;
+  // Serial version of the layout with the values column by column, which older versions reject
+  static final byte columnarSerialVersionUID = 2;
 
   // Layout of retained entries:
   // Long || Start Byte Adr:
@@ -41,11 +45,26 @@ public abstract class ArrayOfDoublesCompactSketch extends ArrayOfDoublesSketch {
   static final int RETAINED_ENTRIES_INT = 16;
   // 4 bytes of padding for 8 byte alignment
   static final int ENTRIES_START = 24;
+  // The keys follow, then the values. The values of one entry are adjacent, unless the serial version
+  // is columnarSerialVersionUID, in which case the values of one column for all entries are adjacent.
 
   ArrayOfDoublesCompactSketch(final int numValues) {
     super(numValues);
   }
 
+  /**
+   * Checks the serial version of a compact sketch image.
+   * @param version the serial version of the image
+   * @return true if the values of the image are laid out column by column
+   */
+  static boolean checkSerialVersion(final byte version) {
+    if ((version != serialVersionUID) && (version != columnarSerialVersionUID)) {
+      throw new SketchesArgumentException("Serial version mismatch. Expected: " + serialVersionUID
+          + " or " + columnarSerialVersionUID + ", actual: " + version);
+    }
+    return version == columnarSerialVersionUID;
+  }
+
   @Override
   public int getCurrentBytes() {
     final int count = getRetainedEntries();
@@ -61,4 +80,24 @@ public abstract class ArrayOfDoublesCompactSketch extends ArrayOfDoublesSketch {
   public int getMaxBytes() {
     return getCurrentBytes();
   }
+
+  static double[] toColumns(final double[] rows, final int count, final int numValues) {
+    final double[] columns = new double[rows.length];
+    for (int i = 0; i < count; i++) {
+      for (int j = 0; j < numValues; j++) {
+        columns[(j * count) + i] = rows[(i * numValues) + j];
+      }
+    }
+    return columns;
+  }
+
+  static double[] toRows(final double[] columns, final int count, final int numValues) {
+    final double[] rows = new double[columns.length];
+    for (int j = 0; j < numValues; j++) {
+      for (int i = 0; i < count; i++) {
+        rows[(i * numValues) + j] = columns[(j * count) + i];
+      }
+    }
+    return rows;
+  }
 }
@@ -21,6 +21,7 @@ package org.apache.datasketches.tuple.arrayofdoubles;
 
 import static org.apache.datasketches.common.Util.LS;
 
+import org.apache.datasketches.common.SketchesArgumentException;
 import org.apache.datasketches.memory.Memory;
 import org.apache.datasketches.memory.WritableMemory;
 import org.apache.datasketches.thetacommon.BinomialBoundsN;
@@ -221,6 +222,60 @@ public abstract class ArrayOfDoublesSketch {
    */
   public abstract double[][] getValues();
 
+  /**
+   * Returns true if the values of this sketch are laid out column by column, that is, all values of
+   * the first column for all entries, then all values of the second column, and so on.
+   * Only compact sketches can be columnar, see {@link #compactColumnar(WritableMemory)}.
+   * @return true if the values of this sketch are laid out column by column
+   */
+  public boolean isColumnar() {
+    return false;
+  }
+
+  /**
+   * Returns the values of one column for all retained entries, in the order of the iterator.
+   * This is a fast path for a columnar sketch.
+   * @param column the index of the column, from 0 to numValues - 1
+   * @return the values of the given column
+   */
+  public double[] getValueColumn(final int column) {
+    checkColumn(column);
+    final double[] values = getValuesAsOneDimension();
+    final int count = values.length / numValues_;
+    final double[] result = new double[count];
+    for (int i = 0; i < count; i++) {
+      result[i] = values[(i * numValues_) + column];
+    }
+    return result;
+  }
+
+  /**
+   * Returns the sum of the values of one column over all retained entries.
+   * This is a fast path for a columnar sketch.
+   * Divide by {@link #getTheta()} to estimate the sum over the whole input.
+   * @param column the index of the column, from 0 to numValues - 1
+   * @return the sum of the values of the given column
+   */
+  public double getValueColumnSum(final int column) {
+    double sum = 0;
+    for (final double value : getValueColumn(column)) { sum += value; }
+    return sum;
+  }
+
+  /**
+   * Returns the mean of the values of one column over all retained entries.
+   * @param column the index of the column, from 0 to numValues - 1
+   * @return the mean of the values of the given column, or NaN if there are no retained entries
+   */
+  public double getValueColumnMean(final int column) {
+    final int count = getRetainedEntries();
+    if (count == 0) {
+      checkColumn(column);
+      return Double.NaN;
+    }
+    return getValueColumnSum(column) / count;
+  }
+
   abstract double[] getValuesAsOneDimension();
 
   abstract long[] getKeys();
@@ -234,6 +289,13 @@ public abstract class ArrayOfDoublesSketch {
 
   abstract short getSeedHash();
 
+  void checkColumn(final int column) {
+    if ((column < 0) || (column >= numValues_)) {
+      throw new SketchesArgumentException("Column index must be from 0 to " + (numValues_ - 1)
+          + ": " + column);
+    }
+  }
+
   /**
    * @return iterator over the sketch
    */
@@ -253,6 +315,40 @@ public abstract class ArrayOfDoublesSketch {
    */
   public abstract ArrayOfDoublesCompactSketch compact(WritableMemory dstMem);
 
+  /**
+   * Returns an on-heap compact sketch with the values laid out column by column.
+   * @return compact sketch with the values laid out column by column
+   * @see #compactColumnar(WritableMemory)
+   */
+  public ArrayOfDoublesCompactSketch compactColumnar() {
+    return compactColumnar(null);
+  }
+
+  /**
+   * Returns a compact sketch with the values laid out column by column, in memory and in its
+   * serialized form, so that reading one value column touches a contiguous range.
+   * This suits sketches with many value columns of which few are read at a time.
+   * The serialized form is the ArrayOfDoublesCompactSketch with its own serial version, which
+   * versions of this library without the columnar layout reject.
+   * @param dstMem memory for the compact sketch (can be null)
+   * @return compact sketch with the values laid out column by column
+   * (off-heap if memory is provided)
+   */
+  public ArrayOfDoublesCompactSketch compactColumnar(final WritableMemory dstMem) {
+    // a compact snapshot keeps the keys and values of a concurrent sketch consistent
+    final ArrayOfDoublesSketch src = (this instanceof ArrayOfDoublesCompactSketch) ? this : compact();
+    final int count = src.getRetainedEntries();
+    final long[] keys = (count == 0) ? new long[0] : src.getKeys();
+    final double[] values = (count == 0) ? new double[0]
+        : ArrayOfDoublesCompactSketch.toColumns(src.getValuesAsOneDimension(), count, numValues_);
+    if (dstMem == null) {
+      return new HeapArrayOfDoublesCompactSketch(keys, values, src.getThetaLong(), src.isEmpty(),
+          numValues_, src.getSeedHash(), true);
+    }
+    return new DirectArrayOfDoublesCompactSketch(keys, values, src.getThetaLong(), src.isEmpty(),
+        numValues_, src.getSeedHash(), true, dstMem);
+  }
+
   @Override
   public String toString() {
     final int seedHash = Short.toUnsignedInt(getSeedHash());
@@ -21,6 +21,12 @@ package org.apache.datasketches.tuple.arrayofdoubles;
 
 import static java.lang.Math.min;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+
 import org.apache.datasketches.common.Family;
 import org.apache.datasketches.common.SketchesArgumentException;
 import org.apache.datasketches.memory.Memory;
@@ -45,6 +51,7 @@ public abstract class ArrayOfDoublesUnion {
   static final int NUM_VALUES_BYTE = 5;
   static final int SEED_HASH_SHORT = 6;
   static final int THETA_LONG = 8;
+  private static final int MIN_PARALLEL_LEAF_SIZE = 16;
 
   ArrayOfDoublesQuickSelectSketch gadget_;
   long unionThetaLong_;
@@ -149,6 +156,73 @@ public abstract class ArrayOfDoublesUnion {
     }
   }
 
+  /**
+   * Updates the union with all of the given sketches, using the common ForkJoinPool.
+   *
+   * @param tupleSketches the incoming sketches. Nulls and empty sketches are ignored.
+   * @see #unionAll(Collection, ForkJoinPool)
+   */
+  public void unionAll(final Collection<? extends ArrayOfDoublesSketch> tupleSketches) {
+    unionAll(tupleSketches, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Updates the union with all of the given sketches as a parallel tree reduction on the given
+   * ForkJoinPool.
+   *
+   * <p>The sketches are split into groups that are unioned in parallel on the heap, and the partial
+   * results are merged pairwise. The smallest theta reached by any partial union is shared with the
+   * others, so that keys that can no longer contribute to the result are skipped early.
+   * The result is equivalent to calling {@link #union(ArrayOfDoublesSketch)} with each sketch in turn:
+   * the values of every retained key are summed over all sketches.</p>
+   *
+   * <p>The sketches must not be modified while this method runs.</p>
+   *
+   * @param tupleSketches the incoming sketches. Nulls and empty sketches are ignored.
+   * @param pool the ForkJoinPool that runs the reduction.
+   */
+  public void unionAll(final Collection<? extends ArrayOfDoublesSketch> tupleSketches,
+      final ForkJoinPool pool) {
+    this.<ArrayOfDoublesSketch>unionAll(tupleSketches, pool, ArrayOfDoublesUnion::union);
+  }
+
+  /**
+   * Updates the union with all of the given Memory images of sketches, using the common ForkJoinPool.
+   *
+   * @param mems the Memory images of the incoming sketches. Nulls and empty sketches are ignored.
+   * @see #unionAllMemory(Collection, ForkJoinPool)
+   */
+  public void unionAllMemory(final Collection<? extends Memory> mems) {
+    unionAllMemory(mems, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Updates the union with all of the given Memory images of sketches as a parallel tree reduction
+   * on the given ForkJoinPool. The images are wrapped, not copied, with the seed of this union.
+   *
+   * @param mems the Memory images of the incoming sketches. Nulls and empty sketches are ignored.
+   * @param pool the ForkJoinPool that runs the reduction.
+   * @see #unionAll(Collection, ForkJoinPool)
+   */
+  public void unionAllMemory(final Collection<? extends Memory> mems, final ForkJoinPool pool) {
+    final long seed = gadget_.getSeed();
+    this.<Memory>unionAll(mems, pool, (union, mem) -> {
+      if (mem != null) { union.union(ArrayOfDoublesSketches.wrapSketch(mem, seed)); }
+    });
+  }
+
+  private <T> void unionAll(final Collection<? extends T> inputs, final ForkJoinPool pool,
+      final BiConsumer<ArrayOfDoublesUnion, T> unionFn) {
+    if (inputs == null) {
+      throw new SketchesArgumentException("The collection of inputs must not be null.");
+    }
+    final List<T> list = new ArrayList<>(inputs);
+    if (list.isEmpty()) { return; }
+    final int leafSize = Math.max(MIN_PARALLEL_LEAF_SIZE, list.size() / (pool.getParallelism() * 4));
+    union(pool.invoke(new ParallelArrayOfDoublesUnionTask<>(list, gadget_.getNominalEntries(),
+        gadget_.getNumValues(), gadget_.getSeed(), unionThetaLong_, leafSize, unionFn)));
+  }
+
   /**
    * Returns the resulting union in the form of a compact sketch
    * @param dstMem memory for the result (can be null)
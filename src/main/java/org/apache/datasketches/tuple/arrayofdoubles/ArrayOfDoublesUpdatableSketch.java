@@ -108,7 +108,8 @@ public abstract class ArrayOfDoublesUpdatableSketch extends ArrayOfDoublesSketch
    * @param values The given values
    */
   public void update(final String key, final double[] values) {
-    update(Util.stringToByteArray(key), values);
+    if (key == null || key.isEmpty()) { return; }
+    insertOrIgnore(MurmurHash3.hashUtf8(key, seed_)[0] >>> 1, values);
   }
 
   /**
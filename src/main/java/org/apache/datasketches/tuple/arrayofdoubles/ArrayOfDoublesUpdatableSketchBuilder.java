@@ -21,6 +21,7 @@ package org.apache.datasketches.tuple.arrayofdoubles;
 
 import org.apache.datasketches.common.ResizeFactor;
 import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.common.SketchesStateException;
 import org.apache.datasketches.memory.WritableMemory;
 import org.apache.datasketches.thetacommon.ThetaUtil;
 
@@ -34,10 +35,12 @@ public class ArrayOfDoublesUpdatableSketchBuilder {
   private int numValues_;
   private float samplingProbability_;
   private long seed_;
+  private int localNomEntries_;
 
   private static final int DEFAULT_NUMBER_OF_VALUES = 1;
   private static final float DEFAULT_SAMPLING_PROBABILITY = 1;
   private static final ResizeFactor DEFAULT_RESIZE_FACTOR = ResizeFactor.X8;
+  private static final int DEFAULT_LOCAL_NOMINAL_ENTRIES = 16;
 
   /**
    * Creates an instance of builder with default parameters
@@ -48,6 +51,7 @@ public class ArrayOfDoublesUpdatableSketchBuilder {
     numValues_ = DEFAULT_NUMBER_OF_VALUES;
     samplingProbability_ = DEFAULT_SAMPLING_PROBABILITY;
     seed_ = ThetaUtil.DEFAULT_UPDATE_SEED;
+    localNomEntries_ = DEFAULT_LOCAL_NOMINAL_ENTRIES;
   }
 
   /**
@@ -108,6 +112,18 @@ public class ArrayOfDoublesUpdatableSketchBuilder {
     return this;
   }
 
+  /**
+   * Sets the Nominal Entries of a concurrent local buffer, which is the number of buffered entries
+   * that triggers a propagation into the concurrent shared sketch. Default is 16.
+   * @param nomEntries Nominal number of entries of a local buffer. Forced to the nearest power of 2
+   * greater than or equal to given value.
+   * @return this builder
+   */
+  public ArrayOfDoublesUpdatableSketchBuilder setLocalNominalEntries(final int nomEntries) {
+    localNomEntries_ = 1 << ThetaUtil.checkNomLongs(nomEntries);
+    return this;
+  }
+
   /**
    * Returns an ArrayOfDoublesUpdatableSketch with the current configuration of this Builder.
    * @return an ArrayOfDoublesUpdatableSketch
@@ -127,4 +143,46 @@ public class ArrayOfDoublesUpdatableSketchBuilder {
         samplingProbability_, numValues_, seed_, dstMem);
   }
 
+  /**
+   * Returns an on-heap concurrent shared ArrayOfDoublesUpdatableSketch with the current
+   * configuration of this Builder. Writer threads update it through local buffers, see
+   * {@link #buildLocal(ArrayOfDoublesUpdatableSketch)}, and queries may be issued on it from any thread.
+   * @return a concurrent shared ArrayOfDoublesUpdatableSketch
+   */
+  public ArrayOfDoublesUpdatableSketch buildShared() {
+    return buildShared(null);
+  }
+
+  /**
+   * Returns a concurrent shared ArrayOfDoublesUpdatableSketch with the current configuration of
+   * this Builder, which is direct if the given destination WritableMemory is not null.
+   * @param dstMem instance of Memory to be used by the shared sketch, or null for on-heap
+   * @return a concurrent shared ArrayOfDoublesUpdatableSketch
+   */
+  public ArrayOfDoublesUpdatableSketch buildShared(final WritableMemory dstMem) {
+    final ArrayOfDoublesQuickSelectSketch sketch = (dstMem == null)
+        ? new HeapArrayOfDoublesQuickSelectSketch(nomEntries_, resizeFactor_.lg(),
+            samplingProbability_, numValues_, seed_)
+        : new DirectArrayOfDoublesQuickSelectSketch(nomEntries_, resizeFactor_.lg(),
+            samplingProbability_, numValues_, seed_, dstMem);
+    return new ConcurrentArrayOfDoublesSketch(sketch, seed_);
+  }
+
+  /**
+   * Returns a local, on-heap buffer of the given concurrent shared sketch to be used by a single
+   * writer thread. The values of repeated keys are summed in the buffer, which propagates its
+   * entries into the shared sketch when it holds the local nominal entries. At the end of its
+   * stream the writer thread must call {@link ConcurrentArrayOfDoublesBuffer#flush()} on the buffer
+   * to propagate the remaining entries. All queries on the buffer are answered by the shared sketch.
+   * @param shared the concurrent shared sketch built by {@link #buildShared()}
+   * @return a ConcurrentArrayOfDoublesBuffer to be used as a per-thread local buffer
+   */
+  public ConcurrentArrayOfDoublesBuffer buildLocal(final ArrayOfDoublesUpdatableSketch shared) {
+    if (!(shared instanceof ConcurrentArrayOfDoublesSketch)) {
+      throw new SketchesStateException("The concurrent shared sketch must be built first.");
+    }
+    return new ConcurrentArrayOfDoublesBuffer(localNomEntries_, seed_,
+        (ConcurrentArrayOfDoublesSketch) shared);
+  }
+
 }
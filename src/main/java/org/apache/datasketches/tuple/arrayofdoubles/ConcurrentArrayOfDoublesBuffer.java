@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.tuple.arrayofdoubles;
+
+import org.apache.datasketches.common.ResizeFactor;
+import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.WritableMemory;
+
+/**
+ * A bounded, theta filtering buffer of a concurrent ArrayOfDoubles sketch that operates in the
+ * context of a single writing thread, like the ConcurrentHeapThetaBuffer of the theta package.
+ * The values of repeated keys are summed in the buffer. When the buffer holds the configured number
+ * of entries, the writing thread propagates them into the shared
+ * {@link ConcurrentArrayOfDoublesSketch} and continues with the theta of the shared sketch.
+ *
+ * <p>This is a buffer, not a sketch. All queries are redirected to the shared sketch. Calling
+ * {@link #flush()} propagates the buffered entries, which should be done by each writing thread at
+ * the end of its stream. Calling {@link #reset()} discards the buffered entries.</p>
+ */
+public final class ConcurrentArrayOfDoublesBuffer extends ArrayOfDoublesUpdatableSketch {
+
+  private final ConcurrentArrayOfDoublesSketch shared_;
+  private final HeapArrayOfDoublesQuickSelectSketch buffer_;
+  private final int maxEntries_;
+  private boolean sharedNotEmpty_;
+
+  /**
+   * Creates a local buffer of the given shared sketch
+   * @param localNomEntries the number of entries that triggers a propagation
+   * @param seed <a href="{@docRoot}/resources/dictionary.html#seed">See seed</a>
+   * @param shared the shared sketch
+   */
+  ConcurrentArrayOfDoublesBuffer(final int localNomEntries, final long seed,
+      final ConcurrentArrayOfDoublesSketch shared) {
+    super(shared.getNumValues(), seed);
+    if (shared.getSeedHash() != getSeedHash()) {
+      throw new SketchesArgumentException("Incompatible seed of the shared sketch");
+    }
+    shared_ = shared;
+    // with the resize factor X1 the buffer is allocated at twice its nominal entries and never rebuilds
+    buffer_ = new HeapArrayOfDoublesQuickSelectSketch(localNomEntries, ResizeFactor.X1.lg(), 1f,
+        shared.getNumValues(), seed);
+    buffer_.setThetaLong(shared.getVolatileThetaLong());
+    maxEntries_ = buffer_.getNominalEntries();
+  }
+
+  //Public sketch overrides proxies to the shared concurrent sketch
+
+  @Override
+  public double getEstimate() {
+    return shared_.getEstimate();
+  }
+
+  @Override
+  public double getUpperBound(final int numStdDev) {
+    return shared_.getUpperBound(numStdDev);
+  }
+
+  @Override
+  public double getLowerBound(final int numStdDev) {
+    return shared_.getLowerBound(numStdDev);
+  }
+
+  @Override
+  public boolean hasMemory() {
+    return shared_.hasMemory();
+  }
+
+  @Override
+  Memory getMemory() {
+    return shared_.getMemory();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return shared_.isEmpty();
+  }
+
+  @Override
+  public boolean isEstimationMode() {
+    return shared_.isEstimationMode();
+  }
+
+  @Override
+  public int getRetainedEntries() {
+    return shared_.getRetainedEntries();
+  }
+
+  @Override
+  public int getMaxBytes() {
+    return shared_.getMaxBytes();
+  }
+
+  @Override
+  public int getCurrentBytes() {
+    return shared_.getCurrentBytes();
+  }
+
+  @Override
+  public byte[] toByteArray() {
+    return shared_.toByteArray();
+  }
+
+  @Override
+  public double[][] getValues() {
+    return shared_.getValues();
+  }
+
+  @Override
+  double[] getValuesAsOneDimension() {
+    return shared_.getValuesAsOneDimension();
+  }
+
+  @Override
+  long[] getKeys() {
+    return shared_.getKeys();
+  }
+
+  @Override
+  long getThetaLong() {
+    return shared_.getThetaLong();
+  }
+
+  @Override
+  public ArrayOfDoublesSketchIterator iterator() {
+    return shared_.iterator();
+  }
+
+  @Override
+  public ArrayOfDoublesCompactSketch compact(final WritableMemory dstMem) {
+    return shared_.compact(dstMem);
+  }
+
+  @Override
+  public int getNominalEntries() {
+    return shared_.getNominalEntries();
+  }
+
+  @Override
+  public ResizeFactor getResizeFactor() {
+    return shared_.getResizeFactor();
+  }
+
+  @Override
+  public float getSamplingProbability() {
+    return shared_.getSamplingProbability();
+  }
+
+  @Override
+  int getCurrentCapacity() {
+    return shared_.getCurrentCapacity();
+  }
+
+  //End of proxies
+
+  /**
+   * Trims the shared sketch. The buffered entries are not propagated, see {@link #flush()}.
+   */
+  @Override
+  public void trim() {
+    shared_.trim();
+    buffer_.setThetaLong(shared_.getVolatileThetaLong());
+  }
+
+  /**
+   * Discards the buffered entries. The shared sketch is not affected.
+   */
+  @Override
+  public void reset() {
+    buffer_.reset();
+    buffer_.setThetaLong(shared_.getVolatileThetaLong());
+    sharedNotEmpty_ = false;
+  }
+
+  @Override
+  void insertOrIgnore(final long key, final double[] values) {
+    if (values.length != getNumValues()) {
+      throw new SketchesArgumentException("input array of values must have " + getNumValues()
+        + " elements, but has " + values.length);
+    }
+    if (!sharedNotEmpty_) {
+      shared_.setNotEmpty();
+      sharedNotEmpty_ = true;
+    }
+    if ((key == 0) || (key >= buffer_.thetaLong_)) { return; }
+    buffer_.insertOrIgnore(key, values);
+    if (buffer_.getRetainedEntries() >= maxEntries_) { flush(); }
+  }
+
+  /**
+   * Propagates the buffered entries into the shared sketch.
+   */
+  public void flush() {
+    if (buffer_.getRetainedEntries() == 0) { return; }
+    final long thetaLong = shared_.propagate(buffer_);
+    buffer_.reset();
+    buffer_.setThetaLong(thetaLong);
+  }
+
+}
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.tuple.arrayofdoubles;
+
+import org.apache.datasketches.common.ResizeFactor;
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.WritableMemory;
+
+/**
+ * The shared sketch of a concurrent ArrayOfDoubles sketch. It wraps a heap or direct
+ * ArrayOfDoublesQuickSelectSketch and serializes all access to it through the monitor of this
+ * object. Writer threads normally do not update it directly. Instead each one updates its own
+ * {@link ConcurrentArrayOfDoublesBuffer}, which sums the values of repeated keys locally and
+ * propagates batches of entries into this sketch.
+ *
+ * <p>Queries see the entries that have been propagated so far. After all local buffers have been
+ * flushed there is no additional error compared to a sequential sketch.</p>
+ */
+final class ConcurrentArrayOfDoublesSketch extends ArrayOfDoublesUpdatableSketch {
+
+  private final ArrayOfDoublesQuickSelectSketch sketch_;
+
+  // the theta of the shared sketch as last seen by a writer thread without locking
+  private volatile long volatileThetaLong_;
+
+  ConcurrentArrayOfDoublesSketch(final ArrayOfDoublesQuickSelectSketch sketch, final long seed) {
+    super(sketch.getNumValues(), seed);
+    sketch_ = sketch;
+    volatileThetaLong_ = sketch.thetaLong_;
+  }
+
+  @Override
+  public synchronized double getEstimate() {
+    return sketch_.getEstimate();
+  }
+
+  @Override
+  public synchronized double getUpperBound(final int numStdDev) {
+    return sketch_.getUpperBound(numStdDev);
+  }
+
+  @Override
+  public synchronized double getLowerBound(final int numStdDev) {
+    return sketch_.getLowerBound(numStdDev);
+  }
+
+  @Override
+  public boolean hasMemory() {
+    return sketch_.hasMemory();
+  }
+
+  @Override
+  Memory getMemory() {
+    return sketch_.getMemory();
+  }
+
+  @Override
+  public synchronized boolean isEmpty() {
+    return sketch_.isEmpty();
+  }
+
+  @Override
+  public synchronized boolean isEstimationMode() {
+    return sketch_.isEstimationMode();
+  }
+
+  @Override
+  public synchronized int getRetainedEntries() {
+    return sketch_.getRetainedEntries();
+  }
+
+  @Override
+  public synchronized int getMaxBytes() {
+    return sketch_.getMaxBytes();
+  }
+
+  @Override
+  public synchronized int getCurrentBytes() {
+    return sketch_.getCurrentBytes();
+  }
+
+  @Override
+  public synchronized byte[] toByteArray() {
+    return sketch_.toByteArray();
+  }
+
+  @Override
+  public synchronized double[][] getValues() {
+    return sketch_.getValues();
+  }
+
+  @Override
+  synchronized double[] getValuesAsOneDimension() {
+    return sketch_.getValuesAsOneDimension();
+  }
+
+  @Override
+  synchronized long[] getKeys() {
+    return sketch_.getKeys();
+  }
+
+  @Override
+  synchronized long getThetaLong() {
+    return sketch_.getThetaLong();
+  }
+
+  /**
+   * Returns an iterator over a compact snapshot of this sketch, so that it is not affected by
+   * concurrent propagation.
+   * @return an iterator over a compact snapshot of this sketch
+   */
+  @Override
+  public ArrayOfDoublesSketchIterator iterator() {
+    return compact().iterator();
+  }
+
+  @Override
+  public synchronized ArrayOfDoublesCompactSketch compact(final WritableMemory dstMem) {
+    return sketch_.compact(dstMem);
+  }
+
+  @Override
+  public int getNominalEntries() {
+    return sketch_.getNominalEntries();
+  }
+
+  @Override
+  public ResizeFactor getResizeFactor() {
+    return sketch_.getResizeFactor();
+  }
+
+  @Override
+  public float getSamplingProbability() {
+    return sketch_.getSamplingProbability();
+  }
+
+  @Override
+  public synchronized void trim() {
+    sketch_.trim();
+    volatileThetaLong_ = sketch_.thetaLong_;
+  }
+
+  @Override
+  public synchronized void reset() {
+    sketch_.reset();
+    volatileThetaLong_ = sketch_.thetaLong_;
+  }
+
+  @Override
+  synchronized int getCurrentCapacity() {
+    return sketch_.getCurrentCapacity();
+  }
+
+  @Override
+  synchronized void insertOrIgnore(final long key, final double[] values) {
+    sketch_.insertOrIgnore(key, values);
+    volatileThetaLong_ = sketch_.thetaLong_;
+  }
+
+  // non-public methods below
+
+  long getVolatileThetaLong() {
+    return volatileThetaLong_;
+  }
+
+  synchronized void setNotEmpty() {
+    sketch_.setNotEmpty();
+  }
+
+  /**
+   * Merges the entries of the given local buffer into this sketch, summing the values of keys
+   * that are already present.
+   * @param buffer the local buffer, which must not be modified concurrently
+   * @return the theta of this sketch after the propagation
+   */
+  synchronized long propagate(final ArrayOfDoublesQuickSelectSketch buffer) {
+    if (!buffer.isEmpty()) { sketch_.setNotEmpty(); }
+    final ArrayOfDoublesSketchIterator it = buffer.iterator();
+    while (it.next()) {
+      sketch_.merge(it.getKey(), it.getValues());
+    }
+    volatileThetaLong_ = sketch_.thetaLong_;
+    return volatileThetaLong_;
+  }
+
+}
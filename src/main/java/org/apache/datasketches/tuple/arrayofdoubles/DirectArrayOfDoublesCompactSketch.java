@@ -20,6 +20,7 @@
 package org.apache.datasketches.tuple.arrayofdoubles;
 
 import java.nio.ByteOrder;
+import java.util.Arrays;
 
 import org.apache.datasketches.common.Family;
 import org.apache.datasketches.common.SketchesArgumentException;
@@ -101,11 +102,20 @@ final class DirectArrayOfDoublesCompactSketch extends ArrayOfDoublesCompactSketc
    */
   DirectArrayOfDoublesCompactSketch(final long[] keys, final double[] values, final long thetaLong,
       final boolean isEmpty, final int numValues, final short seedHash, final WritableMemory dstMem) {
+    this(keys, values, thetaLong, isEmpty, numValues, seedHash, false, dstMem);
+  }
+
+  /*
+   * Creates an instance from components with the values laid out column by column if columnar
+   */
+  DirectArrayOfDoublesCompactSketch(final long[] keys, final double[] values, final long thetaLong,
+      final boolean isEmpty, final int numValues, final short seedHash, final boolean columnar,
+      final WritableMemory dstMem) {
     super(numValues);
-    checkIfEnoughMemory(dstMem, values.length, numValues);
+    checkIfEnoughMemory(dstMem, keys.length, numValues);
     mem_ = dstMem;
     dstMem.putByte(PREAMBLE_LONGS_BYTE, (byte) 1);
-    dstMem.putByte(SERIAL_VERSION_BYTE, serialVersionUID);
+    dstMem.putByte(SERIAL_VERSION_BYTE, columnar ? columnarSerialVersionUID : serialVersionUID);
     dstMem.putByte(FAMILY_ID_BYTE, (byte) Family.TUPLE.getID());
     dstMem.putByte(SKETCH_TYPE_BYTE, (byte)
         SerializerDeserializer.SketchType.ArrayOfDoublesCompactSketch.ordinal());
@@ -140,11 +150,7 @@ final class DirectArrayOfDoublesCompactSketch extends ArrayOfDoublesCompactSketc
         mem.getByte(PREAMBLE_LONGS_BYTE));
     SerializerDeserializer.validateType(mem_.getByte(SKETCH_TYPE_BYTE),
         SerializerDeserializer.SketchType.ArrayOfDoublesCompactSketch);
-    final byte version = mem_.getByte(SERIAL_VERSION_BYTE);
-    if (version != serialVersionUID) {
-      throw new SketchesArgumentException("Serial version mismatch. Expected: " + serialVersionUID
-          + ", actual: " + version);
-    }
+    checkSerialVersion(mem_.getByte(SERIAL_VERSION_BYTE));
     final boolean isBigEndian =
         (mem.getByte(FLAGS_BYTE) & (1 << Flags.IS_BIG_ENDIAN.ordinal())) != 0;
     if (isBigEndian ^ ByteOrder.nativeOrder().equals(ByteOrder.BIG_ENDIAN)) {
@@ -167,11 +173,7 @@ final class DirectArrayOfDoublesCompactSketch extends ArrayOfDoublesCompactSketc
         mem.getByte(PREAMBLE_LONGS_BYTE));
     SerializerDeserializer.validateType(mem_.getByte(SKETCH_TYPE_BYTE),
         SerializerDeserializer.SketchType.ArrayOfDoublesCompactSketch);
-    final byte version = mem_.getByte(SERIAL_VERSION_BYTE);
-    if (version != serialVersionUID) {
-      throw new SketchesArgumentException("Serial version mismatch. Expected: " + serialVersionUID
-          + ", actual: " + version);
-    }
+    checkSerialVersion(mem_.getByte(SERIAL_VERSION_BYTE));
     final boolean isBigEndian =
         (mem.getByte(FLAGS_BYTE) & (1 << Flags.IS_BIG_ENDIAN.ordinal())) != 0;
     if (isBigEndian ^ ByteOrder.nativeOrder().equals(ByteOrder.BIG_ENDIAN)) {
@@ -186,8 +188,8 @@ final class DirectArrayOfDoublesCompactSketch extends ArrayOfDoublesCompactSketc
   public ArrayOfDoublesCompactSketch compact(final WritableMemory dstMem) {
     if (dstMem == null) {
       return new
-          HeapArrayOfDoublesCompactSketch(getKeys(), getValuesAsOneDimension(), thetaLong_, isEmpty_, numValues_,
-              getSeedHash());
+          HeapArrayOfDoublesCompactSketch(getKeys(), getRawValues(), thetaLong_, isEmpty_, numValues_,
+              getSeedHash(), isColumnar());
     } else {
       mem_.copyTo(0, dstMem, 0, mem_.getCapacity());
       return new DirectArrayOfDoublesCompactSketch(dstMem);
@@ -201,12 +203,56 @@ final class DirectArrayOfDoublesCompactSketch extends ArrayOfDoublesCompactSketc
     return (hasEntries ? mem_.getInt(RETAINED_ENTRIES_INT) : 0);
   }
 
+  @Override
+  public boolean isColumnar() {
+    return mem_.getByte(SERIAL_VERSION_BYTE) == columnarSerialVersionUID;
+  }
+
+  @Override
+  public double[] getValueColumn(final int column) {
+    checkColumn(column);
+    final int count = getRetainedEntries();
+    final double[] result = new double[count];
+    if (count == 0) { return result; }
+    final long valuesOffset = ENTRIES_START + ((long) SIZE_OF_KEY_BYTES * count);
+    if (isColumnar()) {
+      mem_.getDoubleArray(valuesOffset + ((long) SIZE_OF_VALUE_BYTES * column * count), result, 0, count);
+    } else {
+      for (int i = 0; i < count; i++) {
+        result[i] = mem_.getDouble(valuesOffset + ((long) SIZE_OF_VALUE_BYTES * ((i * numValues_) + column)));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public double getValueColumnSum(final int column) {
+    checkColumn(column);
+    final int count = getRetainedEntries();
+    final long valuesOffset = ENTRIES_START + ((long) SIZE_OF_KEY_BYTES * count);
+    double sum = 0;
+    if (isColumnar()) {
+      final long start = valuesOffset + ((long) SIZE_OF_VALUE_BYTES * column * count);
+      for (int i = 0; i < count; i++) { sum += mem_.getDouble(start + ((long) SIZE_OF_VALUE_BYTES * i)); }
+    } else {
+      for (int i = 0; i < count; i++) {
+        sum += mem_.getDouble(valuesOffset + ((long) SIZE_OF_VALUE_BYTES * ((i * numValues_) + column)));
+      }
+    }
+    return sum;
+  }
+
   @Override
   //converts compact Memory array of double[] to compact double[][]
   public double[][] getValues() {
     final int count = getRetainedEntries();
     final double[][] values = new double[count][];
-    if (count > 0) {
+    if ((count > 0) && isColumnar()) {
+      final double[] rows = getValuesAsOneDimension();
+      for (int i = 0; i < count; i++) {
+        values[i] = Arrays.copyOfRange(rows, i * numValues_, (i + 1) * numValues_);
+      }
+    } else if (count > 0) {
       int valuesOffset = ENTRIES_START + (SIZE_OF_KEY_BYTES * count);
       for (int i = 0; i < count; i++) {
         final double[] array = new double[numValues_];
@@ -221,6 +267,12 @@ final class DirectArrayOfDoublesCompactSketch extends ArrayOfDoublesCompactSketc
   @Override
   //converts compact Memory array of double[] to compact double[]
   double[] getValuesAsOneDimension() {
+    final double[] values = getRawValues();
+    return isColumnar() ? toRows(values, getRetainedEntries(), numValues_) : values;
+  }
+
+  // the values in the layout of the Memory
+  private double[] getRawValues() {
     final int count = getRetainedEntries();
     final int numDoubles = count * numValues_;
     final double[] values = new double[numDoubles];
@@ -256,7 +308,7 @@ final class DirectArrayOfDoublesCompactSketch extends ArrayOfDoublesCompactSketc
   @Override
   public ArrayOfDoublesSketchIterator iterator() {
     return new DirectArrayOfDoublesSketchIterator(
-        mem_, ENTRIES_START, getRetainedEntries(), numValues_);
+        mem_, ENTRIES_START, getRetainedEntries(), numValues_, isColumnar());
   }
 
   @Override
@@ -33,12 +33,19 @@ final class DirectArrayOfDoublesSketchIterator implements ArrayOfDoublesSketchIt
   private int offset_;
   private int numEntries_;
   private int numValues_;
+  private boolean columnar_;
   private int i_;
   private static final int SIZE_OF_KEY_BYTES = 8;
   private static final int SIZE_OF_VALUE_BYTES = 8;
 
   DirectArrayOfDoublesSketchIterator(final Memory mem, final int offset, final int numEntries,
       final int numValues) {
+    this(mem, offset, numEntries, numValues, false);
+  }
+
+  DirectArrayOfDoublesSketchIterator(final Memory mem, final int offset, final int numEntries,
+      final int numValues, final boolean columnar) {
+    columnar_ = columnar;
     mem_ = mem;
     offset_ = offset;
     numEntries_ = numEntries;
@@ -69,6 +76,13 @@ final class DirectArrayOfDoublesSketchIterator implements ArrayOfDoublesSketchIt
             + ((long) SIZE_OF_VALUE_BYTES * i_)) };
     }
     final double[] array = new double[numValues_];
+    if (columnar_) {
+      final long valuesOffset = offset_ + ((long) SIZE_OF_KEY_BYTES * numEntries_);
+      for (int j = 0; j < numValues_; j++) {
+        array[j] = mem_.getDouble(valuesOffset + ((long) SIZE_OF_VALUE_BYTES * ((j * numEntries_) + i_)));
+      }
+      return array;
+    }
     mem_.getDoubleArray(offset_ + ((long) SIZE_OF_KEY_BYTES * numEntries_)
         + ((long) SIZE_OF_VALUE_BYTES * i_ * numValues_), array, 0, numValues_);
     return array;
@@ -38,6 +38,7 @@ final class HeapArrayOfDoublesCompactSketch extends ArrayOfDoublesCompactSketch
   private final short seedHash_;
   private long[] keys_;
   private double[] values_;
+  private final boolean columnar_;
 
   /**
    * Converts the given UpdatableArrayOfDoublesSketch to this compact form.
@@ -55,6 +56,7 @@ final class HeapArrayOfDoublesCompactSketch extends ArrayOfDoublesCompactSketch
    */
   HeapArrayOfDoublesCompactSketch(final ArrayOfDoublesUpdatableSketch sketch, final long thetaLong) {
     super(sketch.getNumValues());
+    columnar_ = false;
     isEmpty_ = sketch.isEmpty();
     thetaLong_ = Math.min(sketch.getThetaLong(), thetaLong);
     seedHash_ = Util.computeSeedHash(sketch.getSeed());
@@ -90,7 +92,16 @@ final class HeapArrayOfDoublesCompactSketch extends ArrayOfDoublesCompactSketch
    */
   HeapArrayOfDoublesCompactSketch(final long[] keys, final double[] values, final long thetaLong,
       final boolean isEmpty, final int numValues, final short seedHash) {
+    this(keys, values, thetaLong, isEmpty, numValues, seedHash, false);
+  }
+
+  /*
+   * Creates an instance from components with the values laid out column by column if columnar
+   */
+  HeapArrayOfDoublesCompactSketch(final long[] keys, final double[] values, final long thetaLong,
+      final boolean isEmpty, final int numValues, final short seedHash, final boolean columnar) {
     super(numValues);
+    columnar_ = columnar;
     keys_ = keys;
     values_ = values;
     thetaLong_ = thetaLong;
@@ -118,11 +129,7 @@ final class HeapArrayOfDoublesCompactSketch extends ArrayOfDoublesCompactSketch
         mem.getByte(PREAMBLE_LONGS_BYTE));
     SerializerDeserializer.validateType(mem.getByte(SKETCH_TYPE_BYTE),
         SerializerDeserializer.SketchType.ArrayOfDoublesCompactSketch);
-    final byte version = mem.getByte(SERIAL_VERSION_BYTE);
-    if (version != serialVersionUID) {
-      throw new SketchesArgumentException(
-          "Serial version mismatch. Expected: " + serialVersionUID + ", actual: " + version);
-    }
+    columnar_ = checkSerialVersion(mem.getByte(SERIAL_VERSION_BYTE));
     final boolean isBigEndian =
         (mem.getByte(FLAGS_BYTE) & (1 << Flags.IS_BIG_ENDIAN.ordinal())) != 0;
     if (isBigEndian ^ ByteOrder.nativeOrder().equals(ByteOrder.BIG_ENDIAN)) {
@@ -146,7 +153,8 @@ final class HeapArrayOfDoublesCompactSketch extends ArrayOfDoublesCompactSketch
   public ArrayOfDoublesCompactSketch compact(final WritableMemory dstMem) {
    if (dstMem == null) {
       return new
-          HeapArrayOfDoublesCompactSketch(keys_.clone(), values_.clone(), thetaLong_, isEmpty_, numValues_, seedHash_);
+          HeapArrayOfDoublesCompactSketch(keys_.clone(), values_.clone(), thetaLong_, isEmpty_, numValues_, seedHash_,
+              columnar_);
     } else {
       final byte[] byteArr = this.toByteArray();
       dstMem.putByteArray(0, byteArr, 0, byteArr.length);
@@ -166,7 +174,7 @@ final class HeapArrayOfDoublesCompactSketch extends ArrayOfDoublesCompactSketch
     final byte[] bytes = new byte[sizeBytes];
     final WritableMemory mem = WritableMemory.writableWrap(bytes);
     mem.putByte(PREAMBLE_LONGS_BYTE, (byte) 1);
-    mem.putByte(SERIAL_VERSION_BYTE, serialVersionUID);
+    mem.putByte(SERIAL_VERSION_BYTE, columnar_ ? columnarSerialVersionUID : serialVersionUID);
     mem.putByte(FAMILY_ID_BYTE, (byte) Family.TUPLE.getID());
     mem.putByte(SKETCH_TYPE_BYTE,
         (byte) SerializerDeserializer.SketchType.ArrayOfDoublesCompactSketch.ordinal());
@@ -194,8 +202,9 @@ final class HeapArrayOfDoublesCompactSketch extends ArrayOfDoublesCompactSketch
     final double[][] values = new double[count][];
     if (count > 0) {
       int i = 0;
+      final double[] rows = columnar_ ? toRows(values_, count, numValues_) : values_;
       for (int j = 0; j < count; j++) {
-        values[i++] = Arrays.copyOfRange(values_, j * numValues_, (j + 1) * numValues_);
+        values[i++] = Arrays.copyOfRange(rows, j * numValues_, (j + 1) * numValues_);
       }
     }
     return values;
@@ -203,7 +212,40 @@ final class HeapArrayOfDoublesCompactSketch extends ArrayOfDoublesCompactSketch
 
   @Override
   double[] getValuesAsOneDimension() {
-    return values_.clone();
+    return columnar_ ? toRows(values_, getRetainedEntries(), numValues_) : values_.clone();
+  }
+
+  @Override
+  public boolean isColumnar() {
+    return columnar_;
+  }
+
+  @Override
+  public double[] getValueColumn(final int column) {
+    checkColumn(column);
+    final int count = getRetainedEntries();
+    if (columnar_) {
+      return Arrays.copyOfRange(values_, column * count, (column + 1) * count);
+    }
+    final double[] result = new double[count];
+    for (int i = 0; i < count; i++) {
+      result[i] = values_[(i * numValues_) + column];
+    }
+    return result;
+  }
+
+  @Override
+  public double getValueColumnSum(final int column) {
+    checkColumn(column);
+    final int count = getRetainedEntries();
+    double sum = 0;
+    if (columnar_) {
+      final int end = (column + 1) * count;
+      for (int i = column * count; i < end; i++) { sum += values_[i]; }
+    } else {
+      for (int i = 0; i < count; i++) { sum += values_[(i * numValues_) + column]; }
+    }
+    return sum;
   }
 
   @Override
@@ -213,7 +255,7 @@ final class HeapArrayOfDoublesCompactSketch extends ArrayOfDoublesCompactSketch
 
   @Override
   public ArrayOfDoublesSketchIterator iterator() {
-    return new HeapArrayOfDoublesSketchIterator(keys_, values_, numValues_);
+    return new HeapArrayOfDoublesSketchIterator(keys_, values_, numValues_, columnar_);
   }
 
   @Override
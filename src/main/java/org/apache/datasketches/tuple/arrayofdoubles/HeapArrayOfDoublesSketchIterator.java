@@ -29,12 +29,19 @@ final class HeapArrayOfDoublesSketchIterator implements ArrayOfDoublesSketchIter
   private long[] keys_;
   private double[] values_;
   private int numValues_;
+  private boolean columnar_;
   private int i_;
 
   HeapArrayOfDoublesSketchIterator(final long[] keys, final double[] values, final int numValues) {
+    this(keys, values, numValues, false);
+  }
+
+  HeapArrayOfDoublesSketchIterator(final long[] keys, final double[] values, final int numValues,
+      final boolean columnar) {
     keys_ = keys;
     values_ = values;
     numValues_ = numValues;
+    columnar_ = columnar;
     i_ = -1;
   }
 
@@ -59,6 +66,13 @@ final class HeapArrayOfDoublesSketchIterator implements ArrayOfDoublesSketchIter
     if (numValues_ == 1) {
       return new double[] { values_[i_] };
     }
+    if (columnar_) {
+      final double[] values = new double[numValues_];
+      for (int j = 0; j < numValues_; j++) {
+        values[j] = values_[(j * keys_.length) + i_];
+      }
+      return values;
+    }
     return Arrays.copyOfRange(values_, i_ * numValues_, (i_ + 1) *  numValues_);
   }
 
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.tuple.arrayofdoubles;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * A fork/join tree reduction of the union of many ArrayOfDoubles inputs of type T,
+ * like the ParallelUnionTask of the theta package.
+ *
+ * <p>All tasks of one reduction share the smallest theta reached by any partial union so far. The theta of a
+ * partial union is never smaller than the theta of the final union, so each partial union may ignore all keys
+ * at or above the shared theta. The values of every key below the final theta are therefore summed over all
+ * inputs, as in a sequential union.</p>
+ *
+ * @param <T> the type of the inputs, either ArrayOfDoublesSketch or Memory
+ */
+@SuppressWarnings("serial")
+final class ParallelArrayOfDoublesUnionTask<T> extends RecursiveTask<ArrayOfDoublesCompactSketch> {
+  private final List<T> inputs;
+  private final int from;
+  private final int to;
+  private final Context<T> ctx;
+
+  ParallelArrayOfDoublesUnionTask(final List<T> inputs, final int nomEntries, final int numValues,
+      final long seed, final long thetaLong, final int leafSize,
+      final BiConsumer<ArrayOfDoublesUnion, T> unionFn) {
+    this(inputs, 0, inputs.size(), new Context<>(nomEntries, numValues, seed, thetaLong, leafSize, unionFn));
+  }
+
+  private ParallelArrayOfDoublesUnionTask(final List<T> inputs, final int from, final int to,
+      final Context<T> ctx) {
+    this.inputs = inputs;
+    this.from = from;
+    this.to = to;
+    this.ctx = ctx;
+  }
+
+  @Override
+  protected ArrayOfDoublesCompactSketch compute() {
+    if ((to - from) <= ctx.leafSize) {
+      final ArrayOfDoublesUnion union = ctx.newUnion();
+      for (int i = from; i < to; i++) {
+        ctx.unionFn.accept(union, inputs.get(i));
+        ctx.shareThetaLong(union);
+      }
+      return union.getResult();
+    }
+    final int mid = (from + to) >>> 1;
+    final ParallelArrayOfDoublesUnionTask<T> left = new ParallelArrayOfDoublesUnionTask<>(inputs, from, mid, ctx);
+    final ParallelArrayOfDoublesUnionTask<T> right = new ParallelArrayOfDoublesUnionTask<>(inputs, mid, to, ctx);
+    left.fork();
+    final ArrayOfDoublesCompactSketch rightResult = right.compute();
+    final ArrayOfDoublesCompactSketch leftResult = left.join();
+    final ArrayOfDoublesUnion union = ctx.newUnion();
+    union.union(leftResult);
+    union.union(rightResult);
+    return union.getResult();
+  }
+
+  /**
+   * The configuration and shared theta of one reduction.
+   */
+  private static final class Context<T> {
+    final int nomEntries;
+    final int numValues;
+    final long seed;
+    final int leafSize;
+    final BiConsumer<ArrayOfDoublesUnion, T> unionFn;
+    final AtomicLong minThetaLong;
+
+    Context(final int nomEntries, final int numValues, final long seed, final long thetaLong,
+        final int leafSize, final BiConsumer<ArrayOfDoublesUnion, T> unionFn) {
+      this.nomEntries = nomEntries;
+      this.numValues = numValues;
+      this.seed = seed;
+      this.leafSize = leafSize;
+      this.unionFn = unionFn;
+      minThetaLong = new AtomicLong(thetaLong);
+    }
+
+    ArrayOfDoublesUnion newUnion() {
+      return new HeapArrayOfDoublesUnion(nomEntries, numValues, seed);
+    }
+
+    /**
+     * Publishes the theta of the given partial union if it is the smallest so far, otherwise
+     * lowers the theta of the partial union to the shared one.
+     */
+    void shareThetaLong(final ArrayOfDoublesUnion union) {
+      if (union.gadget_.isEmpty()) { return; }
+      final long thetaLong = union.unionThetaLong_;
+      final long shared = minThetaLong.get();
+      if (thetaLong < shared) {
+        minThetaLong.accumulateAndGet(thetaLong, Math::min);
+      } else if (shared < thetaLong) {
+        union.setUnionThetaLong(shared);
+      }
+    }
+  }
+}
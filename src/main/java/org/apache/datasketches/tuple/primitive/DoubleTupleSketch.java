@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.tuple.primitive;
+
+import static org.apache.datasketches.thetacommon.ThetaUtil.DEFAULT_UPDATE_SEED;
+
+import org.apache.datasketches.common.ResizeFactor;
+import org.apache.datasketches.hash.MurmurHash3;
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.tuple.SerializerDeserializer;
+import org.apache.datasketches.tuple.Util;
+import org.apache.datasketches.tuple.adouble.DoubleSummary;
+
+/**
+ * A Tuple sketch with a single double value per retained entry.
+ *
+ * <p>This sketch gives the same results as a DoubleSketch of the same mode, but its values are kept
+ * as their raw long bits in an array parallel to the hash values instead of one DoubleSummary per
+ * entry.</p>
+ */
+public final class DoubleTupleSketch extends PrimitiveSketch {
+  private final DoubleSummary.Mode mode_;
+  private final PrimitiveCombiner combiner_;
+
+  /**
+   * Constructs this sketch with given <i>lgK</i>.
+   * @param lgK Log_base2 of <i>Nominal Entries</i>.
+   * <a href="{@docRoot}/resources/dictionary.html#nomEntries">See Nominal Entries</a>
+   * @param mode The mode that combines the values of the same key
+   */
+  public DoubleTupleSketch(final int lgK, final DoubleSummary.Mode mode) {
+    this(lgK, ResizeFactor.X8.lg(), 1.0F, mode);
+  }
+
+  /**
+   * Creates this sketch with the following parameters:
+   * @param lgK Log_base2 of <i>Nominal Entries</i>.
+   * @param lgResizeFactor log2(resizeFactor) - value from 0 to 3:
+   * <pre>
+   * 0 - no resizing (max size allocated),
+   * 1 - double internal hash table each time it reaches a threshold
+   * 2 - grow four times
+   * 3 - grow eight times (default)
+   * </pre>
+   * @param samplingProbability
+   * <a href="{@docRoot}/resources/dictionary.html#p">See Sampling Probability</a>
+   * @param mode The mode that combines the values of the same key
+   */
+  public DoubleTupleSketch(final int lgK, final int lgResizeFactor, final float samplingProbability,
+      final DoubleSummary.Mode mode) {
+    super(1 << lgK, lgResizeFactor, samplingProbability);
+    mode_ = mode;
+    combiner_ = PrimitiveCombiner.of(mode);
+  }
+
+  DoubleTupleSketch(final int nomEntries, final long[] hashes, final long[] values, final long thetaLong,
+      final boolean empty, final DoubleSummary.Mode mode) {
+    super(nomEntries, hashes, values, thetaLong, empty);
+    mode_ = mode;
+    combiner_ = PrimitiveCombiner.of(mode);
+  }
+
+  private DoubleTupleSketch(final Memory mem) {
+    super(mem, SerializerDeserializer.SketchType.DoubleTupleSketch);
+    mode_ = DoubleSummary.Mode.values()[mem.getByte(MODE_BYTE)];
+    combiner_ = PrimitiveCombiner.of(mode_);
+  }
+
+  /**
+   * Heapifies the given Memory image of a DoubleTupleSketch as a compact sketch.
+   * @param mem the given Memory
+   * @return a compact DoubleTupleSketch
+   */
+  public static DoubleTupleSketch heapify(final Memory mem) {
+    return new DoubleTupleSketch(mem);
+  }
+
+  /**
+   * Updates this sketch with a long key and double value.
+   * @param key The given long key
+   * @param value The given double value
+   */
+  public void update(final long key, final double value) {
+    updateHash(MurmurHash3.hash64(key, DEFAULT_UPDATE_SEED) >>> 1, value);
+  }
+
+  /**
+   * Updates this sketch with a double key and double value.
+   * @param key The given double key
+   * @param value The given double value
+   */
+  public void update(final double key, final double value) {
+    update(Util.doubleToLongArray(key)[0], value);
+  }
+
+  /**
+   * Updates this sketch with a String key and double value.
+   * @param key The given String key. A null or empty String is ignored.
+   * @param value The given double value
+   */
+  public void update(final String key, final double value) {
+    if ((key == null) || key.isEmpty()) { return; }
+    updateHash(MurmurHash3.hashUtf8(key, DEFAULT_UPDATE_SEED)[0] >>> 1, value);
+  }
+
+  /**
+   * Updates this sketch with a byte[] key and double value.
+   * @param key The given byte[] key. A null or empty array is ignored.
+   * @param value The given double value
+   */
+  public void update(final byte[] key, final double value) {
+    if ((key == null) || (key.length == 0)) { return; }
+    updateHash(MurmurHash3.hash(key, DEFAULT_UPDATE_SEED)[0] >>> 1, value);
+  }
+
+  /**
+   * Updates this sketch with a int[] key and double value.
+   * @param key The given int[] key. A null or empty array is ignored.
+   * @param value The given double value
+   */
+  public void update(final int[] key, final double value) {
+    if ((key == null) || (key.length == 0)) { return; }
+    updateHash(MurmurHash3.hash(key, DEFAULT_UPDATE_SEED)[0] >>> 1, value);
+  }
+
+  /**
+   * Updates this sketch with a long[] key and double value.
+   * @param key The given long[] key. A null or empty array is ignored.
+   * @param value The given double value
+   */
+  public void update(final long[] key, final double value) {
+    if ((key == null) || (key.length == 0)) { return; }
+    updateHash(MurmurHash3.hash(key, DEFAULT_UPDATE_SEED)[0] >>> 1, value);
+  }
+
+  /**
+   * Gets the mode that combines the values of the same key
+   * @return the mode
+   */
+  public DoubleSummary.Mode getMode() {
+    return mode_;
+  }
+
+  /**
+   * Returns an iterator over the retained entries of this sketch
+   * @return an iterator over the retained entries
+   */
+  public DoubleTupleSketchIterator iterator() {
+    return new DoubleTupleSketchIterator(hashTable_, values_);
+  }
+
+  @Override
+  public DoubleTupleSketch compact() {
+    if (isCompact()) { return this; }
+    final long[] hashes = new long[getRetainedEntries()];
+    final long[] values = new long[getRetainedEntries()];
+    copyEntries(hashes, values);
+    return new DoubleTupleSketch(getNominalEntries(), hashes, values, empty_ ? Long.MAX_VALUE : thetaLong_,
+        empty_, mode_);
+  }
+
+  @Override
+  SerializerDeserializer.SketchType getSketchType() {
+    return SerializerDeserializer.SketchType.DoubleTupleSketch;
+  }
+
+  @Override
+  int getModeOrdinal() {
+    return mode_.ordinal();
+  }
+
+  private void updateHash(final long hash, final double value) {
+    checkUpdatable();
+    insertOrCombine(hash, PrimitiveCombiner.toBits(value), combiner_);
+  }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.tuple.primitive;
+
+import org.apache.datasketches.tuple.aninteger.IntegerSummary;
+
+/**
+ * Computes an intersection of two or more LongTupleSketches.
+ * The values of the same key are combined by the given mode, as by the IntegerSummarySetOperations.
+ */
+public final class LongTupleIntersection extends PrimitiveIntersection<LongTupleSketch> {
+  private final IntegerSummary.Mode mode_;
+
+  /**
+   * Creates new Intersection instance.
+   * @param mode The mode that combines the values of the same key
+   */
+  public LongTupleIntersection(final IntegerSummary.Mode mode) {
+    super(PrimitiveCombiner.of(mode));
+    mode_ = mode;
+  }
+
+  @Override
+  LongTupleSketch newCompact(final int nomEntries, final long[] hashes, final long[] values,
+      final long thetaLong, final boolean empty) {
+    return new LongTupleSketch(nomEntries, hashes, values, thetaLong, empty, mode_);
+  }
+
+}
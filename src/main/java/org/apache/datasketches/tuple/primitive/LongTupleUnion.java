@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.tuple.primitive;
+
+import static org.apache.datasketches.common.Util.ceilingPowerOf2;
+
+import org.apache.datasketches.thetacommon.ThetaUtil;
+import org.apache.datasketches.tuple.aninteger.IntegerSummary;
+
+/**
+ * Compute the union of two or more LongTupleSketches.
+ * The values of the same key are combined by the given mode, as by the IntegerSummarySetOperations.
+ */
+public final class LongTupleUnion extends PrimitiveUnion<LongTupleSketch> {
+  private final IntegerSummary.Mode mode_;
+
+  /**
+   * Creates new Union instance with the default nominal entries.
+   * @param mode The mode that combines the values of the same key
+   */
+  public LongTupleUnion(final IntegerSummary.Mode mode) {
+    this(ThetaUtil.DEFAULT_NOMINAL_ENTRIES, mode);
+  }
+
+  /**
+   * Creates new Union instance.
+   * @param nomEntries nominal entries (K). Forced to the nearest power of 2 greater than
+   * given value.
+   * @param mode The mode that combines the values of the same key
+   */
+  public LongTupleUnion(final int nomEntries, final IntegerSummary.Mode mode) {
+    super(new LongTupleSketch(Integer.numberOfTrailingZeros(ceilingPowerOf2(nomEntries)), mode),
+        PrimitiveCombiner.of(mode));
+    mode_ = mode;
+  }
+
+  @Override
+  LongTupleSketch newCompact(final int nomEntries, final long[] hashes, final long[] values,
+      final long thetaLong, final boolean empty) {
+    return new LongTupleSketch(nomEntries, hashes, values, thetaLong, empty, mode_);
+  }
+
+}
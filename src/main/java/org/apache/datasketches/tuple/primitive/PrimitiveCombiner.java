@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.tuple.primitive;
+
+import java.util.function.LongBinaryOperator;
+
+import org.apache.datasketches.tuple.adouble.DoubleSummary;
+import org.apache.datasketches.tuple.aninteger.IntegerSummary;
+
+/**
+ * Combines the values of the primitive Tuple sketches, which are stored as longs.
+ * Double values are stored as their raw long bits.
+ *
+ * <p>The modes are the same as those of the IntegerSummary and the DoubleSummary: the value of a
+ * new entry is the combination of the starting value of the summary of the same mode with the
+ * incoming value.</p>
+ */
+final class PrimitiveCombiner {
+  private final long initialValue;
+  private final LongBinaryOperator op;
+
+  private PrimitiveCombiner(final long initialValue, final LongBinaryOperator op) {
+    this.initialValue = initialValue;
+    this.op = op;
+  }
+
+  static PrimitiveCombiner of(final IntegerSummary.Mode mode) {
+    switch (mode) {
+      case Min: return new PrimitiveCombiner(Long.MAX_VALUE, Math::min);
+      case Max: return new PrimitiveCombiner(Long.MIN_VALUE, Math::max);
+      case AlwaysOne: return new PrimitiveCombiner(1L, (a, b) -> 1L);
+      default: return new PrimitiveCombiner(0L, Long::sum);
+    }
+  }
+
+  static PrimitiveCombiner of(final DoubleSummary.Mode mode) {
+    switch (mode) {
+      case Min: return new PrimitiveCombiner(toBits(Double.POSITIVE_INFINITY),
+          (a, b) -> (toDouble(b) < toDouble(a)) ? b : a);
+      case Max: return new PrimitiveCombiner(toBits(Double.NEGATIVE_INFINITY),
+          (a, b) -> (toDouble(b) > toDouble(a)) ? b : a);
+      case AlwaysOne: return new PrimitiveCombiner(toBits(1.0), (a, b) -> toBits(1.0));
+      default: return new PrimitiveCombiner(toBits(0.0), (a, b) -> toBits(toDouble(a) + toDouble(b)));
+    }
+  }
+
+  /**
+   * Returns the value of a new entry
+   * @param value the incoming value
+   * @return the value of a new entry
+   */
+  long first(final long value) {
+    return op.applyAsLong(initialValue, value);
+  }
+
+  /**
+   * Returns the combination of the retained value of an entry with the incoming value
+   * @param retained the retained value
+   * @param value the incoming value
+   * @return the new retained value
+   */
+  long combine(final long retained, final long value) {
+    return op.applyAsLong(retained, value);
+  }
+
+  static long toBits(final double value) {
+    return Double.doubleToRawLongBits(value);
+  }
+
+  static double toDouble(final long bits) {
+    return Double.longBitsToDouble(bits);
+  }
+}
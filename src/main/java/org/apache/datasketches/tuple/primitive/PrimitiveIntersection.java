@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.tuple.primitive;
+
+import static java.lang.Math.ceil;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static org.apache.datasketches.common.Util.ceilingPowerOf2;
+import static org.apache.datasketches.thetacommon.HashOperations.hashInsertOnly;
+import static org.apache.datasketches.thetacommon.HashOperations.hashSearch;
+
+import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.common.SketchesStateException;
+import org.apache.datasketches.thetacommon.ThetaUtil;
+
+/**
+ * Computes an intersection of two or more primitive Tuple sketches of type T.
+ * The values of the same key are combined by the mode of the intersection.
+ *
+ * @param <T> the type of the primitive Tuple sketch
+ */
+abstract class PrimitiveIntersection<T extends PrimitiveSketch> {
+  private static final long[] NO_ENTRIES = new long[0];
+  private final PrimitiveCombiner combiner_;
+  private boolean empty_;
+  private long thetaLong_;
+  private int nomEntries_;
+  private long[] hashTable_;
+  private long[] values_;
+  private int lgTableSize_;
+  private int numKeys_;
+  private boolean firstCall_;
+
+  PrimitiveIntersection(final PrimitiveCombiner combiner) {
+    combiner_ = combiner;
+    reset();
+  }
+
+  /**
+   * Perform a stateless intersect set operation on the two given sketches and returns the result
+   * as a compact sketch on the heap.
+   * @param sketchA The first argument
+   * @param sketchB The second argument
+   * @return the result as a compact sketch on the heap
+   */
+  public T intersect(final T sketchA, final T sketchB) {
+    reset();
+    intersect(sketchA);
+    intersect(sketchB);
+    final T result = getResult();
+    reset();
+    return result;
+  }
+
+  /**
+   * Performs a stateful intersection of the internal set with the given sketch.
+   * @param sketch input sketch to intersect with the internal state. It must not be null.
+   */
+  public void intersect(final T sketch) {
+    if (sketch == null) { throw new SketchesArgumentException("Sketch must not be null"); }
+
+    final boolean firstCall = firstCall_;
+    firstCall_ = false;
+    nomEntries_ = min(nomEntries_, sketch.getNominalEntries());
+
+    if (empty_ || sketch.isEmpty()) { //empty rule
+      //Whatever the current internal state, we make our local empty.
+      resetToEmpty();
+      return;
+    }
+
+    thetaLong_ = min(thetaLong_, sketch.getThetaLong()); //Theta rule
+
+    if (sketch.getRetainedEntries() == 0) {
+      clear();
+      return;
+    }
+    // input sketch will have valid entries > 0
+
+    final long[] hashes = sketch.hashTable_;
+    final long[] values = sketch.values_;
+    if (firstCall) {
+      //Copy the entries of the first sketch into the local hash table
+      numKeys_ = sketch.getRetainedEntries();
+      lgTableSize_ = getLgTableSize(numKeys_);
+      hashTable_ = new long[1 << lgTableSize_];
+      values_ = new long[1 << lgTableSize_];
+      for (int i = 0; i < hashes.length; i++) {
+        if (hashes[i] == 0) { continue; }
+        values_[hashInsertOnly(hashTable_, lgTableSize_, hashes[i])] = values[i];
+      }
+    }
+
+    //Next Call
+    else {
+      if (numKeys_ == 0) { return; }
+      //Match the sketch entries with the local entries, filtering by theta
+      final int maxMatchSize = min(numKeys_, sketch.getRetainedEntries());
+      final long[] matchHashArr = new long[maxMatchSize];
+      final long[] matchValueArr = new long[maxMatchSize];
+      int matchCount = 0;
+      for (int i = 0; i < hashes.length; i++) {
+        final long hash = hashes[i];
+        if ((hash == 0) || (hash >= thetaLong_)) { continue; }
+        final int index = hashSearch(hashTable_, lgTableSize_, hash);
+        if (index < 0) { continue; }
+        matchHashArr[matchCount] = hash;
+        matchValueArr[matchCount] = combiner_.combine(values_[index], values[i]);
+        matchCount++;
+      }
+      numKeys_ = matchCount;
+      lgTableSize_ = getLgTableSize(matchCount);
+      hashTable_ = new long[1 << lgTableSize_];
+      values_ = new long[1 << lgTableSize_];
+      for (int i = 0; i < matchCount; i++) {
+        values_[hashInsertOnly(hashTable_, lgTableSize_, matchHashArr[i])] = matchValueArr[i];
+      }
+    }
+  }
+
+  /**
+   * Gets the internal set as a compact sketch
+   * @return result of the intersections so far
+   */
+  public T getResult() {
+    if (firstCall_) {
+      throw new SketchesStateException(
+        "getResult() with no intervening intersections is not a legal result.");
+    }
+    final int nomEntries = (nomEntries_ == Integer.MAX_VALUE) ? ThetaUtil.DEFAULT_NOMINAL_ENTRIES : nomEntries_;
+    if (numKeys_ == 0) {
+      return newCompact(nomEntries, NO_ENTRIES, NO_ENTRIES, thetaLong_, empty_);
+    }
+    final long[] hashArr = new long[numKeys_];
+    final long[] valueArr = new long[numKeys_];
+    int cnt = 0;
+    for (int i = 0; i < hashTable_.length; i++) {
+      final long hash = hashTable_[i];
+      if ((hash == 0) || (hash >= thetaLong_)) { continue; }
+      hashArr[cnt] = hash;
+      valueArr[cnt] = values_[i];
+      cnt++;
+    }
+    assert cnt == numKeys_;
+    return newCompact(nomEntries, hashArr, valueArr, thetaLong_, empty_);
+  }
+
+  /**
+   * Returns true if there is a non null result available
+   * @return true if there is a non null result available
+   */
+  public boolean hasResult() {
+    return !firstCall_;
+  }
+
+  /**
+   * Resets the internal set to the initial state, which represents the Universal Set
+   */
+  public void reset() {
+    empty_ = false;
+    thetaLong_ = Long.MAX_VALUE;
+    nomEntries_ = Integer.MAX_VALUE;
+    clear();
+    firstCall_ = true;
+  }
+
+  abstract T newCompact(int nomEntries, long[] hashes, long[] values, long thetaLong, boolean empty);
+
+  private void resetToEmpty() {
+    empty_ = true;
+    thetaLong_ = Long.MAX_VALUE;
+    clear();
+    firstCall_ = false;
+  }
+
+  private void clear() {
+    hashTable_ = null;
+    values_ = null;
+    lgTableSize_ = 0;
+    numKeys_ = 0;
+  }
+
+  private static int getLgTableSize(final int count) {
+    final int tableSize = max(ceilingPowerOf2((int) ceil(count / 0.75)), 1 << ThetaUtil.MIN_LG_NOM_LONGS);
+    return Integer.numberOfTrailingZeros(tableSize);
+  }
+
+}
@@ -0,0 +1,472 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.tuple.primitive;
+
+import static org.apache.datasketches.common.Util.LS;
+import static org.apache.datasketches.common.Util.ceilingPowerOf2;
+import static org.apache.datasketches.common.Util.checkBounds;
+import static org.apache.datasketches.common.Util.exactLog2OfLong;
+
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+import org.apache.datasketches.common.ByteArrayUtil;
+import org.apache.datasketches.common.Family;
+import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.common.SketchesStateException;
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.thetacommon.BinomialBoundsN;
+import org.apache.datasketches.thetacommon.HashOperations;
+import org.apache.datasketches.thetacommon.QuickSelect;
+import org.apache.datasketches.thetacommon.ThetaUtil;
+import org.apache.datasketches.tuple.SerializerDeserializer;
+import org.apache.datasketches.tuple.Util;
+
+/**
+ * The base class of the Tuple sketches that keep a single primitive value per retained entry.
+ *
+ * <p>The values are kept as longs in an array parallel to the hash values, so a sketch is two arrays
+ * instead of one Summary object per entry. A sketch is either updatable, with a hash table that
+ * follows the same QuickSelect rules as the generic Tuple QuickSelectSketch, or compact, as returned
+ * by {@link #compact()}, by the set operations or by heapifying a serialized image. A compact sketch
+ * cannot be updated.</p>
+ */
+public abstract class PrimitiveSketch {
+  private static final byte serialVersionUID = 1;
+  private static final byte PREAMBLE_LONGS_EMPTY = 1;
+  private static final byte PREAMBLE_LONGS = 3;
+  private static final int FLAGS_BYTE = 4;
+  private static final int LG_NOM_ENTRIES_BYTE = 5;
+  static final int MODE_BYTE = 6;
+  private static final int THETA_LONG = 8;
+  private static final int RETAINED_ENTRIES_INT = 16;
+  private static final int ENTRIES_START = 24;
+
+  private enum Flags { IS_BIG_ENDIAN, IS_EMPTY }
+
+  private final int nomEntries_;
+  private final int lgResizeFactor_;
+  private final float samplingProbability_;
+  private final boolean compact_;
+  long thetaLong_;
+  boolean empty_;
+  private int lgCurrentCapacity_;
+  private int retEntries_;
+  private int rebuildThreshold_;
+  long[] hashTable_; //the hash table of an updatable sketch, or the hash values of a compact sketch
+  long[] values_; //parallel to hashTable_
+
+  /**
+   * Constructs an empty updatable sketch.
+   * @param nomEntries <a href="{@docRoot}/resources/dictionary.html#nomEntries">Nominal Entries</a>
+   * @param lgResizeFactor log2(resizeFactor), from 0 to 3
+   * @param samplingProbability <a href="{@docRoot}/resources/dictionary.html#p">See Sampling Probability</a>
+   */
+  PrimitiveSketch(final int nomEntries, final int lgResizeFactor, final float samplingProbability) {
+    if ((samplingProbability <= 0f) || (samplingProbability > 1f)) {
+      throw new SketchesArgumentException("Sampling probability must be in (0, 1]: " + samplingProbability);
+    }
+    nomEntries_ = ceilingPowerOf2(nomEntries);
+    lgResizeFactor_ = lgResizeFactor;
+    samplingProbability_ = samplingProbability;
+    compact_ = false;
+    init();
+  }
+
+  /**
+   * Constructs a compact sketch from the given arrays, which become owned by this sketch.
+   * @param nomEntries the nominal entries of the source of the arrays
+   * @param hashes the hash values, all of them less than the given theta
+   * @param values the values parallel to the hash values
+   * @param thetaLong the theta of the sketch
+   * @param empty true if the sketch is empty
+   */
+  PrimitiveSketch(final int nomEntries, final long[] hashes, final long[] values, final long thetaLong,
+      final boolean empty) {
+    nomEntries_ = nomEntries;
+    lgResizeFactor_ = 0;
+    samplingProbability_ = 1f;
+    compact_ = true;
+    thetaLong_ = thetaLong;
+    empty_ = empty;
+    hashTable_ = hashes;
+    values_ = values;
+    retEntries_ = hashes.length;
+  }
+
+  /**
+   * Constructs a compact sketch from the given serialized image.
+   * @param mem the serialized image
+   * @param expectedType the expected sketch type of the image
+   */
+  PrimitiveSketch(final Memory mem, final SerializerDeserializer.SketchType expectedType) {
+    Objects.requireNonNull(mem, "SourceMemory must not be null.");
+    checkBounds(0, 8, mem.getCapacity());
+    final byte preambleLongs = mem.getByte(0);
+    final byte version = mem.getByte(1);
+    SerializerDeserializer.validateFamily(mem.getByte(2), preambleLongs);
+    if (version != serialVersionUID) {
+      throw new SketchesArgumentException(
+          "Unsupported serial version. Expected: " + serialVersionUID + ", actual: " + version);
+    }
+    SerializerDeserializer.validateType(mem.getByte(3), expectedType);
+    final byte flags = mem.getByte(FLAGS_BYTE);
+    if (((flags & (1 << Flags.IS_BIG_ENDIAN.ordinal())) != 0) ^ isBigEndian()) {
+      throw new SketchesArgumentException("Endian byte order mismatch");
+    }
+    nomEntries_ = 1 << mem.getByte(LG_NOM_ENTRIES_BYTE);
+    lgResizeFactor_ = 0;
+    samplingProbability_ = 1f;
+    compact_ = true;
+    empty_ = (flags & (1 << Flags.IS_EMPTY.ordinal())) != 0;
+    if (preambleLongs == PREAMBLE_LONGS_EMPTY) {
+      thetaLong_ = Long.MAX_VALUE;
+      retEntries_ = 0;
+    } else {
+      checkBounds(0, ENTRIES_START, mem.getCapacity());
+      thetaLong_ = mem.getLong(THETA_LONG);
+      retEntries_ = mem.getInt(RETAINED_ENTRIES_INT);
+      checkBounds(ENTRIES_START, 2L * retEntries_ * Long.BYTES, mem.getCapacity());
+    }
+    hashTable_ = new long[retEntries_];
+    values_ = new long[retEntries_];
+    if (retEntries_ > 0) {
+      mem.getLongArray(ENTRIES_START, hashTable_, 0, retEntries_);
+      mem.getLongArray(ENTRIES_START + ((long) retEntries_ * Long.BYTES), values_, 0, retEntries_);
+    }
+  }
+
+  /**
+   * Estimates the cardinality of the set (number of unique values presented to the sketch)
+   * @return best estimate of the number of unique values
+   */
+  public double getEstimate() {
+    if (!isEstimationMode()) { return getRetainedEntries(); }
+    return getRetainedEntries() / getTheta();
+  }
+
+  /**
+   * Gets the approximate upper error bound given the specified number of Standard Deviations.
+   * This will return getEstimate() if isEmpty() is true.
+   *
+   * @param numStdDev
+   * <a href="{@docRoot}/resources/dictionary.html#numStdDev">See Number of Standard Deviations</a>
+   * @return the upper bound.
+   */
+  public double getUpperBound(final int numStdDev) {
+    if (!isEstimationMode()) { return getRetainedEntries(); }
+    return BinomialBoundsN.getUpperBound(getRetainedEntries(), getTheta(), numStdDev, empty_);
+  }
+
+  /**
+   * Gets the approximate lower error bound given the specified number of Standard Deviations.
+   * This will return getEstimate() if isEmpty() is true.
+   *
+   * @param numStdDev
+   * <a href="{@docRoot}/resources/dictionary.html#numStdDev">See Number of Standard Deviations</a>
+   * @return the lower bound.
+   */
+  public double getLowerBound(final int numStdDev) {
+    if (!isEstimationMode()) { return getRetainedEntries(); }
+    return BinomialBoundsN.getLowerBound(getRetainedEntries(), getTheta(), numStdDev, empty_);
+  }
+
+  /**
+   * <a href="{@docRoot}/resources/dictionary.html#empty">See Empty</a>
+   * @return true if empty.
+   */
+  public boolean isEmpty() {
+    return empty_;
+  }
+
+  /**
+   * Returns true if the sketch is Estimation Mode (as opposed to Exact Mode).
+   * This is true if theta &lt; 1.0 AND isEmpty() is false.
+   * @return true if the sketch is in estimation mode.
+   */
+  public boolean isEstimationMode() {
+    return thetaLong_ < Long.MAX_VALUE && !isEmpty();
+  }
+
+  /**
+   * Returns true if this sketch is compact and cannot be updated.
+   * @return true if this sketch is compact
+   */
+  public boolean isCompact() {
+    return compact_;
+  }
+
+  /**
+   * Returns number of retained entries
+   * @return number of retained entries
+   */
+  public int getRetainedEntries() {
+    return retEntries_;
+  }
+
+  /**
+   * Gets the value of theta as a double between zero and one
+   * @return the value of theta as a double
+   */
+  public double getTheta() {
+    return getThetaLong() / (double) Long.MAX_VALUE;
+  }
+
+  /**
+   * Returns Theta as a long
+   * @return Theta as a long
+   */
+  public long getThetaLong() {
+    return isEmpty() ? Long.MAX_VALUE : thetaLong_;
+  }
+
+  /**
+   * Get configured nominal number of entries
+   * @return nominal number of entries
+   */
+  public int getNominalEntries() {
+    return nomEntries_;
+  }
+
+  /**
+   * Get log_base2 of Nominal Entries
+   * @return log_base2 of Nominal Entries
+   */
+  public int getLgK() {
+    return exactLog2OfLong(nomEntries_);
+  }
+
+  /**
+   * Get configured sampling probability
+   * @return sampling probability
+   */
+  public float getSamplingProbability() {
+    return samplingProbability_;
+  }
+
+  /**
+   * Rebuilds reducing the actual number of entries to the nominal number of entries if needed
+   */
+  public void trim() {
+    checkUpdatable();
+    if (retEntries_ > nomEntries_) {
+      updateTheta();
+      resize(hashTable_.length);
+    }
+  }
+
+  /**
+   * Resets this sketch an empty state.
+   */
+  public void reset() {
+    checkUpdatable();
+    init();
+  }
+
+  private void init() {
+    empty_ = true;
+    retEntries_ = 0;
+    thetaLong_ = (long) (Long.MAX_VALUE * (double) samplingProbability_);
+    final int startingCapacity = Util.getStartingCapacity(nomEntries_, lgResizeFactor_);
+    lgCurrentCapacity_ = Integer.numberOfTrailingZeros(startingCapacity);
+    hashTable_ = new long[startingCapacity];
+    values_ = new long[startingCapacity];
+    rebuildThreshold_ = setRebuildThreshold(hashTable_.length, nomEntries_);
+  }
+
+  /**
+   * Returns this sketch in compact form, which is a copy unless this sketch is already compact.
+   * @return this sketch in compact form
+   */
+  public abstract PrimitiveSketch compact();
+
+  // Layout of the serialized image:
+  // Long || Start Byte Adr:
+  // Adr:
+  //      ||    7   |    6   |    5   |    4   |    3   |    2   |    1   |     0              |
+  //  0   ||        |  Mode  | lgNom  |  Flags | SkType | FamID  | SerVer |  Preamble_Longs    |
+  //  1   ||                               Theta Long                                          |
+  //  2   ||                                   |                 Retained Entries              |
+  //  3+  ||     Hash values (Retained Entries longs), then Values (Retained Entries longs)   |
+  // Only the first long is present if the sketch is empty and in exact mode.
+  /**
+   * Serializes this sketch in compact form into a byte array.
+   * @return serialized representation of this sketch
+   */
+  public byte[] toByteArray() {
+    final boolean preambleOnly = retEntries_ == 0 && thetaLong_ == Long.MAX_VALUE;
+    final int sizeBytes = preambleOnly ? Long.BYTES : ENTRIES_START + (2 * retEntries_ * Long.BYTES);
+    final byte[] bytes = new byte[sizeBytes];
+    bytes[0] = preambleOnly ? PREAMBLE_LONGS_EMPTY : PREAMBLE_LONGS;
+    bytes[1] = serialVersionUID;
+    bytes[2] = (byte) Family.TUPLE.getID();
+    bytes[3] = (byte) getSketchType().ordinal();
+    bytes[FLAGS_BYTE] = (byte) (
+        (isBigEndian() ? 1 << Flags.IS_BIG_ENDIAN.ordinal() : 0)
+      | (empty_ ? 1 << Flags.IS_EMPTY.ordinal() : 0));
+    bytes[LG_NOM_ENTRIES_BYTE] = (byte) getLgK();
+    bytes[MODE_BYTE] = (byte) getModeOrdinal();
+    if (preambleOnly) { return bytes; }
+    ByteArrayUtil.putLongLE(bytes, THETA_LONG, thetaLong_);
+    ByteArrayUtil.putIntLE(bytes, RETAINED_ENTRIES_INT, retEntries_);
+    int hashOffset = ENTRIES_START;
+    int valueOffset = ENTRIES_START + (retEntries_ * Long.BYTES);
+    for (int i = 0; i < hashTable_.length; i++) {
+      if (hashTable_[i] == 0) { continue; }
+      ByteArrayUtil.putLongLE(bytes, hashOffset, hashTable_[i]);
+      ByteArrayUtil.putLongLE(bytes, valueOffset, values_[i]);
+      hashOffset += Long.BYTES;
+      valueOffset += Long.BYTES;
+    }
+    return bytes;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("### ").append(this.getClass().getSimpleName()).append(" SUMMARY: ").append(LS);
+    sb.append("   Estimate                : ").append(getEstimate()).append(LS);
+    sb.append("   Upper Bound, 95% conf   : ").append(getUpperBound(2)).append(LS);
+    sb.append("   Lower Bound, 95% conf   : ").append(getLowerBound(2)).append(LS);
+    sb.append("   Theta (double)          : ").append(getTheta()).append(LS);
+    sb.append("   Theta (long)            : ").append(getThetaLong()).append(LS);
+    sb.append("   EstMode?                : ").append(isEstimationMode()).append(LS);
+    sb.append("   Empty?                  : ").append(isEmpty()).append(LS);
+    sb.append("   Compact?                : ").append(isCompact()).append(LS);
+    sb.append("   Retained Entries        : ").append(getRetainedEntries()).append(LS);
+    sb.append("   Nominal Entries (k)     : ").append(getNominalEntries()).append(LS);
+    if (!compact_) {
+      sb.append("   Current Capacity        : ").append(hashTable_.length).append(LS);
+      sb.append("   Resize Factor           : ").append(1 << lgResizeFactor_).append(LS);
+      sb.append("   Sampling Probability (p): ").append(samplingProbability_).append(LS);
+    }
+    sb.append("### END SKETCH SUMMARY").append(LS);
+    return sb.toString();
+  }
+
+  // non-public methods below
+
+  abstract SerializerDeserializer.SketchType getSketchType();
+
+  abstract int getModeOrdinal();
+
+  /**
+   * Inserts the given hash value with the first value of the given value, or combines the given value
+   * with the value of the hash value if it is already retained.
+   * @param hash the given hash value
+   * @param value the given value
+   * @param combiner the combiner of the values
+   */
+  final void insertOrCombine(final long hash, final long value, final PrimitiveCombiner combiner) {
+    insertOrCombine(hash, combiner.first(value), value, combiner);
+  }
+
+  // this is a special back door insert for merging
+  // not sufficient by itself without keeping track of theta of another sketch
+  final void merge(final long hash, final long value, final PrimitiveCombiner combiner) {
+    insertOrCombine(hash, value, value, combiner);
+  }
+
+  private void insertOrCombine(final long hash, final long newValue, final long value,
+      final PrimitiveCombiner combiner) {
+    empty_ = false;
+    if ((hash <= 0) || (hash >= thetaLong_)) { return; }
+    final int index = HashOperations.hashSearchOrInsert(hashTable_, lgCurrentCapacity_, hash);
+    if (index < 0) {
+      values_[~index] = newValue;
+      retEntries_++;
+      rebuildIfNeeded();
+    } else {
+      values_[index] = combiner.combine(values_[index], value);
+    }
+  }
+
+  /**
+   * Copies the entries into the given arrays, which must have a length of the retained entries.
+   * @param hashes the destination of the hash values
+   * @param values the destination of the values
+   */
+  final void copyEntries(final long[] hashes, final long[] values) {
+    if (compact_) {
+      System.arraycopy(hashTable_, 0, hashes, 0, retEntries_);
+      System.arraycopy(values_, 0, values, 0, retEntries_);
+      return;
+    }
+    int j = 0;
+    for (int i = 0; i < hashTable_.length; i++) {
+      if (hashTable_[i] == 0) { continue; }
+      hashes[j] = hashTable_[i];
+      values[j] = values_[i];
+      j++;
+    }
+  }
+
+  final void checkUpdatable() {
+    if (compact_) {
+      throw new SketchesStateException("A compact sketch cannot be updated.");
+    }
+  }
+
+  private void rebuildIfNeeded() {
+    if (retEntries_ <= rebuildThreshold_) { return; }
+    if (hashTable_.length > nomEntries_) {
+      updateTheta();
+      resize(hashTable_.length);
+    } else {
+      resize(hashTable_.length * (1 << lgResizeFactor_));
+    }
+  }
+
+  private void updateTheta() {
+    final long[] hashArr = new long[retEntries_];
+    int i = 0;
+    for (int j = 0; j < hashTable_.length; j++) {
+      if (hashTable_[j] != 0) { hashArr[i++] = hashTable_[j]; }
+    }
+    thetaLong_ = QuickSelect.select(hashArr, 0, retEntries_ - 1, nomEntries_);
+  }
+
+  private void resize(final int newSize) {
+    final long[] oldHashTable = hashTable_;
+    final long[] oldValues = values_;
+    hashTable_ = new long[newSize];
+    values_ = new long[newSize];
+    lgCurrentCapacity_ = Integer.numberOfTrailingZeros(newSize);
+    retEntries_ = 0;
+    for (int i = 0; i < oldHashTable.length; i++) {
+      final long hash = oldHashTable[i];
+      if ((hash != 0) && (hash < thetaLong_)) {
+        values_[HashOperations.hashInsertOnly(hashTable_, lgCurrentCapacity_, hash)] = oldValues[i];
+        retEntries_++;
+      }
+    }
+    rebuildThreshold_ = setRebuildThreshold(newSize, nomEntries_);
+  }
+
+  private static int setRebuildThreshold(final int tableLength, final int nomEntries) {
+    return (int) (tableLength * ((tableLength > nomEntries) ? ThetaUtil.REBUILD_THRESHOLD
+        : ThetaUtil.RESIZE_THRESHOLD));
+  }
+
+  private static boolean isBigEndian() {
+    return ByteOrder.nativeOrder().equals(ByteOrder.BIG_ENDIAN);
+  }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.tuple.primitive;
+
+import static java.lang.Math.min;
+
+import org.apache.datasketches.thetacommon.QuickSelect;
+
+/**
+ * Compute the union of two or more primitive Tuple sketches of type T.
+ * The values of the same key are combined by the mode of the union.
+ *
+ * @param <T> the type of the primitive Tuple sketch
+ */
+abstract class PrimitiveUnion<T extends PrimitiveSketch> {
+  private static final long[] NO_ENTRIES = new long[0];
+  private final PrimitiveCombiner combiner_;
+  private final T gadget_;
+  private long unionThetaLong_; // need to maintain outside of the sketch
+  private boolean empty_;
+
+  PrimitiveUnion(final T gadget, final PrimitiveCombiner combiner) {
+    combiner_ = combiner;
+    gadget_ = gadget;
+    unionThetaLong_ = gadget.getThetaLong();
+    empty_ = true;
+  }
+
+  /**
+   * Perform a stateless, pair-wise union operation between two sketches.
+   * The returned sketch will be cut back to the nominal entries of this union if required.
+   *
+   * <p>This method resets the internal state of this class.</p>
+   *
+   * @param sketchA The first argument
+   * @param sketchB The second argument
+   * @return the result as a compact sketch on the heap.
+   */
+  public T union(final T sketchA, final T sketchB) {
+    reset();
+    union(sketchA);
+    union(sketchB);
+    return getResult(true);
+  }
+
+  /**
+   * Performs a stateful union of the internal set with the given sketch
+   * @param sketch input sketch to add to the internal set. Nulls and empty sketches are ignored.
+   */
+  public void union(final T sketch) {
+    if (sketch == null || sketch.isEmpty()) { return; }
+    empty_ = false;
+    unionThetaLong_ = min(sketch.thetaLong_, unionThetaLong_);
+    final long[] hashes = sketch.hashTable_;
+    final long[] values = sketch.values_;
+    for (int i = 0; i < hashes.length; i++) {
+      if (hashes[i] != 0) { gadget_.merge(hashes[i], values[i], combiner_); }
+    }
+    unionThetaLong_ = min(unionThetaLong_, gadget_.thetaLong_);
+  }
+
+  /**
+   * Gets the result of a sequence of stateful <i>union</i> operations as a compact sketch
+   * @return result of the stateful unions so far. The state of this operation is not reset after the
+   * result is returned.
+   */
+  public T getResult() {
+    return getResult(false);
+  }
+
+  /**
+   * Gets the result of a sequence of stateful <i>union</i> operations as a compact sketch
+   * @param reset If <i>true</i>, clears this operator to the empty state after this result is
+   * returned. Set this to <i>false</i> if you wish to obtain an intermediate result.
+   * @return result of the stateful union
+   */
+  public T getResult(final boolean reset) {
+    final T result;
+    if (empty_) {
+      result = newCompact(gadget_.getNominalEntries(), NO_ENTRIES, NO_ENTRIES, Long.MAX_VALUE, true);
+    } else {
+      final long tmpThetaLong = min(unionThetaLong_, gadget_.thetaLong_);
+      final long[] gadgetHashes = gadget_.hashTable_;
+      final long[] gadgetValues = gadget_.values_;
+
+      //count the number of valid hashes in because the gadget can have dirty values
+      int numHashesIn = 0;
+      for (int i = 0; i < gadgetHashes.length; i++) {
+        final long hash = gadgetHashes[i];
+        if ((hash != 0) && (hash < tmpThetaLong)) { numHashesIn++; }
+      }
+
+      final int nomEntries = gadget_.getNominalEntries();
+      final int numHashesOut;
+      final long thetaLongOut;
+      if (numHashesIn > nomEntries) {
+        //we need to trim hashes and need a new thetaLong
+        final long[] tmpHashArr = new long[numHashesIn]; // temporary, order will be destroyed by quick select
+        int i = 0;
+        for (int j = 0; j < gadgetHashes.length; j++) {
+          final long hash = gadgetHashes[j];
+          if ((hash != 0) && (hash < tmpThetaLong)) { tmpHashArr[i++] = hash; }
+        }
+        numHashesOut = nomEntries;
+        thetaLongOut = QuickSelect.select(tmpHashArr, 0, numHashesIn - 1, numHashesOut);
+      } else {
+        numHashesOut = numHashesIn;
+        thetaLongOut = tmpThetaLong;
+      }
+      //select the qualifying hashes from the gadget synchronized with the values
+      final long[] hashArr = new long[numHashesOut];
+      final long[] valueArr = new long[numHashesOut];
+      int i = 0;
+      for (int j = 0; j < gadgetHashes.length; j++) {
+        final long hash = gadgetHashes[j];
+        if ((hash != 0) && (hash < thetaLongOut)) {
+          hashArr[i] = hash;
+          valueArr[i] = gadgetValues[j];
+          i++;
+        }
+      }
+      result = newCompact(nomEntries, hashArr, valueArr, thetaLongOut, false);
+    }
+    if (reset) { reset(); }
+    return result;
+  }
+
+  /**
+   * Resets the internal set to the initial state, which represents an empty set. This is only useful
+   * after sequences of stateful union operations.
+   */
+  public void reset() {
+    gadget_.reset();
+    unionThetaLong_ = gadget_.getThetaLong();
+    empty_ = true;
+  }
+
+  abstract T newCompact(int nomEntries, long[] hashes, long[] values, long thetaLong, boolean empty);
+
+}
@@ -223,6 +223,42 @@ public class CpcSketchTest {
     assertEquals(size26, (int) ((0.6 * (1 << 26)) + 40));
   }
 
+  @Test
+  public void checkUpdateEach() {
+    final int n = 1000;
+    final int offset = 7;
+    final long[] longs = new long[offset + n];
+    final double[] doubles = new double[offset + n];
+    final int[] ints = new int[offset + n];
+    final String[] strs = new String[offset + n];
+    for (int i = 0; i < longs.length; i++) {
+      longs[i] = i * 31L;
+      doubles[i] = i / 3.0;
+      ints[i] = -i;
+      strs[i] = (i % 10 == 0) ? null : (i % 10 == 1) ? "" : Integer.toString(i);
+    }
+    doubles[offset] = -0.0;
+    final CpcSketch sk1 = new CpcSketch(10);
+    final CpcSketch sk2 = new CpcSketch(10);
+    for (int i = offset; i < (offset + n); i++) { sk1.update(longs[i]); }
+    for (int i = offset; i < (offset + n); i++) { sk1.update(doubles[i]); }
+    for (int i = offset; i < (offset + n); i++) { sk1.update(ints[i]); }
+    for (int i = offset; i < (offset + n); i++) { sk1.update(strs[i]); }
+    sk2.updateEach(longs, offset, n);
+    sk2.updateEach(doubles, offset, n);
+    sk2.updateEach(ints, offset, n);
+    sk2.updateEach(strs, offset, n);
+    assertEquals(sk2.toByteArray(), sk1.toByteArray());
+
+    final CpcSketch sk3 = new CpcSketch(10);
+    sk3.updateEach(strs, 0, 2);
+    assertTrue(sk3.isEmpty());
+    try {
+      sk3.updateEach(doubles, 0, offset + n + 1);
+      fail();
+    } catch (SketchesArgumentException e) { }
+  }
+
   /**
    * @param s the string to print
    */
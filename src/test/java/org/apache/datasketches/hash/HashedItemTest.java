@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.hash;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.datasketches.thetacommon.ThetaUtil.DEFAULT_UPDATE_SEED;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.cpc.CpcSketch;
+import org.apache.datasketches.filters.bloomfilter.BloomFilter;
+import org.apache.datasketches.filters.bloomfilter.BloomFilterBuilder;
+import org.apache.datasketches.hll.HllSketch;
+import org.apache.datasketches.theta.UpdateReturnState;
+import org.apache.datasketches.theta.UpdateSketch;
+import org.testng.annotations.Test;
+
+public class HashedItemTest {
+
+  @Test
+  public void checkSetMatchesMurmurHash3() {
+    final long seed = 123L;
+    final HashedItem item = new HashedItem(seed);
+    assertTrue(item.isEmpty());
+    assertEquals(item.getSeed(), seed);
+
+    checkHash(item.set(42L), MurmurHash3.hash(new long[] {42L}, seed));
+    checkHash(item.set(-0.0), MurmurHash3.hash(new long[] {Double.doubleToLongBits(0.0)}, seed));
+    checkHash(item.set(Double.NaN), MurmurHash3.hash(new long[] {Double.doubleToLongBits(Double.NaN)}, seed));
+    checkHash(item.set("abc"), MurmurHash3.hash("abc".getBytes(UTF_8), seed));
+    checkHash(item.set(new byte[] {1, 2, 3}), MurmurHash3.hash(new byte[] {1, 2, 3}, seed));
+    checkHash(item.set(new char[] {'a', 'b'}), MurmurHash3.hash(new char[] {'a', 'b'}, seed));
+    checkHash(item.set(new int[] {1, 2}), MurmurHash3.hash(new int[] {1, 2}, seed));
+    checkHash(item.set(new long[] {1, 2}), MurmurHash3.hash(new long[] {1, 2}, seed));
+    checkHash(item.set(ByteBuffer.wrap(new byte[] {4, 5})), MurmurHash3.hash(new byte[] {4, 5}, seed));
+    checkHash(item.setHash(7L, 8L), new long[] {7L, 8L});
+
+    assertTrue(item.set((String) null).isEmpty());
+    assertTrue(item.set(1L).set("").isEmpty());
+    assertTrue(item.set(1L).set(new byte[0]).isEmpty());
+    assertTrue(item.set(1L).set((long[]) null).isEmpty());
+    assertTrue(item.set(1L).set(ByteBuffer.allocate(0)).isEmpty());
+    assertTrue(item.set(1L).clear().isEmpty());
+  }
+
+  private static void checkHash(final HashedItem item, final long[] expected) {
+    assertFalse(item.isEmpty());
+    assertEquals(item.getHash0(), expected[0]);
+    assertEquals(item.getHash1(), expected[1]);
+  }
+
+  @Test
+  public void checkThetaHllCpcMatchDirectUpdates() {
+    final UpdateSketch theta1 = UpdateSketch.builder().setNominalEntries(64).build();
+    final UpdateSketch theta2 = UpdateSketch.builder().setNominalEntries(64).build();
+    final HllSketch hll1 = new HllSketch(10);
+    final HllSketch hll2 = new HllSketch(10);
+    final CpcSketch cpc1 = new CpcSketch(10);
+    final CpcSketch cpc2 = new CpcSketch(10);
+    final HashedItem item = new HashedItem(DEFAULT_UPDATE_SEED);
+    for (int i = 0; i < 10_000; i++) {
+      final String s = Integer.toString(i);
+      theta1.update(s);
+      hll1.update(s);
+      cpc1.update(s);
+      item.set(s);
+      theta2.update(item);
+      hll2.update(item);
+      cpc2.update(item);
+    }
+    item.clear();
+    assertEquals(theta2.update(item), UpdateReturnState.RejectedNullOrEmpty);
+    hll2.update(item);
+    cpc2.update(item);
+    assertEquals(theta2.compact().toByteArray(), theta1.compact().toByteArray());
+    assertEquals(hll2.toCompactByteArray(), hll1.toCompactByteArray());
+    assertEquals(cpc2.toByteArray(), cpc1.toByteArray());
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void checkThetaSeedMismatch() {
+    UpdateSketch.builder().build().update(new HashedItem(1L).set(1L));
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void checkHllSeedMismatch() {
+    new HllSketch(10).update(new HashedItem(1L).set(1L));
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void checkCpcSeedMismatch() {
+    new CpcSketch(10).update(new HashedItem(1L).set(1L));
+  }
+
+  @Test
+  public void checkBloomFilter() {
+    final BloomFilter bf = BloomFilterBuilder.createBySize(1000, 3, 9001L);
+    final HashedItem item = new HashedItem(17L);
+    for (long i = 0; i < 100; i++) {
+      bf.update(item.set(i));
+    }
+    for (long i = 0; i < 100; i++) {
+      assertTrue(bf.query(item.set(i)));
+    }
+    assertFalse(bf.queryAndUpdate(item.set(1000L)));
+    assertTrue(bf.query(item));
+    assertTrue(bf.queryAndUpdate(item));
+    item.clear();
+    assertFalse(bf.query(item));
+    assertFalse(bf.queryAndUpdate(item));
+    final long bitsUsed = bf.getBitsUsed();
+    bf.update(item);
+    assertEquals(bf.getBitsUsed(), bitsUsed);
+  }
+
+}
@@ -24,7 +24,12 @@ import static org.apache.datasketches.hash.MurmurHash3.hash;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
+import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.memory.Memory;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -299,6 +304,204 @@ public class MurmurHash3Test {
   }
 
 
+  @Test
+  public void checkHashOutMatchesAllocatingHash() {
+    final long seed = 9001L;
+    final long[] hashOut = new long[2];
+    for (int len = 1; len <= 40; len++) {
+      final byte[] bArr = new byte[len];
+      final char[] cArr = new char[len];
+      final int[] iArr = new int[len];
+      final long[] lArr = new long[len];
+      for (int i = 0; i < len; i++) {
+        bArr[i] = (byte) (i * 31 + len);
+        cArr[i] = (char) (i * 1031 + len);
+        iArr[i] = i * 1000003 + len;
+        lArr[i] = i * 0x9E3779B97F4A7C15L + len;
+      }
+      Assert.assertEquals(hash(bArr, seed, hashOut), hash(bArr, seed));
+      Assert.assertEquals(hash(cArr, seed, hashOut), hash(cArr, seed));
+      Assert.assertEquals(hash(iArr, seed, hashOut), hash(iArr, seed));
+      Assert.assertEquals(hash(lArr, seed, hashOut), hash(lArr, seed));
+      if (len > 1) {
+        Assert.assertEquals(hash(bArr, 1, len - 1, seed, hashOut), hash(bArr, 1, len - 1, seed));
+        Assert.assertEquals(hash(lArr, 1, len - 1, seed, hashOut), hash(lArr, 1, len - 1, seed));
+      }
+      Assert.assertEquals(hash(ByteBuffer.wrap(bArr), seed, hashOut), hash(bArr, seed));
+      Assert.assertEquals(hash(Memory.wrap(bArr), seed, hashOut), hash(bArr, seed));
+    }
+    for (long key = -5; key <= 5; key++) {
+      final long[] expected = hash(new long[] { key }, seed);
+      Assert.assertEquals(hash(key, seed, hashOut), expected);
+      Assert.assertEquals(hash(key, seed), expected);
+      Assert.assertEquals(MurmurHash3.hash64(key, seed), expected[0]);
+    }
+    Assert.assertSame(hash(1L, seed, hashOut), hashOut);
+  }
+
+  @Test
+  public void checkUtf8MatchesByteArray() {
+    final long[] hashOut = new long[2];
+    for (String str : utf8TestStrings()) {
+      if (str.isEmpty()) { continue; }
+      final long[] expected = hash(str.getBytes(UTF_8), 9001L);
+      Assert.assertEquals(MurmurHash3.hashUtf8(str, 9001L), expected);
+      Assert.assertEquals(MurmurHash3.hashUtf8(new StringBuilder(str), 9001L, hashOut), expected);
+    }
+    final Random rand = new Random(1);
+    for (int i = 0; i < 1000; i++) {
+      final String str = randomString(rand, 1 + rand.nextInt(100));
+      Assert.assertEquals(MurmurHash3.hashUtf8(str, i), hash(str.getBytes(UTF_8), i));
+    }
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void checkUtf8Empty() {
+    MurmurHash3.hashUtf8("", 0);
+  }
+
+  @Test
+  public void checkHashEachOfPrimitives() {
+    final Random rand = new Random(1);
+    final int n = 100;
+    final long[] longs = new long[n + 3];
+    final double[] doubles = new double[n + 3];
+    final int[] ints = new int[n + 3];
+    for (int i = 0; i < longs.length; i++) {
+      longs[i] = rand.nextLong();
+      doubles[i] = rand.nextGaussian();
+      ints[i] = rand.nextInt();
+    }
+    doubles[3] = -0.0;
+    doubles[4] = Double.longBitsToDouble(0x7ff8000000000001L); //a non-canonical NaN
+    final long[] out128 = new long[2 * n];
+    final long[] out64 = new long[n];
+    final long seed = 9001L;
+
+    MurmurHash3.hashEach(longs, 3, n, seed, out128);
+    MurmurHash3.hash64Each(longs, 3, n, seed, out64);
+    for (int i = 0; i < n; i++) {
+      final long[] expected = hash(longs[3 + i], seed);
+      Assert.assertEquals(out128[2 * i], expected[0]);
+      Assert.assertEquals(out128[(2 * i) + 1], expected[1]);
+      Assert.assertEquals(out64[i], expected[0]);
+    }
+
+    MurmurHash3.hashEach(doubles, 3, n, seed, out128);
+    MurmurHash3.hash64Each(doubles, 3, n, seed, out64);
+    for (int i = 0; i < n; i++) {
+      final double d = doubles[3 + i];
+      final long bits = Double.doubleToLongBits(d == 0.0 ? 0.0 : d);
+      final long[] expected = hash(new long[] {bits}, seed);
+      Assert.assertEquals(out128[2 * i], expected[0]);
+      Assert.assertEquals(out128[(2 * i) + 1], expected[1]);
+      Assert.assertEquals(out64[i], expected[0]);
+    }
+    Assert.assertEquals(out64[0], hash(new long[] {Double.doubleToLongBits(0.0)}, seed)[0]);
+    Assert.assertEquals(out64[1], hash(new long[] {Double.doubleToLongBits(Double.NaN)}, seed)[0]);
+
+    MurmurHash3.hashEach(ints, 3, n, seed, out128);
+    MurmurHash3.hash64Each(ints, 3, n, seed, out64);
+    for (int i = 0; i < n; i++) {
+      final long[] expected = hash(new long[] {ints[3 + i]}, seed);
+      Assert.assertEquals(out128[2 * i], expected[0]);
+      Assert.assertEquals(out128[(2 * i) + 1], expected[1]);
+      Assert.assertEquals(out64[i], expected[0]);
+    }
+  }
+
+  @Test
+  public void checkHashEachOfStringsAndBytes() {
+    final String[] strs = utf8TestStrings();
+    strs[1] = null;
+    final int n = strs.length;
+    final byte[][] byteArrs = new byte[n][];
+    final int[] offsets = new int[n + 1];
+    final java.io.ByteArrayOutputStream data = new java.io.ByteArrayOutputStream();
+    for (int i = 0; i < n; i++) {
+      byteArrs[i] = (strs[i] == null) ? null : strs[i].getBytes(UTF_8);
+      if (byteArrs[i] != null) { data.write(byteArrs[i], 0, byteArrs[i].length); }
+      offsets[i + 1] = data.size();
+    }
+    final long seed = 123L;
+    final long[] strOut = MurmurHash3.hashEach(strs, 0, n, seed, new long[2 * n]);
+    final long[] str64Out = MurmurHash3.hash64Each(strs, 0, n, seed, new long[n]);
+    final long[] bytesOut = MurmurHash3.hashEach(byteArrs, 0, n, seed, new long[2 * n]);
+    final long[] sliceOut = MurmurHash3.hashEach(data.toByteArray(), offsets, 0, n, seed, new long[2 * n]);
+    for (int i = 0; i < n; i++) {
+      final long[] expected = (byteArrs[i] == null || byteArrs[i].length == 0)
+          ? new long[2] : hash(byteArrs[i], seed);
+      Assert.assertEquals(strOut[2 * i], expected[0]);
+      Assert.assertEquals(strOut[(2 * i) + 1], expected[1]);
+      Assert.assertEquals(str64Out[i], expected[0]);
+      Assert.assertEquals(bytesOut[2 * i], expected[0]);
+      Assert.assertEquals(bytesOut[(2 * i) + 1], expected[1]);
+      Assert.assertEquals(sliceOut[2 * i], expected[0]);
+      Assert.assertEquals(sliceOut[(2 * i) + 1], expected[1]);
+    }
+    //a portion of the slices
+    final long[] partOut = MurmurHash3.hashEach(data.toByteArray(), offsets, 10, 5, seed, new long[10]);
+    for (int i = 0; i < 5; i++) {
+      Assert.assertEquals(partOut[2 * i], sliceOut[2 * (10 + i)]);
+    }
+  }
+
+  @Test
+  public void checkHashEachBounds() {
+    try {
+      MurmurHash3.hashEach(new long[4], 1, 4, 0, new long[8]);
+      Assert.fail();
+    } catch (SketchesArgumentException e) { }
+    try {
+      MurmurHash3.hashEach(new long[4], 0, 4, 0, new long[7]);
+      Assert.fail();
+    } catch (SketchesArgumentException e) { }
+    try {
+      MurmurHash3.hash64Each(new long[4], 0, 4, 0, new long[3]);
+      Assert.fail();
+    } catch (SketchesArgumentException e) { }
+    try {
+      MurmurHash3.hashEach(new byte[4], new int[] {0, 2, 5}, 0, 2, 0, new long[4]);
+      Assert.fail();
+    } catch (SketchesArgumentException e) { }
+    Assert.assertEquals(MurmurHash3.hashEach(new long[0], 0, 0, 0, new long[0]).length, 0);
+  }
+
+  /**
+   * Strings that exercise all of the UTF-8 encoding lengths, malformed surrogates and the
+   * block and word boundaries of the hash functions.
+   * @return the test strings
+   */
+  static String[] utf8TestStrings() {
+    final String ascii = "The quick brown fox jumps over the lazy dog";
+    final List<String> list = new ArrayList<>();
+    for (int len = 0; len <= ascii.length(); len++) { list.add(ascii.substring(0, len)); }
+    final String[] units = {
+        "\u00e9", "\u00df\u00f1", "\u20ac", "\u4e2d\u6587", "\ud83d\ude00", //2, 3 and 4 byte encodings
+        "\ud83d", "\ude00", "\ude00\ud83d", "a\ud83d" //unpaired surrogates
+    };
+    for (String unit : units) {
+      for (int pre = 0; pre < 17; pre++) {
+        list.add(ascii.substring(0, pre) + unit);
+        list.add(ascii.substring(0, pre) + unit + ascii.substring(0, 17 - pre) + unit + unit);
+      }
+    }
+    return list.toArray(new String[0]);
+  }
+
+  static String randomString(final Random rand, final int lengthChars) {
+    final char[] chars = new char[lengthChars];
+    for (int i = 0; i < lengthChars; i++) {
+      switch (rand.nextInt(5)) {
+        case 0: chars[i] = (char) rand.nextInt(0x80); break;
+        case 1: chars[i] = (char) (0x80 + rand.nextInt(0x780)); break;
+        case 2: chars[i] = (char) (0x800 + rand.nextInt(0xD000)); break;
+        default: chars[i] = (char) (0xD800 + rand.nextInt(0x800)); break; //paired or unpaired surrogates
+      }
+    }
+    return new String(chars);
+  }
+
   //Helper methods
   private static long[] stringToLongs(String in) {
     byte[] bArr = in.getBytes(UTF_8);
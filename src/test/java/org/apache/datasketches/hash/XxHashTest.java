@@ -19,10 +19,14 @@
 
 package org.apache.datasketches.hash;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.testng.Assert.assertEquals;
 
+import java.util.Random;
+
 import org.testng.annotations.Test;
 
+import org.apache.datasketches.common.SketchesArgumentException;
 import org.apache.datasketches.memory.Memory;
 
 /**
@@ -41,4 +45,77 @@ public class XxHashTest {
     assertEquals(hash2, hash1);
   }
 
+  @Test
+  public void utf8Check() {
+    for (String str : MurmurHash3Test.utf8TestStrings()) {
+      final byte[] bytes = str.getBytes(UTF_8);
+      for (long seed : new long[] {0, 9001, -1}) {
+        final long expected = org.apache.datasketches.memory.XxHash.hashByteArr(bytes, 0, bytes.length, seed);
+        assertEquals(XxHash.hashUtf8(str, seed), expected);
+        assertEquals(XxHash.hashUtf8(new StringBuilder(str), seed), expected);
+      }
+    }
+  }
+
+  @Test
+  public void utf8RandomCheck() {
+    final Random rand = new Random(1);
+    for (int i = 0; i < 1000; i++) {
+      final String str = MurmurHash3Test.randomString(rand, rand.nextInt(100));
+      final byte[] bytes = str.getBytes(UTF_8);
+      assertEquals(XxHash.hashUtf8(str, i), org.apache.datasketches.memory.XxHash.hashByteArr(bytes, 0, bytes.length, i));
+    }
+  }
+
+  @Test
+  public void hashEachCheck() {
+    final Random rand = new Random(1);
+    final int n = 100;
+    final long[] longs = new long[n + 2];
+    final double[] doubles = new double[n + 2];
+    final int[] ints = new int[n + 2];
+    for (int i = 0; i < longs.length; i++) {
+      longs[i] = rand.nextLong();
+      doubles[i] = rand.nextGaussian();
+      ints[i] = rand.nextInt();
+    }
+    final long seed = 9001L;
+    final long[] longOut = XxHash.hashEach(longs, 2, n, seed, new long[n]);
+    final long[] doubleOut = XxHash.hashEach(doubles, 2, n, seed, new long[n]);
+    final long[] intOut = XxHash.hashEach(ints, 2, n, seed, new long[n]);
+    for (int i = 0; i < n; i++) {
+      assertEquals(longOut[i], XxHash.hash(longs[2 + i], seed));
+      final long[] bits = { Double.doubleToLongBits(doubles[2 + i]) };
+      assertEquals(doubleOut[i], org.apache.datasketches.memory.XxHash.hashLongArr(bits, 0, 1, seed));
+      assertEquals(intOut[i], XxHash.hash(ints[2 + i], seed));
+    }
+
+    final String[] strs = MurmurHash3Test.utf8TestStrings();
+    strs[1] = null;
+    final int m = strs.length;
+    final byte[][] byteArrs = new byte[m][];
+    final int[] offsets = new int[m + 1];
+    final java.io.ByteArrayOutputStream data = new java.io.ByteArrayOutputStream();
+    for (int i = 0; i < m; i++) {
+      byteArrs[i] = (strs[i] == null) ? null : strs[i].getBytes(UTF_8);
+      if (byteArrs[i] != null) { data.write(byteArrs[i], 0, byteArrs[i].length); }
+      offsets[i + 1] = data.size();
+    }
+    final long[] strOut = XxHash.hashEach(strs, 0, m, seed, new long[m]);
+    final long[] bytesOut = XxHash.hashEach(byteArrs, 0, m, seed, new long[m]);
+    final long[] sliceOut = XxHash.hashEach(data.toByteArray(), offsets, 0, m, seed, new long[m]);
+    for (int i = 0; i < m; i++) {
+      final long expected = (byteArrs[i] == null) ? 0
+          : org.apache.datasketches.memory.XxHash.hashByteArr(byteArrs[i], 0, byteArrs[i].length, seed);
+      assertEquals(strOut[i], expected);
+      assertEquals(bytesOut[i], expected);
+      if (byteArrs[i] != null) { assertEquals(sliceOut[i], expected); }
+    }
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void hashEachBoundsCheck() {
+    XxHash.hashEach(new long[4], 0, 4, 0, new long[3]);
+  }
+
 }
@@ -21,9 +21,11 @@ package org.apache.datasketches.hll;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import org.testng.annotations.Test;
 
+import org.apache.datasketches.common.SketchesArgumentException;
 import org.apache.datasketches.memory.WritableMemory;
 
 import java.nio.ByteBuffer;
@@ -107,6 +109,48 @@ public class BaseHllSketchTest {
     assertEquals(BaseHllSketch.getSerializationVersion(wmem), PreambleUtil.SER_VER);
   }
 
+  @Test
+  public void checkUpdateEach() {
+    final int n = 1000;
+    final int offset = 7;
+    final long[] longs = new long[offset + n];
+    final double[] doubles = new double[offset + n];
+    final int[] ints = new int[offset + n];
+    final String[] strs = new String[offset + n];
+    for (int i = 0; i < longs.length; i++) {
+      longs[i] = i * 31L;
+      doubles[i] = i / 3.0;
+      ints[i] = -i;
+      strs[i] = (i % 10 == 0) ? null : (i % 10 == 1) ? "" : Integer.toString(i);
+    }
+    doubles[offset] = -0.0;
+    final HllSketch sk1 = new HllSketch(10);
+    final HllSketch sk2 = new HllSketch(10);
+    final Union union = new Union(10);
+    for (int i = offset; i < (offset + n); i++) { sk1.update(longs[i]); }
+    for (int i = offset; i < (offset + n); i++) { sk1.update(doubles[i]); }
+    for (int i = offset; i < (offset + n); i++) { sk1.update(ints[i]); }
+    for (int i = offset; i < (offset + n); i++) { sk1.update(strs[i]); }
+    sk2.updateEach(longs, offset, n);
+    sk2.updateEach(doubles, offset, n);
+    sk2.updateEach(ints, offset, n);
+    sk2.updateEach(strs, offset, n);
+    assertEquals(sk2.toCompactByteArray(), sk1.toCompactByteArray());
+    union.updateEach(longs, offset, n);
+    union.updateEach(doubles, offset, n);
+    union.updateEach(ints, offset, n);
+    union.updateEach(strs, offset, n);
+    assertEquals(union.getResult().toCompactByteArray(), sk1.toCompactByteArray());
+
+    final HllSketch sk3 = new HllSketch(10);
+    sk3.updateEach(strs, 0, 2);
+    assertTrue(sk3.isEmpty());
+    try {
+      sk3.updateEach(ints, -1, 2);
+      fail();
+    } catch (SketchesArgumentException e) { }
+  }
+
   @Test
   public void printlnTest() {
     println("PRINTING: " + this.getClass().getName());
@@ -24,8 +24,13 @@ import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
 import org.apache.datasketches.common.Family;
 import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.memory.Memory;
 import org.apache.datasketches.memory.WritableMemory;
 import org.apache.datasketches.thetacommon.ThetaUtil;
 import org.testng.annotations.Test;
@@ -318,6 +323,123 @@ public class AnotBimplTest {
     assertEquals(bytes, 16 * 15 + 24);
   }
 
+  @Test
+  public void checkOrderedMergeAnotB() {
+    final int[][] ranges = { {0, 50_000}, {10_000, 30_000}, {0, 100}, {40, 60}, {20_000, 70_000} };
+    final List<Sketch> ordered = new ArrayList<>();
+    final List<Sketch> unordered = new ArrayList<>();
+    for (int s = 0; s < ranges.length; s++) {
+      final UpdateSketch sk = Sketches.updateSketchBuilder().setNominalEntries(4096 >> (s & 1)).build();
+      for (int i = ranges[s][0]; i < ranges[s][1]; i++) { sk.update(i); }
+      final CompactSketch csk = sk.compact();
+      switch (s % 3) {
+        case 0: ordered.add(csk); break;
+        case 1: ordered.add(Sketch.wrap(Memory.wrap(csk.toByteArray()))); break;
+        default: ordered.add(Sketch.wrap(Memory.wrap(csk.toByteArrayCompressed()))); break;
+      }
+      unordered.add(sk.compact(false, null));
+    }
+    final AnotB aNotB = Sketches.setOperationBuilder().buildANotB();
+    for (int i = 0; i < ranges.length; i++) {
+      for (int j = 0; j < ranges.length; j++) {
+        final CompactSketch expected = aNotB.aNotB(unordered.get(i), unordered.get(j));
+        assertEquals(aNotB.aNotB(ordered.get(i), ordered.get(j)).toByteArray(), expected.toByteArray());
+        aNotB.setA(ordered.get(i));
+        aNotB.notB(ordered.get(j));
+        aNotB.notB(unordered.get(j));
+        assertEquals(aNotB.getResult(true).toByteArray(), expected.toByteArray());
+      }
+    }
+  }
+
+  @Test
+  public void checkNotBAll() {
+    final UpdateSketch skA = Sketches.updateSketchBuilder().setNominalEntries(4096).build();
+    for (int i = 0; i < 20_000; i++) { skA.update(i); }
+    final List<Sketch> skBs = new ArrayList<>();
+    for (int s = 0; s < 40; s++) {
+      final UpdateSketch sk = Sketches.updateSketchBuilder().setNominalEntries(8192).build();
+      for (int i = s * 400; i < (s * 400) + 300 + (s * 20); i++) { sk.update(i); }
+      switch (s % 4) {
+        case 0: skBs.add(sk.compact()); break;
+        case 1: skBs.add(Sketch.wrap(Memory.wrap(sk.compact().toByteArray()))); break;
+        case 2: skBs.add(sk.compact(false, null)); break;
+        default: skBs.add(sk); break;
+      }
+    }
+    final UpdateSketch skSmall = Sketches.updateSketchBuilder().setNominalEntries(1024).build();
+    for (int i = 10_000; i < 40_000; i++) { skSmall.update(i); }
+    skBs.add(7, skSmall.compact()); //lowers theta
+    skBs.add(null);
+    skBs.add(Sketches.updateSketchBuilder().build());
+
+    final AnotB aNotB = Sketches.setOperationBuilder().buildANotB();
+    aNotB.setA(skA);
+    for (final Sketch skB : skBs) { aNotB.notB(skB); }
+    final CompactSketch expected = aNotB.getResult(true);
+    assertTrue(expected.getRetainedEntries() > 0);
+    assertTrue(expected.getThetaLong() < skA.getThetaLong());
+
+    assertEquals(aNotB.aNotBAll(skA, skBs).toByteArray(), expected.toByteArray());
+    final ForkJoinPool pool = new ForkJoinPool(3);
+    try {
+      final WritableMemory wmem = WritableMemory.allocate(Sketches.getMaxAnotBResultBytes(4096));
+      final CompactSketch direct = aNotB.aNotBAll(skA, skBs, true, wmem, pool);
+      assertTrue(direct.hasMemory());
+      assertEquals(direct.toByteArray(), expected.toByteArray());
+      assertEquals(aNotB.aNotBAll(skA, skBs, false, null, pool).getEstimate(), expected.getEstimate());
+    } finally {
+      pool.shutdown();
+    }
+
+    //stateful, in two batches with an interim result
+    aNotB.setA(skA.compact(false, null));
+    aNotB.notBAll(skBs.subList(0, 20));
+    aNotB.getResult(false);
+    aNotB.notBAll(skBs.subList(20, skBs.size()));
+    assertEquals(aNotB.getResult(true).toByteArray(), expected.toByteArray());
+  }
+
+  @Test
+  public void checkNotBAllEdgeCases() {
+    final AnotB aNotB = Sketches.setOperationBuilder().buildANotB();
+    final UpdateSketch skA = Sketches.updateSketchBuilder().build();
+    final List<Sketch> none = new ArrayList<>();
+    assertTrue(aNotB.aNotBAll(skA, none).isEmpty());
+    for (int i = 0; i < 100; i++) { skA.update(i); }
+    assertEquals(aNotB.aNotBAll(skA, none).getEstimate(), 100.0);
+    aNotB.notBAll(none); //ignored while A is empty
+    assertTrue(aNotB.getResult(true).isEmpty());
+
+    final List<Sketch> same = new ArrayList<>();
+    same.add(skA);
+    same.add(skA.compact());
+    final CompactSketch csk = aNotB.aNotBAll(skA, same);
+    assertEquals(csk.getRetainedEntries(), 0);
+    assertTrue(csk.isEmpty());
+
+    try {
+      aNotB.aNotBAll(null, none);
+      fail();
+    } catch (final SketchesArgumentException e) { }
+    try {
+      aNotB.aNotBAll(skA, null);
+      fail();
+    } catch (final SketchesArgumentException e) { }
+    try {
+      aNotB.notBAll(null);
+      fail();
+    } catch (final SketchesArgumentException e) { }
+    final List<Sketch> otherSeed = new ArrayList<>();
+    final UpdateSketch skOther = Sketches.updateSketchBuilder().setSeed(123).build();
+    skOther.update(1);
+    otherSeed.add(skOther);
+    try {
+      aNotB.aNotBAll(skA, otherSeed);
+      fail();
+    } catch (final SketchesArgumentException e) { }
+  }
+
   @Test
   public void printlnTest() {
     println("PRINTING: "+this.getClass().getName());
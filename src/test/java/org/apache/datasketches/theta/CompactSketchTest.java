@@ -31,6 +31,7 @@ import org.apache.datasketches.common.SketchesArgumentException;
 import org.apache.datasketches.memory.Memory;
 import org.apache.datasketches.memory.WritableHandle;
 import org.apache.datasketches.memory.WritableMemory;
+import org.apache.datasketches.thetacommon.ThetaUtil;
 import org.testng.annotations.Test;
 
 /**
@@ -586,6 +587,68 @@ public class CompactSketchTest {
     }
   }
 
+  @Test
+  public void checkWrapCompressed() {
+    for (int n : new int[] {2, 7, 8, 9, 63, 64, 65, 100, 4095, 10000}) {
+      UpdateSketch sk = Sketches.updateSketchBuilder().build();
+      for (int i = 0; i < n; i++) { sk.update(i); }
+      CompactSketch cs1 = sk.compact();
+      byte[] bytes = cs1.toByteArrayCompressed();
+      CompactSketch cs2 = CompactSketch.wrap(Memory.wrap(bytes), ThetaUtil.DEFAULT_UPDATE_SEED);
+      assertTrue(cs2.hasMemory());
+      assertTrue(cs2.isOrdered());
+      assertFalse(cs2.isEmpty());
+      assertEquals(cs2.getRetainedEntries(), cs1.getRetainedEntries());
+      assertEquals(cs2.getThetaLong(), cs1.getThetaLong());
+      assertEquals(cs2.getEstimate(), cs1.getEstimate());
+      assertEquals(cs2.getCurrentBytes(), bytes.length);
+      assertEquals(cs2.getCompactBytes(), cs1.getCompactBytes());
+      assertEquals(cs2.toByteArrayCompressed(), bytes);
+      assertEquals(cs2.toByteArray(), cs1.toByteArray());
+      assertEquals(CompactSketch.heapify(Memory.wrap(bytes)).toByteArray(), cs1.toByteArray());
+      WritableMemory dmem = WritableMemory.allocate(cs1.getCompactBytes());
+      assertEquals(sk.compact(true, dmem).toByteArrayCompressed(), bytes);
+      assertEquals(cs2.compact().toByteArray(), cs1.toByteArray());
+      WritableMemory wmem = WritableMemory.allocate(cs2.getCompactBytes());
+      assertEquals(cs2.compact(false, wmem).getEstimate(), cs1.getEstimate());
+      HashIterator it1 = cs1.iterator();
+      HashIterator it2 = cs2.iterator();
+      while (it1.next()) {
+        assertTrue(it2.next());
+        assertEquals(it2.get(), it1.get());
+      }
+      assertFalse(it2.next());
+    }
+  }
+
+  @Test
+  public void checkSetOperationsWithWrappedCompressed() {
+    UpdateSketch skA = Sketches.updateSketchBuilder().build();
+    UpdateSketch skB = Sketches.updateSketchBuilder().setNominalEntries(1024).build();
+    for (int i = 0; i < 20000; i++) { skA.update(i); }
+    for (int i = 10000; i < 50000; i++) { skB.update(i); }
+    CompactSketch cskA = skA.compact();
+    CompactSketch cskB = skB.compact();
+    Memory memA = Memory.wrap(cskA.toByteArrayCompressed());
+    Memory memB = Memory.wrap(cskB.toByteArrayCompressed());
+
+    Union union1 = Sketches.setOperationBuilder().buildUnion();
+    union1.union(cskA);
+    union1.union(cskB);
+    Union union2 = Sketches.setOperationBuilder().buildUnion();
+    union2.union(memA);
+    union2.union(CompactSketch.wrap(memB));
+    assertEquals(union2.getResult().toByteArray(), union1.getResult().toByteArray());
+
+    Intersection inter1 = Sketches.setOperationBuilder().buildIntersection();
+    inter1.intersect(cskA);
+    inter1.intersect(cskB);
+    Intersection inter2 = Sketches.setOperationBuilder().buildIntersection();
+    inter2.intersect(CompactSketch.wrap(memA));
+    inter2.intersect(CompactSketch.wrap(memB));
+    assertEquals(inter2.getResult().toByteArray(), inter1.getResult().toByteArray());
+  }
+
   private static class State {
     String classType = null;
     int count = 0;
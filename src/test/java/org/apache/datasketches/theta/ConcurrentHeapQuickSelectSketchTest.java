@@ -28,6 +28,12 @@ import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
 import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.datasketches.common.Family;
 import org.apache.datasketches.common.SketchesArgumentException;
@@ -656,6 +662,78 @@ public class ConcurrentHeapQuickSelectSketchTest {
     assertEquals(bldr.getMaxNumLocalThreads(), 4);
   }
 
+  @Test
+  public void checkPropagationExecutor() throws InterruptedException {
+    final ExecutorService pool = Executors.newFixedThreadPool(4);
+    final AtomicInteger count = new AtomicInteger();
+    final Executor executor = task -> { count.incrementAndGet(); pool.execute(task); };
+    try {
+      final UpdateSketchBuilder bldr = new UpdateSketchBuilder().setLogNominalEntries(12)
+          .setPropagationExecutor(executor);
+      assertTrue(bldr.getPropagationExecutor() == executor);
+      final UpdateSketch shared = bldr.buildShared();
+      final UpdateSketch local = bldr.buildLocal(shared);
+      final int u = 100_000;
+      for (int i = 0; i < u; i++) { local.update(i); }
+      waitForBgPropagationToComplete(shared);
+      assertTrue(count.get() > 0);
+      assertEquals(shared.getEstimate(), u, u * 0.05);
+      //the sketch does not own the executor
+      assertFalse(pool.isShutdown());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void checkRejectingPropagationExecutor() {
+    final Executor rejecting = task -> { throw new RejectedExecutionException(); };
+    final UpdateSketchBuilder bldr = new UpdateSketchBuilder().setLogNominalEntries(9)
+        .setPropagationExecutor(rejecting);
+    final UpdateSketch shared = bldr.buildShared();
+    final UpdateSketch local = bldr.buildLocal(shared);
+    final int u = 10_000;
+    for (int i = 0; i < u; i++) { local.update(i); }
+    //the propagations ran in this thread
+    assertEquals(shared.getEstimate(), u, u * 0.15);
+  }
+
+  @Test
+  public void checkPropagationOnVirtualThreads() {
+    final UpdateSketchBuilder bldr = new UpdateSketchBuilder().setLogNominalEntries(9)
+        .setPropagationOnVirtualThreads(true);
+    assertTrue(bldr.getPropagationOnVirtualThreads());
+    assertTrue(bldr.toString().contains("PropagationOnVirtualThreads"));
+    //uses the default pool if the JVM has no virtual threads
+    final UpdateSketch shared = bldr.buildShared(WritableMemory.allocate(1 << 16));
+    final UpdateSketch local = bldr.buildLocal(shared);
+    final int u = 10_000;
+    for (int i = 0; i < u; i++) { local.update(i); }
+    waitForBgPropagationToComplete(shared);
+    assertEquals(shared.getEstimate(), u, u * 0.15);
+  }
+
+  @Test
+  public void checkShutdownPropagationService() throws InterruptedException {
+    final SharedLocal sl = new SharedLocal(9);
+    for (int i = 0; i < 10_000; i++) { sl.local.update(i); }
+    assertTrue(ConcurrentPropagationService.shutdown(10, TimeUnit.SECONDS));
+    //propagation continues in the updating thread
+    for (int i = 10_000; i < 20_000; i++) { sl.local.update(i); }
+    waitForBgPropagationToComplete(sl.shared);
+    assertEquals(sl.shared.getEstimate(), 20_000, 20_000 * 0.15);
+    //new sketches start new pool threads
+    final SharedLocal sl2 = new SharedLocal(9);
+    for (int i = 0; i < 10_000; i++) { sl2.local.update(i); }
+    waitForBgPropagationToComplete(sl2.shared);
+    assertEquals(sl2.shared.getEstimate(), 10_000, 10_000 * 0.15);
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void checkNumPoolThreads() {
+    new UpdateSketchBuilder().setNumPoolThreads(0);
+  }
+
   @Test(expectedExceptions = UnsupportedOperationException.class)
   public void checkToByteArray() {
     SharedLocal sl = new SharedLocal();
@@ -737,8 +815,6 @@ public class ConcurrentHeapQuickSelectSketchTest {
     }
     ConcurrentSharedThetaSketch csts = (ConcurrentSharedThetaSketch)shared;
     csts.awaitBgPropagationTermination();
-    ConcurrentPropagationService.resetExecutorService(Thread.currentThread().getId());
-    csts.initBgPropagationService();
   }
 
 }
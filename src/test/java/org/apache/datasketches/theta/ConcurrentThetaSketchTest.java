@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.datasketches.memory.WritableMemory;
+import org.testng.annotations.Test;
+
+public class ConcurrentThetaSketchTest {
+
+  @Test
+  public void checkExactModeFlush() {
+    final ConcurrentThetaSketch sk = new UpdateSketchBuilder().setNominalEntries(4096).buildConcurrent();
+    assertTrue(sk.isEmpty());
+    assertEquals(Integer.bitCount(sk.getNumStripes()), 1);
+    final UpdateSketch ref = new UpdateSketchBuilder().setNominalEntries(4096).build();
+    for (int i = 0; i < 1000; i++) {
+      sk.update(i);
+      ref.update(i);
+    }
+    sk.update("a");
+    ref.update("a");
+    sk.update((String) null);
+    sk.update(new byte[0]);
+    sk.updateEach(new long[] {5000, 5001, 5002}, 0, 3);
+    ref.updateEach(new long[] {5000, 5001, 5002}, 0, 3);
+    assertFalse(sk.isEmpty());
+    assertEquals(sk.getEstimate(), 1004.0);
+    assertEquals(sk.getLowerBound(2), 1004.0);
+    assertEquals(sk.getUpperBound(2), 1004.0);
+    final CompactSketch csk = sk.compact();
+    assertTrue(csk.isOrdered());
+    assertEquals(csk.toByteArray(), ref.compact().toByteArray());
+  }
+
+  @Test
+  public void checkManyThreads() throws InterruptedException {
+    final int numThreads = 8;
+    final int perThread = 100_000;
+    final ConcurrentThetaSketch sk = new UpdateSketchBuilder().setNominalEntries(4096)
+        .setLocalNominalEntries(16).buildConcurrent();
+    final List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < numThreads; t++) {
+      final long base = (long) t * perThread;
+      threads.add(new Thread(() -> {
+        final long[] batch = new long[100];
+        for (int i = 0; i < perThread; i += batch.length) {
+          for (int j = 0; j < batch.length; j++) { batch[j] = base + i + j; }
+          if ((i & 1) == 0) {
+            sk.updateEach(batch, 0, batch.length);
+          } else {
+            for (final long v : batch) { sk.update(v); }
+          }
+        }
+      }));
+    }
+    for (final Thread th : threads) { th.start(); }
+    for (final Thread th : threads) { th.join(); }
+    final int n = numThreads * perThread;
+    assertTrue(sk.getLowerBound(3) <= n);
+    assertTrue(sk.getUpperBound(3) >= n);
+    assertEquals(sk.getEstimate(), n, n * 0.05);
+  }
+
+  @Test
+  public void checkScheduledFlush() throws InterruptedException {
+    final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    try {
+      final ConcurrentThetaSketch sk = new UpdateSketchBuilder().buildConcurrent();
+      final ScheduledFuture<?> future = sk.scheduleFlush(scheduler, 1, TimeUnit.MILLISECONDS);
+      for (int i = 0; i < 100; i++) { sk.update(i); }
+      Thread.sleep(50);
+      future.cancel(false);
+      assertEquals(sk.getEstimate(), 100.0);
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  public void checkReset() {
+    final ConcurrentThetaSketch sk = new UpdateSketchBuilder().buildConcurrent();
+    for (int i = 0; i < 100_000; i++) { sk.update(i); }
+    sk.flush();
+    assertFalse(sk.isEmpty());
+    sk.reset();
+    assertTrue(sk.isEmpty());
+    assertEquals(sk.getEstimate(), 0.0);
+    sk.update(1L);
+    assertEquals(sk.getEstimate(), 1.0);
+  }
+
+  @Test
+  public void checkDirect() {
+    final int k = 512;
+    final WritableMemory wmem = WritableMemory.allocate(Sketch.getMaxUpdateSketchBytes(k));
+    final ConcurrentThetaSketch sk = new UpdateSketchBuilder().setNominalEntries(k).buildConcurrent(wmem);
+    for (int i = 0; i < 100; i++) { sk.update((double) i); }
+    sk.flush();
+    final Sketch wrapped = Sketch.wrap(wmem);
+    assertEquals(wrapped.getEstimate(), 100.0);
+    final WritableMemory cmem = WritableMemory.allocate(Sketch.getMaxCompactSketchBytes(100));
+    assertEquals(sk.compact(true, cmem).getEstimate(), 100.0);
+    println(sk.toString());
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(final String s) {
+    //System.out.println(s); //disable here
+  }
+}
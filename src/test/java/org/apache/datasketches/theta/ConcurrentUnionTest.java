@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.WritableMemory;
+import org.testng.annotations.Test;
+
+public class ConcurrentUnionTest {
+
+  @Test
+  public void checkExactMode() {
+    final ConcurrentUnion union = new SetOperationBuilder().buildConcurrentUnion(3);
+    assertEquals(union.getNumStripes(), 4);
+    assertTrue(union.getResult().isEmpty());
+    final Union ref = new SetOperationBuilder().buildUnion();
+    for (int s = 0; s < 10; s++) {
+      final UpdateSketch sk = new UpdateSketchBuilder().build();
+      for (int i = 0; i < 100; i++) { sk.update((s * 50) + i); }
+      union.union(sk);
+      union.union(Memory.wrap(sk.compact().toByteArray()));
+      ref.union(sk);
+    }
+    union.union((Sketch) null);
+    union.union((Memory) null);
+    final CompactSketch result = union.getResult();
+    assertEquals(result.getEstimate(), 550.0);
+    assertEquals(result.toByteArray(), ref.getResult().toByteArray());
+    final WritableMemory wmem = WritableMemory.allocate(Sketch.getMaxCompactSketchBytes(550));
+    assertEquals(union.getResult(false, wmem).getEstimate(), 550.0);
+    union.reset();
+    assertTrue(union.getResult().isEmpty());
+  }
+
+  @Test
+  public void checkManyThreads() throws Exception {
+    final int numSketches = 200;
+    final int perSketch = 5_000;
+    final ConcurrentUnion union = new SetOperationBuilder().setNominalEntries(4096).buildConcurrentUnion();
+    final Union ref = new SetOperationBuilder().setNominalEntries(4096).buildUnion();
+    final List<byte[]> images = new ArrayList<>();
+    for (int s = 0; s < numSketches; s++) {
+      final UpdateSketch sk = new UpdateSketchBuilder().build();
+      for (int i = 0; i < perSketch; i++) { sk.update(((long) s * perSketch / 2) + i); }
+      images.add(sk.compact().toByteArray());
+      ref.union(sk);
+    }
+    final ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int s = 0; s < numSketches; s++) {
+        final byte[] image = images.get(s);
+        final boolean asSketch = (s & 1) == 0;
+        futures.add(pool.submit(() -> {
+          if (asSketch) {
+            union.union(Sketch.wrap(Memory.wrap(image)));
+          } else {
+            union.union(Memory.wrap(image));
+          }
+        }));
+      }
+      for (final Future<?> f : futures) { f.get(); }
+    } finally {
+      pool.shutdown();
+    }
+    final CompactSketch result = union.getResult();
+    final CompactSketch expected = ref.getResult();
+    final double n = (numSketches + 1) * (perSketch / 2.0);
+    assertTrue(result.getLowerBound(3) <= n);
+    assertTrue(result.getUpperBound(3) >= n);
+    assertEquals(result.getEstimate(), expected.getEstimate(), expected.getEstimate() * 0.05);
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void checkBadNumStripes() {
+    new SetOperationBuilder().buildConcurrentUnion(0);
+  }
+}
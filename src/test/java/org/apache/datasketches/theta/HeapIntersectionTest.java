@@ -27,6 +27,11 @@ import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.apache.datasketches.common.Family;
 import org.apache.datasketches.common.SketchesArgumentException;
 import org.apache.datasketches.common.SketchesStateException;
@@ -518,6 +523,59 @@ public class HeapIntersectionTest {
     assertEquals(csk.getCompactBytes(), 8);
   }
 
+  @Test
+  public void checkOrderedMergeIntersect() {
+    final int[][] ranges = { {0, 50_000}, {10_000, 30_000}, {20_000, 70_000}, {25_000, 26_000} };
+    final List<Sketch> ordered = new ArrayList<>();
+    final List<Sketch> unordered = new ArrayList<>();
+    for (int s = 0; s < ranges.length; s++) {
+      final UpdateSketch sk = Sketches.updateSketchBuilder().setNominalEntries(4096 >> s).build();
+      for (int i = ranges[s][0]; i < ranges[s][1]; i++) { sk.update(i); }
+      final CompactSketch csk = sk.compact();
+      switch (s % 3) {
+        case 0: ordered.add(csk); break;
+        case 1: ordered.add(Sketch.wrap(Memory.wrap(csk.toByteArray()))); break;
+        default: ordered.add(Sketch.wrap(Memory.wrap(csk.toByteArrayCompressed()))); break;
+      }
+      unordered.add(sk.compact(false, null));
+    }
+    final Intersection inter = Sketches.setOperationBuilder().buildIntersection();
+    for (int n = 1; n <= ranges.length; n++) {
+      for (int i = 0; i < n; i++) { inter.intersect(unordered.get(i)); }
+      final CompactSketch expected = inter.getResult();
+      inter.reset();
+      assertEquals(inter.intersectOrdered(ordered.subList(0, n)).toByteArray(), expected.toByteArray());
+      assertEquals(inter.intersectOrdered(unordered.subList(0, n)).toByteArray(), expected.toByteArray());
+      final WritableMemory wmem = WritableMemory.allocate(expected.getCompactBytes());
+      assertEquals(inter.intersectOrdered(ordered.subList(0, n), false, wmem).getEstimate(),
+          expected.getEstimate());
+    }
+    for (int i = 0; i < ranges.length; i++) {
+      for (int j = 0; j < ranges.length; j++) {
+        assertEquals(inter.intersect(ordered.get(i), ordered.get(j)).toByteArray(),
+            inter.intersect(unordered.get(i), unordered.get(j)).toByteArray());
+      }
+    }
+    //disjoint exact sketches
+    final UpdateSketch a = Sketches.updateSketchBuilder().build();
+    final UpdateSketch b = Sketches.updateSketchBuilder().build();
+    for (int i = 0; i < 100; i++) { a.update(i); b.update(i + 100); }
+    assertTrue(inter.intersect(a.compact(), b.compact()).isEmpty());
+    assertTrue(inter.intersectOrdered(Arrays.asList(a.compact(), Sketches.updateSketchBuilder().build()))
+        .isEmpty());
+    assertFalse(inter.hasResult());
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void checkIntersectOrderedNull() {
+    Sketches.setOperationBuilder().buildIntersection().intersectOrdered(Arrays.asList((Sketch) null));
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void checkIntersectOrderedNoSketches() {
+    Sketches.setOperationBuilder().buildIntersection().intersectOrdered(Collections.emptyList());
+  }
+
   @Test
   public void printlnTest() {
     println("PRINTING: "+this.getClass().getName());
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import static org.apache.datasketches.hash.MurmurHash3.hash;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.datasketches.thetacommon.ThetaUtil;
+import org.testng.annotations.Test;
+
+public class HeapSnapshotQuickSelectSketchTest {
+
+  @Test
+  public void checkSnapshotMatchesCompact() {
+    final SnapshotUpdateSketch sk = new UpdateSketchBuilder().setNominalEntries(512).buildWithSnapshots();
+    assertTrue(sk.snapshot().isEmpty());
+    for (int i = 0; i < 20000; i++) {
+      sk.update(i);
+      if ((i % 777) == 0) {
+        assertEquals(sk.snapshot().toByteArray(), sk.compact().toByteArray());
+        assertEquals(sk.snapshot(false).getEstimate(), sk.getEstimate());
+      }
+    }
+    assertTrue(sk.isEstimationMode());
+    assertEquals(sk.snapshot().toByteArray(), sk.compact().toByteArray());
+    sk.rebuild();
+    assertEquals(sk.snapshot().toByteArray(), sk.compact().toByteArray());
+    sk.reset();
+    assertTrue(sk.snapshot().isEmpty());
+    sk.update(1);
+    assertEquals(sk.snapshot().getEstimate(), 1.0);
+  }
+
+  @Test
+  public void checkSnapshotWithP() {
+    final SnapshotUpdateSketch sk = new UpdateSketchBuilder().setP(0.5f).buildWithSnapshots();
+    assertEquals(sk.snapshot().toByteArray(), sk.compact().toByteArray());
+    for (int i = 0; i < 1000; i++) { sk.update(i); }
+    assertEquals(sk.snapshot().toByteArray(), sk.compact().toByteArray());
+  }
+
+  @Test
+  public void checkConcurrentReaders() throws Exception {
+    final int n = 200000;
+    final SnapshotUpdateSketch sk = new UpdateSketchBuilder().setNominalEntries(1024).buildWithSnapshots();
+    final Set<Long> hashes = new HashSet<>();
+    for (long i = 0; i < n; i++) {
+      hashes.add(hash(new long[] { i }, ThetaUtil.DEFAULT_UPDATE_SEED)[0] >>> 1);
+    }
+    final AtomicBoolean done = new AtomicBoolean();
+    final AtomicBoolean failed = new AtomicBoolean();
+    final Thread[] readers = new Thread[2];
+    for (int r = 0; r < readers.length; r++) {
+      readers[r] = new Thread(() -> {
+        while (!done.get()) {
+          final CompactSketch snap = sk.snapshot();
+          final HashIterator it = snap.iterator();
+          long prev = 0;
+          while (it.next()) {
+            //ordered, so a duplicate or a hash at or above theta would show here
+            if ((it.get() <= prev) || (it.get() >= snap.getThetaLong()) || !hashes.contains(it.get())) {
+              failed.set(true);
+            }
+            prev = it.get();
+          }
+          if (snap.getRetainedEntries() > 2048) { failed.set(true); }
+        }
+      });
+      readers[r].start();
+    }
+    for (long i = 0; i < n; i++) { sk.update(i); }
+    done.set(true);
+    for (Thread t : readers) { t.join(); }
+    assertTrue(!failed.get());
+    assertEquals(sk.snapshot().toByteArray(), sk.compact().toByteArray());
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(final String s) {
+    //System.out.println(s); //disable here
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.apache.datasketches.common.SketchesArgumentException;
+import org.testng.annotations.Test;
+
+public class JaccardLshIndexTest {
+  private static final int NUM_CLUSTERS = 40;
+  private static final int PER_CLUSTER = 10;
+
+  //members of a cluster share 90% of a base range of items, different clusters share none
+  private static CompactSketch member(final int cluster, final int member, final Random rand) {
+    final UpdateSketch sk = UpdateSketch.builder().setNominalEntries(1024).build();
+    final long base = cluster * 1_000_000L;
+    for (int i = 0; i < 3000; i++) {
+      sk.update((rand.nextInt(10) == 0) ? base + 500_000L + (member * 10_000L) + i : base + i);
+    }
+    return sk.compact();
+  }
+
+  @Test
+  public void checkClusters() {
+    final Random rand = new Random(1);
+    final JaccardLshIndex index = new JaccardLshIndex();
+    for (int c = 0; c < NUM_CLUSTERS; c++) {
+      for (int m = 0; m < PER_CLUSTER; m++) {
+        assertEquals(index.add(member(c, m, rand)), (c * PER_CLUSTER) + m);
+      }
+    }
+    assertEquals(index.size(), NUM_CLUSTERS * PER_CLUSTER);
+    for (int c = 0; c < NUM_CLUSTERS; c += 7) {
+      final CompactSketch query = member(c, PER_CLUSTER, rand);
+      final int[] candidates = index.getCandidates(query);
+      assertTrue(candidates.length < (index.size() / 4));
+      final int[] top = index.topK(query, PER_CLUSTER);
+      assertEquals(top.length, PER_CLUSTER);
+      for (int id : top) { assertEquals(id / PER_CLUSTER, c); }
+      final int[] similar = index.query(query, 0.5);
+      assertEquals(similar.length, PER_CLUSTER);
+      double prev = 1.0;
+      for (int id : similar) {
+        final double est = JaccardSimilarity.jaccard(query, index.getSketch(id))[1];
+        assertTrue((est >= 0.5) && (est <= prev));
+        prev = est;
+      }
+    }
+    //a stored sketch finds itself first
+    final int id = 123;
+    assertEquals(index.topK(index.getSketch(id), 1)[0], id);
+  }
+
+  @Test
+  public void checkSmallAndEmptySketches() {
+    final JaccardLshIndex index = new JaccardLshIndex(8, 2);
+    final UpdateSketch a = UpdateSketch.builder().build();
+    final UpdateSketch b = UpdateSketch.builder().build();
+    for (int i = 0; i < 5; i++) { a.update(i); b.update(i + 100); }
+    index.add(a);
+    index.add(b);
+    index.add(UpdateSketch.builder().build());
+    assertEquals(index.getSketch(0).getEstimate(), 5.0);
+    assertEquals(index.query(a, 1.0), new int[] {0});
+    assertEquals(index.query(b.compact(), 1.0), new int[] {1});
+    assertEquals(index.query(UpdateSketch.builder().build(), 1.0), new int[] {2});
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void checkSeedMismatch() {
+    final JaccardLshIndex index = new JaccardLshIndex();
+    final UpdateSketch a = UpdateSketch.builder().build();
+    final UpdateSketch b = UpdateSketch.builder().setSeed(123).build();
+    a.update(1);
+    b.update(1);
+    index.add(a);
+    index.add(b);
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void checkNullSketch() {
+    new JaccardLshIndex().add(null);
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void checkBadBands() {
+    new JaccardLshIndex(0, 4);
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void checkBadK() {
+    new JaccardLshIndex().topK(UpdateSketch.builder().build(), 0);
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(final String s) {
+    //System.out.println(s); //disable here
+  }
+}
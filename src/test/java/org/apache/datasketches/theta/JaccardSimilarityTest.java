@@ -21,9 +21,18 @@ package org.apache.datasketches.theta;
 
 import static org.apache.datasketches.theta.JaccardSimilarity.exactlyEqual;
 import static org.apache.datasketches.theta.JaccardSimilarity.jaccard;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.memory.WritableMemory;
 import org.testng.annotations.Test;
 
 /**
@@ -233,6 +242,82 @@ public class JaccardSimilarityTest {
     println(result[0] + ", " + result[1] + ", " + result[2]);
   }
 
+  private static List<Sketch> batchSketches() {
+    final List<Sketch> list = new ArrayList<>();
+    list.add(UpdateSketch.builder().build()); //empty
+    list.add(UpdateSketch.builder().build().compact()); //empty compact
+    final UpdateSketch single = UpdateSketch.builder().build();
+    single.update(5);
+    list.add(single.compact());
+    final UpdateSketch pSampled = UpdateSketch.builder().setP(0.001f).build();
+    pSampled.update(1);
+    list.add(pSampled); //not empty, but no retained entries
+    final Random rand = new Random(1);
+    for (int s = 0; s < 40; s++) {
+      final UpdateSketch sk = UpdateSketch.builder().setNominalEntries(1 << (5 + (s % 4))).build();
+      final int start = rand.nextInt(2000);
+      final int n = 1 + rand.nextInt(3000);
+      for (int i = start; i < (start + n); i++) { sk.update(i); }
+      if ((s % 3) == 0) {
+        list.add(sk);
+      } else if ((s % 3) == 1) {
+        list.add(sk.compact(false, null));
+      } else {
+        list.add(sk.compact(true, WritableMemory.allocate(sk.getCompactBytes())));
+      }
+    }
+    list.add(list.get(list.size() - 1)); //the same sketch twice
+    return list;
+  }
+
+  @Test
+  public void checkJaccardMatrix() {
+    final List<Sketch> list = batchSketches();
+    final double[][] matrix = JaccardSimilarity.jaccardMatrix(list);
+    for (int i = 0; i < list.size(); i++) {
+      for (int j = 0; j < list.size(); j++) {
+        assertEquals(matrix[i][j], jaccard(list.get(i), list.get(j))[1], 1e-12, i + ", " + j);
+      }
+    }
+  }
+
+  @Test
+  public void checkTopK() {
+    final List<Sketch> list = batchSketches();
+    final int n = list.size();
+    final double[][] matrix = JaccardSimilarity.jaccardMatrix(list, new ForkJoinPool(3));
+    for (int k : new int[] {1, 3, n - 1, n + 5}) {
+      final int[][] top = JaccardSimilarity.topK(list, k, new ForkJoinPool(2));
+      for (int i = 0; i < n; i++) {
+        final int row = i;
+        final List<Integer> expected = new ArrayList<>();
+        for (int j = 0; j < n; j++) { if (j != row) { expected.add(j); } }
+        expected.sort((a, b) -> (matrix[row][a] != matrix[row][b])
+            ? Double.compare(matrix[row][b], matrix[row][a]) : Integer.compare(a, b));
+        assertEquals(top[i].length, Math.min(k, n - 1));
+        for (int m = 0; m < top[i].length; m++) { assertEquals(top[i][m], (int) expected.get(m)); }
+      }
+    }
+    final List<Sketch> candidates = list.subList(0, n - 1);
+    final int[] top = JaccardSimilarity.topK(list.get(n - 1), candidates, 2);
+    assertEquals(top[0], n - 2); //the same sketch
+    assertEquals(JaccardSimilarity.topK(list.get(n - 1), candidates, 5), JaccardSimilarity.topK(list, 5)[n - 1]);
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void checkTopKBadK() {
+    JaccardSimilarity.topK(batchSketches(), 0);
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void checkBatchSeedMismatch() {
+    final UpdateSketch skA = UpdateSketch.builder().build();
+    final UpdateSketch skB = UpdateSketch.builder().setSeed(123).build();
+    skA.update(1);
+    skB.update(1);
+    JaccardSimilarity.jaccardMatrix(Arrays.asList(skA, skB));
+  }
+
   @Test
   public void printlnTest() {
     println("PRINTING: "+this.getClass().getName());
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.hllmap.UniqueCountMap;
+import org.testng.annotations.Test;
+
+public class ThetaUniqueCountMapTest {
+
+  @Test
+  public void checkMatchesSketchPerKey() {
+    final int lgK = 6;
+    final int numKeys = 300;
+    final ThetaUniqueCountMap map = new ThetaUniqueCountMap(16, 4, lgK);
+    final UpdateSketch[] refs = new UpdateSketch[numKeys];
+    for (int k = 0; k < numKeys; k++) {
+      refs[k] = new UpdateSketchBuilder().setLogNominalEntries(lgK).build();
+      //key k gets k identifiers, each twice
+      for (int i = 0; i < (2 * k); i++) {
+        final byte[] id = intToBytes(i % Math.max(k, 1));
+        final double est = map.update(intToBytes(k), id);
+        refs[k].update(id);
+        assertEquals(est, refs[k].getEstimate());
+      }
+    }
+    assertEquals(map.getActiveEntries(), numKeys - 1);
+    assertEquals(map.getPromotedEntries(), numKeys - 5);
+    assertEquals(map.getEstimate(intToBytes(0)), 0.0);
+    assertNull(map.getResult(intToBytes(0)));
+    for (int k = 1; k < numKeys; k++) {
+      final byte[] key = intToBytes(k);
+      assertEquals(map.getEstimate(key), refs[k].getEstimate());
+      assertEquals(map.getLowerBound(key, 2), refs[k].getLowerBound(2));
+      assertEquals(map.getUpperBound(key, 2), refs[k].getUpperBound(2));
+      assertEquals(map.getResult(key).toByteArray(), refs[k].compact().toByteArray());
+    }
+    assertEquals(map.getKeyMemoryUsageBytes(), (numKeys - 1) * 4L);
+    assertTrue(map.getMemoryUsageBytes() > map.getKeyMemoryUsageBytes());
+    assertTrue(map.getAverageSketchMemoryPerKey() > 0);
+    println(map.toString());
+  }
+
+  @Test
+  public void checkSetOperations() {
+    final ThetaUniqueCountMap map = new ThetaUniqueCountMap(4);
+    final byte[] keyA = intToBytes(1);
+    final byte[] keyB = intToBytes(2);
+    final byte[] keyC = intToBytes(3);
+    for (int i = 0; i < 1000; i++) { map.update(keyA, intToBytes(i)); }
+    for (int i = 500; i < 2000; i++) { map.update(keyB, intToBytes(i)); }
+    for (int i = 990; i < 993; i++) { map.update(keyC, intToBytes(i)); }
+
+    final Intersection inter = SetOperation.builder().buildIntersection();
+    inter.intersect(map.getResult(keyA));
+    inter.intersect(map.getResult(keyB));
+    assertEquals(inter.getResult().getEstimate(), 500.0, 500 * 0.1);
+
+    final Union union = SetOperation.builder().buildUnion();
+    union.union(map.getResult(keyA));
+    union.union(map.getResult(keyB));
+    assertEquals(union.getResult().getEstimate(), 2000.0, 2000 * 0.1);
+
+    //exact keys work with the set operations as well
+    final CompactSketch skC = map.getResult(keyC);
+    assertTrue(skC.isOrdered());
+    assertEquals(skC.getEstimate(), 3.0);
+    assertEquals(SetOperation.builder().buildANotB().aNotB(skC, map.getResult(keyA)).getEstimate(), 0.0);
+  }
+
+  @Test
+  public void checkNullsAndEmpty() {
+    final ThetaUniqueCountMap map = new ThetaUniqueCountMap(4);
+    assertTrue(Double.isNaN(map.update(null, null)));
+    assertTrue(Double.isNaN(map.getEstimate(null)));
+    assertTrue(Double.isNaN(map.getLowerBound(null, 1)));
+    assertTrue(Double.isNaN(map.getUpperBound(null, 1)));
+    assertNull(map.getResult(null));
+    final byte[] key = intToBytes(7);
+    assertEquals(map.update(key, null), 0.0);
+    assertEquals(map.update(key, new byte[0]), 0.0);
+    assertEquals(map.getActiveEntries(), 0);
+    assertEquals(map.update(key, intToBytes(1)), 1.0);
+    assertEquals(map.update(key, intToBytes(1)), 1.0);
+    assertEquals(map.update(key, null), 1.0);
+    assertEquals(map.getLowerBound(key, 1), 1.0);
+    assertEquals(map.getUpperBound(key, 1), 1.0);
+    assertEquals(map.getResult(key).getRetainedEntries(), 1);
+  }
+
+  @Test
+  public void checkMemoryUsage() {
+    //the default map is comparable to the hllmap, with 8-byte hashes instead of 2-byte coupons
+    final long hllMapBytes = new UniqueCountMap(4).getMemoryUsageBytes();
+    assertTrue(new ThetaUniqueCountMap(4).getMemoryUsageBytes() < (hllMapBytes * 5) / 2);
+
+    final ThetaUniqueCountMap map = new ThetaUniqueCountMap(1000, 4, 6);
+    final long emptyBytes = map.getMemoryUsageBytes();
+    //keys with a single identifier take no space beyond the base map
+    for (int k = 0; k < 900; k++) { map.update(intToBytes(k), intToBytes(0)); }
+    assertEquals(map.getMemoryUsageBytes(), emptyBytes);
+    //keys with two to four identifiers take a slot of the side table
+    for (int k = 0; k < 100; k++) { map.update(intToBytes(k), intToBytes(1)); }
+    final long sideBytes = map.getMemoryUsageBytes();
+    assertTrue(sideBytes > emptyBytes);
+    //the slots of promoted keys are reused
+    for (int k = 0; k < 100; k++) {
+      for (int i = 2; i < 5; i++) { map.update(intToBytes(k), intToBytes(i)); }
+      assertEquals(map.getEstimate(intToBytes(k)), 5.0);
+    }
+    assertEquals(map.getPromotedEntries(), 100);
+    final long promotedBytes = map.getMemoryUsageBytes();
+    for (int k = 100; k < 200; k++) {
+      map.update(intToBytes(k), intToBytes(1));
+      map.update(intToBytes(k), intToBytes(2));
+    }
+    assertEquals(map.getMemoryUsageBytes(), promotedBytes);
+    for (int k = 100; k < 200; k++) {
+      assertEquals(map.getEstimate(intToBytes(k)), 3.0);
+      assertEquals(map.getResult(intToBytes(k)).getRetainedEntries(), 3);
+    }
+    assertEquals(map.getResult(intToBytes(0)).getEstimate(), 5.0);
+    assertEquals(map.getResult(intToBytes(500)).getEstimate(), 1.0);
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void checkConstructorKeySize() {
+    new ThetaUniqueCountMap(3);
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void checkMethodKeySize() {
+    new ThetaUniqueCountMap(4).update(new byte[8], new byte[1]);
+  }
+
+  private static byte[] intToBytes(final int v) {
+    return new byte[] { (byte) v, (byte) (v >>> 8), (byte) (v >>> 16), (byte) (v >>> 24) };
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(final String s) {
+    //System.out.println(s); //disable here
+  }
+}
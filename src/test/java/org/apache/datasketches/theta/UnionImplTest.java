@@ -25,6 +25,12 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
 import org.apache.datasketches.common.SketchesArgumentException;
 import org.apache.datasketches.memory.Memory;
 import org.apache.datasketches.memory.WritableHandle;
@@ -293,6 +299,109 @@ public class UnionImplTest {
     //println(csk.toString(true, true, 1, true));
   }
 
+  @Test
+  public void checkUnionAllExact() {
+    final List<Sketch> sketches = new ArrayList<>();
+    final List<Memory> mems = new ArrayList<>();
+    final Union serial = Sketches.setOperationBuilder().buildUnion();
+    for (int s = 0; s < 100; s++) {
+      final UpdateSketch sk = Sketches.updateSketchBuilder().build();
+      for (int i = 0; i < 20; i++) { sk.update((s * 10) + i); }
+      sketches.add(sk.compact());
+      mems.add(Memory.wrap(sk.compact().toByteArray()));
+      serial.union(sk);
+    }
+    sketches.add(null);
+    final Union union = Sketches.setOperationBuilder().buildUnion();
+    union.unionAll(sketches);
+    assertEquals(union.getResult().toByteArray(), serial.getResult().toByteArray());
+    final Union union2 = Sketches.setOperationBuilder().buildUnion();
+    union2.unionAllMemory(mems, new ForkJoinPool(3));
+    assertEquals(union2.getResult().toByteArray(), serial.getResult().toByteArray());
+    union2.unionAll(Collections.emptyList());
+    assertEquals(union2.getResult().getEstimate(), 1010.0);
+  }
+
+  @Test
+  public void checkUnionAllEstimating() {
+    final int lgK = 10;
+    final List<Sketch> sketches = new ArrayList<>();
+    final Union serial = Sketches.setOperationBuilder().setLogNominalEntries(lgK).buildUnion();
+    for (int s = 0; s < 500; s++) {
+      final UpdateSketch sk = Sketches.updateSketchBuilder().setLogNominalEntries(lgK).build();
+      for (int i = 0; i < 4000; i++) { sk.update((s * 2000L) + i); }
+      sketches.add(sk.compact());
+      serial.union(sk);
+    }
+    //A direct union with existing content
+    final WritableMemory wmem = WritableMemory.allocate(SetOperation.getMaxUnionBytes(1 << lgK));
+    final Union union = Sketches.setOperationBuilder().setLogNominalEntries(lgK).buildUnion(wmem);
+    union.union(sketches.get(0));
+    union.unionAll(sketches, new ForkJoinPool(4));
+    final CompactSketch expected = serial.getResult();
+    final CompactSketch result = union.getResult();
+    final double n = 501 * 2000;
+    assertTrue(result.getLowerBound(3) <= n);
+    assertTrue(result.getUpperBound(3) >= n);
+    assertEquals(result.getEstimate(), expected.getEstimate(), expected.getEstimate() * 0.02);
+    assertTrue(Math.abs(result.getRetainedEntries() - expected.getRetainedEntries()) <= 1);
+  }
+
+  @Test
+  public void checkUnionOrdered() {
+    for (int lgK : new int[] {5, 9, 12}) {
+      final List<Sketch> sketches = new ArrayList<>();
+      final Union serial = Sketches.setOperationBuilder().setLogNominalEntries(lgK).buildUnion();
+      for (int s = 0; s < 20; s++) {
+        final UpdateSketch sk = Sketches.updateSketchBuilder().setLogNominalEntries(lgK + (s % 3) - 1).build();
+        for (int i = 0; i < (s * 100); i++) { sk.update((s * 37) + i); }
+        serial.union(sk);
+        final CompactSketch csk = sk.compact();
+        switch (s % 3) {
+          case 0: sketches.add(csk); break;
+          case 1: sketches.add(Sketch.wrap(Memory.wrap(csk.toByteArray()))); break;
+          default: sketches.add(Sketch.wrap(Memory.wrap(csk.toByteArrayCompressed()))); break;
+        }
+      }
+      sketches.add(null);
+      final Union union = Sketches.setOperationBuilder().setLogNominalEntries(lgK).buildUnion();
+      final CompactSketch expected = serial.getResult();
+      assertEquals(union.unionOrdered(sketches).toByteArray(), expected.toByteArray());
+      final WritableMemory wmem = WritableMemory.allocate(expected.getCompactBytes());
+      assertEquals(union.unionOrdered(sketches, false, wmem).getEstimate(), expected.getEstimate());
+      assertTrue(union.getResult().isEmpty()); //stateless
+
+      //unordered inputs fall back to the hash table
+      final UpdateSketch unordered = Sketches.updateSketchBuilder().build();
+      unordered.update(-1L);
+      unordered.update(-2L);
+      sketches.add(unordered);
+      serial.union(unordered);
+      assertEquals(union.unionOrdered(sketches).toByteArray(), serial.getResult().toByteArray());
+    }
+    final Union union = Sketches.setOperationBuilder().buildUnion();
+    assertTrue(union.unionOrdered(Arrays.asList(null, Sketches.updateSketchBuilder().build())).isEmpty());
+  }
+
+  @Test
+  public void checkUnionOrderedWithP() {
+    final Union union = Sketches.setOperationBuilder().setP(0.5f).buildUnion();
+    final UpdateSketch sk1 = Sketches.updateSketchBuilder().build();
+    final UpdateSketch sk2 = Sketches.updateSketchBuilder().build();
+    for (int i = 0; i < 1000; i++) { sk1.update(i); sk2.update(i + 500); }
+    final CompactSketch expected = union.union(sk1, sk2);
+    assertEquals(union.unionOrdered(Arrays.asList(sk1.compact(), sk2.compact())).toByteArray(),
+        expected.toByteArray());
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void checkUnionAllSeedMismatch() {
+    final UpdateSketch sk = Sketches.updateSketchBuilder().setSeed(123).build();
+    sk.update(1);
+    final Union union = Sketches.setOperationBuilder().buildUnion();
+    union.unionAll(Arrays.asList(sk, sk));
+  }
+
   @Test
   public void printlnTest() {
     println("PRINTING: "+this.getClass().getName());
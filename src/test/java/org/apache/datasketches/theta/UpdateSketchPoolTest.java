@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.theta;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.WritableMemory;
+import org.testng.annotations.Test;
+
+public class UpdateSketchPoolTest {
+
+  @Test
+  public void checkMatchesIndividualSketches() {
+    final int lgK = 9;
+    final int numKeys = 200;
+    final UpdateSketchBuilder bldr = new UpdateSketchBuilder().setLogNominalEntries(lgK);
+    final UpdateSketchPool pool = bldr.buildPool(WritableMemory.allocate(1 << 12));
+    final UpdateSketch[] refs = new UpdateSketch[numKeys];
+    for (int k = 0; k < numKeys; k++) { refs[k] = bldr.build(); }
+    //key k gets k * k items, so the sketches grow through all the size classes at different times
+    for (int round = 0; round < (numKeys * numKeys); round += numKeys) {
+      for (int k = 0; k < numKeys; k++) {
+        final long key = k * 1_000_003L;
+        for (int i = round; i < Math.min(round + numKeys, k * k); i++) {
+          pool.update(key, (long) i);
+          refs[k].update((long) i);
+        }
+      }
+    }
+    assertEquals(pool.getNumKeys(), numKeys - 1);
+    assertFalse(pool.contains(0L));
+    assertEquals(pool.getEstimate(0L), 0.0);
+    assertNull(pool.getResult(0L));
+    for (int k = 1; k < numKeys; k++) {
+      final long key = k * 1_000_003L;
+      assertTrue(pool.contains(key));
+      assertEquals(pool.getEstimate(key), refs[k].getEstimate());
+      assertEquals(pool.getLowerBound(key, 2), refs[k].getLowerBound(2));
+      assertEquals(pool.getUpperBound(key, 2), refs[k].getUpperBound(2));
+      assertEquals(pool.getResult(key).toByteArray(), refs[k].compact(true, null).toByteArray());
+    }
+    assertTrue(pool.getMemory().getCapacity() > (1 << 12));
+    assertTrue(pool.getUsedBytes() <= pool.getMemory().getCapacity());
+    final long[] keys = pool.getKeys();
+    Arrays.sort(keys);
+    assertEquals(keys.length, numKeys - 1);
+    assertEquals(keys[0], 1_000_003L);
+    println(pool.toString());
+  }
+
+  @Test
+  public void checkUpdateTypes() {
+    final UpdateSketchPool pool = new UpdateSketchBuilder().buildPool(WritableMemory.allocate(1 << 16));
+    final UpdateSketch ref = new UpdateSketchBuilder().build();
+    for (int i = 0; i < 100; i++) {
+      pool.update(-1L, (double) i);
+      pool.update(-1L, Integer.toString(i));
+      pool.update(-1L, new byte[] { (byte) i });
+      pool.update(-1L, new long[] { i, i });
+      ref.update((double) i);
+      ref.update(Integer.toString(i));
+      ref.update(new byte[] { (byte) i });
+      ref.update(new long[] { i, i });
+    }
+    assertEquals(pool.update(-1L, (String) null), ref.update((String) null));
+    assertEquals(pool.getEstimate(-1L), ref.getEstimate());
+    assertEquals(pool.getResult(-1L).toByteArray(), ref.compact(true, null).toByteArray());
+  }
+
+  @Test
+  public void checkRemoveReusesSlots() {
+    final UpdateSketchPool pool = new UpdateSketchBuilder().setLogNominalEntries(6)
+        .buildPool(WritableMemory.allocate(1 << 20));
+    for (long key = 0; key < 1000; key++) {
+      for (int i = 0; i < 1000; i++) { pool.update(key, i); }
+    }
+    final long usedBytes = pool.getUsedBytes();
+    for (long key = 0; key < 1000; key += 2) { assertTrue(pool.remove(key)); }
+    assertFalse(pool.remove(0L));
+    assertEquals(pool.getNumKeys(), 500);
+    for (long key = 1; key < 1000; key += 2) { assertTrue(pool.contains(key)); }
+    for (long key = 1000; key < 1500; key++) {
+      for (int i = 0; i < 1000; i++) { pool.update(key, i); }
+    }
+    assertEquals(pool.getUsedBytes(), usedBytes);
+    for (long key = 1; key < 1500; key += 2) {
+      assertEquals(pool.getResult(key).getRetainedEntries(), 64, 64 / 2); //within a rebuild of k
+    }
+    pool.reset();
+    assertEquals(pool.getNumKeys(), 0);
+    assertEquals(pool.getUsedBytes(), 0);
+  }
+
+  @Test
+  public void checkSlotBytes() {
+    final UpdateSketchPool pool = new UpdateSketchBuilder().setLogNominalEntries(4)
+        .buildPool(WritableMemory.allocate(1 << 10));
+    for (int i = 0; i < 100; i++) { pool.update(7L, i); }
+    assertEquals(pool.getUsedBytes(), UpdateSketchPool.getSlotBytes(5));
+    final Sketch sk = Sketch.wrap(pool.getMemory().region(0, pool.getUsedBytes()));
+    assertEquals(sk.getEstimate(), pool.getEstimate(7L));
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void checkReadOnlyRegion() {
+    new UpdateSketchBuilder().buildPool((WritableMemory) Memory.wrap(new byte[1024]));
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void checkNullRegion() {
+    new UpdateSketchBuilder().buildPool(null);
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(final String s) {
+    //System.out.println(s); //disable here
+  }
+}
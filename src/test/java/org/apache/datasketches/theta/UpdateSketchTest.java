@@ -226,6 +226,43 @@ public class UpdateSketchTest {
     assertTrue(cskwmem1.equals(cskwmem3));
   }
 
+  @Test
+  public void checkUpdateEach() {
+    final int n = 1000;
+    final int offset = 7;
+    final long[] longs = new long[offset + n];
+    final double[] doubles = new double[offset + n];
+    final int[] ints = new int[offset + n];
+    final String[] strs = new String[offset + n];
+    for (int i = 0; i < longs.length; i++) {
+      longs[i] = i * 31L;
+      doubles[i] = i / 3.0;
+      ints[i] = -i;
+      strs[i] = (i % 10 == 0) ? null : (i % 10 == 1) ? "" : Integer.toString(i);
+    }
+    doubles[offset] = -0.0;
+    final UpdateSketch sk1 = UpdateSketch.builder().setNominalEntries(512).build();
+    final UpdateSketch sk2 = UpdateSketch.builder().setNominalEntries(512).build();
+    for (int i = offset; i < (offset + n); i++) { sk1.update(longs[i]); }
+    for (int i = offset; i < (offset + n); i++) { sk1.update(doubles[i]); }
+    for (int i = offset; i < (offset + n); i++) { sk1.update(ints[i]); }
+    for (int i = offset; i < (offset + n); i++) { sk1.update(strs[i]); }
+    sk2.updateEach(longs, offset, n);
+    sk2.updateEach(doubles, offset, n);
+    sk2.updateEach(ints, offset, n);
+    sk2.updateEach(strs, offset, n);
+    assertEquals(sk2.compact().toByteArray(), sk1.compact().toByteArray());
+
+    final UpdateSketch sk3 = UpdateSketch.builder().build();
+    sk3.updateEach(strs, 0, 2);
+    assertTrue(sk3.isEmpty());
+    try {
+      sk3.updateEach(longs, offset + 1, n);
+      fail();
+    } catch (SketchesArgumentException e) { }
+    assertTrue(sk3.isEmpty());
+  }
+
   @Test
   public void printlnTest() {
     println("PRINTING: "+this.getClass().getName());
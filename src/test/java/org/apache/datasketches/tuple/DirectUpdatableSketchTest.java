@@ -0,0 +1,316 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.tuple;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.memory.WritableMemory;
+import org.apache.datasketches.tuple.adouble.DoubleSummary;
+import org.apache.datasketches.tuple.adouble.DoubleSummaryCodec;
+import org.apache.datasketches.tuple.adouble.DoubleSummaryFactory;
+import org.apache.datasketches.tuple.aninteger.IntegerSketch;
+import org.apache.datasketches.tuple.aninteger.IntegerSummary;
+import org.apache.datasketches.tuple.aninteger.IntegerSummaryCodec;
+import org.apache.datasketches.tuple.aninteger.IntegerSummaryDeserializer;
+import org.apache.datasketches.tuple.aninteger.IntegerSummaryFactory;
+import org.apache.datasketches.tuple.aninteger.IntegerSummarySetOperations;
+import org.testng.annotations.Test;
+
+public class DirectUpdatableSketchTest {
+  private static final int LG_K = 10;
+
+  @Test
+  public void emptySketch() {
+    final DirectUpdatableSketch<Integer, IntegerSummary> sketch = newSketch(IntegerSummary.Mode.Sum);
+    assertTrue(sketch.isEmpty());
+    assertFalse(sketch.isEstimationMode());
+    assertEquals(sketch.getRetainedEntries(), 0);
+    assertEquals(sketch.getEstimate(), 0.0);
+    assertEquals(sketch.getNominalEntries(), 1 << LG_K);
+    assertEquals(sketch.getLgK(), LG_K);
+    final CompactSketch<IntegerSummary> csk = sketch.compact();
+    assertTrue(csk.isEmpty());
+    assertEquals(csk.getRetainedEntries(), 0);
+    assertFalse(sketch.iterator().next());
+  }
+
+  @Test
+  public void sameAsHeapSketch() {
+    for (final IntegerSummary.Mode mode : IntegerSummary.Mode.values()) {
+      final DirectUpdatableSketch<Integer, IntegerSummary> sketch = newSketch(mode);
+      final IntegerSketch heap = new IntegerSketch(LG_K, mode);
+      for (int i = 0; i < 20000; i++) {
+        sketch.update(i % 7000, i);
+        heap.update(i % 7000, i);
+      }
+      assertTrue(sketch.isEstimationMode());
+      assertEquals(sketch.getThetaLong(), heap.getThetaLong());
+      assertEquals(sketch.getRetainedEntries(), heap.getRetainedEntries());
+      assertEquals(sketch.getEstimate(), heap.getEstimate());
+      assertEquals(toMap(sketch), toMap(heap));
+    }
+  }
+
+  @Test
+  public void doubleCodecAndSampling() {
+    final WritableMemory mem = WritableMemory.allocate(DirectUpdatableSketch.getMaxBytes(1 << LG_K, Double.BYTES));
+    final DirectUpdatableSketch<Double, DoubleSummary> sketch =
+        new UpdatableSketchBuilder<>(new DoubleSummaryFactory(DoubleSummary.Mode.Max))
+        .setNominalEntries(1 << LG_K).setSamplingProbability(0.5f)
+        .build(new DoubleSummaryCodec(DoubleSummary.Mode.Max), mem);
+    final UpdatableSketch<Double, DoubleSummary> heap =
+        new UpdatableSketchBuilder<>(new DoubleSummaryFactory(DoubleSummary.Mode.Max))
+        .setNominalEntries(1 << LG_K).setSamplingProbability(0.5f).build();
+    for (int i = 0; i < 1000; i++) {
+      sketch.update("key" + (i % 300), i * 0.5);
+      heap.update("key" + (i % 300), i * 0.5);
+    }
+    assertEquals(sketch.getSamplingProbability(), 0.5f);
+    assertEquals(sketch.getThetaLong(), heap.getThetaLong());
+    assertEquals(sketch.getRetainedEntries(), heap.getRetainedEntries());
+    final Map<Long, Double> expected = new HashMap<>();
+    final TupleSketchIterator<DoubleSummary> heapIt = heap.iterator();
+    while (heapIt.next()) { expected.put(heapIt.getHash(), heapIt.getSummary().getValue()); }
+    final TupleSketchIterator<DoubleSummary> it = sketch.iterator();
+    int count = 0;
+    while (it.next()) {
+      assertEquals(it.getSummary().getValue(), expected.get(it.getHash()));
+      count++;
+    }
+    assertEquals(count, expected.size());
+  }
+
+  @Test
+  public void wrapAndContinue() {
+    final IntegerSummary.Mode mode = IntegerSummary.Mode.Sum;
+    final DirectUpdatableSketch<Integer, IntegerSummary> sketch = newSketch(mode);
+    final IntegerSketch heap = new IntegerSketch(LG_K, mode);
+    for (int i = 0; i < 3000; i++) {
+      sketch.update(i, 1);
+      heap.update(i, 1);
+    }
+    final DirectUpdatableSketch<Integer, IntegerSummary> wrapped =
+        DirectUpdatableSketch.wrap(sketch.getMemory(), new IntegerSummaryCodec(mode));
+    assertEquals(wrapped.getThetaLong(), sketch.getThetaLong());
+    assertEquals(wrapped.getRetainedEntries(), sketch.getRetainedEntries());
+    for (int i = 0; i < 3000; i++) {
+      wrapped.update(i, 2);
+      heap.update(i, 2);
+    }
+    assertEquals(toMap(wrapped), toMap(heap));
+
+    // compact form is the same as the heap compact form
+    final CompactSketch<IntegerSummary> csk = new CompactSketch<>(
+        Memory.wrap(wrapped.toByteArray()), new IntegerSummaryDeserializer());
+    assertEquals(csk.getRetainedEntries(), heap.getRetainedEntries());
+    assertEquals(csk.getEstimate(), heap.getEstimate());
+  }
+
+  @Test
+  public void trimAndReset() {
+    final DirectUpdatableSketch<Integer, IntegerSummary> sketch = newSketch(IntegerSummary.Mode.Sum);
+    for (int i = 0; i < 5000; i++) { sketch.update(i, 1); }
+    assertTrue(sketch.getRetainedEntries() > sketch.getNominalEntries());
+    sketch.trim();
+    assertEquals(sketch.getRetainedEntries(), sketch.getNominalEntries());
+    sketch.reset();
+    assertTrue(sketch.isEmpty());
+    assertEquals(sketch.getRetainedEntries(), 0);
+    assertEquals(sketch.getThetaLong(), Long.MAX_VALUE);
+    sketch.update(1, 5);
+    final TupleSketchIterator<IntegerSummary> it = sketch.iterator();
+    assertTrue(it.next());
+    assertEquals(it.getSummary().getValue(), 5);
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void notEnoughMemory() {
+    final DirectUpdatableSketch<Integer, IntegerSummary> sketch =
+        new UpdatableSketchBuilder<>(new IntegerSummaryFactory(IntegerSummary.Mode.Sum))
+        .setNominalEntries(1 << LG_K)
+        .build(new IntegerSummaryCodec(IntegerSummary.Mode.Sum), WritableMemory.allocate(2000));
+    for (int i = 0; i < 5000; i++) { sketch.update(i, 1); }
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void wrongSummarySize() {
+    final DirectUpdatableSketch<Integer, IntegerSummary> sketch = newSketch(IntegerSummary.Mode.Sum);
+    DirectUpdatableSketch.wrap(sketch.getMemory(), new DoubleSummaryCodec(DoubleSummary.Mode.Sum));
+  }
+
+  @Test
+  public void unionSameAsHeapUnion() {
+    for (final IntegerSummary.Mode mode : IntegerSummary.Mode.values()) {
+      final DirectUpdatableSketch<Integer, IntegerSummary> sketch1 = newSketch(mode);
+      final IntegerSketch sketch2 = new IntegerSketch(LG_K + 1, mode);
+      for (int i = 0; i < 8000; i++) {
+        sketch1.update(i, i);
+        sketch2.update(i + 4000, i);
+      }
+      final WritableMemory mem = WritableMemory.allocate(DirectUnion.getMaxBytes(1 << LG_K, Integer.BYTES));
+      final DirectUnion<IntegerSummary> union = new DirectUnion<>(1 << LG_K, new IntegerSummaryCodec(mode), mem);
+      union.union(sketch1);
+      union.union(sketch2);
+      final Union<IntegerSummary> heapUnion =
+          new Union<>(1 << LG_K, new IntegerSummarySetOperations(mode, mode));
+      heapUnion.union(sketch1);
+      heapUnion.union(sketch2);
+      final CompactSketch<IntegerSummary> expected = heapUnion.getResult();
+      final CompactSketch<IntegerSummary> result = union.getResult();
+      assertEquals(result.getThetaLong(), expected.getThetaLong());
+      assertEquals(toMap(result), toMap(expected));
+
+      // the wrapped union continues from the same state
+      final DirectUnion<IntegerSummary> wrapped = DirectUnion.wrap(mem, new IntegerSummaryCodec(mode));
+      wrapped.union(sketch1);
+      heapUnion.union(sketch1);
+      assertEquals(toMap(wrapped.getResult(true)), toMap(heapUnion.getResult(true)));
+      assertTrue(wrapped.getResult().isEmpty());
+    }
+  }
+
+  @Test
+  public void unionEdgeCases() {
+    final IntegerSummaryCodec codec = new IntegerSummaryCodec(IntegerSummary.Mode.Sum);
+    final DirectUnion<IntegerSummary> union = new DirectUnion<>(1 << LG_K, codec,
+        WritableMemory.allocate(DirectUnion.getMaxBytes(1 << LG_K, codec.getSizeBytes())));
+    union.union(null);
+    union.union(newSketch(IntegerSummary.Mode.Sum));
+    assertTrue(union.getResult().isEmpty());
+
+    final DirectUpdatableSketch<Integer, IntegerSummary> a = newSketch(IntegerSummary.Mode.Sum);
+    final DirectUpdatableSketch<Integer, IntegerSummary> b = newSketch(IntegerSummary.Mode.Sum);
+    a.update(1, 2);
+    a.update(2, 3);
+    b.update(2, 4);
+    final CompactSketch<IntegerSummary> result = union.union(a, b);
+    assertEquals(result.getRetainedEntries(), 2);
+    final Map<Long, Integer> map = toMap(result);
+    assertTrue(map.containsValue(2));
+    assertTrue(map.containsValue(7));
+    assertTrue(union.getResult().isEmpty()); // stateless
+  }
+
+  @Test
+  public void unionCodecOfOtherWidth() {
+    final PaddedSumCodec wide = new PaddedSumCodec(12);
+    final PaddedSumCodec narrow = new PaddedSumCodec(Integer.BYTES);
+    final DirectUpdatableSketch<Integer, IntegerSummary> sketch =
+        new UpdatableSketchBuilder<>(new IntegerSummaryFactory(IntegerSummary.Mode.Sum))
+        .setNominalEntries(1 << LG_K).build(wide,
+            WritableMemory.allocate(DirectUpdatableSketch.getMaxBytes(1 << LG_K, wide.getSizeBytes())));
+    final Map<Long, Integer> expected = new HashMap<>();
+    for (int i = 0; i < 100; i++) { sketch.update(i, i + 1); }
+    expected.putAll(toMap(sketch));
+    // the slots of the sketch are laid out with another width, so they must not be copied byte for byte
+    final DirectUnion<IntegerSummary> union = new DirectUnion<>(1 << LG_K, narrow,
+        WritableMemory.allocate(DirectUnion.getMaxBytes(1 << LG_K, narrow.getSizeBytes())));
+    union.union(sketch);
+    union.union(sketch);
+    final Map<Long, Integer> result = toMap(union.getResult());
+    assertEquals(result.size(), expected.size());
+    for (final Map.Entry<Long, Integer> entry : expected.entrySet()) {
+      assertEquals(result.get(entry.getKey()).intValue(), 2 * entry.getValue());
+    }
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void wrapWrongType() {
+    final DirectUpdatableSketch<Integer, IntegerSummary> sketch = newSketch(IntegerSummary.Mode.Sum);
+    DirectUnion.wrap(sketch.getMemory(), new IntegerSummaryCodec(IntegerSummary.Mode.Sum));
+  }
+
+  private static DirectUpdatableSketch<Integer, IntegerSummary> newSketch(final IntegerSummary.Mode mode) {
+    final WritableMemory mem = WritableMemory.allocate(DirectUpdatableSketch.getMaxBytes(1 << LG_K, Integer.BYTES));
+    return new UpdatableSketchBuilder<>(new IntegerSummaryFactory(mode)).setNominalEntries(1 << LG_K)
+        .build(new IntegerSummaryCodec(mode), mem);
+  }
+
+  /**
+   * A summing codec that keeps the value at the end of a slot of the given width.
+   */
+  private static final class PaddedSumCodec implements FixedWidthSummaryCodec<Integer, IntegerSummary> {
+    private final int sizeBytes_;
+
+    PaddedSumCodec(final int sizeBytes) {
+      sizeBytes_ = sizeBytes;
+    }
+
+    @Override
+    public int getSizeBytes() {
+      return sizeBytes_;
+    }
+
+    @Override
+    public void initialize(final WritableMemory mem, final long offsetBytes) {
+      mem.fill(offsetBytes, sizeBytes_, (byte) 0);
+    }
+
+    @Override
+    public void update(final WritableMemory mem, final long offsetBytes, final Integer value) {
+      final long valueOffset = (offsetBytes + sizeBytes_) - Integer.BYTES;
+      mem.putInt(valueOffset, mem.getInt(valueOffset) + value);
+    }
+
+    @Override
+    public void union(final WritableMemory mem, final long offsetBytes, final IntegerSummary summary) {
+      update(mem, offsetBytes, summary.getValue());
+    }
+
+    @Override
+    public void write(final IntegerSummary summary, final WritableMemory mem, final long offsetBytes) {
+      initialize(mem, offsetBytes);
+      update(mem, offsetBytes, summary.getValue());
+    }
+
+    @Override
+    public IntegerSummary read(final Memory mem, final long offsetBytes) {
+      return new IntegerSummary(IntegerSummary.Mode.Sum)
+          .update(mem.getInt((offsetBytes + sizeBytes_) - Integer.BYTES));
+    }
+  }
+
+  private static Map<Long, Integer> toMap(final Sketch<IntegerSummary> sketch) {
+    final Map<Long, Integer> map = new HashMap<>();
+    final TupleSketchIterator<IntegerSummary> it = sketch.iterator();
+    while (it.next()) { map.put(it.getHash(), it.getSummary().getValue()); }
+    return map;
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: " + this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(final String s) {
+    //System.out.println(s); //disable here
+  }
+
+}
@@ -21,6 +21,7 @@ package org.apache.datasketches.tuple.arrayofdoubles;
 
 import static org.testng.Assert.assertEquals;
 
+import org.apache.datasketches.common.SketchesArgumentException;
 import org.apache.datasketches.memory.Memory;
 import org.apache.datasketches.memory.WritableMemory;
 import org.apache.datasketches.thetacommon.ThetaUtil;
@@ -136,4 +137,113 @@ public class ArrayOfDoublesCompactSketchTest {
     assertEquals(keys4, keys);
   }
 
+  @Test
+  public void columnarLayout() {
+    final int numValues = 5;
+    final ArrayOfDoublesUpdatableSketch sketch =
+        new ArrayOfDoublesUpdatableSketchBuilder().setNominalEntries(256).setNumberOfValues(numValues).build();
+    for (int i = 0; i < 2000; i++) {
+      sketch.update(i % 1500, new double[] {1, i, -i, i * 0.5, 7});
+    }
+    final ArrayOfDoublesCompactSketch rows = sketch.compact();
+    Assert.assertFalse(rows.isColumnar());
+    final int maxBytes = rows.getCurrentBytes();
+    final ArrayOfDoublesCompactSketch[] columnars = {
+        sketch.compactColumnar(),
+        sketch.compactColumnar(WritableMemory.allocate(maxBytes)),
+        rows.compactColumnar(),
+        ArrayOfDoublesSketches.heapifySketch(Memory.wrap(sketch.compactColumnar().toByteArray()))
+            .compact(),
+        ((ArrayOfDoublesCompactSketch) ArrayOfDoublesSketches.wrapSketch(
+            Memory.wrap(sketch.compactColumnar().toByteArray()))).compact(WritableMemory.allocate(maxBytes)),
+        ((ArrayOfDoublesCompactSketch) ArrayOfDoublesSketches.wrapSketch(
+            Memory.wrap(sketch.compactColumnar().toByteArray()))).compact()
+    };
+    for (final ArrayOfDoublesCompactSketch columnar : columnars) {
+      Assert.assertTrue(columnar.isColumnar());
+      Assert.assertEquals(columnar.getThetaLong(), rows.getThetaLong());
+      Assert.assertEquals(columnar.getRetainedEntries(), rows.getRetainedEntries());
+      Assert.assertEquals(columnar.getCurrentBytes(), maxBytes);
+      Assert.assertEquals(columnar.getValues(), rows.getValues());
+      final ArrayOfDoublesSketchIterator it = columnar.iterator();
+      final ArrayOfDoublesSketchIterator rowIt = rows.iterator();
+      while (it.next()) {
+        Assert.assertTrue(rowIt.next());
+        Assert.assertEquals(it.getKey(), rowIt.getKey());
+        Assert.assertEquals(it.getValues(), rowIt.getValues());
+      }
+      for (int c = 0; c < numValues; c++) {
+        Assert.assertEquals(columnar.getValueColumn(c), rows.getValueColumn(c));
+        Assert.assertEquals(columnar.getValueColumnSum(c), rows.getValueColumnSum(c));
+        Assert.assertEquals(columnar.getValueColumnMean(c), rows.getValueColumnMean(c));
+      }
+      final ArrayOfDoublesUnion union = new ArrayOfDoublesSetOperationBuilder().setNumberOfValues(numValues)
+          .buildUnion();
+      union.union(columnar);
+      final ArrayOfDoublesCompactSketch result = union.getResult();
+      Assert.assertEquals(result.getRetainedEntries(), rows.getRetainedEntries());
+      for (int c = 0; c < numValues; c++) {
+        Assert.assertEquals(result.getValueColumnSum(c), rows.getValueColumnSum(c));
+      }
+    }
+    // the values of repeated keys are summed, so column 4 is 7 times the count in column 0
+    Assert.assertEquals(rows.getValueColumnSum(4), 7.0 * rows.getValueColumnSum(0));
+    Assert.assertEquals(rows.getValueColumnMean(4), 7.0 * rows.getValueColumnMean(0), 1e-9);
+    double sum = 0;
+    final ArrayOfDoublesSketchIterator it = rows.iterator();
+    while (it.next()) { sum += it.getValues()[1]; }
+    Assert.assertEquals(rows.getValueColumnSum(1), sum);
+    Assert.assertEquals(sketch.getValueColumnSum(1), sum, 1e-6);
+  }
+
+  @Test
+  public void columnarEmpty() {
+    final ArrayOfDoublesUpdatableSketch sketch =
+        new ArrayOfDoublesUpdatableSketchBuilder().setNumberOfValues(3).build();
+    final ArrayOfDoublesCompactSketch columnar = sketch.compactColumnar(WritableMemory.allocate(1000));
+    Assert.assertTrue(columnar.isEmpty());
+    Assert.assertTrue(columnar.isColumnar());
+    Assert.assertEquals(columnar.getValueColumn(2).length, 0);
+    Assert.assertEquals(columnar.getValueColumnSum(2), 0.0);
+    Assert.assertTrue(Double.isNaN(columnar.getValueColumnMean(2)));
+    Assert.assertTrue(ArrayOfDoublesSketches.heapifySketch(Memory.wrap(columnar.toByteArray())).isEmpty());
+  }
+
+  @Test
+  public void columnarSerialVersion() {
+    final ArrayOfDoublesUpdatableSketch sketch =
+        new ArrayOfDoublesUpdatableSketchBuilder().setNumberOfValues(3).build();
+    sketch.update(1, new double[] {1, 2, 3});
+    final byte[] rows = sketch.compact().toByteArray();
+    final byte[] columns = sketch.compactColumnar().toByteArray();
+    Assert.assertEquals(rows[ArrayOfDoublesSketch.SERIAL_VERSION_BYTE], ArrayOfDoublesCompactSketch.serialVersionUID);
+    Assert.assertEquals(columns[ArrayOfDoublesSketch.SERIAL_VERSION_BYTE],
+        ArrayOfDoublesCompactSketch.columnarSerialVersionUID);
+    // decoders without the columnar layout accept only the row-major serial version
+    Assert.assertNotEquals(columns[ArrayOfDoublesSketch.SERIAL_VERSION_BYTE],
+        ArrayOfDoublesCompactSketch.serialVersionUID);
+    Assert.assertFalse(ArrayOfDoublesSketches.heapifySketch(Memory.wrap(rows)).isColumnar());
+    Assert.assertFalse(ArrayOfDoublesSketches.wrapSketch(Memory.wrap(rows)).isColumnar());
+    Assert.assertTrue(ArrayOfDoublesSketches.heapifySketch(Memory.wrap(columns)).isColumnar());
+    Assert.assertTrue(ArrayOfDoublesSketches.wrapSketch(Memory.wrap(columns)).isColumnar());
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void unknownSerialVersion() {
+    final ArrayOfDoublesUpdatableSketch sketch =
+        new ArrayOfDoublesUpdatableSketchBuilder().setNumberOfValues(3).build();
+    sketch.update(1, new double[] {1, 2, 3});
+    final byte[] bytes = sketch.compactColumnar().toByteArray();
+    bytes[ArrayOfDoublesSketch.SERIAL_VERSION_BYTE] = 3;
+    ArrayOfDoublesSketches.heapifySketch(Memory.wrap(bytes));
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void columnOutOfRange() {
+    final ArrayOfDoublesUpdatableSketch sketch =
+        new ArrayOfDoublesUpdatableSketchBuilder().setNumberOfValues(3).build();
+    sketch.update(1, new double[] {1, 2, 3});
+    sketch.compactColumnar().getValueColumn(3);
+  }
+
 }
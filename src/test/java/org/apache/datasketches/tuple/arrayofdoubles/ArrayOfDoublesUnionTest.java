@@ -19,7 +19,12 @@
 
 package org.apache.datasketches.tuple.arrayofdoubles;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.datasketches.common.SketchesArgumentException;
 import org.apache.datasketches.memory.Memory;
@@ -511,4 +516,76 @@ public class ArrayOfDoublesUnionTest {
     Assert.assertEquals(result.getNumValues(), expected.getNumValues());
   }
 
+  @Test
+  public void unionAllSameAsSequential() {
+    final List<ArrayOfDoublesSketch> sketches = new ArrayList<>();
+    final List<Memory> mems = new ArrayList<>();
+    int key = 0;
+    for (int s = 0; s < 200; s++) {
+      final ArrayOfDoublesUpdatableSketch sketch = new ArrayOfDoublesUpdatableSketchBuilder()
+          .setNominalEntries(s % 2 == 0 ? 512 : 2048).setNumberOfValues(2).build();
+      for (int i = 0; i < 1000; i++) {
+        sketch.update(key++ % 50000, new double[] {1.0, s});
+      }
+      if (s % 3 == 0) { sketches.add(sketch); } else { sketches.add(sketch.compact()); }
+      mems.add(Memory.wrap(sketch.compact().toByteArray()));
+    }
+    sketches.add(null);
+
+    final ArrayOfDoublesUnion sequential =
+        new ArrayOfDoublesSetOperationBuilder().setNominalEntries(1024).setNumberOfValues(2).buildUnion();
+    for (final ArrayOfDoublesSketch sketch : sketches) { sequential.union(sketch); }
+    final ArrayOfDoublesCompactSketch expected = sequential.getResult();
+    Assert.assertTrue(expected.isEstimationMode());
+
+    final ArrayOfDoublesUnion parallel =
+        new ArrayOfDoublesSetOperationBuilder().setNominalEntries(1024).setNumberOfValues(2).buildUnion();
+    parallel.unionAll(sketches, new ForkJoinPool(4));
+    assertSameSketch(parallel.getResult(), expected);
+
+    final ArrayOfDoublesUnion direct = new ArrayOfDoublesSetOperationBuilder().setNominalEntries(1024)
+        .setNumberOfValues(2).buildUnion(WritableMemory.allocate(ArrayOfDoublesUnion.getMaxBytes(1024, 2)));
+    direct.unionAllMemory(mems);
+    assertSameSketch(direct.getResult(), expected);
+  }
+
+  @Test
+  public void unionAllEdgeCases() {
+    final ArrayOfDoublesUnion union = new ArrayOfDoublesSetOperationBuilder().buildUnion();
+    union.unionAll(new ArrayList<ArrayOfDoublesSketch>());
+    union.unionAll(Arrays.asList(null, new ArrayOfDoublesUpdatableSketchBuilder().build()));
+    Assert.assertTrue(union.getResult().isEmpty());
+    final ArrayOfDoublesUpdatableSketch sketch = new ArrayOfDoublesUpdatableSketchBuilder().build();
+    sketch.update(1, new double[] {2.0});
+    union.union(sketch);
+    union.unionAll(Arrays.asList(sketch, sketch));
+    Assert.assertEquals(union.getResult().getValues()[0][0], 6.0);
+    try {
+      union.unionAll(null);
+      Assert.fail();
+    } catch (final SketchesArgumentException e) {
+      // expected
+    }
+    try {
+      union.unionAll(Arrays.asList(new ArrayOfDoublesUpdatableSketchBuilder().setNumberOfValues(2).build()));
+      Assert.fail();
+    } catch (final SketchesArgumentException e) {
+      // expected
+    }
+  }
+
+  private static void assertSameSketch(final ArrayOfDoublesSketch actual, final ArrayOfDoublesSketch expected) {
+    Assert.assertEquals(actual.getThetaLong(), expected.getThetaLong());
+    Assert.assertEquals(actual.getRetainedEntries(), expected.getRetainedEntries());
+    final Map<Long, List<Double>> expectedEntries = new HashMap<>();
+    final ArrayOfDoublesSketchIterator expectedIt = expected.iterator();
+    while (expectedIt.next()) {
+      expectedEntries.put(expectedIt.getKey(), Arrays.asList(expectedIt.getValues()[0], expectedIt.getValues()[1]));
+    }
+    final ArrayOfDoublesSketchIterator it = actual.iterator();
+    while (it.next()) {
+      Assert.assertEquals(Arrays.asList(it.getValues()[0], it.getValues()[1]), expectedEntries.get(it.getKey()));
+    }
+  }
+
 }
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.tuple.arrayofdoubles;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.common.SketchesStateException;
+import org.apache.datasketches.memory.WritableMemory;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ConcurrentArrayOfDoublesSketchTest {
+  private static final int NUM_THREADS = 4;
+
+  @Test
+  public void emptyShared() {
+    final ArrayOfDoublesUpdatableSketchBuilder bldr = new ArrayOfDoublesUpdatableSketchBuilder();
+    final ArrayOfDoublesUpdatableSketch shared = bldr.buildShared();
+    final ConcurrentArrayOfDoublesBuffer local = bldr.buildLocal(shared);
+    Assert.assertTrue(local.isEmpty());
+    Assert.assertFalse(local.isEstimationMode());
+    Assert.assertEquals(local.getEstimate(), 0.0);
+    Assert.assertFalse(local.iterator().next());
+    Assert.assertTrue(shared.compact().isEmpty());
+  }
+
+  @Test
+  public void exactModeSumsValues() {
+    final ArrayOfDoublesUpdatableSketchBuilder bldr =
+        new ArrayOfDoublesUpdatableSketchBuilder().setNumberOfValues(2).setLocalNominalEntries(32);
+    final ArrayOfDoublesUpdatableSketch shared = bldr.buildShared();
+    final ConcurrentArrayOfDoublesBuffer local = bldr.buildLocal(shared);
+    for (int i = 0; i < 1000; i++) {
+      local.update(i % 100, new double[] {1, i});
+    }
+    Assert.assertFalse(local.isEmpty()); // not empty before the buffer is propagated
+    local.flush();
+    Assert.assertEquals(shared.getRetainedEntries(), 100);
+    Assert.assertEquals(local.getEstimate(), 100.0);
+    final ArrayOfDoublesSketchIterator it = shared.iterator();
+    final ArrayOfDoublesUpdatableSketch expected = new ArrayOfDoublesUpdatableSketchBuilder()
+        .setNumberOfValues(2).build();
+    for (int i = 0; i < 1000; i++) {
+      expected.update(i % 100, new double[] {1, i});
+    }
+    Assert.assertEquals(toMap(shared), toMap(expected));
+    while (it.next()) {
+      Assert.assertEquals(it.getValues()[0], 10.0);
+    }
+  }
+
+  @Test
+  public void concurrentHeap() throws Exception {
+    checkConcurrent(null);
+  }
+
+  @Test
+  public void concurrentDirect() throws Exception {
+    final int maxBytes = ArrayOfDoublesQuickSelectSketch.getMaxBytes(1024, 3);
+    checkConcurrent(WritableMemory.allocate(maxBytes));
+  }
+
+  private static void checkConcurrent(final WritableMemory mem) throws Exception {
+    final int n = 20000;
+    final ArrayOfDoublesUpdatableSketchBuilder bldr =
+        new ArrayOfDoublesUpdatableSketchBuilder().setNominalEntries(1024).setNumberOfValues(3);
+    final ArrayOfDoublesUpdatableSketch shared = bldr.buildShared(mem);
+    Assert.assertEquals(shared.hasMemory(), mem != null);
+    final List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < NUM_THREADS; t++) {
+      final ConcurrentArrayOfDoublesBuffer local = bldr.buildLocal(shared);
+      final int offset = t;
+      threads.add(new Thread(() -> {
+        for (int i = offset; i < n; i += NUM_THREADS) {
+          local.update(i % (n / 2), new double[] {1, i, -i});
+        }
+        local.flush();
+      }));
+    }
+    for (final Thread thread : threads) { thread.start(); }
+    for (final Thread thread : threads) { thread.join(); }
+    shared.trim();
+
+    Assert.assertTrue(shared.isEstimationMode());
+    Assert.assertEquals(shared.getRetainedEntries(), 1024);
+    Assert.assertEquals(shared.getEstimate(), n / 2, n / 2 * 0.1);
+
+    // every retained key has the complete sums of its values
+    final Map<Long, List<Double>> exact = new HashMap<>();
+    final ArrayOfDoublesUpdatableSketch sequential = new ArrayOfDoublesUpdatableSketchBuilder()
+        .setNominalEntries(n).setNumberOfValues(3).build();
+    for (int i = 0; i < n; i++) {
+      sequential.update(i % (n / 2), new double[] {1, i, -i});
+    }
+    exact.putAll(toMap(sequential));
+    final Map<Long, List<Double>> result = toMap(shared);
+    for (final Map.Entry<Long, List<Double>> entry : result.entrySet()) {
+      Assert.assertEquals(entry.getValue(), exact.get(entry.getKey()));
+    }
+  }
+
+  @Test
+  public void resetDiscardsBuffer() {
+    final ArrayOfDoublesUpdatableSketchBuilder bldr = new ArrayOfDoublesUpdatableSketchBuilder();
+    final ArrayOfDoublesUpdatableSketch shared = bldr.buildShared();
+    final ConcurrentArrayOfDoublesBuffer local = bldr.buildLocal(shared);
+    local.update(1, new double[] {1});
+    local.reset();
+    local.flush();
+    Assert.assertEquals(shared.getRetainedEntries(), 0);
+    local.update(2, new double[] {1});
+    local.trim(); // trims the shared sketch, the buffer is not propagated
+    Assert.assertEquals(shared.getRetainedEntries(), 0);
+    local.flush();
+    Assert.assertEquals(shared.getRetainedEntries(), 1);
+    shared.reset();
+    Assert.assertTrue(local.isEmpty());
+  }
+
+  @Test(expectedExceptions = SketchesStateException.class)
+  public void localWithoutShared() {
+    final ArrayOfDoublesUpdatableSketchBuilder bldr = new ArrayOfDoublesUpdatableSketchBuilder();
+    bldr.buildLocal(bldr.build());
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void wrongNumberOfValues() {
+    final ArrayOfDoublesUpdatableSketchBuilder bldr = new ArrayOfDoublesUpdatableSketchBuilder();
+    bldr.buildLocal(bldr.buildShared()).update(1, new double[] {1, 2});
+  }
+
+  @Test(expectedExceptions = SketchesArgumentException.class)
+  public void incompatibleSeed() {
+    final ArrayOfDoublesUpdatableSketch shared = new ArrayOfDoublesUpdatableSketchBuilder().buildShared();
+    new ArrayOfDoublesUpdatableSketchBuilder().setSeed(123).buildLocal(shared);
+  }
+
+  private static Map<Long, List<Double>> toMap(final ArrayOfDoublesSketch sketch) {
+    final Map<Long, List<Double>> map = new HashMap<>();
+    final ArrayOfDoublesSketchIterator it = sketch.iterator();
+    while (it.next()) {
+      final List<Double> values = new ArrayList<>();
+      for (final double v : it.getValues()) { values.add(v); }
+      map.put(it.getKey(), values);
+    }
+    return map;
+  }
+
+}
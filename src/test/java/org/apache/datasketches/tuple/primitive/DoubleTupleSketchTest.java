@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.tuple.primitive;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.tuple.Intersection;
+import org.apache.datasketches.tuple.Sketch;
+import org.apache.datasketches.tuple.TupleSketchIterator;
+import org.apache.datasketches.tuple.Union;
+import org.apache.datasketches.tuple.adouble.DoubleSketch;
+import org.apache.datasketches.tuple.adouble.DoubleSummary;
+import org.apache.datasketches.tuple.adouble.DoubleSummary.Mode;
+import org.apache.datasketches.tuple.adouble.DoubleSummarySetOperations;
+import org.testng.annotations.Test;
+
+public class DoubleTupleSketchTest {
+
+  @Test
+  public void checkMatchesDoubleSketch() {
+    for (final Mode mode : Mode.values()) {
+      final DoubleSketch expected = new DoubleSketch(10, mode);
+      final DoubleTupleSketch sketch = new DoubleTupleSketch(10, mode);
+      for (int i = 0; i < 20_000; i++) {
+        expected.update(i % 3000, ((i % 7) - 2) * 0.5);
+        sketch.update(i % 3000, ((i % 7) - 2) * 0.5);
+        expected.update("key" + (i % 50), 0.25);
+        sketch.update("key" + (i % 50), 0.25);
+      }
+      assertSame(sketch, expected);
+      assertSame(sketch.compact(), expected);
+      assertEquals(sketch.getMode(), mode);
+    }
+  }
+
+  @Test
+  public void checkSetOperationsMatchGeneric() {
+    for (final Mode mode : new Mode[] {Mode.Sum, Mode.Max}) {
+      final DoubleSketch expectedA = new DoubleSketch(9, mode);
+      final DoubleSketch expectedB = new DoubleSketch(10, mode);
+      final DoubleTupleSketch sketchA = new DoubleTupleSketch(9, mode);
+      final DoubleTupleSketch sketchB = new DoubleTupleSketch(10, mode);
+      for (int i = 0; i < 5000; i++) {
+        expectedA.update(i, i * 0.1);
+        sketchA.update(i, i * 0.1);
+      }
+      for (int i = 2500; i < 8000; i++) {
+        expectedB.update(i, -i * 0.01);
+        sketchB.update(i, -i * 0.01);
+      }
+      final DoubleSummarySetOperations setOps = new DoubleSummarySetOperations(mode, mode);
+      assertSame(new DoubleTupleUnion(512, mode).union(sketchA, sketchB),
+          new Union<>(512, setOps).union(expectedA, expectedB));
+      assertSame(new DoubleTupleUnion(mode).union(sketchA, sketchB),
+          new Union<>(setOps).union(expectedA, expectedB));
+      final DoubleTupleSketch result = new DoubleTupleIntersection(mode).intersect(sketchA, sketchB);
+      assertSame(result, new Intersection<>(setOps).intersect(expectedA, expectedB));
+      assertTrue(result.getRetainedEntries() > 0);
+    }
+  }
+
+  @Test
+  public void checkSerialization() {
+    final DoubleTupleSketch sketch = new DoubleTupleSketch(10, Mode.Min);
+    for (int i = 0; i < 10_000; i++) { sketch.update(i, i * 0.5); }
+    final DoubleTupleSketch copy = DoubleTupleSketch.heapify(Memory.wrap(sketch.toByteArray()));
+    assertTrue(copy.isCompact());
+    assertFalse(copy.isEmpty());
+    assertEquals(copy.getMode(), Mode.Min);
+    assertEquals(copy.getThetaLong(), sketch.getThetaLong());
+    assertEquals(toMap(copy), toMap(sketch));
+    assertEquals(copy.toByteArray(), sketch.compact().toByteArray());
+  }
+
+  private static void assertSame(final DoubleTupleSketch sketch, final Sketch<DoubleSummary> expected) {
+    assertEquals(sketch.isEmpty(), expected.isEmpty());
+    assertEquals(sketch.getThetaLong(), expected.getThetaLong());
+    assertEquals(sketch.getRetainedEntries(), expected.getRetainedEntries());
+    assertEquals(sketch.getEstimate(), expected.getEstimate());
+    final Map<Long, Double> expectedValues = new HashMap<>();
+    final TupleSketchIterator<DoubleSummary> it = expected.iterator();
+    while (it.next()) { expectedValues.put(it.getHash(), it.getSummary().getValue()); }
+    assertEquals(toMap(sketch), expectedValues);
+  }
+
+  private static Map<Long, Double> toMap(final DoubleTupleSketch sketch) {
+    final Map<Long, Double> values = new HashMap<>();
+    final DoubleTupleSketchIterator it = sketch.iterator();
+    while (it.next()) { values.put(it.getHash(), it.getValue()); }
+    return values;
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: "+this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(final String s) {
+    //System.out.println(s); //disable here
+  }
+
+}
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.datasketches.tuple.primitive;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.datasketches.common.SketchesArgumentException;
+import org.apache.datasketches.common.SketchesStateException;
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.tuple.Intersection;
+import org.apache.datasketches.tuple.Sketch;
+import org.apache.datasketches.tuple.TupleSketchIterator;
+import org.apache.datasketches.tuple.Union;
+import org.apache.datasketches.tuple.aninteger.IntegerSketch;
+import org.apache.datasketches.tuple.aninteger.IntegerSummary;
+import org.apache.datasketches.tuple.aninteger.IntegerSummary.Mode;
+import org.apache.datasketches.tuple.aninteger.IntegerSummarySetOperations;
+import org.testng.annotations.Test;
+
+public class LongTupleSketchTest {
+
+  @Test
+  public void checkMatchesIntegerSketch() {
+    for (final Mode mode : Mode.values()) {
+      final IntegerSketch expected = new IntegerSketch(10, mode);
+      final LongTupleSketch sketch = new LongTupleSketch(10, mode);
+      for (int i = 0; i < 20_000; i++) {
+        expected.update(i % 3000, (i % 7) - 2);
+        sketch.update(i % 3000, (i % 7) - 2);
+      }
+      assertSame(sketch, expected);
+      sketch.trim();
+      expected.trim();
+      assertSame(sketch, expected);
+      assertSame(sketch.compact(), expected);
+      assertEquals(sketch.getMode(), mode);
+      assertFalse(sketch.isCompact());
+      assertTrue(sketch.compact().isCompact());
+    }
+  }
+
+  @Test
+  public void checkKeyTypesMatchIntegerSketch() {
+    final IntegerSketch expected = new IntegerSketch(12, Mode.Sum);
+    final LongTupleSketch sketch = new LongTupleSketch(12, Mode.Sum);
+    for (int i = 0; i < 100; i++) {
+      expected.update((double) i, 1);
+      sketch.update((double) i, 1);
+      expected.update("key" + i, 2);
+      sketch.update("key" + i, 2);
+      expected.update(new byte[] {(byte) i, 1}, 3);
+      sketch.update(new byte[] {(byte) i, 1}, 3);
+      expected.update(new int[] {i, 2}, 4);
+      sketch.update(new int[] {i, 2}, 4);
+      expected.update(new long[] {i, 3}, 5);
+      sketch.update(new long[] {i, 3}, 5);
+    }
+    sketch.update("", 1);
+    sketch.update((String) null, 1);
+    sketch.update(new byte[0], 1);
+    sketch.update((int[]) null, 1);
+    sketch.update(new long[0], 1);
+    assertEquals(sketch.getRetainedEntries(), 500);
+    assertSame(sketch, expected);
+  }
+
+  @Test
+  public void checkLongValues() {
+    final LongTupleSketch sketch = new LongTupleSketch(12, Mode.Sum);
+    sketch.update(1L, Long.MAX_VALUE / 2);
+    sketch.update(1L, Long.MAX_VALUE / 2);
+    final LongTupleSketchIterator it = sketch.iterator();
+    assertTrue(it.next());
+    assertEquals(it.getValue(), (Long.MAX_VALUE / 2) * 2);
+    assertFalse(it.next());
+  }
+
+  @Test
+  public void checkSetOperationsMatchGeneric() {
+    for (final Mode mode : new Mode[] {Mode.Sum, Mode.Min, Mode.AlwaysOne}) {
+      final IntegerSketch expectedA = new IntegerSketch(9, mode);
+      final IntegerSketch expectedB = new IntegerSketch(10, mode);
+      final LongTupleSketch sketchA = new LongTupleSketch(9, mode);
+      final LongTupleSketch sketchB = new LongTupleSketch(10, mode);
+      for (int i = 0; i < 5000; i++) {
+        expectedA.update(i, i % 5);
+        sketchA.update(i, i % 5);
+      }
+      for (int i = 2500; i < 8000; i++) {
+        expectedB.update(i, i % 3);
+        sketchB.update(i, i % 3);
+      }
+      final IntegerSummarySetOperations setOps = new IntegerSummarySetOperations(mode, mode);
+
+      final Union<IntegerSummary> union = new Union<>(512, setOps);
+      final LongTupleUnion longUnion = new LongTupleUnion(512, mode);
+      assertSame(longUnion.union(sketchA, sketchB), union.union(expectedA, expectedB));
+      longUnion.union(sketchA.compact());
+      longUnion.union(null);
+      longUnion.union(new LongTupleSketch(9, mode));
+      longUnion.union(sketchB);
+      assertSame(longUnion.getResult(true), union.union(expectedA, expectedB));
+      assertTrue(longUnion.getResult().isEmpty());
+
+      final Intersection<IntegerSummary> intersection = new Intersection<>(setOps);
+      final LongTupleIntersection longIntersection = new LongTupleIntersection(mode);
+      final LongTupleSketch result = longIntersection.intersect(sketchA, sketchB);
+      assertSame(result, intersection.intersect(expectedA, expectedB));
+      assertTrue(result.getRetainedEntries() > 0);
+      assertEquals(result.getNominalEntries(), 512);
+      assertFalse(longIntersection.hasResult());
+      longIntersection.intersect(sketchB.compact());
+      longIntersection.intersect(sketchA);
+      assertTrue(longIntersection.hasResult());
+      assertSame(longIntersection.getResult(), intersection.intersect(expectedB, expectedA));
+      longIntersection.intersect(new LongTupleSketch(9, mode));
+      assertTrue(longIntersection.getResult().isEmpty());
+    }
+  }
+
+  @Test
+  public void checkSerialization() {
+    final LongTupleSketch sketch = new LongTupleSketch(10, Mode.Max);
+    final LongTupleSketch empty = LongTupleSketch.heapify(Memory.wrap(sketch.toByteArray()));
+    assertTrue(empty.isEmpty());
+    assertTrue(empty.isCompact());
+    assertEquals(empty.getMode(), Mode.Max);
+    assertEquals(empty.getLgK(), 10);
+    assertEquals(empty.toByteArray().length, 8);
+
+    for (int i = 0; i < 10_000; i++) { sketch.update(i, i); }
+    final LongTupleSketch copy = LongTupleSketch.heapify(Memory.wrap(sketch.toByteArray()));
+    assertSameEntries(copy, sketch);
+    assertEquals(copy.toByteArray(), sketch.toByteArray());
+    assertEquals(copy.compact(), copy);
+
+    final LongTupleSketch sampled = new LongTupleSketch(10, 3, 0.01f, Mode.Sum);
+    sampled.update(1, 1);
+    final LongTupleSketch sampledCopy = LongTupleSketch.heapify(Memory.wrap(sampled.toByteArray()));
+    assertFalse(sampledCopy.isEmpty());
+    assertEquals(sampledCopy.getThetaLong(), sampled.getThetaLong());
+    assertEquals(sampledCopy.getRetainedEntries(), sampled.getRetainedEntries());
+
+    final byte[] bytes = sketch.toByteArray();
+    try {
+      DoubleTupleSketch.heapify(Memory.wrap(bytes));
+      fail();
+    } catch (final SketchesArgumentException e) { }
+  }
+
+  @Test
+  public void checkCompactAndReset() {
+    final LongTupleSketch sketch = new LongTupleSketch(10, Mode.Sum);
+    sketch.update(1, 1);
+    final LongTupleSketch compact = sketch.compact();
+    try {
+      compact.update(2, 1);
+      fail();
+    } catch (final SketchesStateException e) { }
+    try {
+      compact.reset();
+      fail();
+    } catch (final SketchesStateException e) { }
+    sketch.reset();
+    assertTrue(sketch.isEmpty());
+    assertEquals(sketch.getRetainedEntries(), 0);
+    assertEquals(compact.getRetainedEntries(), 1);
+    try {
+      new LongTupleSketch(10, 3, 0f, Mode.Sum);
+      fail();
+    } catch (final SketchesArgumentException e) { }
+    try {
+      new LongTupleIntersection(Mode.Sum).getResult();
+      fail();
+    } catch (final SketchesStateException e) { }
+    try {
+      new LongTupleIntersection(Mode.Sum).intersect(null);
+      fail();
+    } catch (final SketchesArgumentException e) { }
+    println(sketch.toString());
+    println(compact.toString());
+  }
+
+  private static void assertSame(final LongTupleSketch sketch, final Sketch<IntegerSummary> expected) {
+    assertEquals(sketch.isEmpty(), expected.isEmpty());
+    assertEquals(sketch.getThetaLong(), expected.getThetaLong());
+    assertEquals(sketch.getRetainedEntries(), expected.getRetainedEntries());
+    assertEquals(sketch.getEstimate(), expected.getEstimate());
+    assertEquals(sketch.getLowerBound(2), expected.getLowerBound(2));
+    assertEquals(sketch.getUpperBound(2), expected.getUpperBound(2));
+    final Map<Long, Long> expectedValues = new HashMap<>();
+    final TupleSketchIterator<IntegerSummary> it = expected.iterator();
+    while (it.next()) { expectedValues.put(it.getHash(), (long) it.getSummary().getValue()); }
+    assertEquals(toMap(sketch), expectedValues);
+  }
+
+  private static void assertSameEntries(final LongTupleSketch sketch, final LongTupleSketch expected) {
+    assertEquals(sketch.isEmpty(), expected.isEmpty());
+    assertEquals(sketch.getThetaLong(), expected.getThetaLong());
+    assertEquals(toMap(sketch), toMap(expected));
+  }
+
+  private static Map<Long, Long> toMap(final LongTupleSketch sketch) {
+    final Map<Long, Long> values = new HashMap<>();
+    final LongTupleSketchIterator it = sketch.iterator();
+    while (it.next()) { values.put(it.getHash(), it.getValue()); }
+    return values;
+  }
+
+  @Test
+  public void printlnTest() {
+    println("PRINTING: "+this.getClass().getName());
+  }
+
+  /**
+   * @param s value to print
+   */
+  static void println(final String s) {
+    //System.out.println(s); //disable here
+  }
+
+}